@@ -25,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
  * - vehicleAssignments: Changes occasionally, 5 min TTL, max 500 entries
  * - tripTemplates: Semi-static, 10 min TTL, max 200 entries
  * - tickets: Ticket lookups, 5 min TTL, max 1000 entries (evicted on confirm)
+ * - myTickets: My-tickets pages, keys versioned per customer (see MyTicketsCacheKeys)
  */
 @Configuration
 @EnableCaching
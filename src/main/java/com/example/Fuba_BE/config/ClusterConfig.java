@@ -0,0 +1,40 @@
+package com.example.Fuba_BE.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+
+import com.example.Fuba_BE.service.cluster.BrokerClusterBus;
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.InProcessClusterBus;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Chooses how nodes reach each other: in-process for a single instance, through the relayed
+ * STOMP broker when several instances are configured in {@code cluster.nodes}.
+ */
+@Configuration
+public class ClusterConfig {
+
+    @Bean
+    public ClusterBus clusterBus(ClusterProperties cluster,
+                                 WebSocketBrokerProperties websocket,
+                                 @Qualifier("stompBrokerRelayMessageHandler") ObjectProvider<AbstractBrokerMessageHandler> relay,
+                                 @Qualifier("brokerMessagingTemplate") ObjectProvider<SimpMessagingTemplate> brokerMessagingTemplate,
+                                 JsonMapper jsonMapper) {
+        if (cluster.getNodes().size() <= 1) {
+            return new InProcessClusterBus(cluster.getNodeId(), cluster.getRequestTimeoutMs());
+        }
+        if (!websocket.getRelay().isEnabled()
+                || !(relay.getObject() instanceof StompBrokerRelayMessageHandler relayHandler)) {
+            throw new IllegalStateException("cluster.nodes requires websocket.relay.enabled=true so nodes share a broker");
+        }
+        return new BrokerClusterBus(cluster.getNodeId(), cluster.getRequestTimeoutMs(), relayHandler,
+                brokerMessagingTemplate.getObject(), jsonMapper);
+    }
+}
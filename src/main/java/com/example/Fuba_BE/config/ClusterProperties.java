@@ -0,0 +1,44 @@
+package com.example.Fuba_BE.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Nodes of a multi-instance deployment.
+ * Properties are loaded from application.properties with prefix "cluster"
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cluster")
+@Data
+public class ClusterProperties {
+
+    /**
+     * Name of this instance, must be one of {@link #nodes} when nodes are configured
+     */
+    private String nodeId = "local";
+
+    /**
+     * Every instance behind the load balancer (same list, same order on each node).
+     * Empty means a single node that owns every trip.
+     */
+    private List<String> nodes = new ArrayList<>();
+
+    /**
+     * How long a node waits for the owner of a trip to answer a forwarded seat command
+     */
+    private long requestTimeoutMs = 3000;
+
+    /**
+     * How often each node announces itself to the others
+     */
+    private long heartbeatIntervalMs = 1000;
+
+    /**
+     * A node not heard from for this long loses its trips to the remaining nodes until it is heard again
+     */
+    private long heartbeatTimeoutMs = 5000;
+}
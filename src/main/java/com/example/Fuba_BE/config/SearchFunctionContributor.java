@@ -0,0 +1,25 @@
+package com.example.Fuba_BE.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Makes the {@code search_normalize(text)} SQL function (V20 migration) callable from JPQL.
+ *
+ * Keyword searches compare {@code search_normalize(column) LIKE search_normalize('%kw%')}: the
+ * same lower-cased, accent-free expression the trigram GIN indexes are built on, so Postgres
+ * can answer them from the index and "nguyen" also finds "Nguyễn".
+ * Registered through META-INF/services.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    public static final String SEARCH_NORMALIZE = "search_normalize";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerNamed(SEARCH_NORMALIZE,
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.STRING));
+    }
+}
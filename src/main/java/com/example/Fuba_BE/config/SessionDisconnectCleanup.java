@@ -0,0 +1,139 @@
+package com.example.Fuba_BE.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.service.ISeatLockService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Releases the seats of disconnected WebSocket sessions off the broker's event thread.
+ *
+ * Disconnects are queued on a bounded queue and drained by a single virtual thread in batches,
+ * so a node drain that drops thousands of sessions turns into a few bulk updates and one
+ * broadcast per trip per batch instead of stalling the inbound channel.
+ *
+ * Metrics:
+ * - seat.disconnect.queue.depth: sessions waiting for cleanup
+ * - seat.disconnect.cleanup.latency: time from disconnect to released seats
+ * - seat.disconnect.released.seats: seats released by disconnect cleanup
+ */
+@Component
+public class SessionDisconnectCleanup {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionDisconnectCleanup.class);
+
+    private final ISeatLockService seatLockService;
+    private final BlockingQueue<PendingDisconnect> queue;
+    private final int batchSize;
+    private final Timer latency;
+    private final Counter releasedSeats;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public SessionDisconnectCleanup(ISeatLockService seatLockService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${seat.disconnect.queue-capacity:20000}") int queueCapacity,
+                                    @Value("${seat.disconnect.batch-size:500}") int batchSize) {
+        this.seatLockService = seatLockService;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.latency = Timer.builder("seat.disconnect.cleanup.latency")
+                .description("Time from WebSocket disconnect until the session's seats are released")
+                .register(meterRegistry);
+        this.releasedSeats = Counter.builder("seat.disconnect.released.seats")
+                .description("Seats released because their session disconnected")
+                .register(meterRegistry);
+        Gauge.builder("seat.disconnect.queue.depth", queue, BlockingQueue::size)
+                .description("Disconnected sessions waiting for seat cleanup")
+                .register(meterRegistry);
+    }
+
+    private static final class PendingDisconnect {
+        final String sessionId;
+        final long queuedAtNanos;
+
+        PendingDisconnect(String sessionId, long queuedAtNanos) {
+            this.sessionId = sessionId;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        worker = Thread.ofVirtual().name("seat-disconnect-cleanup").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * Queue a disconnected session for seat cleanup. When the queue is full the cleanup runs on
+     * the caller's thread so no hold outlives its session longer than necessary.
+     */
+    public void submit(String sessionId) {
+        PendingDisconnect pending = new PendingDisconnect(sessionId, System.nanoTime());
+        if (!queue.offer(pending)) {
+            logger.warn("Disconnect cleanup queue full, releasing seats of session {} inline", sessionId);
+            process(List.of(pending));
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<PendingDisconnect> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingDisconnect first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Error in disconnect cleanup: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<PendingDisconnect> batch) {
+        List<String> sessionIds = batch.stream().map(pending -> pending.sessionId).toList();
+        int released = seatLockService.releaseAllBySessions(sessionIds).size();
+        releasedSeats.increment(released);
+
+        long now = System.nanoTime();
+        for (PendingDisconnect pending : batch) {
+            latency.record(now - pending.queuedAtNanos, TimeUnit.NANOSECONDS);
+        }
+        if (released > 0) {
+            logger.info("Released {} seat locks for {} disconnected sessions", released, batch.size());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.Fuba_BE.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tuning of the STOMP broker channels and WebSocket transport.
+ * Properties are loaded from application.properties with prefix "websocket"
+ */
+@Configuration
+@ConfigurationProperties(prefix = "websocket")
+@Data
+public class WebSocketBrokerProperties {
+
+    /**
+     * Executor model of the inbound/outbound channels: "pool" (bounded thread pools)
+     * or "virtual" (one virtual thread per message)
+     */
+    private String executor = "pool";
+
+    /**
+     * Pool used for messages coming from clients (@MessageMapping handlers)
+     */
+    private Pool inbound = new Pool(8, 32, 10000);
+
+    /**
+     * Pool used for messages sent to clients (broker fan-out)
+     */
+    private Pool outbound = new Pool(8, 32, 10000);
+
+    /**
+     * Keep the order of messages sent to / received from each session
+     */
+    private boolean preserveOrder = true;
+
+    /**
+     * Max time a single send to a client may take before the session is closed
+     */
+    private int sendTimeLimitMs = 15000;
+
+    /**
+     * Max bytes buffered for a slow client before the session is closed
+     */
+    private int sendBufferSizeLimit = 512 * 1024;
+
+    /**
+     * Max size of an incoming STOMP message
+     */
+    private int messageSizeLimit = 64 * 1024;
+
+    /**
+     * Heartbeat the server sends / expects, 0 disables
+     */
+    private long heartbeatServerMs = 10000;
+    private long heartbeatClientMs = 10000;
+
+    /**
+     * External STOMP broker (RabbitMQ, ActiveMQ, ...) that /topic and /queue are relayed to
+     * so several instances can share subscriptions; disabled means the in-memory broker
+     */
+    private Relay relay = new Relay();
+
+    @Data
+    public static class Relay {
+        private boolean enabled = false;
+        private String host = "localhost";
+        private int port = 61613;
+
+        /**
+         * Credentials of the per-client broker connections
+         */
+        private String clientLogin = "guest";
+        private String clientPasscode = "guest";
+
+        /**
+         * Credentials of the shared connection the application itself publishes on
+         */
+        private String systemLogin = "guest";
+        private String systemPasscode = "guest";
+
+        private String virtualHost;
+    }
+
+    @Data
+    public static class Pool {
+        private int coreSize;
+        private int maxSize;
+
+        /**
+         * Messages waiting for a thread; once full the submitting thread runs the task itself,
+         * which pushes back on the WebSocket I/O threads
+         */
+        private int queueCapacity;
+
+        public Pool() {
+        }
+
+        public Pool(int coreSize, int maxSize, int queueCapacity) {
+            this.coreSize = coreSize;
+            this.maxSize = maxSize;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -1,18 +1,65 @@
 package com.example.Fuba_BE.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import com.example.Fuba_BE.service.cluster.BrokerClusterBus;
 
 /**
  * WebSocket configuration for real-time seat locking functionality.
  * Uses STOMP protocol over SockJS for browser compatibility.
+ *
+ * Channel executors, send limits and heartbeats come from {@link WebSocketBrokerProperties}.
+ * A client that cannot keep up (send buffer or send time limit exceeded) is disconnected;
+ * its seat locks are then released by the normal disconnect cleanup.
+ *
+ * With {@code websocket.relay.enabled} the /topic and /queue destinations are relayed to an
+ * external STOMP broker instead of the in-memory one, so instances behind a load balancer share
+ * seat and GPS topics.
  */
 @Configuration
 @EnableWebSocketMessageBroker
-public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    private final WebSocketBrokerProperties properties;
+
+    // Kept out of the context so it doesn't replace the scheduler used by @Scheduled
+    private final ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+    private final List<ThreadPoolTaskExecutor> channelPools = new ArrayList<>();
+
+    public WebSocketConfig(WebSocketBrokerProperties properties) {
+        this.properties = properties;
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("stomp-heartbeat-");
+        heartbeatScheduler.setDaemon(true);
+        heartbeatScheduler.initialize();
+    }
 
     /**
      * Configure the message broker.
@@ -22,14 +69,34 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple in-memory broker for topics and queues
-        config.enableSimpleBroker("/topic", "/queue");
+        WebSocketBrokerProperties.Relay relay = properties.getRelay();
+        if (relay.isEnabled()) {
+            // External broker: every instance relays to it, so topics reach clients of all nodes
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relay.getHost())
+                    .setRelayPort(relay.getPort())
+                    .setClientLogin(relay.getClientLogin())
+                    .setClientPasscode(relay.getClientPasscode())
+                    .setSystemLogin(relay.getSystemLogin())
+                    .setSystemPasscode(relay.getSystemPasscode())
+                    .setVirtualHost(relay.getVirtualHost())
+                    .setSystemHeartbeatSendInterval(properties.getHeartbeatServerMs())
+                    .setSystemHeartbeatReceiveInterval(properties.getHeartbeatClientMs())
+                    .setTaskScheduler(heartbeatScheduler);
+        } else {
+            // Enable simple in-memory broker for topics and queues
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[] {properties.getHeartbeatServerMs(), properties.getHeartbeatClientMs()})
+                    .setTaskScheduler(heartbeatScheduler);
+        }
         
         // Prefix for messages from clients to server (handled by @MessageMapping)
         config.setApplicationDestinationPrefixes("/app");
         
         // Prefix for user-specific destinations
         config.setUserDestinationPrefix("/user");
+
+        config.setPreservePublishOrder(properties.isPreserveOrder());
     }
 
     /**
@@ -46,5 +113,72 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Alternative endpoint without SockJS (for native WebSocket clients)
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
+
+        registry.setPreserveReceiveOrder(properties.isPreserveOrder());
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.executor(channelExecutor("stomp-inbound-", properties.getInbound()));
+        // Node-to-node destinations on the shared broker are off limits to clients
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                if (destination != null && destination.startsWith(BrokerClusterBus.DESTINATION_PREFIX)) {
+                    throw new MessageDeliveryException(message, "Destination not allowed: " + destination);
+                }
+                return message;
+            }
+        });
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(channelExecutor("stomp-outbound-", properties.getOutbound()));
+    }
+
+    /**
+     * Per-session send limits. Spring closes a session whose buffered outbound messages exceed
+     * the buffer limit or whose send blocks longer than the time limit (slow-consumer eviction).
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(properties.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(properties.getSendBufferSizeLimit())
+                .setMessageSizeLimit(properties.getMessageSizeLimit())
+                .addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus)
+                            throws Exception {
+                        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                            logger.warn("Evicted slow WebSocket consumer {}: {}", session.getId(), closeStatus.getReason());
+                        }
+                        super.afterConnectionClosed(session, closeStatus);
+                    }
+                });
+    }
+
+    @Override
+    public void destroy() {
+        heartbeatScheduler.shutdown();
+        channelPools.forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    private Executor channelExecutor(String threadNamePrefix, WebSocketBrokerProperties.Pool pool) {
+        if ("virtual".equalsIgnoreCase(properties.getExecutor())) {
+            return new VirtualThreadTaskExecutor(threadNamePrefix);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(pool.getCoreSize());
+        executor.setMaxPoolSize(pool.getMaxSize());
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setAllowCoreThreadTimeOut(true);
+        // A full queue makes the WebSocket I/O thread run the message itself: backpressure, not loss
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        channelPools.add(executor);
+        return executor;
     }
 }
@@ -13,8 +13,6 @@ import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
-import com.example.Fuba_BE.service.ISeatLockService;
-
 /**
  * Event listener for WebSocket session lifecycle events.
  * Handles connection, disconnection, subscription, and unsubscription events.
@@ -29,13 +27,13 @@ public class WebSocketEventListener {
     
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
     
-    private final ISeatLockService seatLockService;
+    private final SessionDisconnectCleanup sessionDisconnectCleanup;
     
     // Track active sessions with their user info
     private final Map<String, SessionInfo> activeSessions = new ConcurrentHashMap<>();
     
-    public WebSocketEventListener(ISeatLockService seatLockService) {
-        this.seatLockService = seatLockService;
+    public WebSocketEventListener(SessionDisconnectCleanup sessionDisconnectCleanup) {
+        this.sessionDisconnectCleanup = sessionDisconnectCleanup;
     }
     
     /**
@@ -59,6 +57,7 @@ public class WebSocketEventListener {
      * Called when a client disconnects (close tab, refresh, network loss, etc.).
      * 
      * This is the KEY method that releases all seat locks held by the disconnecting user.
+     * The release itself is queued to {@link SessionDisconnectCleanup}.
      */
     @EventListener
     public void handleSessionDisconnect(SessionDisconnectEvent event) {
@@ -67,23 +66,8 @@ public class WebSocketEventListener {
         
         logger.info("WebSocket session disconnected: {}", sessionId);
         
-        // Release all seats locked by this session
-        try {
-            var releasedSeats = seatLockService.releaseAllBySession(sessionId);
-            
-            if (!releasedSeats.isEmpty()) {
-                logger.info("Released {} seat locks for disconnected session {}", 
-                        releasedSeats.size(), sessionId);
-                
-                // Log each released seat for debugging
-                releasedSeats.forEach(seat -> 
-                    logger.debug("Released seat {} on trip {}", seat.getSeatId(), seat.getTripId())
-                );
-            }
-        } catch (Exception e) {
-            logger.error("Error releasing seats for disconnected session {}: {}", 
-                    sessionId, e.getMessage(), e);
-        }
+        // Release all seats locked by this session, off the broker's event thread
+        sessionDisconnectCleanup.submit(sessionId);
         
         // Remove session from tracking
         activeSessions.remove(sessionId);
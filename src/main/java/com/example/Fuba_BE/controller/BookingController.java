@@ -1,8 +1,10 @@
 package com.example.Fuba_BE.controller;
 
 import com.example.Fuba_BE.dto.Booking.*;
+import com.example.Fuba_BE.exception.BadRequestException;
 import com.example.Fuba_BE.payload.ApiResponse;
 import com.example.Fuba_BE.security.UserPrincipal;
+import com.example.Fuba_BE.service.Booking.BookingIdempotencyStore;
 import com.example.Fuba_BE.service.Booking.IBookingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,6 +30,7 @@ import java.util.Map;
 public class BookingController {
 
     private final IBookingService bookingService;
+    private final BookingIdempotencyStore bookingIdempotencyStore;
 
     /* ================= LIST ALL WITH FILTERS ================= */
 
@@ -40,9 +43,12 @@ public class BookingController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String search,
             @RequestParam(required = false, defaultValue = "createdAt") String sortBy,
-            @RequestParam(required = false, defaultValue = "DESC") String sortDirection) {
+            @RequestParam(required = false, defaultValue = "DESC") String sortDirection,
+            @Parameter(description = "nextCursor of the previous page; keyset paging instead of 'page'")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "false") Boolean includeTotal) {
 
-        log.info("Get all bookings: page={}, size={}, status={}, search={}", page, size, status, search);
+        log.info("Get all bookings: page={}, size={}, status={}, search={}, cursor={}", page, size, status, search, cursor);
 
         BookingFilterRequest filterRequest = BookingFilterRequest.builder()
                 .page(page)
@@ -51,6 +57,8 @@ public class BookingController {
                 .search(search)
                 .sortBy(sortBy)
                 .sortDirection(sortDirection)
+                .cursor(cursor)
+                .includeTotal(includeTotal)
                 .build();
 
         BookingPageResponse response = bookingService.getAllBookings(filterRequest);
@@ -85,10 +93,18 @@ public class BookingController {
     /* ================= CONFIRM ================= */
 
     @PostMapping("/confirm")
+    @Operation(summary = "Confirm seats into a Held booking",
+            description = "Send an Idempotency-Key header to make retries safe: repeated submissions with the same key " +
+                    "return the original booking instead of creating a new one.")
     public ResponseEntity<ApiResponse<BookingResponse>> confirmBooking(
-            @Valid @RequestBody BookingConfirmRequest request) {
+            @AuthenticationPrincipal UserPrincipal currentUser,
+            @Valid @RequestBody BookingConfirmRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
-        BookingResponse booking = bookingService.confirmBooking(request);
+        BookingResponse booking = idempotencyKey == null || idempotencyKey.isBlank()
+                ? bookingService.confirmBooking(request)
+                : bookingIdempotencyStore.execute(idempotencyScope(currentUser, request) + ":" + idempotencyKey, request,
+                        () -> bookingService.confirmBooking(request));
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.<BookingResponse>builder()
@@ -98,6 +114,21 @@ public class BookingController {
                         .build());
     }
 
+    /**
+     * Whose keys an Idempotency-Key belongs to, so two callers can't collide on (or replay) each
+     * other's keys: the authenticated user, never the userId of the body, or the guest session.
+     * A guest without a session has no scope of its own and can't use a key.
+     */
+    private static String idempotencyScope(UserPrincipal currentUser, BookingConfirmRequest request) {
+        if (currentUser != null) {
+            return "user:" + currentUser.getUserId();
+        }
+        if (request.getGuestSessionId() == null || request.getGuestSessionId().isBlank()) {
+            throw new BadRequestException("Idempotency-Key yêu cầu guestSessionId khi đặt vé không đăng nhập");
+        }
+        return "guest:" + request.getGuestSessionId();
+    }
+
     /* ================= COUNTER ================= */
 
     @PostMapping("/counter")
@@ -166,15 +197,17 @@ public class BookingController {
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<ApiResponse<List<BookingResponse>>> getBookingsByCustomerId(
+    public ResponseEntity<ApiResponse<BookingPageResponse>> getBookingsByCustomerId(
             @Parameter(description = "Customer ID")
             @PathVariable Integer customerId,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "20") Integer size) {
 
-        List<BookingResponse> bookings =
-                bookingService.getBookingsByCustomerId(customerId, status);
+        BookingPageResponse bookings =
+                bookingService.getBookingsByCustomerId(customerId, status, page, size);
 
-        return ResponseEntity.ok(ApiResponse.<List<BookingResponse>>builder()
+        return ResponseEntity.ok(ApiResponse.<BookingPageResponse>builder()
                 .success(true)
                 .message("Lấy danh sách booking thành công")
                 .data(bookings)
@@ -182,35 +215,41 @@ public class BookingController {
     }
 
     @GetMapping("/trip/{tripId}")
-    public ResponseEntity<ApiResponse<List<BookingResponse>>> getBookingsByTripId(
-            @PathVariable Integer tripId) {
+    public ResponseEntity<ApiResponse<BookingPageResponse>> getBookingsByTripId(
+            @PathVariable Integer tripId,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "20") Integer size) {
 
-        return ResponseEntity.ok(ApiResponse.<List<BookingResponse>>builder()
+        return ResponseEntity.ok(ApiResponse.<BookingPageResponse>builder()
                 .success(true)
                 .message("Lấy danh sách booking thành công")
-                .data(bookingService.getBookingsByTripId(tripId))
+                .data(bookingService.getBookingsByTripId(tripId, page, size))
                 .build());
     }
 
     @GetMapping("/phone/{phone}")
-    public ResponseEntity<ApiResponse<List<BookingResponse>>> getBookingsByPhone(
-            @PathVariable String phone) {
+    public ResponseEntity<ApiResponse<BookingPageResponse>> getBookingsByPhone(
+            @PathVariable String phone,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "20") Integer size) {
 
-        return ResponseEntity.ok(ApiResponse.<List<BookingResponse>>builder()
+        return ResponseEntity.ok(ApiResponse.<BookingPageResponse>builder()
                 .success(true)
                 .message("Lấy danh sách booking thành công")
-                .data(bookingService.getBookingsByPhone(phone))
+                .data(bookingService.getBookingsByPhone(phone, page, size))
                 .build());
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<ApiResponse<List<BookingResponse>>> getBookingsByEmail(
-            @PathVariable String email) {
+    public ResponseEntity<ApiResponse<BookingPageResponse>> getBookingsByEmail(
+            @PathVariable String email,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "20") Integer size) {
 
-        return ResponseEntity.ok(ApiResponse.<List<BookingResponse>>builder()
+        return ResponseEntity.ok(ApiResponse.<BookingPageResponse>builder()
                 .success(true)
                 .message("Lấy danh sách booking thành công")
-                .data(bookingService.getBookingsByEmail(email))
+                .data(bookingService.getBookingsByEmail(email, page, size))
                 .build());
     }
 
@@ -291,13 +330,15 @@ public class BookingController {
             @AuthenticationPrincipal UserPrincipal currentUser,
             @RequestParam(required = false) String status,
             @RequestParam(required = false, defaultValue = "0") Integer page,
-            @RequestParam(required = false, defaultValue = "20") Integer size) {
+            @RequestParam(required = false, defaultValue = "20") Integer size,
+            @Parameter(description = "nextCursor of the previous page; keyset paging instead of 'page'")
+            @RequestParam(required = false) String cursor) {
 
-        log.info("Get my tickets for user {}: status={}, page={}, size={}", 
-                currentUser.getUserId(), status, page, size);
+        log.info("Get my tickets for user {}: status={}, page={}, size={}, cursor={}", 
+                currentUser.getUserId(), status, page, size, cursor);
 
         BookingPageResponse response = bookingService.getMyTickets(
-                currentUser.getUserId(), status, page, size);
+                currentUser.getUserId(), status, page, size, cursor);
 
         return ResponseEntity.ok(ApiResponse.<BookingPageResponse>builder()
                 .success(true)
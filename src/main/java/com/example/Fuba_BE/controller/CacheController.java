@@ -14,7 +14,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.Fuba_BE.config.CacheConfig;
 import com.example.Fuba_BE.payload.ApiResponse;
+import com.example.Fuba_BE.service.Booking.MyTicketsCacheKeys;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
@@ -32,6 +34,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CacheController {
 
     private final CacheManager cacheManager;
+    private final MyTicketsCacheKeys myTicketsCacheKeys;
 
     /**
      * Get all cache statistics
@@ -59,6 +62,12 @@ public class CacheController {
                 cacheInfo.put("loadFailureCount", stats.loadFailureCount());
                 cacheInfo.put("averageLoadPenalty", String.format("%.2f ms", stats.averageLoadPenalty() / 1_000_000.0));
 
+                if (CacheConfig.CACHE_MY_TICKETS.equals(cacheName)) {
+                    // Per-user invalidations: pages of other customers survive a booking
+                    cacheInfo.put("userInvalidations", myTicketsCacheKeys.getInvalidationCount());
+                    cacheInfo.put("trackedUsers", myTicketsCacheKeys.getTrackedUsers());
+                }
+
                 allStats.put(cacheName, cacheInfo);
             }
         }
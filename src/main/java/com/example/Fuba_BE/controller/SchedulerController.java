@@ -0,0 +1,46 @@
+package com.example.Fuba_BE.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Fuba_BE.dto.scheduling.SchedulerJobStatus;
+import com.example.Fuba_BE.payload.ApiResponse;
+import com.example.Fuba_BE.service.cluster.SchedulerLeases;
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST Controller for cluster-wide scheduled jobs (Admin only)
+ * Shows which node holds each job's lease and how its last run went
+ */
+@RestController
+@RequestMapping("/admin/scheduler")
+@RequiredArgsConstructor
+public class SchedulerController {
+
+    private final SchedulerLeases schedulerLeases;
+    private final TripOwnership tripOwnership;
+
+    /**
+     * Get the lease and last run of every scheduled job
+     * GET /admin/scheduler/jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getJobs() {
+        List<SchedulerJobStatus> jobs = schedulerLeases.getJobs();
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("nodeId", tripOwnership.getNodeId());
+        data.put("nodes", tripOwnership.getNodes());
+        data.put("jobs", jobs);
+
+        return ResponseEntity.ok(ApiResponse.success("Scheduled jobs retrieved successfully", data));
+    }
+}
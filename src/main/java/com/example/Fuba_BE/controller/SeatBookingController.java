@@ -1,7 +1,6 @@
 package com.example.Fuba_BE.controller;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,6 +13,7 @@ import com.example.Fuba_BE.dto.seat.SeatBookingConfirmRequest;
 import com.example.Fuba_BE.dto.seat.SeatStatusMessage;
 import com.example.Fuba_BE.payload.ApiResponse;
 import com.example.Fuba_BE.service.ISeatLockService;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,7 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 public class SeatBookingController {
     
     private final ISeatLockService seatLockService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
     
     /**
      * Confirm seat booking after successful payment.
@@ -72,7 +72,7 @@ public class SeatBookingController {
         if (result.isSuccess()) {
             // Broadcast to all subscribers
             String destination = seatLockService.getTripTopic(request.getTripId());
-            messagingTemplate.convertAndSend(destination, result);
+            seatBroadcastAggregator.publish(result);
             log.info("Booking confirmed and broadcasted to {}", destination);
             
             return ResponseEntity.ok(ApiResponse.success("Booking confirmed successfully", result));
@@ -108,8 +108,7 @@ public class SeatBookingController {
         
         if (result.isSuccess()) {
             // Broadcast to all subscribers
-            String destination = seatLockService.getTripTopic(tripId);
-            messagingTemplate.convertAndSend(destination, result);
+            seatBroadcastAggregator.publish(result);
             
             return ResponseEntity.ok(
                     ApiResponse.success("Lock released successfully", result)
@@ -152,8 +151,7 @@ public class SeatBookingController {
         
         if (result.isSuccess()) {
             // Broadcast to all subscribers
-            String destination = seatLockService.getTripTopic(request.getTripId());
-            messagingTemplate.convertAndSend(destination, result);
+            seatBroadcastAggregator.publish(result);
             
             return ResponseEntity.ok(
                     ApiResponse.success("Seat locked successfully", result)
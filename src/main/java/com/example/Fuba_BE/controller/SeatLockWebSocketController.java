@@ -5,42 +5,48 @@ import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
+import com.example.Fuba_BE.dto.seat.SeatBatchLockRequest;
 import com.example.Fuba_BE.dto.seat.SeatLockRequest;
 import com.example.Fuba_BE.dto.seat.SeatStatusMessage;
 import com.example.Fuba_BE.dto.seat.SeatUnlockRequest;
 import com.example.Fuba_BE.service.ISeatLockService;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
 
 /**
  * WebSocket Controller for real-time seat locking operations.
  * Handles STOMP messages for seat lock/unlock requests.
  * 
  * Message Mapping:
- * - /app/seat/lock    -> lockSeat()    -> broadcasts to /topic/trips/{tripId}/seats
- * - /app/seat/unlock  -> unlockSeat()  -> broadcasts to /topic/trips/{tripId}/seats
+ * - /app/seat/lock       -> lockSeat()   -> SEAT_LOCKED to the sender
+ * - /app/seat/lock-batch -> lockSeats()  -> SEATS_LOCKED to the sender, one message for the whole batch
+ * - /app/seat/unlock     -> unlockSeat() -> SEAT_UNLOCKED to the sender
+ * 
+ * Subscribers of /topic/trips/{tripId}/seat-deltas get the changes coalesced into SEAT_DELTA
+ * frames; the seats of a batch always travel in the same frame.
  */
 @Controller
 public class SeatLockWebSocketController {
     
     private static final Logger logger = LoggerFactory.getLogger(SeatLockWebSocketController.class);
+    private static final int MAX_SEATS_PER_BATCH = 10;
     
     private final ISeatLockService seatLockService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
     
     public SeatLockWebSocketController(ISeatLockService seatLockService,
-                                       SimpMessagingTemplate messagingTemplate) {
+                                       SeatBroadcastAggregator seatBroadcastAggregator) {
         this.seatLockService = seatLockService;
-        this.messagingTemplate = messagingTemplate;
+        this.seatBroadcastAggregator = seatBroadcastAggregator;
     }
     
     /**
      * Handle seat lock request from client.
      * 
      * Client sends to: /app/seat/lock
-     * Server broadcasts to: /topic/trips/{tripId}/seats
+     * Server broadcasts to: /topic/trips/{tripId}/seat-deltas
      * 
      * Example client message:
      * {
@@ -81,7 +87,7 @@ public class SeatLockWebSocketController {
         // Broadcast to all subscribers of this trip's topic
         if (result.isSuccess()) {
             String destination = seatLockService.getTripTopic(request.getTripId());
-            messagingTemplate.convertAndSend(destination, result);
+            seatBroadcastAggregator.publish(result);
             logger.info("Broadcasted lock success to {}", destination);
         }
         
@@ -89,11 +95,68 @@ public class SeatLockWebSocketController {
         return result;
     }
     
+    /**
+     * Handle a request to lock several seats of one trip at once (e.g. a family booking).
+     * Either every seat is locked or none is. The sender gets a single SEATS_LOCKED message and
+     * subscribers a single frame with every seat of the batch, however many seats it has.
+     * 
+     * Client sends to: /app/seat/lock-batch
+     * Server broadcasts to: /topic/trips/{tripId}/seat-deltas
+     * 
+     * Example client message:
+     * {
+     *   "seatIds": [123, 124, 125, 126],
+     *   "tripId": 456,
+     *   "userId": "user_abc"
+     * }
+     * 
+     * @param request The batch lock request payload
+     * @param headerAccessor Access to STOMP headers including session ID
+     * @return SeatStatusMessage result (sent to user's private queue)
+     */
+    @MessageMapping("/seat/lock-batch")
+    @SendToUser("/queue/seat/response")
+    public SeatStatusMessage lockSeats(@Payload SeatBatchLockRequest request,
+                                       SimpMessageHeaderAccessor headerAccessor) {
+        String sessionId = headerAccessor.getSessionId();
+        logger.info("Received batch lock request - seatIds: {}, tripId: {}, userId: {}, sessionId: {}", 
+                request.getSeatIds(), request.getTripId(), request.getUserId(), sessionId);
+        
+        // Validate request
+        if (request.getSeatIds() == null || request.getSeatIds().isEmpty() || request.getTripId() == null) {
+            return SeatStatusMessage.lockFailed(null, request.getTripId(), 
+                    "seatIds and tripId are required");
+        }
+        if (request.getSeatIds().size() > MAX_SEATS_PER_BATCH) {
+            return SeatStatusMessage.lockFailed(null, request.getTripId(), 
+                    "At most " + MAX_SEATS_PER_BATCH + " seats can be locked at once");
+        }
+        
+        // Use session ID as user ID if not provided (for guest users)
+        String userId = request.getUserId() != null ? request.getUserId() : sessionId;
+        
+        SeatStatusMessage result = seatLockService.lockSeats(
+                request.getSeatIds(), 
+                request.getTripId(), 
+                userId, 
+                sessionId
+        );
+        
+        // One broadcast for the whole batch
+        if (result.isSuccess()) {
+            String destination = seatLockService.getTripTopic(request.getTripId());
+            seatBroadcastAggregator.publish(result);
+            logger.info("Broadcasted batch lock success to {}", destination);
+        }
+        
+        return result;
+    }
+    
     /**
      * Handle seat unlock request from client.
      * 
      * Client sends to: /app/seat/unlock
-     * Server broadcasts to: /topic/trips/{tripId}/seats
+     * Server broadcasts to: /topic/trips/{tripId}/seat-deltas
      * 
      * Example client message:
      * {
@@ -134,7 +197,7 @@ public class SeatLockWebSocketController {
         // Broadcast to all subscribers of this trip's topic
         if (result.isSuccess()) {
             String destination = seatLockService.getTripTopic(request.getTripId());
-            messagingTemplate.convertAndSend(destination, result);
+            seatBroadcastAggregator.publish(result);
             logger.info("Broadcasted unlock success to {}", destination);
         }
         
@@ -144,7 +207,7 @@ public class SeatLockWebSocketController {
     
     /**
      * Handle subscription to a trip's seat updates.
-     * Called when a client subscribes to /topic/trips/{tripId}/seats
+     * Called when a client subscribes to /topic/trips/{tripId}/seat-deltas
      * 
      * This can be used to send initial seat status on subscription.
      */
@@ -1,17 +1,21 @@
 package com.example.Fuba_BE.controller;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.Fuba_BE.dto.seat.MigrateSeatMapRequest;
 import com.example.Fuba_BE.dto.seat.SeatMapResponse;
 import com.example.Fuba_BE.payload.ApiResponse;
 import com.example.Fuba_BE.service.ISeatMapService;
+import com.example.Fuba_BE.service.seat.SeatMapCache;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 public class SeatMapController {
 
     private final ISeatMapService seatMapService;
+    private final SeatMapCache seatMapCache;
 
         @PostMapping("/{tripId}/seat-map/migrate")
     public ResponseEntity<ApiResponse<SeatMapResponse>> migrateSeatMap(
@@ -39,11 +44,30 @@ public class SeatMapController {
         return ResponseEntity.ok(ApiResponse.success("Seat map migrated successfully", seatMap));
     }
 
+    /**
+     * Full seat map, or only the seats changed since {@code sinceVersion} (the version of the
+     * last snapshot or SEAT_DELTA frame the client applied) when that is still known.
+     */
     @GetMapping("/seats/{tripId}")
-    public ResponseEntity<ApiResponse<SeatMapResponse>> getSeats(
-            @PathVariable Integer tripId
+    public ResponseEntity<?> getSeats(
+            @PathVariable Integer tripId,
+            @RequestParam(required = false) Long sinceVersion,
+            WebRequest webRequest
     ) {
-        SeatMapResponse seatMap = seatMapService.getSeatMap(tripId);
-        return ResponseEntity.ok(ApiResponse.success("Seat map retrieved successfully", seatMap));
+        if (sinceVersion != null) {
+            SeatMapResponse seatMap = seatMapService.getSeatMap(tripId, sinceVersion);
+            return ResponseEntity.ok(ApiResponse.success("Seat map retrieved successfully", seatMap));
+        }
+
+        // Full snapshots are served from pre-rendered bytes; unchanged maps answer 304
+        SeatMapCache.Entry seatMap = seatMapCache.getOrRender(tripId,
+                () -> ApiResponse.success("Seat map retrieved successfully", seatMapService.getSeatMap(tripId)));
+        if (webRequest.checkNotModified(seatMap.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(seatMap.getEtag())
+                .body(seatMap.getBody());
     }
 }
@@ -2,6 +2,7 @@ package com.example.Fuba_BE.controller;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,6 +29,7 @@ import com.example.Fuba_BE.domain.entity.Trip;
 import com.example.Fuba_BE.dto.Trip.AlternativeTripDTO;
 import com.example.Fuba_BE.dto.Trip.CompleteTripRequestDTO;
 import com.example.Fuba_BE.dto.Trip.PassengerOnTripResponseDTO;
+import com.example.Fuba_BE.dto.Trip.RouteDayAvailabilityDTO;
 import com.example.Fuba_BE.dto.Trip.TicketDetailResponseDTO;
 import com.example.Fuba_BE.dto.Trip.TripCreateRequestDTO;
 import com.example.Fuba_BE.dto.Trip.TripDetailedResponseDTO;
@@ -104,6 +106,16 @@ public class TripController {
         return ResponseEntity.ok(ApiResponse.success("Calendar dates retrieved successfully", dates));
     }
 
+    @GetMapping("/calendar")
+    public ResponseEntity<ApiResponse<List<RouteDayAvailabilityDTO>>> getCalendarAvailability(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(required = false) Integer routeId,
+            @RequestParam(required = false) Integer originId,
+            @RequestParam(required = false) Integer destId) {
+        List<RouteDayAvailabilityDTO> days = tripService.getCalendarAvailability(routeId, originId, destId, month);
+        return ResponseEntity.ok(ApiResponse.success("Calendar availability retrieved successfully", days));
+    }
+
     @GetMapping("/by-date")
     public ResponseEntity<ApiResponse<List<TripDetailedResponseDTO>>> getTripsByDate(
             @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
@@ -173,12 +185,14 @@ public class TripController {
     }
 
     @GetMapping("/alternative")
-    public ResponseEntity<ApiResponse<List<AlternativeTripDTO>>> getAlternativeTrips(
+    public ResponseEntity<ApiResponse<Page<AlternativeTripDTO>>> getAlternativeTrips(
             @RequestParam Integer routeId,
             @RequestParam Integer excludeTripId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDateTime) {
-        List<AlternativeTripDTO> alternativeTrips = tripService.getAlternativeTripsForRoute(routeId, excludeTripId,
-                afterDateTime);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDateTime,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<AlternativeTripDTO> alternativeTrips = tripService.getAlternativeTripsForRoute(routeId, excludeTripId,
+                afterDateTime, page, size);
         return ResponseEntity.ok(ApiResponse.success("Alternative trips retrieved successfully", alternativeTrips));
     }
 
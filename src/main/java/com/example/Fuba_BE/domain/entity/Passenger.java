@@ -17,7 +17,9 @@ import java.time.LocalDateTime;
 public class Passenger {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (V18) instead of IDENTITY so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passenger_seq")
+    @SequenceGenerator(name = "passenger_seq", sequenceName = "passengers_passengerid_seq", allocationSize = 50)
     @Column(name = "passengerid")
     private Integer passengerId;
 
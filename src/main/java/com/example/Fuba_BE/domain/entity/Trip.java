@@ -57,6 +57,23 @@ public class Trip {
     @Column(name = "isfullybooked")
     private Boolean isFullyBooked = false;
 
+    // Seat counts by status, maintained by the tripseats triggers (V24); never written from here
+    @Column(name = "availableseats", insertable = false, updatable = false)
+    private Integer availableSeats = 0;
+
+    @Column(name = "heldseats", insertable = false, updatable = false)
+    private Integer heldSeats = 0;
+
+    @Column(name = "bookedseats", insertable = false, updatable = false)
+    private Integer bookedSeats = 0;
+
+    @Column(name = "usedseats", insertable = false, updatable = false)
+    private Integer usedSeats = 0;
+
+    // DepartureShift value, generated by Postgres from departuretime (V25)
+    @Column(name = "departureshift", insertable = false, updatable = false)
+    private Integer departureShift;
+
     @Column(name = "minpassengers")
     private Integer minPassengers = 1;
 
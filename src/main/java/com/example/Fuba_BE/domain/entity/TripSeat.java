@@ -3,9 +3,11 @@ package com.example.Fuba_BE.domain.entity;
 import java.time.LocalDateTime;
 
 import com.example.Fuba_BE.domain.enums.SeatStatus;
+import com.example.Fuba_BE.service.seat.TripSeatSyncListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -21,6 +23,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "tripseats")
+@EntityListeners(TripSeatSyncListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
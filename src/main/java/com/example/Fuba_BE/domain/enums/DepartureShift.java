@@ -0,0 +1,52 @@
+package com.example.Fuba_BE.domain.enums;
+
+import java.util.Optional;
+
+/**
+ * Time-of-day bucket of a trip's departure, stored in trips.departureshift (V25).
+ * Values and hour bounds must match the column's generation expression.
+ */
+public enum DepartureShift {
+
+    NIGHT(0, "night", 0, 6),
+    MORNING(1, "morning", 6, 12),
+    AFTERNOON(2, "afternoon", 12, 18),
+    EVENING(3, "evening", 18, 24);
+
+    private final int dbValue;
+    private final String rangeName;
+    private final int fromHour;
+    private final int toHour;
+
+    DepartureShift(int dbValue, String rangeName, int fromHour, int toHour) {
+        this.dbValue = dbValue;
+        this.rangeName = rangeName;
+        this.fromHour = fromHour;
+        this.toHour = toHour;
+    }
+
+    public int dbValue() {
+        return dbValue;
+    }
+
+    public int fromHour() {
+        return fromHour;
+    }
+
+    // Exclusive
+    public int toHour() {
+        return toHour;
+    }
+
+    /**
+     * Shift for a timeRanges value of the trip search (morning, afternoon, evening, night).
+     */
+    public static Optional<DepartureShift> fromRange(String range) {
+        for (DepartureShift shift : values()) {
+            if (shift.rangeName.equalsIgnoreCase(range)) {
+                return Optional.of(shift);
+            }
+        }
+        return Optional.empty();
+    }
+}
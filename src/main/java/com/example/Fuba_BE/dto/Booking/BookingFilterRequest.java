@@ -40,4 +40,11 @@ public class BookingFilterRequest {
     @Schema(description = "Sort direction", example = "DESC", defaultValue = "DESC", allowableValues = {"ASC", "DESC"})
     @Builder.Default
     private String sortDirection = "DESC";
+
+    @Schema(description = "Keyset cursor (nextCursor of the previous page); replaces 'page' when set. Only with sortBy=createdAt")
+    private String cursor;
+
+    @Schema(description = "Also count the matching bookings when paging by cursor", defaultValue = "false")
+    @Builder.Default
+    private Boolean includeTotal = false;
 }
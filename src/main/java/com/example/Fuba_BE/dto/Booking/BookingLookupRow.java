@@ -0,0 +1,32 @@
+package com.example.Fuba_BE.dto.Booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat row of a booking and its trip summary, selected in one joined query for the
+ * booking lookups (by phone, email, customer or trip).
+ */
+public record BookingLookupRow(
+        Integer bookingId,
+        String bookingCode,
+        Integer tripId,
+        String routeName,
+        LocalDateTime departureTime,
+        LocalDateTime arrivalTime,
+        String originName,
+        String originProvince,
+        String destinationName,
+        String destinationProvince,
+        String vehiclePlate,
+        String vehicleTypeName,
+        String driverName,
+        String customerName,
+        String customerPhone,
+        String customerEmail,
+        BigDecimal totalAmount,
+        String bookingStatus,
+        String bookingType,
+        LocalDateTime createdAt,
+        LocalDateTime holdExpiry) {
+}
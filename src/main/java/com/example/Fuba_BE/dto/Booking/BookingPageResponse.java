@@ -38,4 +38,7 @@ public class BookingPageResponse {
 
     @Schema(description = "Is last page", example = "false")
     private Boolean isLast;
+
+    @Schema(description = "Cursor of the next page; pass it back as 'cursor' to continue after the last booking of this page. Null on the last page")
+    private String nextCursor;
 }
@@ -0,0 +1,25 @@
+package com.example.Fuba_BE.dto.Booking;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat row of a ticket with its seat and passenger, selected for a whole page of bookings at once.
+ */
+public record BookingTicketRow(
+        Integer bookingId,
+        Integer ticketId,
+        String ticketCode,
+        Integer seatId,
+        String seatNumber,
+        Integer floorNumber,
+        BigDecimal price,
+        String ticketStatus,
+        Integer passengerId,
+        String passengerName,
+        String passengerPhone,
+        String passengerEmail,
+        String pickupAddress,
+        String pickupStopName,
+        String dropoffAddress,
+        String dropoffStopName) {
+}
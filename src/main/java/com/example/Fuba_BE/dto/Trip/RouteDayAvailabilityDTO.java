@@ -0,0 +1,20 @@
+package com.example.Fuba_BE.dto.Trip;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RouteDayAvailabilityDTO {
+    private LocalDate date;         // VD: 2025-11-20
+    private int tripCount;          // Số chuyến còn bán (Waiting/Running)
+    private BigDecimal minPrice;    // Giá thấp nhất trong ngày
+    private int seatsLeft;          // Tổng ghế trống
+}
@@ -0,0 +1,27 @@
+package com.example.Fuba_BE.dto.scheduling;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lease of a cluster-wide scheduled job (or of one shard of it) and its last run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchedulerJobStatus {
+    private String jobName;
+    private String ownerNode;
+    private LocalDateTime leaseUntil;
+    private boolean leaseActive;
+    private boolean ownedByThisNode;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private Long lastDurationMs;
+    private String lastError;
+}
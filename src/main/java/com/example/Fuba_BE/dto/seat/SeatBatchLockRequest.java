@@ -0,0 +1,33 @@
+package com.example.Fuba_BE.dto.seat;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request payload for locking several seats of one trip at once via WebSocket.
+ * Client sends this to /app/seat/lock-batch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SeatBatchLockRequest {
+    /**
+     * The IDs of the seats to lock (all or nothing)
+     */
+    private List<Integer> seatIds;
+    
+    /**
+     * The ID of the trip (for validation and topic routing)
+     */
+    private Integer tripId;
+    
+    /**
+     * User identifier (can be authenticated userId or guest sessionId)
+     */
+    private String userId;
+}
@@ -0,0 +1,68 @@
+package com.example.Fuba_BE.dto.seat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Coalesced seat changes of one trip, broadcast to /topic/trips/{tripId}/seat-deltas.
+ *
+ * Versions increase by exactly one per frame and trip, so a client that sees a jump
+ * has missed a frame and should reload the seat map.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeatDeltaFrame {
+
+    public static final String TYPE = "SEAT_DELTA";
+
+    /**
+     * Always "SEAT_DELTA", lets clients tell frames apart from SeatStatusMessage payloads
+     */
+    @Builder.Default
+    private String type = TYPE;
+
+    private Integer tripId;
+
+    /**
+     * Per-trip frame version
+     */
+    private long version;
+
+    /**
+     * Latest state of every seat that changed in this frame's window
+     */
+    private List<SeatDelta> seats;
+
+    private LocalDateTime timestamp;
+
+    /**
+     * New state of one seat. Null fields are omitted from the frame.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class SeatDelta {
+        private Integer seatId;
+        private String seatNumber;
+        private Integer floorNumber;
+
+        /**
+         * "Available", "Held", "Booked" or "Used"
+         */
+        private String status;
+        private String lockedBy;
+        private LocalDateTime holdExpiry;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.Fuba_BE.dto.seat;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,6 +19,33 @@ public class SeatMapResponse {
 
     private List<FloorSeats> floors;
 
+    // Seat-map version (same counter as the SEAT_DELTA frames on /topic/trips/{tripId}/seat-deltas)
+    private Long version;
+
+    // Chỉ có khi client gửi sinceVersion: ghế thay đổi từ version đó, floors = null
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SeatDeltaFrame.SeatDelta> changes;
+
+    public SeatMapResponse(Integer tripId, Integer vehicleId, String vehicleTypeName, Integer numberOfFloors,
+                           List<FloorSeats> floors) {
+        this.tripId = tripId;
+        this.vehicleId = vehicleId;
+        this.vehicleTypeName = vehicleTypeName;
+        this.numberOfFloors = numberOfFloors;
+        this.floors = floors;
+    }
+
+    /**
+     * Catch-up response: only the seats that changed since the client's version.
+     */
+    public static SeatMapResponse changes(SeatDeltaFrame frame) {
+        SeatMapResponse response = new SeatMapResponse();
+        response.setTripId(frame.getTripId());
+        response.setVersion(frame.getVersion());
+        response.setChanges(frame.getSeats());
+        return response;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -6,10 +6,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
- * Response/Broadcast payload for seat status changes via WebSocket.
- * Server broadcasts this to /topic/trips/{tripId}/seats
+ * Result of a seat command, returned to the requesting client (/user/queue/seat/response).
+ * The seat changes it describes are broadcast to /topic/trips/{tripId}/seat-deltas as
+ * {@link SeatDeltaFrame}s.
  */
 @Data
 @NoArgsConstructor
@@ -56,6 +58,21 @@ public class SeatStatusMessage {
      */
     private Integer floorNumber;
     
+    /**
+     * Seats covered by a coalesced message (SEATS_LOCKED, SEATS_UNLOCKED, SEATS_EXPIRED), null for single-seat messages
+     */
+    private List<Integer> seatIds;
+    
+    /**
+     * Seat numbers matching seatIds
+     */
+    private List<String> seatNumbers;
+    
+    /**
+     * Floor numbers matching seatIds
+     */
+    private List<Integer> floorNumbers;
+    
     /**
      * Whether the operation was successful
      */
@@ -76,11 +93,14 @@ public class SeatStatusMessage {
      */
     public enum MessageType {
         SEAT_LOCKED,
+        SEATS_LOCKED,
         SEAT_UNLOCKED,
+        SEATS_UNLOCKED,
         SEAT_BOOKED,
         SEAT_LOCK_FAILED,
         SEAT_UNLOCK_FAILED,
         SEAT_EXPIRED,
+        SEATS_EXPIRED,
         SEAT_STATUS_UPDATE
     }
 
@@ -103,6 +123,25 @@ public class SeatStatusMessage {
                 .build();
     }
 
+    /**
+     * Factory method for several seats of one trip locked together
+     */
+    public static SeatStatusMessage locked(Integer tripId, List<Integer> seatIds, List<String> seatNumbers,
+                                           List<Integer> floorNumbers, String lockedBy, LocalDateTime lockExpiry) {
+        return SeatStatusMessage.builder()
+                .type(MessageType.SEATS_LOCKED)
+                .tripId(tripId)
+                .seatIds(seatIds)
+                .seatNumbers(seatNumbers)
+                .floorNumbers(floorNumbers)
+                .status("Held")
+                .lockedBy(lockedBy)
+                .lockExpiry(lockExpiry)
+                .success(true)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     /**
      * Factory method for successful unlock
      */
@@ -121,6 +160,23 @@ public class SeatStatusMessage {
                 .build();
     }
 
+    /**
+     * Factory method for several seats of one trip released together (e.g. on disconnect)
+     */
+    public static SeatStatusMessage unlocked(Integer tripId, List<Integer> seatIds, List<String> seatNumbers,
+                                             List<Integer> floorNumbers) {
+        return SeatStatusMessage.builder()
+                .type(MessageType.SEATS_UNLOCKED)
+                .tripId(tripId)
+                .seatIds(seatIds)
+                .seatNumbers(seatNumbers)
+                .floorNumbers(floorNumbers)
+                .status("Available")
+                .success(true)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     /**
      * Factory method for expired lock
      */
@@ -140,6 +196,24 @@ public class SeatStatusMessage {
                 .build();
     }
 
+    /**
+     * Factory method for several locks of one trip expiring in the same tick
+     */
+    public static SeatStatusMessage expired(Integer tripId, List<Integer> seatIds, List<String> seatNumbers,
+                                            List<Integer> floorNumbers) {
+        return SeatStatusMessage.builder()
+                .type(MessageType.SEATS_EXPIRED)
+                .tripId(tripId)
+                .seatIds(seatIds)
+                .seatNumbers(seatNumbers)
+                .floorNumbers(floorNumbers)
+                .status("Available")
+                .success(true)
+                .message("Lock expired")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
     /**
      * Factory method for booked seat
      */
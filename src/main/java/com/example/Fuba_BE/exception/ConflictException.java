@@ -0,0 +1,9 @@
+package com.example.Fuba_BE.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ConflictException extends AppException {
+    public ConflictException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.Fuba_BE.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends AppException {
+    public ServiceUnavailableException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.Fuba_BE.mapper;
 
 import com.example.Fuba_BE.domain.entity.*;
+import com.example.Fuba_BE.dto.Booking.BookingLookupRow;
 import com.example.Fuba_BE.dto.Booking.BookingResponse;
+import com.example.Fuba_BE.dto.Booking.BookingTicketRow;
 import com.example.Fuba_BE.repository.PassengerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -35,21 +37,6 @@ public class BookingMapper {
             return null;
         }
 
-        // Calculate remaining seconds if booking is Held or Pending
-        Long remainingSeconds = null;
-        if (booking.getHoldExpiry() != null && 
-            ("Held".equals(booking.getBookingStatus()) || "Pending".equals(booking.getBookingStatus()))) {
-            java.time.Duration duration = java.time.Duration.between(
-                java.time.LocalDateTime.now(), 
-                booking.getHoldExpiry()
-            );
-            remainingSeconds = duration.getSeconds();
-            // If negative (expired), set to 0
-            if (remainingSeconds < 0) {
-                remainingSeconds = 0L;
-            }
-        }
-
         return BookingResponse.builder()
                 .bookingId(booking.getBookingId())
                 .bookingCode(booking.getBookingCode())
@@ -64,7 +51,69 @@ public class BookingMapper {
                 .tickets(toTicketInfoList(tickets, passengersByTicketId))
                 .createdAt(booking.getCreatedAt())
                 .holdExpiry(booking.getHoldExpiry())
-                .remainingSeconds(remainingSeconds)
+                .remainingSeconds(getRemainingSeconds(booking.getBookingStatus(), booking.getHoldExpiry()))
+                .build();
+    }
+
+    /**
+     * Convert a flat lookup row and its ticket rows to BookingResponse DTO
+     * (no lazy loading: everything was selected up front)
+     */
+    public BookingResponse toBookingResponse(BookingLookupRow row, List<BookingTicketRow> tickets) {
+        BookingResponse.TripInfo tripInfo = BookingResponse.TripInfo.builder()
+                .tripId(row.tripId())
+                .routeName(row.routeName())
+                .departureTime(row.departureTime())
+                .arrivalTime(row.arrivalTime())
+                .pickupLocation(formatLocation(row.originName(), row.originProvince()))
+                .pickupTime(row.departureTime())
+                .dropoffLocation(formatLocation(row.destinationName(), row.destinationProvince()))
+                .dropoffTime(row.arrivalTime())
+                .vehiclePlate(row.vehiclePlate())
+                .vehicleTypeName(row.vehicleTypeName())
+                .driverName(row.driverName())
+                .build();
+
+        List<BookingResponse.TicketInfo> ticketInfos = new ArrayList<>(tickets.size());
+        for (BookingTicketRow ticket : tickets) {
+            BookingResponse.PassengerInfo passengerInfo = null;
+            if (ticket.passengerId() != null) {
+                passengerInfo = BookingResponse.PassengerInfo.builder()
+                        .passengerId(ticket.passengerId())
+                        .fullName(ticket.passengerName())
+                        .phoneNumber(ticket.passengerPhone())
+                        .email(ticket.passengerEmail())
+                        .pickupAddress(ticket.pickupAddress() != null ? ticket.pickupAddress() : ticket.pickupStopName())
+                        .dropoffAddress(ticket.dropoffAddress() != null ? ticket.dropoffAddress() : ticket.dropoffStopName())
+                        .build();
+            }
+            ticketInfos.add(BookingResponse.TicketInfo.builder()
+                    .ticketId(ticket.ticketId())
+                    .ticketCode(ticket.ticketCode())
+                    .seatId(ticket.seatId())
+                    .seatNumber(ticket.seatNumber())
+                    .floorNumber(ticket.floorNumber())
+                    .price(ticket.price())
+                    .ticketStatus(ticket.ticketStatus())
+                    .passenger(passengerInfo)
+                    .build());
+        }
+
+        return BookingResponse.builder()
+                .bookingId(row.bookingId())
+                .bookingCode(row.bookingCode())
+                .tripId(row.tripId())
+                .tripInfo(tripInfo)
+                .customerName(row.customerName())
+                .customerPhone(row.customerPhone())
+                .customerEmail(row.customerEmail())
+                .totalAmount(row.totalAmount())
+                .bookingStatus(row.bookingStatus())
+                .bookingType(row.bookingType())
+                .tickets(ticketInfos)
+                .createdAt(row.createdAt())
+                .holdExpiry(row.holdExpiry())
+                .remainingSeconds(getRemainingSeconds(row.bookingStatus(), row.holdExpiry()))
                 .build();
     }
 
@@ -222,11 +271,7 @@ public class BookingMapper {
             return null;
         }
         Location origin = trip.getRoute().getOrigin();
-        // Return formatted: "LocationName, Province"
-        if (origin.getProvince() != null) {
-            return origin.getLocationName() + ", " + origin.getProvince();
-        }
-        return origin.getLocationName();
+        return formatLocation(origin.getLocationName(), origin.getProvince());
     }
 
     private String getDropoffLocationName(Trip trip) {
@@ -234,11 +279,30 @@ public class BookingMapper {
             return null;
         }
         Location destination = trip.getRoute().getDestination();
+        return formatLocation(destination.getLocationName(), destination.getProvince());
+    }
+
+    private String formatLocation(String locationName, String province) {
+        if (locationName == null) {
+            return null;
+        }
         // Return formatted: "LocationName, Province"
-        if (destination.getProvince() != null) {
-            return destination.getLocationName() + ", " + destination.getProvince();
+        if (province != null) {
+            return locationName + ", " + province;
+        }
+        return locationName;
+    }
+
+    /**
+     * Seconds left on the hold of a Held or Pending booking (0 once expired)
+     */
+    private Long getRemainingSeconds(String bookingStatus, java.time.LocalDateTime holdExpiry) {
+        if (holdExpiry == null || !("Held".equals(bookingStatus) || "Pending".equals(bookingStatus))) {
+            return null;
         }
-        return destination.getLocationName();
+        long remainingSeconds = java.time.Duration.between(java.time.LocalDateTime.now(), holdExpiry).getSeconds();
+        // If negative (expired), set to 0
+        return Math.max(remainingSeconds, 0L);
     }
 
     private String getPickupAddress(Passenger passenger) {
@@ -28,6 +28,17 @@ public interface TripMapper {
     @Mapping(source = "vehicle.licensePlate", target = "licensePlate")
     TripDetailedResponseDTO toDetailedDTO(Trip trip);
 
+    // Dòng kết quả tìm chuyến: sức chứa + số ghế từ bộ đếm của chuyến (V24), không query thêm
+    default TripDetailedResponseDTO toSearchResultDTO(Trip trip) {
+        TripDetailedResponseDTO dto = toDetailedDTO(trip);
+        if (trip.getVehicle() == null || trip.getVehicle().getVehicleType() == null) {
+            dto.setTotalSeats(40); // Default fallback
+        }
+        dto.setBookedSeats(trip.getBookedSeats());
+        dto.setCheckedInSeats(trip.getUsedSeats());
+        return dto;
+    }
+
     // Helper: Format tên tuyến (Origin -> Destination)
     default String formatRouteName(Trip trip) {
         if (trip.getRoute() == null) return "Unknown Route";
@@ -16,12 +16,23 @@ import org.springframework.stereotype.Repository;
 
 import com.example.Fuba_BE.domain.entity.Booking;
 import com.example.Fuba_BE.domain.entity.User;
+import com.example.Fuba_BE.dto.Booking.BookingLookupRow;
 
 import jakarta.persistence.LockModeType;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
+    /**
+     * Keyword match of the admin list: booking code, customer name or phone, each through its
+     * trigram index (combined with a BitmapOr).
+     */
+    String SEARCH_MATCHES = """
+                AND (search_normalize(b.bookingCode) LIKE search_normalize(CONCAT('%', CAST(:search AS string), '%'))
+                     OR search_normalize(b.customerName) LIKE search_normalize(CONCAT('%', CAST(:search AS string), '%'))
+                     OR search_normalize(b.customerPhone) LIKE search_normalize(CONCAT('%', CAST(:search AS string), '%')))
+            """;
+
     // 1. Tính tổng doanh thu GROSS trong khoảng thời gian (Status: PAID, COMPLETED)
     @Query("SELECT COALESCE(SUM(b.totalAmount), 0) FROM Booking b " +
             "WHERE b.bookingStatus IN ('Paid', 'Completed') " +
@@ -170,6 +181,44 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
             @Param("departureTime") LocalDateTime departureTime,
             Pageable pageable);
 
+    /**
+     * Keyset page of a customer's bookings, latest departure first, optionally by status:
+     * bookings strictly before the cursor (trip.departureTime, bookingId).
+     */
+    @Query("""
+                SELECT b FROM Booking b JOIN b.trip t
+                WHERE b.customer = :customer
+                AND (:status IS NULL OR b.bookingStatus = :status)
+                AND (t.departureTime, b.bookingId) < (:departureTime, :bookingId)
+                ORDER BY t.departureTime DESC, b.bookingId DESC
+            """)
+    List<Booking> findByCustomerBeforeDeparture(
+            @Param("customer") User customer,
+            @Param("status") String status,
+            @Param("departureTime") LocalDateTime departureTime,
+            @Param("bookingId") Integer bookingId,
+            Pageable pageable);
+
+    /**
+     * Keyset page of a customer's upcoming bookings, nearest departure first: bookings with the
+     * given statuses departing after {@code now} and strictly after the cursor.
+     */
+    @Query("""
+                SELECT b FROM Booking b JOIN b.trip t
+                WHERE b.customer = :customer
+                AND b.bookingStatus IN :statuses
+                AND t.departureTime > :now
+                AND (t.departureTime, b.bookingId) > (:departureTime, :bookingId)
+                ORDER BY t.departureTime ASC, b.bookingId ASC
+            """)
+    List<Booking> findUpcomingByCustomerAfterDeparture(
+            @Param("customer") User customer,
+            @Param("statuses") List<String> statuses,
+            @Param("now") LocalDateTime now,
+            @Param("departureTime") LocalDateTime departureTime,
+            @Param("bookingId") Integer bookingId,
+            Pageable pageable);
+
     /**
      * Count all bookings for a customer
      */
@@ -191,46 +240,61 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
             @Param("departureTime") LocalDateTime departureTime);
 
     /**
-     * Find all bookings for a customer by customer ID
+     * Select list of the booking lookups: one flat row per booking with its trip summary,
+     * so a page is read in a single joined query instead of walking the lazy associations.
      */
-    @Query("SELECT b FROM Booking b WHERE b.customer.userId = :customerId ORDER BY b.createdAt DESC")
-    List<Booking> findByCustomerId(@Param("customerId") Integer customerId);
+    String LOOKUP_ROW_QUERY = "SELECT new com.example.Fuba_BE.dto.Booking.BookingLookupRow(" +
+            "b.bookingId, b.bookingCode, t.tripId, r.routeName, t.departureTime, t.arrivalTime, " +
+            "o.locationName, o.province, d.locationName, d.province, v.licensePlate, vt.typeName, du.fullName, " +
+            "b.customerName, b.customerPhone, b.customerEmail, b.totalAmount, b.bookingStatus, b.bookingType, " +
+            "b.createdAt, b.holdExpiry) " +
+            "FROM Booking b JOIN b.trip t " +
+            "LEFT JOIN t.route r LEFT JOIN r.origin o LEFT JOIN r.destination d " +
+            "LEFT JOIN t.vehicle v LEFT JOIN v.vehicleType vt " +
+            "LEFT JOIN t.driver dr LEFT JOIN dr.user du ";
 
     /**
-     * Find all bookings for a customer by customer ID and status
+     * Page of a customer's bookings, newest first, optionally filtered by status
      */
-    @Query("SELECT b FROM Booking b WHERE b.customer.userId = :customerId AND b.bookingStatus = :status ORDER BY b.createdAt DESC")
-    List<Booking> findByCustomerIdAndBookingStatus(@Param("customerId") Integer customerId,
-            @Param("status") String status);
+    @Query(value = LOOKUP_ROW_QUERY +
+            "WHERE b.customer.userId = :customerId AND (:status IS NULL OR b.bookingStatus = :status) " +
+            "ORDER BY b.createdAt DESC, b.bookingId DESC",
+            countQuery = "SELECT COUNT(b) FROM Booking b " +
+                    "WHERE b.customer.userId = :customerId AND (:status IS NULL OR b.bookingStatus = :status)")
+    Page<BookingLookupRow> findLookupRowsByCustomerId(@Param("customerId") Integer customerId,
+            @Param("status") String status, Pageable pageable);
 
     /**
-     * Find all bookings for a trip
+     * Page of the bookings of a trip, in booking order
      */
-    @Query("SELECT b FROM Booking b WHERE b.trip.tripId = :tripId")
-    List<Booking> findByTripId(@Param("tripId") Integer tripId);
+    @Query(value = LOOKUP_ROW_QUERY + "WHERE b.trip.tripId = :tripId ORDER BY b.bookingId",
+            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.trip.tripId = :tripId")
+    Page<BookingLookupRow> findLookupRowsByTripId(@Param("tripId") Integer tripId, Pageable pageable);
 
     /**
-     * Find all bookings with status
+     * Page of the bookings made with a phone number, newest first
      */
-    List<Booking> findByBookingStatus(String bookingStatus);
+    @Query(value = LOOKUP_ROW_QUERY + "WHERE b.customerPhone = :phone ORDER BY b.createdAt DESC, b.bookingId DESC",
+            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.customerPhone = :phone")
+    Page<BookingLookupRow> findLookupRowsByPhone(@Param("phone") String phone, Pageable pageable);
 
     /**
-     * Find guest booking by session ID
+     * Page of the bookings made with an email, newest first
      */
-    @Query("SELECT b FROM Booking b WHERE b.guestSessionId = :sessionId AND b.isGuestBooking = true")
-    List<Booking> findGuestBookingsBySessionId(@Param("sessionId") String sessionId);
+    @Query(value = LOOKUP_ROW_QUERY + "WHERE b.customerEmail = :email ORDER BY b.createdAt DESC, b.bookingId DESC",
+            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.customerEmail = :email")
+    Page<BookingLookupRow> findLookupRowsByEmail(@Param("email") String email, Pageable pageable);
 
     /**
-     * Find booking by phone number
+     * Find all bookings with status
      */
-    @Query("SELECT b FROM Booking b WHERE b.customerPhone = :phone ORDER BY b.createdAt DESC")
-    List<Booking> findByCustomerPhone(@Param("phone") String phone);
+    List<Booking> findByBookingStatus(String bookingStatus);
 
     /**
-     * Find booking by email
+     * Find guest booking by session ID
      */
-    @Query("SELECT b FROM Booking b WHERE b.customerEmail = :email ORDER BY b.createdAt DESC")
-    List<Booking> findByCustomerEmail(@Param("email") String email);
+    @Query("SELECT b FROM Booking b WHERE b.guestSessionId = :sessionId AND b.isGuestBooking = true")
+    List<Booking> findGuestBookingsBySessionId(@Param("sessionId") String sessionId);
 
     /**
      * Find expired bookings based on holdExpiry timestamp.
@@ -276,7 +340,7 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
     Integer getLatestBookingSequence(@Param("datePrefix") String datePrefix);
 
     /**
-     * Find all bookings with pagination and optional filtering
+     * Find all bookings with pagination, optionally by status
      */
     @Query("""
                 SELECT DISTINCT b FROM Booking b
@@ -286,31 +350,123 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
                 LEFT JOIN FETCH t.vehicle
                 LEFT JOIN FETCH t.driver
                 WHERE (:status IS NULL OR b.bookingStatus = :status)
-                AND (:search IS NULL OR :search = '' OR
-                     LOWER(b.bookingCode) LIKE LOWER(CONCAT('%', :search, '%')) OR
-                     LOWER(b.customerName) LIKE LOWER(CONCAT('%', :search, '%')) OR
-                     LOWER(b.customerPhone) LIKE LOWER(CONCAT('%', :search, '%')))
             """)
     Page<Booking> findAllWithFilters(
             @Param("status") String status,
-            @Param("search") String search,
             Pageable pageable);
 
     /**
-     * Count query for pagination - required for DISTINCT with JOIN FETCH
+     * Find the bookings whose code, customer name or phone contains {@code search}. Without a
+     * search term use {@link #findAllWithFilters(String, Pageable)}: a "no search" guard in the
+     * predicate would keep the planner from the trigram indexes.
      */
     @Query("""
-                SELECT COUNT(DISTINCT b) FROM Booking b
+                SELECT DISTINCT b FROM Booking b
+                LEFT JOIN FETCH b.customer
+                LEFT JOIN FETCH b.trip t
+                LEFT JOIN FETCH t.route
+                LEFT JOIN FETCH t.vehicle
+                LEFT JOIN FETCH t.driver
+                WHERE (:status IS NULL OR b.bookingStatus = :status)
+            """ + SEARCH_MATCHES)
+    Page<Booking> findAllWithSearch(
+            @Param("status") String status,
+            @Param("search") String search,
+            Pageable pageable);
+
+    @Query("""
+                SELECT COUNT(b) FROM Booking b
                 WHERE (:status IS NULL OR b.bookingStatus = :status)
-                AND (:search IS NULL OR :search = '' OR
-                     LOWER(b.bookingCode) LIKE LOWER(CONCAT('%', :search, '%')) OR
-                     LOWER(b.customerName) LIKE LOWER(CONCAT('%', :search, '%')) OR
-                     LOWER(b.customerPhone) LIKE LOWER(CONCAT('%', :search, '%')))
             """)
-    long countAllWithFilters(
+    long countAllWithFilters(@Param("status") String status);
+
+    @Query("""
+                SELECT COUNT(b) FROM Booking b
+                WHERE (:status IS NULL OR b.bookingStatus = :status)
+            """ + SEARCH_MATCHES)
+    long countAllWithSearch(
             @Param("status") String status,
             @Param("search") String search);
 
+    /**
+     * Keyset page of the admin list, newest first: bookings strictly after the cursor
+     * (createdAt, bookingId). Size the page with {@code PageRequest.of(0, size)}.
+     */
+    @Query("""
+                SELECT b FROM Booking b
+                LEFT JOIN FETCH b.customer
+                LEFT JOIN FETCH b.trip t
+                LEFT JOIN FETCH t.route
+                LEFT JOIN FETCH t.vehicle
+                LEFT JOIN FETCH t.driver
+                WHERE (:status IS NULL OR b.bookingStatus = :status)
+                AND (b.createdAt, b.bookingId) < (:createdAt, :bookingId)
+                ORDER BY b.createdAt DESC, b.bookingId DESC
+            """)
+    List<Booking> findAllWithFiltersBefore(
+            @Param("status") String status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("bookingId") Integer bookingId,
+            Pageable pageable);
+
+    @Query("""
+                SELECT b FROM Booking b
+                LEFT JOIN FETCH b.customer
+                LEFT JOIN FETCH b.trip t
+                LEFT JOIN FETCH t.route
+                LEFT JOIN FETCH t.vehicle
+                LEFT JOIN FETCH t.driver
+                WHERE (:status IS NULL OR b.bookingStatus = :status)
+            """ + SEARCH_MATCHES + """
+                AND (b.createdAt, b.bookingId) < (:createdAt, :bookingId)
+                ORDER BY b.createdAt DESC, b.bookingId DESC
+            """)
+    List<Booking> findAllWithSearchBefore(
+            @Param("status") String status,
+            @Param("search") String search,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("bookingId") Integer bookingId,
+            Pageable pageable);
+
+    /**
+     * Keyset page of the admin list, oldest first.
+     */
+    @Query("""
+                SELECT b FROM Booking b
+                LEFT JOIN FETCH b.customer
+                LEFT JOIN FETCH b.trip t
+                LEFT JOIN FETCH t.route
+                LEFT JOIN FETCH t.vehicle
+                LEFT JOIN FETCH t.driver
+                WHERE (:status IS NULL OR b.bookingStatus = :status)
+                AND (b.createdAt, b.bookingId) > (:createdAt, :bookingId)
+                ORDER BY b.createdAt ASC, b.bookingId ASC
+            """)
+    List<Booking> findAllWithFiltersAfter(
+            @Param("status") String status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("bookingId") Integer bookingId,
+            Pageable pageable);
+
+    @Query("""
+                SELECT b FROM Booking b
+                LEFT JOIN FETCH b.customer
+                LEFT JOIN FETCH b.trip t
+                LEFT JOIN FETCH t.route
+                LEFT JOIN FETCH t.vehicle
+                LEFT JOIN FETCH t.driver
+                WHERE (:status IS NULL OR b.bookingStatus = :status)
+            """ + SEARCH_MATCHES + """
+                AND (b.createdAt, b.bookingId) > (:createdAt, :bookingId)
+                ORDER BY b.createdAt ASC, b.bookingId ASC
+            """)
+    List<Booking> findAllWithSearchAfter(
+            @Param("status") String status,
+            @Param("search") String search,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("bookingId") Integer bookingId,
+            Pageable pageable);
+
     /**
      * Find bookings by IDs to preserve order and avoid JOIN FETCH in pagination
      */
@@ -12,6 +12,18 @@ import org.springframework.data.repository.query.Param;
 import com.example.Fuba_BE.domain.entity.Driver;
 
 public interface DriverRepository extends JpaRepository<Driver, Integer> {
+
+        /**
+         * Ids of the drivers matching {@code :keyword}, one branch per table.
+         */
+        String KEYWORD_MATCHES = "SELECT kd.driverId FROM Driver kd " +
+                        "WHERE search_normalize(kd.driverLicense) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%')) " +
+                        "UNION " +
+                        "SELECT kd.driverId FROM Driver kd JOIN kd.user ku " +
+                        "WHERE search_normalize(ku.fullName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%')) " +
+                        "OR search_normalize(ku.email) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%')) " +
+                        "OR search_normalize(ku.phoneNumber) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%'))";
+
         @Query("SELECT COUNT(d) FROM Driver d WHERE d.licenseExpiry >= CURRENT_DATE")
         long countActiveDrivers();
 
@@ -27,13 +39,17 @@ public interface DriverRepository extends JpaRepository<Driver, Integer> {
         @Query("SELECT d FROM Driver d JOIN FETCH d.user u WHERE u.userId = :userId")
         Optional<Driver> findByUserId(@Param("userId") Integer userId);
 
-        @Query("SELECT DISTINCT d FROM Driver d " +
+        @Query("SELECT d FROM Driver d JOIN FETCH d.user u")
+        Page<Driver> findAllWithUser(Pageable pageable);
+
+        /**
+         * Drivers whose name, email, phone or license contains {@code keyword}. The drivers and
+         * users columns are matched in separate branches, each answered by its own trigram indexes;
+         * an OR across both tables of the join could only be checked row by row.
+         */
+        @Query("SELECT d FROM Driver d " +
                         "JOIN FETCH d.user u " +
-                        "WHERE (:keyword IS NULL OR :keyword = '' OR " +
-                        "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(d.driverLicense) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(u.phoneNumber) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+                        "WHERE d.driverId IN (" + KEYWORD_MATCHES + ")")
         Page<Driver> findAllWithUserAndKeyword(@Param("keyword") String keyword, Pageable pageable);
 
         @Query("SELECT d FROM Driver d " +
@@ -41,14 +57,15 @@ public interface DriverRepository extends JpaRepository<Driver, Integer> {
                         "WHERE d.driverId = :id")
         Optional<Driver> findByIdWithUser(@Param("id") Integer id);
 
-        @Query("SELECT DISTINCT d FROM Driver d " +
+        @Query("SELECT d FROM Driver d " +
+                        "JOIN FETCH d.user u " +
+                        "WHERE LOWER(u.status) = LOWER(:status)")
+        Page<Driver> findByStatus(@Param("status") String status, Pageable pageable);
+
+        @Query("SELECT d FROM Driver d " +
                         "JOIN FETCH d.user u " +
                         "WHERE LOWER(u.status) = LOWER(:status) " +
-                        "AND (:keyword IS NULL OR :keyword = '' OR " +
-                        "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(d.driverLicense) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(u.phoneNumber) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+                        "AND d.driverId IN (" + KEYWORD_MATCHES + ")")
         Page<Driver> findByStatusAndKeyword(@Param("status") String status, @Param("keyword") String keyword,
                         Pageable pageable);
 
@@ -56,12 +73,16 @@ public interface DriverRepository extends JpaRepository<Driver, Integer> {
                         "JOIN FETCH d.user u " +
                         "JOIN DriverRouteAssignment dra ON dra.driver = d " +
                         "WHERE dra.route.routeId = :routeId " +
-                        "AND (:keyword IS NULL OR :keyword = '' OR " +
-                        "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(d.driverLicense) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                        "LOWER(u.phoneNumber) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
                         "AND (:status IS NULL OR :status = '' OR LOWER(u.status) = LOWER(:status))")
-        Page<Driver> findByRouteId(@Param("routeId") Integer routeId, @Param("keyword") String keyword,
+        Page<Driver> findByRouteId(@Param("routeId") Integer routeId, @Param("status") String status,
+                        Pageable pageable);
+
+        @Query("SELECT DISTINCT d FROM Driver d " +
+                        "JOIN FETCH d.user u " +
+                        "JOIN DriverRouteAssignment dra ON dra.driver = d " +
+                        "WHERE dra.route.routeId = :routeId " +
+                        "AND d.driverId IN (" + KEYWORD_MATCHES + ") " +
+                        "AND (:status IS NULL OR :status = '' OR LOWER(u.status) = LOWER(:status))")
+        Page<Driver> findByRouteIdAndKeyword(@Param("routeId") Integer routeId, @Param("keyword") String keyword,
                         @Param("status") String status, Pageable pageable);
 }
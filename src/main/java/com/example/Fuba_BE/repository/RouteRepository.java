@@ -17,30 +17,43 @@ import com.example.Fuba_BE.domain.entity.Route;
 @Repository
 public interface RouteRepository extends JpaRepository<Route, Integer> {
 
+    /**
+     * Keyword search over the route name and the names of its origin, destination and stops.
+     * Each branch matches a single table through its trigram index and only the matching ids are
+     * joined back, instead of filtering the route x location join row by row.
+     */
     @Query(value = """
-                SELECT DISTINCT r
+                SELECT r
                 FROM Route r
                 LEFT JOIN FETCH r.origin o
                 LEFT JOIN FETCH r.destination d
-                LEFT JOIN r.routeStops rs
-                LEFT JOIN rs.location l
-                WHERE
-                    (:keyword IS NULL OR LOWER(r.routeName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
-                    OR (:keyword IS NULL OR LOWER(o.locationName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
-                    OR (:keyword IS NULL OR LOWER(d.locationName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
-                    OR (:keyword IS NULL OR LOWER(l.locationName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
+                WHERE r.routeId IN (
+                    SELECT kr.routeId FROM Route kr
+                    WHERE search_normalize(kr.routeName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%'))
+                    UNION
+                    SELECT kr.routeId FROM Route kr JOIN kr.origin kl
+                    WHERE search_normalize(kl.locationName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%'))
+                    UNION
+                    SELECT kr.routeId FROM Route kr JOIN kr.destination kl
+                    WHERE search_normalize(kl.locationName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%'))
+                    UNION
+                    SELECT rs.route.routeId FROM RouteStop rs JOIN rs.location kl
+                    WHERE search_normalize(kl.locationName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%')))
             """, countQuery = """
-                SELECT count(DISTINCT r)
+                SELECT count(r)
                 FROM Route r
-                LEFT JOIN r.origin o
-                LEFT JOIN r.destination d
-                LEFT JOIN r.routeStops rs
-                LEFT JOIN rs.location l
-                WHERE
-                    (:keyword IS NULL OR LOWER(r.routeName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
-                    OR (:keyword IS NULL OR LOWER(o.locationName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
-                    OR (:keyword IS NULL OR LOWER(d.locationName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
-                    OR (:keyword IS NULL OR LOWER(l.locationName) LIKE LOWER(CONCAT('%', CAST(:keyword AS string), '%')))
+                WHERE r.routeId IN (
+                    SELECT kr.routeId FROM Route kr
+                    WHERE search_normalize(kr.routeName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%'))
+                    UNION
+                    SELECT kr.routeId FROM Route kr JOIN kr.origin kl
+                    WHERE search_normalize(kl.locationName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%'))
+                    UNION
+                    SELECT kr.routeId FROM Route kr JOIN kr.destination kl
+                    WHERE search_normalize(kl.locationName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%'))
+                    UNION
+                    SELECT rs.route.routeId FROM RouteStop rs JOIN rs.location kl
+                    WHERE search_normalize(kl.locationName) LIKE search_normalize(CONCAT('%', CAST(:keyword AS string), '%')))
             """)
     Page<Route> searchRoutes(
             @Param("keyword") String keyword,
@@ -1,6 +1,7 @@
 package com.example.Fuba_BE.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.Fuba_BE.domain.entity.Ticket;
+import com.example.Fuba_BE.dto.Booking.BookingTicketRow;
 
 import jakarta.persistence.LockModeType;
 
@@ -77,6 +79,19 @@ public interface TicketRepository extends JpaRepository<Ticket, Integer> {
     @Query("SELECT t FROM Ticket t JOIN FETCH t.seat WHERE t.booking.bookingId IN :bookingIds")
     List<Ticket> findByBookingIds(@Param("bookingIds") List<Integer> bookingIds);
 
+    /**
+     * Flat ticket, seat and passenger rows of a page of bookings in one query
+     */
+    @Query("SELECT new com.example.Fuba_BE.dto.Booking.BookingTicketRow(" +
+            "t.booking.bookingId, t.ticketId, t.ticketCode, s.seatId, s.seatNumber, s.floorNumber, t.price, t.ticketStatus, " +
+            "p.passengerId, p.fullName, p.phoneNumber, p.email, " +
+            "p.pickupAddress, pu.stopName, p.dropoffAddress, dr.stopName) " +
+            "FROM Ticket t JOIN t.seat s " +
+            "LEFT JOIN Passenger p ON p.ticket = t " +
+            "LEFT JOIN p.pickupLocation pu LEFT JOIN p.dropoffLocation dr " +
+            "WHERE t.booking.bookingId IN :bookingIds ORDER BY t.booking.bookingId, t.ticketId")
+    List<BookingTicketRow> findRowsByBookingIds(@Param("bookingIds") Collection<Integer> bookingIds);
+
     /**
      * Find all tickets for a trip
      */
@@ -62,9 +62,9 @@ public interface TripRepository extends JpaRepository<Trip, Integer>, JpaSpecifi
     List<Object[]> getWeeklyTicketSales();
 
     // 3. Hàm cho DashboardService
+    // Số ghế đã đặt lấy từ cột bookedSeats/heldSeats của Trip (V24), không đếm TripSeat
     @Query(value = """
-                SELECT t,
-                (SELECT COUNT(ts) FROM TripSeat ts WHERE ts.trip = t AND (ts.status = 'Booked' OR ts.status = 'Held'))
+                SELECT t
                 FROM Trip t
                 LEFT JOIN FETCH t.route r
                 LEFT JOIN FETCH r.origin o
@@ -83,7 +83,7 @@ public interface TripRepository extends JpaRepository<Trip, Integer>, JpaSpecifi
                 AND (CAST(:end AS timestamp) IS NULL OR t.departureTime <= :end)
                 AND (CAST(:routeId AS integer) IS NULL OR r.routeId = :routeId)
             """)
-    Page<Object[]> findTripsWithBookingCount(
+    Page<Trip> findTripsForDashboard(
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end,
             @Param("routeId") Integer routeId,
@@ -274,12 +274,6 @@ public interface TripRepository extends JpaRepository<Trip, Integer>, JpaSpecifi
             "GROUP BY ts.trip.tripId")
     List<Object[]> batchCountCheckedInSeats(@Param("tripIds") List<Integer> tripIds);
 
-    @Query("SELECT ts.trip.tripId, LOWER(ts.status), COUNT(ts) " +
-            "FROM TripSeat ts " +
-            "WHERE ts.trip.tripId IN :tripIds " +
-            "GROUP BY ts.trip.tripId, LOWER(ts.status)")
-    List<Object[]> countSeatStatusByTripIds(@Param("tripIds") List<Integer> tripIds);
-
     @Query("SELECT DISTINCT t FROM Trip t " +
             "LEFT JOIN FETCH t.route r " +
             "LEFT JOIN FETCH r.origin " +
@@ -293,6 +287,7 @@ public interface TripRepository extends JpaRepository<Trip, Integer>, JpaSpecifi
             "WHERE t.tripId IN :ids")
     List<Trip> findTripsDetailByIds(@Param("ids") List<Integer> ids);
 
+    // Trips loaded into the in-memory search index (TripSearchIndex)
     @Query("SELECT t FROM Trip t " +
             "LEFT JOIN FETCH t.route r " +
             "LEFT JOIN FETCH r.origin " +
@@ -300,9 +295,36 @@ public interface TripRepository extends JpaRepository<Trip, Integer>, JpaSpecifi
             "LEFT JOIN FETCH t.vehicle v " +
             "LEFT JOIN FETCH v.vehicleType " +
             "LEFT JOIN FETCH t.driver d " +
+            "LEFT JOIN FETCH d.user " +
+            "LEFT JOIN FETCH t.subDriver sd " +
+            "LEFT JOIN FETCH sd.user " +
+            "WHERE t.status IN :statuses " +
+            "AND t.departureTime >= :from AND t.departureTime < :to")
+    List<Trip> findSearchableTrips(@Param("statuses") List<String> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Reschedule dialog: trips of the route in a bounded window, seat counts from the trip counters (V24)
+    @Query(value = "SELECT t FROM Trip t " +
+            "JOIN FETCH t.route r " +
+            "LEFT JOIN FETCH t.vehicle v " +
+            "LEFT JOIN FETCH v.vehicleType " +
+            "LEFT JOIN FETCH t.driver d " +
+            "LEFT JOIN FETCH d.user " +
+            "WHERE r.routeId = :routeId " +
+            "AND t.tripId <> :excludeTripId " +
+            "AND t.status IN :statuses " +
+            "AND t.departureTime > :after AND t.departureTime < :until " +
+            "ORDER BY t.departureTime ASC, t.tripId ASC",
+            countQuery = "SELECT COUNT(t) FROM Trip t " +
             "WHERE t.route.routeId = :routeId " +
-            "AND t.departureTime > :afterDateTime " +
-            "ORDER BY t.departureTime ASC")
-    List<Trip> findByRouteAndAfterDateTime(@Param("routeId") Integer routeId,
-            @Param("afterDateTime") LocalDateTime afterDateTime);
+            "AND t.tripId <> :excludeTripId " +
+            "AND t.status IN :statuses " +
+            "AND t.departureTime > :after AND t.departureTime < :until")
+    Page<Trip> findAlternativeTrips(@Param("routeId") Integer routeId,
+            @Param("excludeTripId") Integer excludeTripId,
+            @Param("statuses") List<String> statuses,
+            @Param("after") LocalDateTime after,
+            @Param("until") LocalDateTime until,
+            Pageable pageable);
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +37,16 @@ public interface TripSeatRepository extends JpaRepository<TripSeat, Integer> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT ts FROM TripSeat ts WHERE ts.seatId = :seatId AND ts.trip.tripId = :tripId")
     Optional<TripSeat> findBySeatIdAndTripIdWithLock(@Param("seatId") Integer seatId, @Param("tripId") Integer tripId);
+
+    /**
+     * Lock several seats of a trip in one statement (SELECT ... FOR UPDATE).
+     * Rows are locked in seat id order, so concurrent bookings of overlapping seats can't deadlock.
+     * Seats that don't belong to the trip are simply missing from the result.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ts FROM TripSeat ts WHERE ts.trip.tripId = :tripId AND ts.seatId IN :seatIds ORDER BY ts.seatId")
+    List<TripSeat> findAllBySeatIdsAndTripIdWithLock(@Param("seatIds") Collection<Integer> seatIds,
+                                                     @Param("tripId") Integer tripId);
     
     /**
      * Find all seats locked by a specific session ID.
@@ -51,6 +62,13 @@ public interface TripSeatRepository extends JpaRepository<TripSeat, Integer> {
     @Query("SELECT ts FROM TripSeat ts WHERE ts.status = 'Held' AND ts.holdExpiry < :now")
     List<TripSeat> findExpiredLocks(@Param("now") LocalDateTime now);
     
+    /**
+     * Seat id, trip id and hold expiry of every held seat.
+     * Used at startup to rebuild the hold expiry wheel.
+     */
+    @Query("SELECT ts.seatId, ts.trip.tripId, ts.holdExpiry FROM TripSeat ts WHERE ts.status = 'Held' AND ts.holdExpiry IS NOT NULL")
+    List<Object[]> findHoldDeadlines();
+    
     /**
      * Find all locked seats for a specific trip.
      */
@@ -89,4 +107,13 @@ public interface TripSeatRepository extends JpaRepository<TripSeat, Integer> {
            "WHERE ts.trip.tripId = :tripId " +
            "ORDER BY ts.floorNumber ASC, ts.seatNumber ASC")
     List<TripSeat> findAllSeatsByTripIdWithDetails(@Param("tripId") Integer tripId);
+
+    /**
+     * Find all seats of trips departing in a time window.
+     * Used to rebuild the in-memory seat state engine at startup.
+     */
+    @Query("SELECT ts FROM TripSeat ts " +
+           "WHERE ts.trip.departureTime > :from AND ts.trip.departureTime < :to " +
+           "ORDER BY ts.trip.tripId, ts.seatId")
+    List<TripSeat> findSeatsOfTripsDepartingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,155 @@
+package com.example.Fuba_BE.service.Booking;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Fuba_BE.repository.BookingRepository;
+import com.example.Fuba_BE.repository.TicketRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands out booking codes ({@code BKyyyyMMddNNN}) and ticket codes ({@code TKyyyyMMddNNN}).
+ *
+ * Each node reserves a block of numbers per day in {@code code_sequences} (one UPDATE per block)
+ * and allocates from it in memory with a single atomic increment, so a code costs no query in
+ * steady state and two transactions can never get the same number. Numbers are padded to three
+ * digits and simply grow longer past 999. Numbers of a block left unused when a node stops are
+ * skipped: codes are unique and increasing per node, not gap-free.
+ */
+@Component
+@Slf4j
+public class BookingCodeAllocator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String ADVANCE_SQL =
+            "UPDATE code_sequences SET next_value = next_value + ?, updatedat = CURRENT_TIMESTAMP " +
+            "WHERE prefix = ? RETURNING next_value";
+    private static final String CREATE_SQL =
+            "INSERT INTO code_sequences (prefix, next_value) VALUES (?, ?) " +
+            "ON CONFLICT (prefix) DO UPDATE SET next_value = code_sequences.next_value + ?, " +
+            "updatedat = CURRENT_TIMESTAMP RETURNING next_value";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private final Sequence bookingSequence;
+    private final Sequence ticketSequence;
+
+    public BookingCodeAllocator(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                BookingRepository bookingRepository,
+                                TicketRepository ticketRepository,
+                                @Value("${booking.code.block-size:50}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A reserved block must stay reserved even if the booking that asked for it rolls back
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.bookingSequence = new Sequence("BK", bookingRepository::getLatestBookingSequence);
+        this.ticketSequence = new Sequence("TK", ticketRepository::getLatestTicketSequence);
+    }
+
+    public String nextBookingCode() {
+        return nextBookingCode(LocalDate.now());
+    }
+
+    public String nextTicketCode() {
+        return nextTicketCode(LocalDate.now());
+    }
+
+    String nextBookingCode(LocalDate day) {
+        return bookingSequence.next(day);
+    }
+
+    String nextTicketCode(LocalDate day) {
+        return ticketSequence.next(day);
+    }
+
+    /**
+     * A range [next, end) of numbers reserved for one code prefix (code type and day).
+     */
+    private static final class Block {
+        final String prefix;
+        final AtomicLong next;
+        final long end;
+
+        Block(String prefix, long start, long end) {
+            this.prefix = prefix;
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+
+    /**
+     * Codes of one type. Allocation is lock-free; only the thread that finds the block used up
+     * (or from a previous day) reserves the next one while the others wait for it.
+     */
+    private final class Sequence {
+        private final String type;
+        private final Function<String, Integer> latestExisting;
+        private final AtomicReference<Block> current = new AtomicReference<>();
+
+        Sequence(String type, Function<String, Integer> latestExisting) {
+            this.type = type;
+            this.latestExisting = latestExisting;
+        }
+
+        String next(LocalDate day) {
+            String prefix = type + day.format(DATE_FORMAT);
+            for (;;) {
+                Block block = current.get();
+                if (block != null && block.prefix.equals(prefix)) {
+                    long number = block.next.getAndIncrement();
+                    if (number < block.end) {
+                        return String.format("%s%03d", prefix, number);
+                    }
+                }
+                refill(block, prefix);
+            }
+        }
+
+        private synchronized void refill(Block exhausted, String prefix) {
+            if (current.get() != exhausted) {
+                // Another thread already reserved a new block
+                return;
+            }
+            long end = reserve(prefix);
+            current.set(new Block(prefix, end - blockSize, end));
+            log.debug("Reserved code numbers [{}, {}) for {}", end - blockSize, end, prefix);
+        }
+
+        /**
+         * Reserve the next block of the prefix and return its (exclusive) end.
+         */
+        private long reserve(String prefix) {
+            Long end = transactionTemplate.execute(status -> {
+                List<Long> advanced = jdbcTemplate.queryForList(ADVANCE_SQL, Long.class, blockSize, prefix);
+                if (!advanced.isEmpty()) {
+                    return advanced.get(0);
+                }
+                // First block of the day: continue after codes issued before this table existed
+                Integer latest = latestExisting.apply(prefix.substring(type.length()));
+                long start = (latest != null ? latest : 0) + 1L;
+                return jdbcTemplate.queryForObject(CREATE_SQL, Long.class, prefix, start + blockSize, blockSize);
+            });
+            if (end == null) {
+                throw new IllegalStateException("Could not reserve code numbers for " + prefix);
+            }
+            return end;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.Fuba_BE.service.Booking;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.example.Fuba_BE.exception.BadRequestException;
+
+/**
+ * Keyset position in a booking listing: the sort value and booking id of the last row returned.
+ *
+ * Clients get it as an opaque string ({@code nextCursor}) and send it back to fetch the rows
+ * after it, so deep pages cost the same as the first one.
+ */
+public record BookingCursor(LocalDateTime sortValue, Integer bookingId) {
+
+    public String encode() {
+        String raw = sortValue + "|" + bookingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new BookingCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Cursor không hợp lệ: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.Fuba_BE.service.Booking;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.dto.Booking.BookingResponse;
+import com.example.Fuba_BE.exception.BadRequestException;
+import com.example.Fuba_BE.exception.ConflictException;
+import com.example.Fuba_BE.service.cluster.SchedulerLeases;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Deduplicates booking submissions carrying the same {@code Idempotency-Key}.
+ *
+ * Keys are kept in {@code booking_idempotency_keys}, so retries are recognised on every node and
+ * across restarts. The first request for a key claims it and runs the booking; duplicates get
+ * its stored response without booking again. A duplicate arriving while the first submission
+ * still runs waits briefly ({@code booking.idempotency.wait-ms}, a few hundred milliseconds) and
+ * then gets a 409 to retry later: a retry storm must not hold request threads and connections
+ * for the length of a booking. A failed attempt deletes its claim so the client can retry with
+ * the same key; a duplicate still waiting then runs as that retry. A claim left by a node that
+ * died is taken over once it expires.
+ */
+@Component
+@Slf4j
+public class BookingIdempotencyStore {
+
+    private static final String CLAIM_SQL = """
+            INSERT INTO booking_idempotency_keys (idempotencykey, fingerprint, claimtoken, expiresat)
+            VALUES (?, ?, ?, LOCALTIMESTAMP + ? * INTERVAL '1 millisecond')
+            ON CONFLICT (idempotencykey) DO UPDATE
+            SET fingerprint = EXCLUDED.fingerprint, claimtoken = EXCLUDED.claimtoken, response = NULL,
+                createdat = CURRENT_TIMESTAMP, expiresat = EXCLUDED.expiresat
+            WHERE booking_idempotency_keys.expiresat < LOCALTIMESTAMP
+            RETURNING idempotencykey
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE booking_idempotency_keys
+            SET response = ?, expiresat = LOCALTIMESTAMP + ? * INTERVAL '1 millisecond'
+            WHERE idempotencykey = ? AND claimtoken = ?
+            """;
+
+    private static final String PURGE_SQL = """
+            DELETE FROM booking_idempotency_keys
+            WHERE idempotencykey IN (
+                SELECT idempotencykey FROM booking_idempotency_keys
+                WHERE expiresat < LOCALTIMESTAMP
+                LIMIT ?
+            )
+            """;
+
+    private static final int PURGE_CHUNK = 5000;
+    private static final long POLL_MILLIS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+    private final SchedulerLeases schedulerLeases;
+    private final long ttlMillis;
+    private final long claimMillis;
+    private final long waitMillis;
+
+    public BookingIdempotencyStore(JdbcTemplate jdbcTemplate, JsonMapper jsonMapper, SchedulerLeases schedulerLeases,
+                                   @Value("${booking.idempotency.ttl-minutes:15}") long ttlMinutes,
+                                   @Value("${booking.idempotency.claim-ms:120000}") long claimMillis,
+                                   @Value("${booking.idempotency.wait-ms:300}") long waitMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+        this.schedulerLeases = schedulerLeases;
+        this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+        this.claimMillis = claimMillis;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * A key as stored: the response is null while the booking runs.
+     */
+    private record Stored(String fingerprint, String response) {
+    }
+
+    /**
+     * Run {@code booking} once per key.
+     *
+     * @param key         idempotency key, already scoped to the caller
+     * @param fingerprint the request; a key reused for a different request is rejected
+     * @throws ConflictException when the first submission is still running after the wait
+     */
+    public BookingResponse execute(String key, Object fingerprint, Supplier<BookingResponse> booking) {
+        String hash = fingerprint(fingerprint);
+        long deadline = System.nanoTime() + Duration.ofMillis(waitMillis).toNanos();
+        boolean duplicate = false;
+        while (true) {
+            UUID claim = UUID.randomUUID();
+            if (claim(key, hash, claim)) {
+                return run(key, claim, booking);
+            }
+
+            Stored stored = find(key);
+            if (stored != null) {
+                if (!stored.fingerprint().equals(hash)) {
+                    throw new BadRequestException("Idempotency-Key đã được sử dụng cho một yêu cầu khác");
+                }
+                if (!duplicate) {
+                    log.info("Duplicate booking submission for idempotency key {}, reusing its result", key);
+                    duplicate = true;
+                }
+                if (stored.response() != null) {
+                    return jsonMapper.readValue(stored.response(), BookingResponse.class);
+                }
+            }
+
+            if (System.nanoTime() - deadline >= 0) {
+                throw new ConflictException("Yêu cầu đặt vé trước đó vẫn đang được xử lý, vui lòng thử lại sau");
+            }
+            sleep();
+        }
+    }
+
+    /**
+     * Delete the keys past their TTL and the claims of nodes that died.
+     */
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-ms:300000}")
+    public void purgeExpired() {
+        schedulerLeases.runExclusive("booking.idempotency-purge", Duration.ofMinutes(10), () -> {
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(PURGE_SQL, PURGE_CHUNK);
+                purged += deleted;
+            } while (deleted == PURGE_CHUNK);
+            if (purged > 0) {
+                log.info("Purged {} expired booking idempotency keys", purged);
+            }
+        });
+    }
+
+    private BookingResponse run(String key, UUID claim, Supplier<BookingResponse> booking) {
+        BookingResponse response;
+        try {
+            response = booking.get();
+        } catch (RuntimeException e) {
+            jdbcTemplate.update("DELETE FROM booking_idempotency_keys WHERE idempotencykey = ? AND claimtoken = ?",
+                    key, claim);
+            throw e;
+        }
+        jdbcTemplate.update(COMPLETE_SQL, jsonMapper.writeValueAsString(response), ttlMillis, key, claim);
+        return response;
+    }
+
+    private boolean claim(String key, String fingerprint, UUID claim) {
+        return !jdbcTemplate.queryForList(CLAIM_SQL, String.class, key, fingerprint, claim, claimMillis).isEmpty();
+    }
+
+    private Stored find(String key) {
+        List<Stored> rows = jdbcTemplate.query(
+                "SELECT fingerprint, response FROM booking_idempotency_keys WHERE idempotencykey = ?",
+                (rs, rowNum) -> new Stored(rs.getString("fingerprint"), rs.getString("response")), key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jsonMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
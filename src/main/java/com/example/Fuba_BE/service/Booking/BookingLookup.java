@@ -0,0 +1,89 @@
+package com.example.Fuba_BE.service.Booking;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.dto.Booking.BookingLookupRow;
+import com.example.Fuba_BE.dto.Booking.BookingPageResponse;
+import com.example.Fuba_BE.dto.Booking.BookingResponse;
+import com.example.Fuba_BE.dto.Booking.BookingTicketRow;
+import com.example.Fuba_BE.exception.BadRequestException;
+import com.example.Fuba_BE.mapper.BookingMapper;
+import com.example.Fuba_BE.repository.BookingRepository;
+import com.example.Fuba_BE.repository.TicketRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Paged booking lookups (by customer, trip, phone or email) read from flat projections.
+ *
+ * A page costs a fixed number of statements whatever its content: one joined query for the
+ * bookings and their trip summary, one for the tickets, seats and passengers of the whole page,
+ * and the count when the page is not the last one. No entity is loaded, so nothing lazy is
+ * touched while mapping.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingLookup {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final BookingRepository bookingRepository;
+    private final TicketRepository ticketRepository;
+    private final BookingMapper bookingMapper;
+
+    public BookingPageResponse byCustomer(Integer customerId, String status, int page, int size) {
+        return toPageResponse(bookingRepository.findLookupRowsByCustomerId(customerId, status, pageRequest(page, size)));
+    }
+
+    public BookingPageResponse byTrip(Integer tripId, int page, int size) {
+        return toPageResponse(bookingRepository.findLookupRowsByTripId(tripId, pageRequest(page, size)));
+    }
+
+    public BookingPageResponse byPhone(String phone, int page, int size) {
+        return toPageResponse(bookingRepository.findLookupRowsByPhone(phone, pageRequest(page, size)));
+    }
+
+    public BookingPageResponse byEmail(String email, int page, int size) {
+        return toPageResponse(bookingRepository.findLookupRowsByEmail(email, pageRequest(page, size)));
+    }
+
+    private static PageRequest pageRequest(int page, int size) {
+        if (page < 0) {
+            throw new BadRequestException("Số trang không hợp lệ");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Kích thước trang phải từ 1 đến " + MAX_PAGE_SIZE);
+        }
+        return PageRequest.of(page, size);
+    }
+
+    private BookingPageResponse toPageResponse(Page<BookingLookupRow> rows) {
+        List<Integer> bookingIds = rows.map(BookingLookupRow::bookingId).getContent();
+
+        Map<Integer, List<BookingTicketRow>> ticketsByBooking = bookingIds.isEmpty()
+                ? Map.of()
+                : ticketRepository.findRowsByBookingIds(bookingIds).stream()
+                        .collect(Collectors.groupingBy(BookingTicketRow::bookingId));
+
+        List<BookingResponse> bookings = rows.getContent().stream()
+                .map(row -> bookingMapper.toBookingResponse(row,
+                        ticketsByBooking.getOrDefault(row.bookingId(), List.of())))
+                .toList();
+
+        return BookingPageResponse.builder()
+                .bookings(bookings)
+                .currentPage(rows.getNumber())
+                .pageSize(rows.getSize())
+                .totalElements(rows.getTotalElements())
+                .totalPages(rows.getTotalPages())
+                .isFirst(rows.isFirst())
+                .isLast(rows.isLast())
+                .build();
+    }
+}
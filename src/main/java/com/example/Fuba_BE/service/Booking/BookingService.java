@@ -1,16 +1,19 @@
 package com.example.Fuba_BE.service.Booking;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
 
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -18,9 +21,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.example.Fuba_BE.config.CacheConfig;
 import com.example.Fuba_BE.domain.entity.Booking;
@@ -53,7 +57,10 @@ import com.example.Fuba_BE.repository.TripRepository;
 import com.example.Fuba_BE.repository.TripSeatRepository;
 import com.example.Fuba_BE.repository.UserRepository;
 import com.example.Fuba_BE.service.AuditLog.IAuditLogService;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -75,11 +82,16 @@ public class BookingService implements IBookingService {
     private final RouteStopRepository routeStopRepository;
     private final RefundRepository refundRepository;
     private final BookingMapper bookingMapper;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
     private final IAuditLogService auditLogService;
     private final CacheManager cacheManager;
+    private final MyTicketsCacheKeys myTicketsCacheKeys;
+    private final SeatStateEngine seatStateEngine;
+    private final BookingCodeAllocator bookingCodeAllocator;
+    private final BookingLookup bookingLookup;
+    private final EntityManager entityManager;
 
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int JDBC_BATCH_SIZE = 50;
 
     @Override
     @Transactional(readOnly = true)
@@ -90,6 +102,9 @@ public class BookingService implements IBookingService {
         Trip trip = tripRepository.findById(tripId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy chuyến đi với ID: " + tripId));
 
+        // Make sure holds granted in memory are visible in tripseats before validating them
+        seatStateEngine.flush(tripId);
+
         List<BookingPreviewResponse.SeatInfo> seatInfos = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
         boolean allValid = true;
@@ -176,19 +191,12 @@ public class BookingService implements IBookingService {
         Trip trip = tripRepository.findById(request.getTripId())
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy chuyến đi với ID: " + request.getTripId()));
 
-        List<TripSeat> seatsToBook = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (Integer seatId : request.getSeatIds()) {
-            TripSeat seat = tripSeatRepository.findBySeatIdAndTripIdWithLock(seatId, request.getTripId())
-                    .orElseThrow(() -> new NotFoundException(
-                            "Ghế " + seatId + " không tồn tại trong chuyến đi này"));
-
-            validateSeatOwnership(seat, request.getUserId());
+        // Make sure holds granted in memory are visible in tripseats before locking the rows
+        seatStateEngine.flush(request.getTripId());
 
-            seatsToBook.add(seat);
-            totalAmount = totalAmount.add(trip.getBasePrice());
-        }
+        List<TripSeat> seatsToBook = lockRequestedSeats(request.getTripId(), request.getSeatIds());
+        throwIfAny(seatsToBook.stream().map(seat -> seatOwnershipError(seat, request.getUserId())));
+        BigDecimal totalAmount = trip.getBasePrice().multiply(BigDecimal.valueOf(seatsToBook.size()));
 
         String bookingCode = generateBookingCode();
 
@@ -225,9 +233,9 @@ public class BookingService implements IBookingService {
                 .holdExpiry(LocalDateTime.now().plusMinutes(15))
                 .build();
 
+        enableJdbcBatching();
         booking = bookingRepository.save(booking);
 
-        List<Ticket> tickets = new ArrayList<>();
         Map<Integer, BookingConfirmRequest.PassengerInfo> passengerInfoMap = new HashMap<>();
 
         if (request.getPassengers() != null) {
@@ -235,44 +243,41 @@ public class BookingService implements IBookingService {
                 passengerInfoMap.put(p.getSeatId(), p);
             }
         }
+        Map<Integer, RouteStop> routeStops = findRouteStops(passengerInfoMap.values().stream()
+                .flatMap(p -> Stream.of(p.getPickupStopId(), p.getDropoffStopId())));
 
+        List<Ticket> tickets = new ArrayList<>(seatsToBook.size());
         for (TripSeat seat : seatsToBook) {
             // Seat status remains "Held" until payment
-            String ticketCode = generateTicketCode();
-
-            Ticket ticket = Ticket.builder()
-                    .ticketCode(ticketCode)
+            tickets.add(Ticket.builder()
+                    .ticketCode(generateTicketCode())
                     .booking(booking)
                     .seat(seat)
                     .price(trip.getBasePrice())
                     .ticketStatus(TicketStatus.UNCONFIRMED.getDisplayName())
-                    .build();
-
-            ticket = ticketRepository.save(ticket);
-            tickets.add(ticket);
+                    .build());
+        }
+        // Ids come from the pooled sequence; the rows go out as one JDBC batch at flush
+        tickets = ticketRepository.saveAll(tickets);
 
-            BookingConfirmRequest.PassengerInfo passengerInfo = passengerInfoMap.get(seat.getSeatId());
+        Map<Integer, Passenger> passengersByTicketId = new HashMap<>();
+        for (Ticket ticket : tickets) {
+            BookingConfirmRequest.PassengerInfo passengerInfo = passengerInfoMap.get(ticket.getSeat().getSeatId());
             if (passengerInfo != null) {
-                createPassenger(ticket, passengerInfo);
+                Passenger passenger = buildPassenger(ticket, passengerInfo, routeStops);
+                passengersByTicketId.put(ticket.getTicketId(), passenger);
             }
 
-            broadcastSeatUpdate(trip.getTripId(), seat);
+            broadcastSeatUpdate(trip.getTripId(), ticket.getSeat());
         }
+        passengerRepository.saveAll(passengersByTicketId.values());
 
         log.info("Booking {} created with Held status and {} tickets", bookingCode, tickets.size());
 
-        // Invalidate my-tickets cache because a new booking was created
-        try {
-            Cache cache = cacheManager.getCache(CacheConfig.CACHE_MY_TICKETS);
-            if (cache != null) {
-                cache.clear();
-                log.info("Cleared my-tickets cache after booking create: {}", bookingCode);
-            }
-        } catch (Exception ex) {
-            log.warn("Failed to clear my-tickets cache after booking create: {}", ex.getMessage());
-        }
+        // Only this customer's my-tickets pages are affected by the new booking
+        invalidateMyTickets(customer);
 
-        return bookingMapper.toBookingResponse(booking, trip, tickets);
+        return bookingMapper.toBookingResponse(booking, trip, tickets, passengersByTicketId);
     }
 
     @Override
@@ -284,22 +289,14 @@ public class BookingService implements IBookingService {
         Trip trip = tripRepository.findById(request.getTripId())
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy chuyến đi với ID: " + request.getTripId()));
 
-        List<TripSeat> seatsToBook = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (Integer seatId : request.getSeatIds()) {
-            TripSeat seat = tripSeatRepository.findBySeatIdAndTripIdWithLock(seatId, request.getTripId())
-                    .orElseThrow(() -> new NotFoundException(
-                            "Ghế " + seatId + " không tồn tại trong chuyến đi này"));
-
-            if (seat.isBooked()) {
-                throw new BadRequestException(
-                        "Ghế " + seat.getSeatNumber() + " (ID: " + seatId + ") đã được đặt");
-            }
+        // Make sure holds granted in memory are visible in tripseats before locking the rows
+        seatStateEngine.flush(request.getTripId());
 
-            seatsToBook.add(seat);
-            totalAmount = totalAmount.add(trip.getBasePrice());
-        }
+        List<TripSeat> seatsToBook = lockRequestedSeats(request.getTripId(), request.getSeatIds());
+        throwIfAny(seatsToBook.stream().map(seat -> seat.isBooked()
+                ? "Ghế " + seat.getSeatNumber() + " (ID: " + seat.getSeatId() + ") đã được đặt"
+                : null));
+        BigDecimal totalAmount = trip.getBasePrice().multiply(BigDecimal.valueOf(seatsToBook.size()));
 
         String bookingCode = generateBookingCode();
 
@@ -326,9 +323,9 @@ public class BookingService implements IBookingService {
                 .holdExpiry(LocalDateTime.now())
                 .build();
 
+        enableJdbcBatching();
         booking = bookingRepository.save(booking);
 
-        List<Ticket> tickets = new ArrayList<>();
         Map<Integer, CounterBookingRequest.PassengerInfo> passengerInfoMap = new HashMap<>();
 
         if (request.getPassengers() != null) {
@@ -336,31 +333,36 @@ public class BookingService implements IBookingService {
                 passengerInfoMap.put(p.getSeatId(), p);
             }
         }
+        Map<Integer, RouteStop> routeStops = findRouteStops(passengerInfoMap.values().stream()
+                .flatMap(p -> Stream.of(p.getPickupStopId(), p.getDropoffStopId())));
 
+        List<Ticket> tickets = new ArrayList<>(seatsToBook.size());
         for (TripSeat seat : seatsToBook) {
+            // Managed entity: the status change is flushed with the other seat updates
             seat.book();
-            tripSeatRepository.save(seat);
 
-            String ticketCode = generateTicketCode();
-
-            Ticket ticket = Ticket.builder()
-                    .ticketCode(ticketCode)
+            tickets.add(Ticket.builder()
+                    .ticketCode(generateTicketCode())
                     .booking(booking)
                     .seat(seat)
                     .price(trip.getBasePrice())
                     .ticketStatus(TicketStatus.CONFIRMED.getDisplayName())
-                    .build();
-
-            ticket = ticketRepository.save(ticket);
-            tickets.add(ticket);
+                    .build());
+        }
+        // Ids come from the pooled sequence; the rows go out as one JDBC batch at flush
+        tickets = ticketRepository.saveAll(tickets);
 
-            CounterBookingRequest.PassengerInfo passengerInfo = passengerInfoMap.get(seat.getSeatId());
+        Map<Integer, Passenger> passengersByTicketId = new HashMap<>();
+        for (Ticket ticket : tickets) {
+            CounterBookingRequest.PassengerInfo passengerInfo = passengerInfoMap.get(ticket.getSeat().getSeatId());
             if (passengerInfo != null) {
-                createPassengerForCounter(ticket, passengerInfo);
+                Passenger passenger = buildCounterPassenger(ticket, passengerInfo, routeStops);
+                passengersByTicketId.put(ticket.getTicketId(), passenger);
             }
 
-            broadcastSeatUpdate(trip.getTripId(), seat);
+            broadcastSeatUpdate(trip.getTripId(), ticket.getSeat());
         }
+        passengerRepository.saveAll(passengersByTicketId.values());
 
         // Log staff activity for counter booking
         if (staffUser != null) {
@@ -371,18 +373,9 @@ public class BookingService implements IBookingService {
         }
 
         log.info("Counter booking {} created successfully with {} tickets", bookingCode, tickets.size());
-        // Clear my-tickets cache after counter booking
-        try {
-            Cache cache = cacheManager.getCache(CacheConfig.CACHE_MY_TICKETS);
-            if (cache != null) {
-                cache.clear();
-                log.info("Cleared my-tickets cache after counter booking: {}", bookingCode);
-            }
-        } catch (Exception ex) {
-            log.warn("Failed to clear my-tickets cache after counter booking: {}", ex.getMessage());
-        }
+        invalidateMyTickets(booking.getCustomer());
 
-        return bookingMapper.toBookingResponse(booking, trip, tickets);
+        return bookingMapper.toBookingResponse(booking, trip, tickets, passengersByTicketId);
     }
 
     @Override
@@ -418,6 +411,7 @@ public class BookingService implements IBookingService {
             }
         }
 
+        invalidateMyTickets(booking.getCustomer());
         log.info("Payment processed successfully for booking {}", booking.getBookingCode());
         return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets);
     }
@@ -458,6 +452,7 @@ public class BookingService implements IBookingService {
             }
         }
 
+        invalidateMyTickets(booking.getCustomer());
         log.info("✅ BYPASS PAYMENT: Successfully confirmed booking {} with {} tickets",
                 booking.getBookingCode(), tickets.size());
         return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets);
@@ -498,67 +493,36 @@ public class BookingService implements IBookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponse> getBookingsByCustomerId(Integer customerId) {
-        return getBookingsByCustomerId(customerId, null);
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<BookingResponse> getBookingsByCustomerId(Integer customerId, String status) {
-        List<Booking> bookings;
-        if (status != null && !status.trim().isEmpty()) {
+    public BookingPageResponse getBookingsByCustomerId(Integer customerId, String status, int page, int size) {
+        if (status != null && status.trim().isEmpty()) {
+            status = null;
+        }
+        if (status != null) {
             List<String> validStatuses = Arrays.asList("Held", "Pending", "Paid", "Cancelled", "Expired", "Completed");
             if (!validStatuses.contains(status)) {
                 throw new BadRequestException(
                         "Invalid booking status. Valid values: Held, Pending, Paid, Cancelled, Expired, Completed");
             }
-            bookings = bookingRepository.findByCustomerIdAndBookingStatus(customerId, status);
-        } else {
-            bookings = bookingRepository.findByCustomerId(customerId);
         }
-
-        return bookings.stream()
-                .map(booking -> {
-                    List<Ticket> tickets = ticketRepository.findByBookingId(booking.getBookingId());
-                    return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets);
-                })
-                .collect(Collectors.toList());
+        return bookingLookup.byCustomer(customerId, status, page, size);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponse> getBookingsByTripId(Integer tripId) {
-        List<Booking> bookings = bookingRepository.findByTripId(tripId);
-        return bookings.stream()
-                .map(booking -> {
-                    List<Ticket> tickets = ticketRepository.findByBookingId(booking.getBookingId());
-                    return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets);
-                })
-                .collect(Collectors.toList());
+    public BookingPageResponse getBookingsByTripId(Integer tripId, int page, int size) {
+        return bookingLookup.byTrip(tripId, page, size);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponse> getBookingsByPhone(String phone) {
-        List<Booking> bookings = bookingRepository.findByCustomerPhone(phone);
-        return bookings.stream()
-                .map(booking -> {
-                    List<Ticket> tickets = ticketRepository.findByBookingId(booking.getBookingId());
-                    return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets);
-                })
-                .collect(Collectors.toList());
+    public BookingPageResponse getBookingsByPhone(String phone, int page, int size) {
+        return bookingLookup.byPhone(phone, page, size);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponse> getBookingsByEmail(String email) {
-        List<Booking> bookings = bookingRepository.findByCustomerEmail(email);
-        return bookings.stream()
-                .map(booking -> {
-                    List<Ticket> tickets = ticketRepository.findByBookingId(booking.getBookingId());
-                    return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets);
-                })
-                .collect(Collectors.toList());
+    public BookingPageResponse getBookingsByEmail(String email, int page, int size) {
+        return bookingLookup.byEmail(email, page, size);
     }
 
     @Override
@@ -609,16 +573,7 @@ public class BookingService implements IBookingService {
             }
         }
 
-        // Clear my-tickets cache after cancellation
-        try {
-            Cache cache = cacheManager.getCache(CacheConfig.CACHE_MY_TICKETS);
-            if (cache != null) {
-                cache.clear();
-                log.info("Cleared my-tickets cache after cancelling booking: {}", bookingId);
-            }
-        } catch (Exception ex) {
-            log.warn("Failed to clear my-tickets cache after cancellation: {}", ex.getMessage());
-        }
+        invalidateMyTickets(booking.getCustomer());
 
         // Calculate refund based on cancellation policy
         if (needsRefund && booking.getTotalAmount().compareTo(BigDecimal.ZERO) > 0) {
@@ -749,20 +704,18 @@ public class BookingService implements IBookingService {
         }
 
         // 3. Validate new seats
-        List<TripSeat> newSeats = new ArrayList<>();
-        for (Integer seatId : request.getNewSeatIds()) {
-            TripSeat seat = tripSeatRepository.findBySeatIdAndTripId(seatId, request.getNewTripId())
-                    .orElseThrow(() -> new NotFoundException("Không tìm thấy ghế " + seatId + " trong chuyến đi mới"));
-
-            // Seat must be locked by this user or available
+        seatStateEngine.flush(request.getNewTripId());
+        List<TripSeat> newSeats = lockRequestedSeats(request.getNewTripId(), request.getNewSeatIds());
+        // Seat must be locked by this user or available
+        throwIfAny(newSeats.stream().map(seat -> {
             if (seat.isBooked()) {
-                throw new BadRequestException("Ghế " + seat.getSeatNumber() + " đã được đặt");
+                return "Ghế " + seat.getSeatNumber() + " đã được đặt";
             }
             if (seat.isLocked() && !request.getUserId().equals(seat.getLockedBy())) {
-                throw new BadRequestException("Ghế " + seat.getSeatNumber() + " đang được giữ bởi người khác");
+                return "Ghế " + seat.getSeatNumber() + " đang được giữ bởi người khác";
             }
-            newSeats.add(seat);
-        }
+            return null;
+        }));
 
         // 4. Calculate financial details
         BigDecimal oldAmount = oldBooking.getTotalAmount();
@@ -827,6 +780,9 @@ public class BookingService implements IBookingService {
 
         // 7. Create new tickets
         List<Ticket> newTickets = new ArrayList<>();
+        Map<Integer, RouteStop> routeStops = request.getPassengers() == null ? Map.of()
+                : findRouteStops(request.getPassengers().stream()
+                        .flatMap(p -> Stream.of(p.getPickupStopId(), p.getDropoffStopId())));
         int passengerIndex = 0;
 
         for (TripSeat newSeat : newSeats) {
@@ -851,7 +807,7 @@ public class BookingService implements IBookingService {
 
             // Create passenger info
             if (request.getPassengers() != null && passengerIndex < request.getPassengers().size()) {
-                createPassenger(newTicket, request.getPassengers().get(passengerIndex));
+                passengerRepository.save(buildPassenger(newTicket, request.getPassengers().get(passengerIndex), routeStops));
             } else if (passengerIndex < oldTickets.size()) {
                 // Copy passenger from old ticket
                 Optional<Passenger> oldPassenger = passengerRepository.findByTicket_TicketId(
@@ -916,6 +872,7 @@ public class BookingService implements IBookingService {
                         ? String.format("Đổi vé thành công! Phụ thu: %s VNĐ", extraFee)
                         : "Đổi vé thành công!";
 
+        invalidateMyTickets(oldBooking.getCustomer());
         log.info("Reschedule completed: {} -> {}. Price diff: {}",
                 oldBooking.getBookingCode(), newBooking.getBookingCode(), priceDifference);
 
@@ -952,126 +909,144 @@ public class BookingService implements IBookingService {
         return "Ghế hợp lệ để đặt";
     }
 
-    private void validateSeatOwnership(TripSeat seat, String userId) {
+    /**
+     * Lock the requested seats of a trip with a single ordered SELECT ... FOR UPDATE.
+     *
+     * @return the seats in request order
+     * @throws NotFoundException naming every requested seat that is not part of the trip
+     */
+    private List<TripSeat> lockRequestedSeats(Integer tripId, List<Integer> seatIds) {
+        if (seatIds == null || seatIds.isEmpty()) {
+            throw new BadRequestException("Vui lòng chọn ít nhất một ghế");
+        }
+        List<Integer> distinctIds = seatIds.stream().distinct().toList();
+        if (distinctIds.size() != seatIds.size()) {
+            throw new BadRequestException("Danh sách ghế bị trùng lặp");
+        }
+
+        Map<Integer, TripSeat> seatsById = tripSeatRepository.findAllBySeatIdsAndTripIdWithLock(distinctIds, tripId)
+                .stream()
+                .collect(Collectors.toMap(TripSeat::getSeatId, seat -> seat));
+
+        List<Integer> missing = distinctIds.stream().filter(id -> !seatsById.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Ghế " + missing + " không tồn tại trong chuyến đi này");
+        }
+        return distinctIds.stream().map(seatsById::get).toList();
+    }
+
+    /**
+     * Throw one BadRequestException listing every per-seat error (null entries mean the seat is fine).
+     */
+    private void throwIfAny(Stream<String> seatErrors) {
+        List<String> errors = seatErrors.filter(Objects::nonNull).toList();
+        if (!errors.isEmpty()) {
+            throw new BadRequestException(String.join("; ", errors));
+        }
+    }
+
+    /**
+     * Why the user can't book this seat, or null if it holds a valid lock on it.
+     */
+    private String seatOwnershipError(TripSeat seat, String userId) {
         String seatNumber = seat.getSeatNumber();
         Integer seatId = seat.getSeatId();
 
         if (seat.isBooked()) {
-            throw new BadRequestException("Ghế " + seatNumber + " (ID: " + seatId + ") đã được đặt");
+            return "Ghế " + seatNumber + " (ID: " + seatId + ") đã được đặt";
         }
         if (!seat.isLocked()) {
-            throw new BadRequestException(
-                    "Ghế " + seatNumber + " (ID: " + seatId + ") chưa được khóa. Vui lòng khóa ghế trước khi đặt");
+            return "Ghế " + seatNumber + " (ID: " + seatId + ") chưa được khóa. Vui lòng khóa ghế trước khi đặt";
         }
         if (seat.isLockExpired()) {
-            throw new BadRequestException(
-                    "Thời gian khóa ghế " + seatNumber + " (ID: " + seatId + ") đã hết hạn. Vui lòng khóa lại");
+            return "Thời gian khóa ghế " + seatNumber + " (ID: " + seatId + ") đã hết hạn. Vui lòng khóa lại";
         }
         if (!userId.equals(seat.getLockedBy())) {
-            throw new BadRequestException(
-                    "Ghế " + seatNumber + " (ID: " + seatId + ") đang được giữ bởi người dùng khác");
+            return "Ghế " + seatNumber + " (ID: " + seatId + ") đang được giữ bởi người dùng khác";
         }
+        return null;
     }
 
     private String generateBookingCode() {
-        String datePrefix = LocalDate.now().format(DATE_FORMAT);
-        Integer latestSequence = bookingRepository.getLatestBookingSequence(datePrefix);
-        int nextSequence = (latestSequence != null ? latestSequence : 0) + 1;
-        return String.format("BK%s%03d", datePrefix, nextSequence);
+        return bookingCodeAllocator.nextBookingCode();
     }
 
     private String generateTicketCode() {
-        String datePrefix = LocalDate.now().format(DATE_FORMAT);
-        Integer latestSequence = ticketRepository.getLatestTicketSequence(datePrefix);
-        int nextSequence = (latestSequence != null ? latestSequence : 0) + 1;
-        return String.format("TK%s%03d", datePrefix, nextSequence);
+        return bookingCodeAllocator.nextTicketCode();
     }
 
-    private void createPassenger(Ticket ticket, BookingConfirmRequest.PassengerInfo info) {
-        Optional<Passenger> existingPassenger = passengerRepository.findByTicket_TicketId(ticket.getTicketId());
-        RouteStop pickupStop = null;
-        RouteStop dropoffStop = null;
-
-        if (info.getPickupStopId() != null) {
-            pickupStop = routeStopRepository.findById(info.getPickupStopId()).orElse(null);
-        }
-        if (info.getDropoffStopId() != null) {
-            dropoffStop = routeStopRepository.findById(info.getDropoffStopId()).orElse(null);
-        }
+    /**
+     * Let Hibernate send this transaction's inserts/updates in JDBC batches.
+     */
+    private void enableJdbcBatching() {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(JDBC_BATCH_SIZE);
+    }
 
-        if (existingPassenger.isPresent()) {
-            Passenger passenger = existingPassenger.get();
-            if (info.getPickupStopId() != null) {
-                passenger.setPickupLocation(pickupStop);
-            }
-            if (info.getDropoffStopId() != null) {
-                passenger.setDropoffLocation(dropoffStop);
-            }
-            passenger.setPickupAddress(info.getPickupAddress());
-            passenger.setDropoffAddress(info.getDropoffAddress());
-            passenger.setSpecialNote(info.getSpecialNote());
-            passengerRepository.save(passenger);
-            return;
+    /**
+     * Pickup/dropoff stops referenced by a booking's passengers, loaded with a single query.
+     */
+    private Map<Integer, RouteStop> findRouteStops(Stream<Integer> stopIds) {
+        Set<Integer> ids = stopIds.filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
         }
+        return routeStopRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(RouteStop::getStopId, stop -> stop));
+    }
 
-        Passenger passenger = Passenger.builder()
+    /**
+     * Passenger of a ticket created in this request (so it can't have one yet); not saved.
+     */
+    private Passenger buildPassenger(Ticket ticket, BookingConfirmRequest.PassengerInfo info,
+            Map<Integer, RouteStop> routeStops) {
+        return Passenger.builder()
                 .ticket(ticket)
                 .fullName(info.getFullName())
                 .phoneNumber(info.getPhoneNumber())
-                .pickupLocation(pickupStop)
+                .pickupLocation(info.getPickupStopId() != null ? routeStops.get(info.getPickupStopId()) : null)
                 .pickupAddress(info.getPickupAddress())
-                .dropoffLocation(dropoffStop)
+                .dropoffLocation(info.getDropoffStopId() != null ? routeStops.get(info.getDropoffStopId()) : null)
                 .dropoffAddress(info.getDropoffAddress())
                 .specialNote(info.getSpecialNote())
                 .build();
-
-        passengerRepository.save(passenger);
     }
 
-    private void createPassengerForCounter(Ticket ticket, CounterBookingRequest.PassengerInfo info) {
-        Optional<Passenger> existingPassenger = passengerRepository.findByTicket_TicketId(ticket.getTicketId());
-        if (existingPassenger.isPresent()) {
-            log.warn("Passenger already exists for ticket {}, skipping creation", ticket.getTicketId());
-            return;
-        }
-
-        RouteStop pickupStop = null;
-        RouteStop dropoffStop = null;
-
-        if (info.getPickupStopId() != null) {
-            pickupStop = routeStopRepository.findById(info.getPickupStopId()).orElse(null);
-        }
-        if (info.getDropoffStopId() != null) {
-            dropoffStop = routeStopRepository.findById(info.getDropoffStopId()).orElse(null);
-        }
-
-        Passenger passenger = Passenger.builder()
+    private Passenger buildCounterPassenger(Ticket ticket, CounterBookingRequest.PassengerInfo info,
+            Map<Integer, RouteStop> routeStops) {
+        return Passenger.builder()
                 .ticket(ticket)
                 .fullName(info.getPassengerName())
                 .phoneNumber(info.getPassengerPhone())
-                .pickupLocation(pickupStop)
-                .dropoffLocation(dropoffStop)
+                .pickupLocation(info.getPickupStopId() != null ? routeStops.get(info.getPickupStopId()) : null)
+                .dropoffLocation(info.getDropoffStopId() != null ? routeStops.get(info.getDropoffStopId()) : null)
                 .build();
-
-        passengerRepository.save(passenger);
     }
 
     private void broadcastSeatUpdate(Integer tripId, TripSeat seat) {
-        try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("seatId", seat.getSeatId());
-            message.put("seatNumber", seat.getSeatNumber());
-            message.put("status", seat.getStatus());
-            message.put("lockedBy", seat.getLockedBy());
-            message.put("holdExpiry", seat.getHoldExpiry());
-            message.put("timestamp", LocalDateTime.now().toString());
-
-            String destination = "/topic/trips/" + tripId + "/seats";
-            messagingTemplate.convertAndSend(destination, (Object) message);
-            log.debug("Broadcast seat update for seat {} on trip {}", seat.getSeatId(), tripId);
-        } catch (Exception e) {
-            log.error("Failed to broadcast seat update: {}", e.getMessage());
+        // Coalesced per trip and sent once the surrounding transaction commits
+        seatBroadcastAggregator.publish(tripId, seat);
+    }
+
+    /**
+     * Make the customer's cached my-tickets pages stale; other customers keep theirs.
+     * Guest bookings have no customer and nothing cached.
+     */
+    private void invalidateMyTickets(User customer) {
+        if (customer == null) {
+            return;
+        }
+        Integer userId = customer.getUserId();
+        myTicketsCacheKeys.invalidate(userId);
+        // A page read before commit would still be cached under the new generation
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    myTicketsCacheKeys.invalidate(userId);
+                }
+            });
         }
+        log.debug("Invalidated my-tickets cache of user {}", userId);
     }
 
     @Override
@@ -1079,12 +1054,19 @@ public class BookingService implements IBookingService {
     public BookingPageResponse getAllBookings(BookingFilterRequest filterRequest) {
         log.info("Getting all bookings with filters: {}", filterRequest);
 
-        // Build sort
-        Sort sort = Sort.by(
-                "DESC".equalsIgnoreCase(filterRequest.getSortDirection())
-                        ? Sort.Direction.DESC
-                        : Sort.Direction.ASC,
-                filterRequest.getSortBy());
+        boolean createdAtOrder = "createdAt".equals(filterRequest.getSortBy());
+        if (filterRequest.getCursor() != null && !filterRequest.getCursor().isBlank()) {
+            if (!createdAtOrder) {
+                throw new BadRequestException("Cursor chỉ hỗ trợ sắp xếp theo createdAt");
+            }
+            return getAllBookingsAfterCursor(filterRequest, BookingCursor.decode(filterRequest.getCursor()));
+        }
+
+        // Build sort; bookingId breaks ties so the order matches the keyset pages that follow
+        Sort.Direction direction = "DESC".equalsIgnoreCase(filterRequest.getSortDirection())
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, filterRequest.getSortBy()).and(Sort.by(direction, "bookingId"));
 
         // Build pageable
         Pageable pageable = PageRequest.of(
@@ -1093,13 +1075,81 @@ public class BookingService implements IBookingService {
                 sort);
 
         // Query with filters
-        Page<Booking> bookingPage = bookingRepository.findAllWithFilters(
-                filterRequest.getStatus(),
-                filterRequest.getSearch(),
-                pageable);
+        String search = searchTerm(filterRequest);
+        Page<Booking> bookingPage = search != null
+                ? bookingRepository.findAllWithSearch(filterRequest.getStatus(), search, pageable)
+                : bookingRepository.findAllWithFilters(filterRequest.getStatus(), pageable);
+
+        List<BookingResponse> bookingResponses = toBookingResponses(bookingPage.getContent());
+
+        return BookingPageResponse.builder()
+                .bookings(bookingResponses)
+                .currentPage(bookingPage.getNumber())
+                .pageSize(bookingPage.getSize())
+                .totalElements(bookingPage.getTotalElements())
+                .totalPages(bookingPage.getTotalPages())
+                .isFirst(bookingPage.isFirst())
+                .isLast(bookingPage.isLast())
+                .nextCursor(createdAtOrder && bookingPage.hasNext() ? createdAtCursor(bookingPage.getContent()) : null)
+                .build();
+    }
+
+    /**
+     * Keyset page of the admin list after {@code cursor}. The total is only counted on request,
+     * since that count is the expensive part of deep pages.
+     */
+    private BookingPageResponse getAllBookingsAfterCursor(BookingFilterRequest filterRequest, BookingCursor cursor) {
+        int size = filterRequest.getSize();
+        // One extra row tells whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        String status = filterRequest.getStatus();
+        String search = searchTerm(filterRequest);
+        List<Booking> rows;
+        if ("ASC".equalsIgnoreCase(filterRequest.getSortDirection())) {
+            rows = search != null
+                    ? bookingRepository.findAllWithSearchAfter(status, search, cursor.sortValue(), cursor.bookingId(), limit)
+                    : bookingRepository.findAllWithFiltersAfter(status, cursor.sortValue(), cursor.bookingId(), limit);
+        } else {
+            rows = search != null
+                    ? bookingRepository.findAllWithSearchBefore(status, search, cursor.sortValue(), cursor.bookingId(), limit)
+                    : bookingRepository.findAllWithFiltersBefore(status, cursor.sortValue(), cursor.bookingId(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<Booking> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        Long total = null;
+        Integer totalPages = null;
+        if (Boolean.TRUE.equals(filterRequest.getIncludeTotal())) {
+            total = search != null
+                    ? bookingRepository.countAllWithSearch(status, search)
+                    : bookingRepository.countAllWithFilters(status);
+            totalPages = (int) ((total + size - 1) / size);
+        }
+
+        return BookingPageResponse.builder()
+                .bookings(toBookingResponses(pageRows))
+                .pageSize(size)
+                .totalElements(total)
+                .totalPages(totalPages)
+                .isFirst(false)
+                .isLast(!hasNext)
+                .nextCursor(hasNext ? createdAtCursor(pageRows) : null)
+                .build();
+    }
+
+    /**
+     * The admin list's search term, or null to list without the search predicate.
+     */
+    private static String searchTerm(BookingFilterRequest filterRequest) {
+        String search = filterRequest.getSearch();
+        return search == null || search.isBlank() ? null : search.trim();
+    }
 
+    private List<BookingResponse> toBookingResponses(List<Booking> bookings) {
         // Batch fetch tickets for all bookings to avoid N+1 query
-        List<Integer> bookingIds = bookingPage.getContent().stream()
+        List<Integer> bookingIds = bookings.stream()
                 .map(Booking::getBookingId)
                 .collect(Collectors.toList());
 
@@ -1129,22 +1179,17 @@ public class BookingService implements IBookingService {
                 ));
 
         // Map to response
-        List<BookingResponse> bookingResponses = bookingPage.getContent().stream()
+        return bookings.stream()
                 .map(booking -> {
                     List<Ticket> tickets = ticketsByBookingId.getOrDefault(booking.getBookingId(), List.of());
                     return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets, passengersByTicketId);
                 })
                 .collect(Collectors.toList());
+    }
 
-        return BookingPageResponse.builder()
-                .bookings(bookingResponses)
-                .currentPage(bookingPage.getNumber())
-                .pageSize(bookingPage.getSize())
-                .totalElements(bookingPage.getTotalElements())
-                .totalPages(bookingPage.getTotalPages())
-                .isFirst(bookingPage.isFirst())
-                .isLast(bookingPage.isLast())
-                .build();
+    private static String createdAtCursor(List<Booking> rows) {
+        Booking last = rows.get(rows.size() - 1);
+        return new BookingCursor(last.getCreatedAt(), last.getBookingId()).encode();
     }
 
     @Override
@@ -1190,19 +1235,21 @@ public class BookingService implements IBookingService {
             }
         }
 
+        invalidateMyTickets(booking.getCustomer());
         log.info("Booking {} confirmed successfully", bookingId);
         return bookingMapper.toBookingResponse(booking, booking.getTrip(), tickets);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public BookingPageResponse getMyTickets(Integer userId, String status, Integer page, Integer size) {
-        log.info("Get my tickets for user {}: status={}, page={}, size={}", userId, status, page, size);
+    public BookingPageResponse getMyTickets(Integer userId, String status, Integer page, Integer size,
+            String cursor) {
+        log.info("Get my tickets for user {}: status={}, page={}, size={}, cursor={}", userId, status, page, size,
+                cursor);
 
         // Try cache first
         Cache cache = cacheManager.getCache(CacheConfig.CACHE_MY_TICKETS);
-        String cacheKey = String.format("user:%d|status:%s|p:%d|s:%d", userId, (status == null ? "ALL" : status), page,
-                size);
+        String cacheKey = myTicketsCacheKeys.key(userId, status, page, size, cursor);
         if (cache != null) {
             BookingPageResponse cached = cache.get(cacheKey, BookingPageResponse.class);
             if (cached != null) {
@@ -1216,9 +1263,19 @@ public class BookingService implements IBookingService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy người dùng với ID: " + userId));
 
-        // Build pageable - Upcoming sort ASC (nearest first), others sort DESC
+        if (cursor != null && !cursor.isBlank()) {
+            BookingPageResponse result = getMyTicketsAfterCursor(user, status, BookingCursor.decode(cursor), size);
+            if (cache != null) {
+                cache.put(cacheKey, result);
+            }
+            return result;
+        }
+
+        // Build pageable - Upcoming sort ASC (nearest first), others sort DESC.
+        // bookingId breaks ties so the order matches the keyset pages that follow.
         Sort.Direction sortDirection = "Upcoming".equalsIgnoreCase(status) ? Sort.Direction.ASC : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, "trip.departureTime"));
+        Pageable pageable = PageRequest.of(page, size,
+                Sort.by(sortDirection, "trip.departureTime").and(Sort.by(sortDirection, "bookingId")));
 
         Page<Booking> bookingPage;
 
@@ -1240,8 +1297,69 @@ public class BookingService implements IBookingService {
             bookingPage = bookingRepository.findByCustomerAndBookingStatus(user, status, pageable);
         }
 
+        List<BookingResponse> bookingResponses = toMyTicketResponses(bookingPage.getContent());
+
+        BookingPageResponse result = BookingPageResponse.builder()
+                .bookings(bookingResponses)
+                .currentPage(bookingPage.getNumber())
+                .pageSize(bookingPage.getSize())
+                .totalElements(bookingPage.getTotalElements())
+                .totalPages(bookingPage.getTotalPages())
+                .isFirst(bookingPage.isFirst())
+                .isLast(bookingPage.isLast())
+                .nextCursor(bookingPage.hasNext() ? departureCursor(bookingPage.getContent()) : null)
+                .build();
+
+        if (cache != null) {
+            cache.put(cacheKey, result);
+            log.info("Stored my-tickets result in cache -> {}", cacheKey);
+        }
+
+        return result;
+    }
+
+    /**
+     * Keyset page of my-tickets after {@code cursor}, in the same order as the offset pages.
+     * No count query: the totals come from /my-tickets/count.
+     */
+    private BookingPageResponse getMyTicketsAfterCursor(User user, String status, BookingCursor cursor, int size) {
+        // One extra row tells whether another page follows
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Booking> rows;
+        if (status == null || status.trim().isEmpty()) {
+            rows = bookingRepository.findByCustomerBeforeDeparture(
+                    user, null, cursor.sortValue(), cursor.bookingId(), limit);
+        } else if ("Upcoming".equalsIgnoreCase(status)) {
+            rows = bookingRepository.findUpcomingByCustomerAfterDeparture(
+                    user, Arrays.asList("Held", "Paid"), LocalDateTime.now(),
+                    cursor.sortValue(), cursor.bookingId(), limit);
+        } else if ("Completed".equalsIgnoreCase(status)) {
+            rows = bookingRepository.findByCustomerBeforeDeparture(
+                    user, "Completed", cursor.sortValue(), cursor.bookingId(), limit);
+        } else if ("Cancelled".equalsIgnoreCase(status)) {
+            rows = bookingRepository.findByCustomerBeforeDeparture(
+                    user, "Cancelled", cursor.sortValue(), cursor.bookingId(), limit);
+        } else {
+            rows = bookingRepository.findByCustomerBeforeDeparture(
+                    user, status, cursor.sortValue(), cursor.bookingId(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<Booking> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        return BookingPageResponse.builder()
+                .bookings(toMyTicketResponses(pageRows))
+                .pageSize(size)
+                .isFirst(false)
+                .isLast(!hasNext)
+                .nextCursor(hasNext ? departureCursor(pageRows) : null)
+                .build();
+    }
+
+    private List<BookingResponse> toMyTicketResponses(List<Booking> bookings) {
         // Avoid N+1: batch-load bookings with details and tickets
-        List<Integer> bookingIds = bookingPage.getContent().stream()
+        List<Integer> bookingIds = bookings.stream()
                 .map(b -> b.getBookingId())
                 .collect(Collectors.toList());
 
@@ -1254,30 +1372,18 @@ public class BookingService implements IBookingService {
         Map<Integer, List<Ticket>> ticketsByBookingId = allTickets.stream()
                 .collect(Collectors.groupingBy(t -> t.getBooking().getBookingId()));
 
-        List<BookingResponse> bookingResponses = bookingPage.getContent().stream()
+        return bookings.stream()
                 .map(booking -> {
                     Booking detailed = bookingById.getOrDefault(booking.getBookingId(), booking);
                     List<Ticket> tickets = ticketsByBookingId.getOrDefault(booking.getBookingId(), List.of());
                     return bookingMapper.toBookingResponse(detailed, detailed.getTrip(), tickets);
                 })
                 .collect(Collectors.toList());
+    }
 
-        BookingPageResponse result = BookingPageResponse.builder()
-                .bookings(bookingResponses)
-                .currentPage(bookingPage.getNumber())
-                .pageSize(bookingPage.getSize())
-                .totalElements(bookingPage.getTotalElements())
-                .totalPages(bookingPage.getTotalPages())
-                .isFirst(bookingPage.isFirst())
-                .isLast(bookingPage.isLast())
-                .build();
-
-        if (cache != null) {
-            cache.put(cacheKey, result);
-            log.info("Stored my-tickets result in cache -> {}", cacheKey);
-        }
-
-        return result;
+    private static String departureCursor(List<Booking> rows) {
+        Booking last = rows.get(rows.size() - 1);
+        return new BookingCursor(last.getTrip().getDepartureTime(), last.getBookingId()).encode();
     }
 
     @Override
@@ -0,0 +1,163 @@
+package com.example.Fuba_BE.service.Booking;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame.SeatDelta;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Set-based expiry of Held/Pending bookings whose hold ran out.
+ *
+ * Works in chunks of booking ids, each in its own short transaction: one UPDATE ... RETURNING
+ * marks the chunk Expired, one UPDATE releases all of its seats, and every affected trip gets a
+ * single seat broadcast. Bookings locked by a concurrent payment are skipped and picked up by
+ * the next run. Across a cluster the sweep is split into shards by trip id.
+ */
+@Component
+@Slf4j
+public class HeldBookingExpiry {
+
+    private static final String EXPIRE_BOOKINGS_SQL = """
+            UPDATE bookings SET bookingstatus = 'Expired', updatedat = ?
+            WHERE bookingid IN (
+                SELECT bookingid FROM bookings
+                WHERE bookingstatus IN ('Held', 'Pending') AND holdexpiry < ? AND bookingid > ?
+                AND mod(tripid, ?) = ?
+                ORDER BY bookingid
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            AND bookingstatus IN ('Held', 'Pending')
+            RETURNING bookingid, customerid
+            """;
+
+    // A seat that already went to another live booking stays with it
+    private static final String RELEASE_SEATS_SQL = """
+            UPDATE tripseats ts
+            SET status = 'Available', lockedby = NULL, lockedbysessionid = NULL, holdexpiry = NULL
+            FROM tickets t
+            WHERE t.bookingid = ANY (?) AND ts.seatid = t.seatid AND ts.status <> 'Available'
+            AND NOT EXISTS (
+                SELECT 1 FROM tickets other JOIN bookings b ON b.bookingid = other.bookingid
+                WHERE other.seatid = ts.seatid AND other.bookingid <> t.bookingid
+                AND b.bookingstatus IN ('Held', 'Pending', 'Paid'))
+            RETURNING ts.tripid, ts.seatid, ts.seatnumber, ts.floornumber
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatStateEngine seatStateEngine;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
+    private final MyTicketsCacheKeys myTicketsCacheKeys;
+    private final int chunkSize;
+
+    public HeldBookingExpiry(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             SeatStateEngine seatStateEngine, SeatBroadcastAggregator seatBroadcastAggregator,
+                             MyTicketsCacheKeys myTicketsCacheKeys,
+                             @Value("${booking.expiry.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.seatStateEngine = seatStateEngine;
+        this.seatBroadcastAggregator = seatBroadcastAggregator;
+        this.myTicketsCacheKeys = myTicketsCacheKeys;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * A chunk of bookings expired in one transaction.
+     */
+    private record Chunk(int lastBookingId, int bookings, int seats, List<Integer> customerIds) {
+    }
+
+    /**
+     * Expire every booking whose hold expired before {@code now}.
+     *
+     * @return number of bookings expired
+     */
+    public int expire(LocalDateTime now) {
+        return expire(now, 1, 0);
+    }
+
+    /**
+     * Expire the expired bookings of the trips with {@code tripId % shards == shard}.
+     *
+     * @return number of bookings expired
+     */
+    public int expire(LocalDateTime now, int shards, int shard) {
+        int afterId = 0;
+        int bookings = 0;
+        int seats = 0;
+        long start = System.nanoTime();
+
+        Chunk chunk;
+        do {
+            int from = afterId;
+            chunk = transactionTemplate.execute(status -> expireChunk(now, shards, shard, from));
+            chunk.customerIds().forEach(myTicketsCacheKeys::invalidate);
+            bookings += chunk.bookings();
+            seats += chunk.seats();
+            afterId = chunk.lastBookingId();
+        } while (chunk.bookings() == chunkSize);
+
+        if (bookings > 0) {
+            log.info("Expired {} bookings and released {} seats (shard {}/{}) in {} ms",
+                    bookings, seats, shard, shards, (System.nanoTime() - start) / 1_000_000);
+        }
+        return bookings;
+    }
+
+    private Chunk expireChunk(LocalDateTime now, int shards, int shard, int afterId) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Integer> bookingIds = new ArrayList<>();
+        List<Integer> customerIds = new ArrayList<>();
+        jdbcTemplate.query(EXPIRE_BOOKINGS_SQL, rs -> {
+            bookingIds.add(rs.getInt("bookingid"));
+            int customerId = rs.getInt("customerid");
+            if (!rs.wasNull()) {
+                customerIds.add(customerId);
+            }
+        }, timestamp, timestamp, afterId, shards, shard, chunkSize);
+
+        if (bookingIds.isEmpty()) {
+            return new Chunk(afterId, 0, 0, List.of());
+        }
+
+        Map<Integer, List<SeatDelta>> releasedByTrip = new LinkedHashMap<>();
+        jdbcTemplate.query(RELEASE_SEATS_SQL, ps -> {
+            Array ids = ps.getConnection().createArrayOf("integer", bookingIds.toArray());
+            ps.setArray(1, ids);
+        }, rs -> {
+            int tripId = rs.getInt("tripid");
+            int seatId = rs.getInt("seatid");
+            // The rows were written behind JPA's back: bring the in-memory seat map in line
+            seatStateEngine.sync(tripId, seatId, "Available", null, null, null);
+            releasedByTrip.computeIfAbsent(tripId, id -> new ArrayList<>()).add(SeatDelta.builder()
+                    .seatId(seatId)
+                    .seatNumber(rs.getString("seatnumber"))
+                    .floorNumber(rs.getObject("floornumber", Integer.class))
+                    .status("Available")
+                    .build());
+        });
+
+        // Sent after commit, one frame per trip
+        releasedByTrip.forEach(seatBroadcastAggregator::publish);
+
+        int seats = releasedByTrip.values().stream().mapToInt(List::size).sum();
+        int lastBookingId = bookingIds.stream().mapToInt(Integer::intValue).max().getAsInt();
+        return new Chunk(lastBookingId, bookingIds.size(), seats, customerIds);
+    }
+}
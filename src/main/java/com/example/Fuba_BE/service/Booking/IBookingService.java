@@ -93,45 +93,45 @@ public interface IBookingService {
     BookingResponse getBookingByTicketCode(String ticketCode);
 
     /**
-     * Get all bookings for a customer
-     *
-     * @param customerId The customer ID
-     * @return List of BookingResponse
-     */
-    List<BookingResponse> getBookingsByCustomerId(Integer customerId);
-
-    /**
-     * Get all bookings for a customer with optional status filter.
+     * Get a page of a customer's bookings with optional status filter, newest first.
      *
      * @param customerId The customer ID
      * @param status     Optional booking status (Held, Paid, Cancelled, Completed)
-     * @return List of BookingResponse
+     * @param page       Page number (0-indexed)
+     * @param size       Page size (at most 100)
+     * @return BookingPageResponse
      */
-    List<BookingResponse> getBookingsByCustomerId(Integer customerId, String status);
+    BookingPageResponse getBookingsByCustomerId(Integer customerId, String status, int page, int size);
 
     /**
-     * Get all bookings for a trip
+     * Get a page of the bookings of a trip
      *
      * @param tripId The trip ID
-     * @return List of BookingResponse
+     * @param page   Page number (0-indexed)
+     * @param size   Page size (at most 100)
+     * @return BookingPageResponse
      */
-    List<BookingResponse> getBookingsByTripId(Integer tripId);
+    BookingPageResponse getBookingsByTripId(Integer tripId, int page, int size);
 
     /**
-     * Get bookings by phone number (for guest lookup)
+     * Get a page of bookings by phone number (for guest lookup), newest first
      *
      * @param phone The customer phone number
-     * @return List of BookingResponse
+     * @param page  Page number (0-indexed)
+     * @param size  Page size (at most 100)
+     * @return BookingPageResponse
      */
-    List<BookingResponse> getBookingsByPhone(String phone);
+    BookingPageResponse getBookingsByPhone(String phone, int page, int size);
 
     /**
-     * Get bookings by email (for guest lookup)
+     * Get a page of bookings by email (for guest lookup), newest first
      *
      * @param email The customer email
-     * @return List of BookingResponse
+     * @param page  Page number (0-indexed)
+     * @param size  Page size (at most 100)
+     * @return BookingPageResponse
      */
-    List<BookingResponse> getBookingsByEmail(String email);
+    BookingPageResponse getBookingsByEmail(String email, int page, int size);
 
     /**
      * Cancel a booking
@@ -160,7 +160,7 @@ public interface IBookingService {
      * Get all bookings with pagination and filtering.
      *
      * @param filterRequest BookingFilterRequest with page, size, status, search,
-     *                      sortBy, sortDirection
+     *                      sortBy, sortDirection and an optional keyset cursor
      * @return BookingPageResponse with paginated bookings
      */
     BookingPageResponse getAllBookings(BookingFilterRequest filterRequest);
@@ -182,9 +182,10 @@ public interface IBookingService {
      *               Completed)
      * @param page   Page number (0-indexed)
      * @param size   Page size
+     * @param cursor Optional keyset cursor from a previous page; replaces page when set
      * @return BookingPageResponse with paginated bookings
      */
-    BookingPageResponse getMyTickets(Integer userId, String status, Integer page, Integer size);
+    BookingPageResponse getMyTickets(Integer userId, String status, Integer page, Integer size, String cursor);
 
     /**
      * Count bookings of current authenticated user by status.
@@ -0,0 +1,53 @@
+package com.example.Fuba_BE.service.Booking;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keys of the my-tickets cache, versioned per customer.
+ *
+ * Every key embeds the customer's current generation, so invalidating one customer only moves
+ * that customer to a new generation: their old pages are never read again and age out of the
+ * cache, while every other customer's pages stay warm. Generations are drawn from one global
+ * counter, so a customer whose generation was evicted here can never be handed a value that
+ * an older cached page still carries.
+ */
+@Component
+public class MyTicketsCacheKeys {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Cache<Integer, Long> generations = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            // Longer than the my-tickets TTL, so pages rarely outlive their generation here
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    public String key(Integer userId, String status, Integer page, Integer size, String cursor) {
+        long generation = generations.get(userId, id -> sequence.incrementAndGet());
+        return String.format("user:%d|g:%d|status:%s|p:%d|s:%d|c:%s",
+                userId, generation, (status == null ? "ALL" : status), page, size, cursor);
+    }
+
+    /**
+     * Make every cached my-tickets page of this customer stale.
+     */
+    public void invalidate(Integer userId) {
+        generations.put(userId, sequence.incrementAndGet());
+        invalidations.incrementAndGet();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public long getTrackedUsers() {
+        return generations.estimatedSize();
+    }
+}
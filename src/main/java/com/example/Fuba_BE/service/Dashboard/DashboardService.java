@@ -101,13 +101,11 @@ public class DashboardService implements IDashboardService {
         }
 
         // Truyền xuống repo (start và end có thể là null)
-        Page<Object[]> page = tripRepository.findTripsWithBookingCount(start, end, routeId, pageable);
+        Page<Trip> page = tripRepository.findTripsForDashboard(start, end, routeId, pageable);
 
-        return page.map(row -> {
-            Trip trip = (Trip) row[0];
-            Long bookedCount = (Long) row[1];
-            return dashboardMapper.toDashboardTripDTO(trip, bookedCount);
-        });
+        // Ghế Booked + Held lấy từ bộ đếm trên Trip, không cần COUNT từng chuyến
+        return page.map(trip -> dashboardMapper.toDashboardTripDTO(trip,
+                (long) trip.getBookedSeats() + trip.getHeldSeats()));
     }
 
     // --- Helpers (Giữ nguyên) ---
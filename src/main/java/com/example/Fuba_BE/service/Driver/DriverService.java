@@ -25,6 +25,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -56,16 +57,24 @@ public class DriverService implements IDriverService {
                 keyword, status, routeId, pageable.getPageNumber());
 
         Page<Driver> drivers;
+        // Without a keyword, skip the search predicate entirely rather than guard it in SQL
+        String search = StringUtils.hasText(keyword) ? keyword.trim() : null;
 
         if (routeId != null) {
             // Filter by route
-            drivers = driverRepository.findByRouteId(routeId, keyword, status, pageable);
+            drivers = search != null
+                    ? driverRepository.findByRouteIdAndKeyword(routeId, search, status, pageable)
+                    : driverRepository.findByRouteId(routeId, status, pageable);
         } else if (status != null && !status.isBlank()) {
             // Filter by status only
-            drivers = driverRepository.findByStatusAndKeyword(status, keyword, pageable);
+            drivers = search != null
+                    ? driverRepository.findByStatusAndKeyword(status, search, pageable)
+                    : driverRepository.findByStatus(status, pageable);
         } else {
             // Filter by keyword only (or no filter)
-            drivers = driverRepository.findAllWithUserAndKeyword(keyword, pageable);
+            drivers = search != null
+                    ? driverRepository.findAllWithUserAndKeyword(search, pageable)
+                    : driverRepository.findAllWithUser(pageable);
         }
 
         return drivers.map(this::mapToResponseDTO);
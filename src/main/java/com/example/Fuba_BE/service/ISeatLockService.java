@@ -1,5 +1,6 @@
 package com.example.Fuba_BE.service;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.example.Fuba_BE.dto.seat.SeatStatusMessage;
@@ -26,6 +27,18 @@ public interface ISeatLockService {
      */
     SeatStatusMessage lockSeat(Integer seatId, Integer tripId, String userId, String sessionId);
     
+    /**
+     * Lock several seats of one trip for a user, all or nothing.
+     * Seats are taken in ascending seat ID order; if one cannot be locked none of them are.
+     * 
+     * @param seatIds The IDs of the seats to lock
+     * @param tripId The ID of the trip the seats belong to
+     * @param userId The user attempting to lock
+     * @param sessionId The WebSocket session ID
+     * @return A single SEATS_LOCKED message, or a lock failure naming the seat that could not be locked
+     */
+    SeatStatusMessage lockSeats(List<Integer> seatIds, Integer tripId, String userId, String sessionId);
+    
     /**
      * Unlock a seat previously locked by the user.
      * 
@@ -56,6 +69,15 @@ public interface ISeatLockService {
      */
     List<SeatStatusMessage> releaseAllBySession(String sessionId);
     
+    /**
+     * Release all seats locked by several sessions at once.
+     * Released seats are written in one bulk update and broadcast once per trip.
+     * 
+     * @param sessionIds The WebSocket session IDs
+     * @return List of SeatStatusMessage for all released seats
+     */
+    List<SeatStatusMessage> releaseAllBySessions(Collection<String> sessionIds);
+    
     /**
      * Release all expired seat locks.
      * Called by the scheduler.
@@ -65,12 +87,12 @@ public interface ISeatLockService {
     List<SeatStatusMessage> releaseExpiredLocks();
     
     /**
-     * Get the topic destination for a specific trip.
+     * Get the topic destination for a specific trip (seat delta frames).
      * 
      * @param tripId The trip ID
      * @return The topic destination string
      */
     default String getTripTopic(Integer tripId) {
-        return "/topic/trips/" + tripId + "/seats";
+        return "/topic/trips/" + tripId + "/seat-deltas";
     }
 }
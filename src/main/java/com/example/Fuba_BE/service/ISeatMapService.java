@@ -7,4 +7,10 @@ public interface ISeatMapService {
     SeatMapResponse migrateSeatMap(Integer tripId, MigrateSeatMapRequest request);
 
     SeatMapResponse getSeatMap(Integer tripId);
+
+    /**
+     * Seat map for a client that already applied {@code sinceVersion}: only the changed seats
+     * when they are still in the delta history, otherwise a full snapshot.
+     */
+    SeatMapResponse getSeatMap(Integer tripId, Long sinceVersion);
 }
@@ -32,6 +32,7 @@ import com.example.Fuba_BE.repository.TripRepository;
 import com.example.Fuba_BE.repository.TripTemplateRepository;
 import com.example.Fuba_BE.repository.VehicleRepository;
 import com.example.Fuba_BE.repository.VehicleRouteAssignmentRepository;
+import com.example.Fuba_BE.service.Trip.TripChanges;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -58,6 +59,7 @@ public class TripGenerationService implements ITripGenerationService {
     private final VehicleRouteAssignmentRepository vehicleAssignmentRepository;
     private final DriverWorkLogRepository workLogRepository;
     private final TripGenerationLogRepository generationLogRepository;
+    private final TripChanges tripChanges;
 
     @Override
     public TripGenerationResponse generateTripsFromTemplate(TripGenerationRequest request) {
@@ -172,6 +174,7 @@ public class TripGenerationService implements ITripGenerationService {
         // 5. Save trips if not dry-run
         if (!isPreview && !createdTrips.isEmpty()) {
             tripRepository.saveAll(createdTrips);
+            tripChanges.tripsChanged();
             log.info("Saved {} trips to database", createdTrips.size());
 
             // Save generation log
@@ -1,113 +1,106 @@
 package com.example.Fuba_BE.service;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.example.Fuba_BE.domain.entity.TripSeat;
 import com.example.Fuba_BE.dto.seat.SeatStatusMessage;
-import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.ClusterMessage;
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
+import com.example.Fuba_BE.service.seat.SeatStateResult;
+import com.example.Fuba_BE.service.seat.SessionSeatIndex;
 
 /**
  * Implementation of ISeatLockService for real-time seat locking.
- * Uses pessimistic locking (SELECT FOR UPDATE) for concurrency safety.
+ * Lock decisions are made by the in-memory {@link SeatStateEngine} (CAS per seat) and
+ * written to tripseats asynchronously, so concurrent clicks on one trip never queue on row locks.
  */
 @Service
 public class SeatLockServiceImpl implements ISeatLockService {
     
     private static final Logger logger = LoggerFactory.getLogger(SeatLockServiceImpl.class);
+    private static final String OWNER_UNAVAILABLE = "Seat service is temporarily unavailable, please try again";
     
-    private final TripSeatRepository tripSeatRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
+    private final SeatStateEngine seatStateEngine;
     
-    // Track session to seats mapping for efficient disconnect handling
-    private final Map<String, List<Integer>> sessionSeatMap = new ConcurrentHashMap<>();
+    // Session <-> seat index for efficient disconnect handling
+    private final SessionSeatIndex sessionSeatIndex;
     
-    public SeatLockServiceImpl(TripSeatRepository tripSeatRepository, 
-                               SimpMessagingTemplate messagingTemplate) {
-        this.tripSeatRepository = tripSeatRepository;
-        this.messagingTemplate = messagingTemplate;
+    // Seat commands for trips owned by another node are forwarded to it
+    private final TripOwnership tripOwnership;
+    private final ClusterBus clusterBus;
+    
+    public SeatLockServiceImpl(SeatBroadcastAggregator seatBroadcastAggregator,
+                               SeatStateEngine seatStateEngine,
+                               SessionSeatIndex sessionSeatIndex,
+                               TripOwnership tripOwnership,
+                               ClusterBus clusterBus) {
+        this.seatBroadcastAggregator = seatBroadcastAggregator;
+        this.seatStateEngine = seatStateEngine;
+        this.sessionSeatIndex = sessionSeatIndex;
+        this.tripOwnership = tripOwnership;
+        this.clusterBus = clusterBus;
     }
     
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public SeatStatusMessage lockSeat(Integer seatId, Integer tripId, String userId, String sessionId) {
         logger.info("Attempting to lock seat {} for user {} (session: {})", seatId, userId, sessionId);
         
+        if (!tripOwnership.isLocal(tripId)) {
+            return forwardToOwner(ClusterMessage.builder()
+                    .type(ClusterMessage.Type.LOCK)
+                    .tripId(tripId)
+                    .seatId(seatId)
+                    .userId(userId)
+                    .sessionId(sessionId)
+                    .build(),
+                    SeatStatusMessage.lockFailed(seatId, tripId, OWNER_UNAVAILABLE));
+        }
+        
         try {
-            // Use pessimistic lock to prevent race conditions
-            Optional<TripSeat> seatOpt = tripSeatRepository.findBySeatIdAndTripIdWithLock(seatId, tripId);
-            
-            if (seatOpt.isEmpty()) {
-                logger.warn("Seat {} not found for trip {}", seatId, tripId);
-                return SeatStatusMessage.lockFailed(seatId, tripId, "Seat not found");
-            }
-            
-            TripSeat seat = seatOpt.get();
-            
-            // Check if seat is available or if the lock has expired
-            if (seat.isLocked()) {
-                if (seat.isLockExpired()) {
-                    // Lock has expired, release it first
-                    logger.info("Releasing expired lock on seat {}", seatId);
-                    seat.release();
-                } else if (seat.getLockedBy() != null && seat.getLockedBy().equals(userId)) {
-                    // Same user re-locking (e.g., page refresh) - extend the lock
-                    logger.info("Extending lock for user {} on seat {}", userId, seatId);
-                    seat.lock(userId, sessionId, LOCK_DURATION_MINUTES);
-                    TripSeat savedSeat = tripSeatRepository.save(seat);
-                    
-                    // Update session mapping
-                    updateSessionSeatMapping(sessionId, seatId);
-                    
-                    return SeatStatusMessage.locked(
-                            savedSeat.getSeatId(),
-                            savedSeat.getSeatNumber(),
-                            tripId,
-                            userId,
-                            savedSeat.getHoldExpiry(),
-                            savedSeat.getFloorNumber()
-                    );
-                } else {
-                    // Someone else has it locked
+            // Decided in memory with a CAS on the trip's seat array; persisted by write-behind
+            SeatStateResult result = seatStateEngine.hold(tripId, seatId, userId, sessionId,
+                    LOCK_DURATION_MINUTES);
+            
+            switch (result.getOutcome()) {
+                case NOT_FOUND:
+                    logger.warn("Seat {} not found for trip {}", seatId, tripId);
+                    return SeatStatusMessage.lockFailed(seatId, tripId, "Seat not found");
+                case HELD_BY_OTHER:
                     logger.info("Seat {} is already locked by another user", seatId);
                     return SeatStatusMessage.lockFailed(seatId, tripId, 
                             "Seat is currently locked by another user");
-                }
-            }
-            
-            if (seat.isBooked()) {
-                logger.info("Seat {} is already booked", seatId);
-                return SeatStatusMessage.lockFailed(seatId, tripId, "Seat is already booked");
+                case ALREADY_BOOKED:
+                    logger.info("Seat {} is already booked", seatId);
+                    return SeatStatusMessage.lockFailed(seatId, tripId, "Seat is already booked");
+                default:
+                    break;
             }
             
-            // Lock the seat
-            seat.lock(userId, sessionId, LOCK_DURATION_MINUTES);
-            TripSeat savedSeat = tripSeatRepository.save(seat);
-            
             // Update session mapping
             updateSessionSeatMapping(sessionId, seatId);
             
             logger.info("Successfully locked seat {} for user {} until {}", 
-                    seatId, userId, savedSeat.getHoldExpiry());
+                    seatId, userId, result.getHoldExpiry());
             
             return SeatStatusMessage.locked(
-                    savedSeat.getSeatId(),
-                    savedSeat.getSeatNumber(),
+                    result.getSeatId(),
+                    result.getSeatNumber(),
                     tripId,
                     userId,
-                    savedSeat.getHoldExpiry(),
-                    savedSeat.getFloorNumber()
+                    result.getHoldExpiry(),
+                    result.getFloorNumber()
             );
             
         } catch (Exception e) {
@@ -117,50 +110,106 @@ public class SeatLockServiceImpl implements ISeatLockService {
     }
     
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public SeatStatusMessage unlockSeat(Integer seatId, Integer tripId, String userId, String sessionId) {
-        logger.info("Attempting to unlock seat {} by user {} (session: {})", seatId, userId, sessionId);
+    public SeatStatusMessage lockSeats(List<Integer> seatIds, Integer tripId, String userId, String sessionId) {
+        logger.info("Attempting to lock seats {} of trip {} for user {} (session: {})", seatIds, tripId, userId, sessionId);
+        
+        if (!tripOwnership.isLocal(tripId)) {
+            return forwardToOwner(ClusterMessage.builder()
+                    .type(ClusterMessage.Type.LOCK_BATCH)
+                    .tripId(tripId)
+                    .seatIds(seatIds)
+                    .userId(userId)
+                    .sessionId(sessionId)
+                    .build(),
+                    SeatStatusMessage.lockFailed(null, tripId, OWNER_UNAVAILABLE));
+        }
         
         try {
-            Optional<TripSeat> seatOpt = tripSeatRepository.findBySeatIdAndTripIdWithLock(seatId, tripId);
-            
-            if (seatOpt.isEmpty()) {
-                logger.warn("Seat {} not found for trip {}", seatId, tripId);
-                return SeatStatusMessage.unlockFailed(seatId, tripId, "Seat not found");
+            List<SeatStateResult> results = seatStateEngine.holdAll(tripId, seatIds, userId, sessionId,
+                    LOCK_DURATION_MINUTES);
+            
+            SeatStateResult first = results.get(0);
+            if (!first.isSuccess()) {
+                Integer seatId = first.getSeatId();
+                switch (first.getOutcome()) {
+                    case NOT_FOUND:
+                        logger.warn("Seat {} not found for trip {}", seatId, tripId);
+                        return SeatStatusMessage.lockFailed(seatId, tripId, "Seat not found");
+                    case HELD_BY_OTHER:
+                        logger.info("Seat {} is already locked by another user, batch rejected", seatId);
+                        return SeatStatusMessage.lockFailed(seatId, tripId, 
+                                "Seat is currently locked by another user");
+                    default:
+                        logger.info("Seat {} is already booked, batch rejected", seatId);
+                        return SeatStatusMessage.lockFailed(seatId, tripId, "Seat is already booked");
+                }
             }
             
-            TripSeat seat = seatOpt.get();
-            
-            // Check if seat is locked
-            if (!seat.isLocked()) {
-                logger.info("Seat {} is not locked", seatId);
-                return SeatStatusMessage.unlockFailed(seatId, tripId, "Seat is not locked");
+            for (SeatStateResult result : results) {
+                updateSessionSeatMapping(sessionId, result.getSeatId());
             }
             
-            // Verify ownership - allow unlock if user owns the lock OR session owns it
-            boolean isOwner = (seat.getLockedBy() != null && seat.getLockedBy().equals(userId)) ||
-                             (seat.getLockedBySessionId() != null && seat.getLockedBySessionId().equals(sessionId));
+            logger.info("Successfully locked {} seats of trip {} for user {} until {}", 
+                    results.size(), tripId, userId, first.getHoldExpiry());
             
-            if (!isOwner) {
-                logger.warn("User {} (session: {}) attempted to unlock seat {} owned by {} (session: {})", 
-                        userId, sessionId, seatId, seat.getLockedBy(), seat.getLockedBySessionId());
-                return SeatStatusMessage.unlockFailed(seatId, tripId, "Not authorized to unlock this seat");
-            }
+            return SeatStatusMessage.locked(
+                    tripId,
+                    results.stream().map(SeatStateResult::getSeatId).toList(),
+                    results.stream().map(SeatStateResult::getSeatNumber).toList(),
+                    results.stream().map(SeatStateResult::getFloorNumber).toList(),
+                    userId,
+                    first.getHoldExpiry()
+            );
             
-            // Release the lock
-            seat.release();
-            TripSeat savedSeat = tripSeatRepository.save(seat);
+        } catch (Exception e) {
+            logger.error("Error locking seats {}: {}", seatIds, e.getMessage(), e);
+            return SeatStatusMessage.lockFailed(null, tripId, "Internal error: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public SeatStatusMessage unlockSeat(Integer seatId, Integer tripId, String userId, String sessionId) {
+        logger.info("Attempting to unlock seat {} by user {} (session: {})", seatId, userId, sessionId);
+        
+        if (!tripOwnership.isLocal(tripId)) {
+            return forwardToOwner(ClusterMessage.builder()
+                    .type(ClusterMessage.Type.UNLOCK)
+                    .tripId(tripId)
+                    .seatId(seatId)
+                    .userId(userId)
+                    .sessionId(sessionId)
+                    .build(),
+                    SeatStatusMessage.unlockFailed(seatId, tripId, OWNER_UNAVAILABLE));
+        }
+        
+        try {
+            SeatStateResult result = seatStateEngine.release(tripId, seatId, userId, sessionId);
+            
+            switch (result.getOutcome()) {
+                case NOT_FOUND:
+                    logger.warn("Seat {} not found for trip {}", seatId, tripId);
+                    return SeatStatusMessage.unlockFailed(seatId, tripId, "Seat not found");
+                case NOT_LOCKED:
+                    logger.info("Seat {} is not locked", seatId);
+                    return SeatStatusMessage.unlockFailed(seatId, tripId, "Seat is not locked");
+                case NOT_OWNER:
+                    logger.warn("User {} (session: {}) attempted to unlock seat {} owned by someone else", 
+                            userId, sessionId, seatId);
+                    return SeatStatusMessage.unlockFailed(seatId, tripId, "Not authorized to unlock this seat");
+                default:
+                    break;
+            }
             
             // Remove from session mapping
-            removeFromSessionSeatMapping(sessionId, seatId);
+            removeFromSessionSeatMapping(seatId);
             
             logger.info("Successfully unlocked seat {}", seatId);
             
             return SeatStatusMessage.unlocked(
-                    savedSeat.getSeatId(),
-                    savedSeat.getSeatNumber(),
+                    result.getSeatId(),
+                    result.getSeatNumber(),
                     tripId,
-                    savedSeat.getFloorNumber()
+                    result.getFloorNumber()
             );
             
         } catch (Exception e) {
@@ -170,57 +219,51 @@ public class SeatLockServiceImpl implements ISeatLockService {
     }
     
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public SeatStatusMessage confirmBooking(Integer seatId, Integer tripId, String userId) {
         logger.info("Confirming booking for seat {} by user {}", seatId, userId);
         
+        if (!tripOwnership.isLocal(tripId)) {
+            return forwardToOwner(ClusterMessage.builder()
+                    .type(ClusterMessage.Type.CONFIRM)
+                    .tripId(tripId)
+                    .seatId(seatId)
+                    .userId(userId)
+                    .build(),
+                    SeatStatusMessage.lockFailed(seatId, tripId, OWNER_UNAVAILABLE));
+        }
+        
         try {
-            Optional<TripSeat> seatOpt = tripSeatRepository.findBySeatIdAndTripIdWithLock(seatId, tripId);
-            
-            if (seatOpt.isEmpty()) {
-                logger.warn("Seat {} not found for trip {}", seatId, tripId);
-                return SeatStatusMessage.lockFailed(seatId, tripId, "Seat not found");
-            }
-            
-            TripSeat seat = seatOpt.get();
-            
-            // Verify the seat is locked by this user
-            if (!seat.isLocked()) {
-                logger.warn("Cannot book seat {} - not locked", seatId);
-                return SeatStatusMessage.lockFailed(seatId, tripId, "Seat must be locked before booking");
-            }
-            
-            if (seat.getLockedBy() == null || !seat.getLockedBy().equals(userId)) {
-                logger.warn("User {} cannot book seat {} - locked by {}", userId, seatId, seat.getLockedBy());
-                return SeatStatusMessage.lockFailed(seatId, tripId, "You don't have a lock on this seat");
-            }
-            
-            // Check if lock has expired
-            if (seat.isLockExpired()) {
-                logger.warn("Lock on seat {} has expired", seatId);
-                seat.release();
-                tripSeatRepository.save(seat);
-                return SeatStatusMessage.lockFailed(seatId, tripId, "Lock has expired, please try again");
+            SeatStateResult result = seatStateEngine.book(tripId, seatId, userId);
+            
+            switch (result.getOutcome()) {
+                case NOT_FOUND:
+                    logger.warn("Seat {} not found for trip {}", seatId, tripId);
+                    return SeatStatusMessage.lockFailed(seatId, tripId, "Seat not found");
+                case NOT_LOCKED:
+                    logger.warn("Cannot book seat {} - not locked", seatId);
+                    return SeatStatusMessage.lockFailed(seatId, tripId, "Seat must be locked before booking");
+                case NOT_OWNER:
+                    logger.warn("User {} cannot book seat {} - locked by someone else", userId, seatId);
+                    return SeatStatusMessage.lockFailed(seatId, tripId, "You don't have a lock on this seat");
+                case LOCK_EXPIRED:
+                    logger.warn("Lock on seat {} has expired", seatId);
+                    removeFromSessionSeatMapping(seatId);
+                    return SeatStatusMessage.lockFailed(seatId, tripId, "Lock has expired, please try again");
+                default:
+                    break;
             }
             
-            // Book the seat
-            String sessionId = seat.getLockedBySessionId();
-            seat.book();
-            TripSeat savedSeat = tripSeatRepository.save(seat);
-            
             // Remove from session mapping
-            if (sessionId != null) {
-                removeFromSessionSeatMapping(sessionId, seatId);
-            }
+            removeFromSessionSeatMapping(seatId);
             
             logger.info("Successfully booked seat {} for user {}", seatId, userId);
             
             return SeatStatusMessage.booked(
-                    savedSeat.getSeatId(),
-                    savedSeat.getSeatNumber(),
+                    result.getSeatId(),
+                    result.getSeatNumber(),
                     tripId,
                     userId,
-                    savedSeat.getFloorNumber()
+                    result.getFloorNumber()
             );
             
         } catch (Exception e) {
@@ -230,85 +273,99 @@ public class SeatLockServiceImpl implements ISeatLockService {
     }
     
     @Override
-    @Transactional
     public List<SeatStatusMessage> releaseAllBySession(String sessionId) {
-        logger.info("Releasing all seats for session {}", sessionId);
-        
+        return releaseAllBySessions(List.of(sessionId));
+    }
+    
+    @Override
+    public List<SeatStatusMessage> releaseAllBySessions(Collection<String> sessionIds) {
         List<SeatStatusMessage> releasedSeats = new ArrayList<>();
         
+        // The sessions may hold seats of trips owned by other nodes
+        if (tripOwnership.isClustered() && !tripOwnership.isActingAsOwner()) {
+            clusterBus.broadcast(ClusterMessage.builder()
+                    .type(ClusterMessage.Type.RELEASE_SESSIONS)
+                    .sessionIds(new ArrayList<>(sessionIds))
+                    .build());
+        }
+        
         try {
-            List<TripSeat> lockedSeats = tripSeatRepository.findByLockedBySessionId(sessionId);
+            // Exactly the seats these sessions took; no scan of tripseats by session id
+            Map<String, int[]> seatsBySession = new LinkedHashMap<>();
+            for (String sessionId : sessionIds) {
+                int[] seatIds = sessionSeatIndex.removeSession(sessionId);
+                if (seatIds.length > 0) {
+                    seatsBySession.put(sessionId, seatIds);
+                }
+            }
+            if (seatsBySession.isEmpty()) {
+                return releasedSeats;
+            }
             
-            for (TripSeat seat : lockedSeats) {
-                Integer tripId = seat.getTrip().getTripId();
-                seat.release();
-                TripSeat savedSeat = tripSeatRepository.save(seat);
-                
-                SeatStatusMessage message = SeatStatusMessage.unlocked(
-                        savedSeat.getSeatId(),
-                        savedSeat.getSeatNumber(),
-                        tripId,
-                        savedSeat.getFloorNumber()
-                );
-                releasedSeats.add(message);
-                
-                // Broadcast to the trip's topic
-                broadcastToTripTopic(tripId, message);
+            Map<Integer, List<SeatStateResult>> releasedByTrip = new LinkedHashMap<>();
+            for (SeatStateResult result : seatStateEngine.releaseHeldBySessions(seatsBySession)) {
+                releasedByTrip.computeIfAbsent(result.getTripId(), k -> new ArrayList<>()).add(result);
+                releasedSeats.add(SeatStatusMessage.unlocked(
+                        result.getSeatId(),
+                        result.getSeatNumber(),
+                        result.getTripId(),
+                        result.getFloorNumber()
+                ));
             }
             
-            // Clear session mapping
-            sessionSeatMap.remove(sessionId);
+            // One broadcast per trip
+            releasedByTrip.forEach((tripId, results) -> broadcastToTripTopic(tripId, SeatStatusMessage.unlocked(
+                    tripId,
+                    results.stream().map(SeatStateResult::getSeatId).toList(),
+                    results.stream().map(SeatStateResult::getSeatNumber).toList(),
+                    results.stream().map(SeatStateResult::getFloorNumber).toList()
+            )));
             
-            logger.info("Released {} seats for session {}", releasedSeats.size(), sessionId);
+            logger.info("Released {} seats across {} trips for {} sessions", 
+                    releasedSeats.size(), releasedByTrip.size(), seatsBySession.size());
             
         } catch (Exception e) {
-            logger.error("Error releasing seats for session {}: {}", sessionId, e.getMessage(), e);
+            logger.error("Error releasing seats for sessions {}: {}", sessionIds, e.getMessage(), e);
         }
         
         return releasedSeats;
     }
     
     @Override
-    @Transactional
     public List<SeatStatusMessage> releaseExpiredLocks() {
-        logger.debug("Checking for expired seat locks");
-        
         List<SeatStatusMessage> releasedSeats = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
         
         try {
-            List<TripSeat> expiredSeats = tripSeatRepository.findExpiredLocks(now);
+            // Holds due on the expiry wheel, already written back in one batched UPDATE
+            List<SeatStateResult> expired = seatStateEngine.releaseDueHolds();
+            if (expired.isEmpty()) {
+                return releasedSeats;
+            }
             
-            for (TripSeat seat : expiredSeats) {
-                Integer tripId = seat.getTrip().getTripId();
-                String sessionId = seat.getLockedBySessionId();
-                
-                seat.release();
-                TripSeat savedSeat = tripSeatRepository.save(seat);
-                
-                // Remove from session mapping
-                if (sessionId != null) {
-                    removeFromSessionSeatMapping(sessionId, seat.getSeatId());
-                }
+            Map<Integer, List<SeatStateResult>> expiredByTrip = new LinkedHashMap<>();
+            for (SeatStateResult result : expired) {
+                removeFromSessionSeatMapping(result.getSeatId());
+                expiredByTrip.computeIfAbsent(result.getTripId(), k -> new ArrayList<>()).add(result);
                 
-                SeatStatusMessage message = SeatStatusMessage.expired(
-                        savedSeat.getSeatId(),
-                        savedSeat.getSeatNumber(),
-                        tripId,
-                        savedSeat.getFloorNumber()
-                );
-                releasedSeats.add(message);
-                
-                // Broadcast to the trip's topic
-                broadcastToTripTopic(tripId, message);
-                
-                logger.info("Released expired lock on seat {} (was held by {})", 
-                        seat.getSeatId(), seat.getLockedBy());
+                releasedSeats.add(SeatStatusMessage.expired(
+                        result.getSeatId(),
+                        result.getSeatNumber(),
+                        result.getTripId(),
+                        result.getFloorNumber()
+                ));
+                logger.debug("Released expired lock on seat {} (was held by {})", 
+                        result.getSeatId(), result.getLockedBy());
             }
             
-            if (!releasedSeats.isEmpty()) {
-                logger.info("Released {} expired seat locks", releasedSeats.size());
-            }
+            // One coalesced broadcast per trip instead of one per seat
+            expiredByTrip.forEach((tripId, results) -> broadcastToTripTopic(tripId, SeatStatusMessage.expired(
+                    tripId,
+                    results.stream().map(SeatStateResult::getSeatId).toList(),
+                    results.stream().map(SeatStateResult::getSeatNumber).toList(),
+                    results.stream().map(SeatStateResult::getFloorNumber).toList()
+            )));
+            
+            logger.info("Released {} expired seat locks across {} trips", releasedSeats.size(), expiredByTrip.size());
             
         } catch (Exception e) {
             logger.error("Error releasing expired locks: {}", e.getMessage(), e);
@@ -318,32 +375,44 @@ public class SeatLockServiceImpl implements ISeatLockService {
     }
     
     /**
-     * Broadcast a message to all subscribers of a trip's seat topic.
+     * Run a seat command on the node owning its trip and return the owner's answer.
+     */
+    private SeatStatusMessage forwardToOwner(ClusterMessage command, SeatStatusMessage onFailure) {
+        String owner = tripOwnership.ownerOf(command.getTripId());
+        try {
+            ClusterMessage reply = clusterBus.request(owner, command).join();
+            if (reply.getResult() != null) {
+                return reply.getResult();
+            }
+            logger.warn("Node {} failed {} for trip {}: {}", owner, command.getType(), command.getTripId(), reply.getError());
+        } catch (Exception e) {
+            logger.warn("Node {} did not answer {} for trip {}: {}", owner, command.getType(), command.getTripId(), e.getMessage());
+        }
+        return onFailure;
+    }
+    
+    /**
+     * Broadcast a seat change to all subscribers of a trip's seat topic.
+     * Changes are coalesced per trip into one delta frame per broadcast window.
      */
     public void broadcastToTripTopic(Integer tripId, SeatStatusMessage message) {
-        String destination = getTripTopic(tripId);
-        messagingTemplate.convertAndSend(destination, message);
-        logger.debug("Broadcasted to {}: {}", destination, message.getType());
+        seatBroadcastAggregator.publish(message);
+        logger.debug("Queued {} for {}", message.getType(), getTripTopic(tripId));
     }
     
     /**
      * Update the session-to-seats mapping.
      */
     private void updateSessionSeatMapping(String sessionId, Integer seatId) {
-        sessionSeatMap.computeIfAbsent(sessionId, k -> new ArrayList<>())
-                     .add(seatId);
+        sessionSeatIndex.add(sessionId, seatId);
     }
     
     /**
      * Remove a seat from the session mapping.
      */
-    private void removeFromSessionSeatMapping(String sessionId, Integer seatId) {
-        List<Integer> seats = sessionSeatMap.get(sessionId);
-        if (seats != null) {
-            seats.remove(seatId);
-            if (seats.isEmpty()) {
-                sessionSeatMap.remove(sessionId);
-            }
+    private void removeFromSessionSeatMapping(Integer seatId) {
+        if (seatId != null) {
+            sessionSeatIndex.removeSeat(seatId);
         }
     }
     
@@ -351,6 +420,6 @@ public class SeatLockServiceImpl implements ISeatLockService {
      * Get seats locked by a session.
      */
     public List<Integer> getSeatsLockedBySession(String sessionId) {
-        return sessionSeatMap.getOrDefault(sessionId, new ArrayList<>());
+        return Arrays.stream(sessionSeatIndex.seatsOf(sessionId)).boxed().toList();
     }
 }
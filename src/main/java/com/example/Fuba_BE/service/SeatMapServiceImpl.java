@@ -15,6 +15,7 @@ import com.example.Fuba_BE.domain.entity.TripSeat;
 import com.example.Fuba_BE.domain.entity.Vehicle;
 import com.example.Fuba_BE.domain.entity.VehicleType;
 import com.example.Fuba_BE.dto.seat.MigrateSeatMapRequest;
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame;
 import com.example.Fuba_BE.dto.seat.SeatMapResponse;
 import com.example.Fuba_BE.dto.seat.TripSeatDto;
 import com.example.Fuba_BE.exception.BadRequestException;
@@ -22,6 +23,8 @@ import com.example.Fuba_BE.exception.NotFoundException;
 import com.example.Fuba_BE.mapper.TripSeatMapper;
 import com.example.Fuba_BE.repository.TripRepository;
 import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
 
 @Service
 public class SeatMapServiceImpl implements ISeatMapService {
@@ -34,15 +37,21 @@ public class SeatMapServiceImpl implements ISeatMapService {
     private final TripRepository tripRepository;
     private final TripSeatRepository tripSeatRepository;
     private final TripSeatMapper tripSeatMapper;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
+    private final SeatStateEngine seatStateEngine;
 
     public SeatMapServiceImpl(
             TripRepository tripRepository,
             TripSeatRepository tripSeatRepository,
-            TripSeatMapper tripSeatMapper
+            TripSeatMapper tripSeatMapper,
+            SeatBroadcastAggregator seatBroadcastAggregator,
+            SeatStateEngine seatStateEngine
     ) {
         this.tripRepository = tripRepository;
         this.tripSeatRepository = tripSeatRepository;
         this.tripSeatMapper = tripSeatMapper;
+        this.seatBroadcastAggregator = seatBroadcastAggregator;
+        this.seatStateEngine = seatStateEngine;
     }
 
     @Override
@@ -85,9 +94,25 @@ public class SeatMapServiceImpl implements ISeatMapService {
         return buildSeatMapResponse(tripId, vehicle, type, generated);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public SeatMapResponse getSeatMap(Integer tripId, Long sinceVersion) {
+        if (sinceVersion != null) {
+            SeatDeltaFrame frame = seatBroadcastAggregator.changesSince(tripId, sinceVersion);
+            if (frame != null) {
+                return SeatMapResponse.changes(frame);
+            }
+        }
+        return getSeatMap(tripId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public SeatMapResponse getSeatMap(Integer tripId) {
+        // Version first: every change up to it is committed, so the snapshot below contains it
+        long version = seatBroadcastAggregator.getVersion(tripId);
+        seatStateEngine.flush(tripId);
+
         Trip trip = tripRepository.findById(tripId)
                 .orElseThrow(() -> new NotFoundException("Trip not found: " + tripId));
 
@@ -106,7 +131,9 @@ public class SeatMapServiceImpl implements ISeatMapService {
             throw new NotFoundException("Seat map not found for trip " + tripId + ". Please migrate seat map first.");
         }
 
-        return buildSeatMapResponse(tripId, vehicle, type, seats);
+        SeatMapResponse response = buildSeatMapResponse(tripId, vehicle, type, seats);
+        response.setVersion(version);
+        return response;
     }
 
     /**
@@ -3,13 +3,11 @@ package com.example.Fuba_BE.service.Ticket;
 import java.text.NumberFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +30,8 @@ import com.example.Fuba_BE.repository.UserRepository;
 import com.example.Fuba_BE.repository.TicketRepository;
 import com.example.Fuba_BE.repository.TripRepository;
 import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -47,7 +47,8 @@ public class TicketService implements ITicketService {
     private final TripSeatRepository tripSeatRepository;
     private final TripRepository tripRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
+    private final SeatStateEngine seatStateEngine;
 
     @Override
     @Cacheable(value = "tickets", key = "#ticketCode", unless = "#result == null")
@@ -261,19 +262,7 @@ public class TicketService implements ITicketService {
                 }
 
                 // Broadcast seat update to WebSocket topic so frontends can refresh
-                try {
-                    Map<String, Object> message = new HashMap<>();
-                    message.put("seatId", seat.getSeatId());
-                    message.put("seatNumber", seat.getSeatNumber());
-                    message.put("status", seat.getStatus());
-                    message.put("lockedBy", seat.getLockedBy());
-                    message.put("holdExpiry", seat.getHoldExpiry());
-                    message.put("timestamp", java.time.LocalDateTime.now().toString());
-                    String destination = "/topic/trips/" + ticket.getBooking().getTrip().getTripId() + "/seats";
-                    messagingTemplate.convertAndSend(destination, (Object) message);
-                } catch (Exception ex) {
-                    log.warn("Failed to broadcast seat update after ticket confirm: {}", ex.getMessage());
-                }
+                seatBroadcastAggregator.publish(ticket.getBooking().getTrip().getTripId(), seat);
             }
 
             log.info("Ticket {} confirmed successfully. Status changed to Used", ticketCode);
@@ -415,6 +404,7 @@ public class TicketService implements ITicketService {
                             oldTrip.getRoute().getRouteName() + ", New route: " + newTrip.getRoute().getRouteName());
         }
 
+        seatStateEngine.flush(newTrip.getTripId());
         TripSeat newSeat = tripSeatRepository.findById(request.getNewSeatId())
                 .orElseThrow(() -> new ResourceNotFoundException("New seat not found"));
 
@@ -473,20 +463,6 @@ public class TicketService implements ITicketService {
     }
 
     private void broadcastSeatUpdate(TripSeat seat) {
-        try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("seatId", seat.getSeatId());
-            message.put("seatNumber", seat.getSeatNumber());
-            message.put("status", seat.getStatus());
-            message.put("lockedBy", seat.getLockedBy());
-            message.put("holdExpiry", seat.getHoldExpiry());
-            message.put("timestamp", LocalDateTime.now().toString());
-
-            String destination = "/topic/trips/" + seat.getTrip().getTripId() + "/seats";
-            messagingTemplate.convertAndSend((String) destination, (Object) message);
-            log.debug("Broadcasted seat update for seat {} to {}", seat.getSeatNumber(), destination);
-        } catch (Exception e) {
-            log.error("Failed to broadcast seat update: {}", e.getMessage());
-        }
+        seatBroadcastAggregator.publish(seat.getTrip().getTripId(), seat);
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.Fuba_BE.service.Trip;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -11,6 +12,7 @@ import com.example.Fuba_BE.domain.entity.Trip;
 import com.example.Fuba_BE.dto.Trip.AlternativeTripDTO;
 import com.example.Fuba_BE.dto.Trip.CompleteTripRequestDTO;
 import com.example.Fuba_BE.dto.Trip.PassengerOnTripResponseDTO;
+import com.example.Fuba_BE.dto.Trip.RouteDayAvailabilityDTO;
 import com.example.Fuba_BE.dto.Trip.TicketDetailResponseDTO;
 import com.example.Fuba_BE.dto.Trip.TripCreateRequestDTO;
 import com.example.Fuba_BE.dto.Trip.TripDetailedResponseDTO;
@@ -19,6 +21,9 @@ import com.example.Fuba_BE.dto.Trip.TripUpdateRequestDTO;
 public interface ITripService {
         List<LocalDate> getDaysWithTrips(LocalDate startDate, LocalDate endDate);
 
+        List<RouteDayAvailabilityDTO> getCalendarAvailability(Integer routeId, Integer originId, Integer destId,
+                        YearMonth month);
+
         List<Trip> getTripsDetailsByDate(LocalDate date);
 
         void updateTripStatus(Integer tripId, String status, String note);
@@ -55,6 +60,6 @@ public interface ITripService {
 
         TripDetailedResponseDTO getTripDetailById(Integer tripId);
 
-        List<AlternativeTripDTO> getAlternativeTripsForRoute(Integer routeId, Integer excludeTripId,
-                        LocalDateTime afterDateTime);
+        Page<AlternativeTripDTO> getAlternativeTripsForRoute(Integer routeId, Integer excludeTripId,
+                        LocalDateTime afterDateTime, int page, int size);
 }
\ No newline at end of file
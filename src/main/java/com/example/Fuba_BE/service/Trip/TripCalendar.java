@@ -0,0 +1,188 @@
+package com.example.Fuba_BE.service.Trip;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.dto.Trip.RouteDayAvailabilityDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Month view of the trip calendar: trips and lowest price per day from route_day_summaries
+ * (V26, maintained by triggers on trips), seats left summed from the trips of those days at read
+ * time so seat writes never touch the summaries.
+ *
+ * Months are cached per route or origin/destination pair. Trip changes clear the cache, seat
+ * changes evict the months of their trips within a second, on this calendar's own thread; both
+ * reach every node through {@link TripChanges}. Anything missed goes once the entry expires
+ * ({@code trip.calendar.cache-ttl-seconds}).
+ */
+@Component
+@Slf4j
+public class TripCalendar {
+
+    private static final String MONTH_SQL = """
+            SELECT s.day, SUM(s.tripcount) AS tripcount, MIN(s.minprice) AS minprice, SUM(t.seatsleft) AS seatsleft
+            FROM route_day_summaries s
+            JOIN routes r ON r.routeid = s.routeid
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(SUM(t.availableseats), 0) AS seatsleft
+                FROM trips t
+                WHERE t.routeid = s.routeid
+                AND t.departuretime >= s.day AND t.departuretime < s.day + 1
+                AND t.status IN ('Waiting', 'Running')
+            ) t
+            WHERE s.day >= ? AND s.day <= ? AND s.tripcount > 0
+            AND (CAST(? AS INTEGER) IS NULL OR s.routeid = ?)
+            AND (CAST(? AS INTEGER) IS NULL OR r.originid = ?)
+            AND (CAST(? AS INTEGER) IS NULL OR r.destinationid = ?)
+            GROUP BY s.day
+            ORDER BY s.day
+            """;
+
+    private static final String TRIP_MONTHS_SQL = """
+            SELECT DISTINCT t.routeid, r.originid, r.destinationid,
+                   CAST(EXTRACT(YEAR FROM t.departuretime) AS INTEGER) AS year,
+                   CAST(EXTRACT(MONTH FROM t.departuretime) AS INTEGER) AS month
+            FROM trips t
+            JOIN routes r ON r.routeid = t.routeid
+            WHERE t.tripid = ANY (?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Key, List<RouteDayAvailabilityDTO>> months;
+    private final Set<Integer> changedSeats = ConcurrentHashMap.newKeySet();
+    // Bumped by every eviction so a month loaded meanwhile isn't cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final long seatRefreshMs;
+
+    public TripCalendar(JdbcTemplate jdbcTemplate,
+                        @Value("${trip.calendar.cache-ttl-seconds:60}") long ttlSeconds,
+                        @Value("${trip.calendar.seat-refresh-ms:1000}") long seatRefreshMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.months = Caffeine.newBuilder()
+                .maximumSize(5000)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.seatRefreshMs = seatRefreshMs;
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("trip-calendar-");
+        scheduler.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::evictChangedMonths, Duration.ofMillis(seatRefreshMs));
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * A cached month: of one route, or of every route between an origin and a destination.
+     */
+    private record Key(Integer routeId, Integer originId, Integer destId, YearMonth month) {
+
+        boolean covers(TripMonth trip) {
+            return month.equals(trip.month())
+                    && (routeId == null || routeId.equals(trip.routeId()))
+                    && (originId == null || originId.equals(trip.originId()))
+                    && (destId == null || destId.equals(trip.destId()));
+        }
+    }
+
+    private record TripMonth(int routeId, int originId, int destId, YearMonth month) {
+    }
+
+    /**
+     * Days of the month with bookable trips.
+     */
+    public List<RouteDayAvailabilityDTO> month(Integer routeId, Integer originId, Integer destId, YearMonth month) {
+        Key key = new Key(routeId, originId, destId, month);
+        List<RouteDayAvailabilityDTO> cached = months.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        List<RouteDayAvailabilityDTO> days = load(key);
+        months.asMap().compute(key, (k, current) -> generation.get() == loadedAt ? days : current);
+        return days;
+    }
+
+    private List<RouteDayAvailabilityDTO> load(Key key) {
+        return jdbcTemplate.query(MONTH_SQL, (rs, rowNum) -> RouteDayAvailabilityDTO.builder()
+                        .date(rs.getDate("day").toLocalDate())
+                        .tripCount(rs.getInt("tripcount"))
+                        .minPrice(rs.getBigDecimal("minprice"))
+                        .seatsLeft(rs.getInt("seatsleft"))
+                        .build(),
+                Date.valueOf(key.month().atDay(1)), Date.valueOf(key.month().atEndOfMonth()),
+                key.routeId(), key.routeId(), key.originId(), key.originId(), key.destId(), key.destId());
+    }
+
+    /**
+     * Seats of a trip changed (called once the change is committed).
+     */
+    public void markSeatsChanged(Integer tripId) {
+        if (tripId != null && months.estimatedSize() > 0) {
+            changedSeats.add(tripId);
+        }
+    }
+
+    /**
+     * Trips were created, edited or changed status.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        months.invalidateAll();
+    }
+
+    void evictChangedMonths() {
+        if (changedSeats.isEmpty()) {
+            return;
+        }
+        List<Integer> tripIds = new ArrayList<>();
+        for (Integer tripId : changedSeats) {
+            changedSeats.remove(tripId);
+            tripIds.add(tripId);
+        }
+
+        try {
+            List<TripMonth> changed = jdbcTemplate.query(TRIP_MONTHS_SQL, ps -> {
+                Array ids = ps.getConnection().createArrayOf("integer", tripIds.toArray());
+                ps.setArray(1, ids);
+            }, (rs, rowNum) -> new TripMonth(rs.getInt("routeid"), rs.getInt("originid"), rs.getInt("destinationid"),
+                    YearMonth.of(rs.getInt("year"), rs.getInt("month"))));
+
+            generation.incrementAndGet();
+            months.asMap().keySet().removeIf(key -> changed.stream().anyMatch(key::covers));
+        } catch (Exception e) {
+            log.warn("Could not evict calendar months of {} trips: {}", tripIds.size(), e.getMessage());
+            invalidateAll();
+        }
+    }
+}
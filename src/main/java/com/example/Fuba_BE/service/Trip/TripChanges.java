@@ -0,0 +1,136 @@
+package com.example.Fuba_BE.service.Trip;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.ClusterMessage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands committed trip and seat changes to the in-memory trip read models
+ * ({@link TripSearchIndex}, {@link TripCalendar}) of every node: applied here, then announced
+ * over the {@link ClusterBus} so the other nodes apply them too.
+ *
+ * The read models pick up seat changes once a second, so seat changes are announced the same
+ * way: the trips collected since the last tick go out as one SEATS_CHANGED message
+ * ({@code trip.changes.announce-ms}), on a thread of their own.
+ */
+@Component
+@Slf4j
+public class TripChanges {
+
+    private final TripSearchIndex tripSearchIndex;
+    private final TripCalendar tripCalendar;
+    private final ClusterBus clusterBus;
+    private final long announceMs;
+    private final Set<Integer> unannouncedSeats = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    public TripChanges(TripSearchIndex tripSearchIndex, TripCalendar tripCalendar, ClusterBus clusterBus,
+                       @Value("${trip.changes.announce-ms:1000}") long announceMs) {
+        this.tripSearchIndex = tripSearchIndex;
+        this.tripCalendar = tripCalendar;
+        this.clusterBus = clusterBus;
+        this.announceMs = announceMs;
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("trip-changes-");
+        scheduler.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::announceSeatChanges, Duration.ofMillis(announceMs));
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Trips were created, edited, rescheduled, deleted or changed status; applied after commit.
+     */
+    public void tripsChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyTripsChanged();
+                }
+            });
+        } else {
+            notifyTripsChanged();
+        }
+    }
+
+    /**
+     * Seats of a trip changed; called once the change is committed. The other nodes hear of it
+     * with the next announcement.
+     */
+    public void seatsChanged(Integer tripId) {
+        if (tripId == null) {
+            return;
+        }
+        applySeatsChanged(tripId);
+        unannouncedSeats.add(tripId);
+    }
+
+    /**
+     * Apply a seat change to this node only (announced by another node).
+     */
+    public void applySeatsChanged(Integer tripId) {
+        tripSearchIndex.markSeatsChanged(tripId);
+        tripCalendar.markSeatsChanged(tripId);
+    }
+
+    /**
+     * Apply a trip change to this node only (announced by another node).
+     */
+    public void applyTripsChanged() {
+        tripSearchIndex.markTripsChanged();
+        tripCalendar.invalidateAll();
+    }
+
+    /**
+     * Announce the trips whose seats changed since the last announcement, in one message.
+     */
+    public void announceSeatChanges() {
+        if (unannouncedSeats.isEmpty()) {
+            return;
+        }
+        List<Integer> tripIds = new ArrayList<>();
+        for (Integer tripId : unannouncedSeats) {
+            unannouncedSeats.remove(tripId);
+            tripIds.add(tripId);
+        }
+        broadcast(ClusterMessage.builder().type(ClusterMessage.Type.SEATS_CHANGED).tripIds(tripIds).build());
+    }
+
+    private void notifyTripsChanged() {
+        applyTripsChanged();
+        broadcast(ClusterMessage.builder().type(ClusterMessage.Type.TRIPS_CHANGED).build());
+    }
+
+    private void broadcast(ClusterMessage message) {
+        try {
+            clusterBus.broadcast(message);
+        } catch (Exception e) {
+            // The other nodes catch up with their next index rebuild
+            log.warn("Failed to announce {} to the cluster: {}", message.getType(), e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package com.example.Fuba_BE.service.Trip;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.Fuba_BE.domain.entity.Trip;
 import com.example.Fuba_BE.repository.TripRepository;
+import com.example.Fuba_BE.service.cluster.SchedulerLeases;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +25,9 @@ import lombok.extern.slf4j.Slf4j;
 public class TripScheduler {
 
     private final TripRepository tripRepository;
+    private final SchedulerLeases schedulerLeases;
+    private final TransactionTemplate transactionTemplate;
+    private final TripChanges tripChanges;
 
     /**
      * Scheduled task to automatically cancel expired trips.
@@ -30,10 +35,15 @@ public class TripScheduler {
      * status="Waiting"
      * and departure time has already passed.
      * This prevents old trips from blocking new trip creation.
+     * Runs on one node of the cluster at a time (see {@link SchedulerLeases}).
      */
     @Scheduled(fixedRate = 300000, initialDelay = 30000) // Every 5 minutes, start after 30s
-    @Transactional
     public void cancelExpiredWaitingTrips() {
+        schedulerLeases.runExclusive("trip.cancel-expired-waiting", Duration.ofMinutes(10),
+                () -> transactionTemplate.executeWithoutResult(status -> cancelExpiredWaitingTripsOnLease()));
+    }
+
+    private void cancelExpiredWaitingTripsOnLease() {
         try {
             log.info("🔍 Running scheduled task to cancel expired waiting trips");
 
@@ -64,6 +74,7 @@ public class TripScheduler {
                 }
             }
 
+            tripChanges.tripsChanged();
             log.info("Successfully cancelled {}/{} expired waiting trips",
                     cancelledCount, expiredTrips.size());
 
@@ -0,0 +1,510 @@
+package com.example.Fuba_BE.service.Trip;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.domain.entity.Route;
+import com.example.Fuba_BE.domain.entity.Trip;
+import com.example.Fuba_BE.domain.enums.DepartureShift;
+import com.example.Fuba_BE.dto.Trip.TripDetailedResponseDTO;
+import com.example.Fuba_BE.mapper.TripMapper;
+import com.example.Fuba_BE.repository.TripRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory index of the upcoming Waiting/Running trips for the customer trip search
+ * (origin + destination + date, with price, time-of-day, vehicle type and free-seat filters).
+ *
+ * Trips are grouped by (origin, destination, day). Each group keeps its trips ordered by
+ * departure with one packed long per trip (price, departure minute, vehicle type, status,
+ * available seats) that the filters and sorts run on, next to the ready-made response DTOs.
+ * The index is rebuilt every {@code trip.search-index.refresh-ms}; seat changes patch the
+ * counters of their trip within a second, trip changes trigger an early rebuild. Changes made on
+ * other nodes arrive through {@link TripChanges}. Rebuilds and patches run on the index's own
+ * thread, so a full reload never holds up the application's {@code @Scheduled} jobs.
+ *
+ * Searches the index can't answer exactly (other filters or sorts, days outside the horizon,
+ * trips that don't fit the packing) return empty and go to SQL.
+ */
+@Component
+@Slf4j
+public class TripSearchIndex {
+
+    private static final List<String> STATUSES = List.of("Waiting", "Running");
+
+    private static final String SEAT_COUNTS_SQL =
+            "SELECT tripid, availableseats, bookedseats, usedseats FROM trips WHERE tripid = ANY (?)";
+
+    // Packed layout: price (32) | departure minute (11) | running (1) | vehicle type (10) | available seats (10)
+    private static final int SEATS_BITS = 10;
+    private static final int TYPE_SHIFT = 10;
+    private static final int RUNNING_SHIFT = 20;
+    private static final int MINUTE_SHIFT = 21;
+    private static final int PRICE_SHIFT = 32;
+    private static final int MAX_SEATS = (1 << SEATS_BITS) - 1;
+    private static final int MAX_TYPES = (1 << 10) - 1;
+    private static final long MAX_PRICE = 0xFFFFFFFFL;
+
+    private final TripRepository tripRepository;
+    private final TripMapper tripMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final long rebuildMs;
+    private final long updateMs;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    private final Set<Integer> changedSeats = ConcurrentHashMap.newKeySet();
+    private final Object refreshLock = new Object();
+    private volatile boolean stale = true;
+    private volatile Snapshot snapshot;
+
+    public TripSearchIndex(TripRepository tripRepository, TripMapper tripMapper, JdbcTemplate jdbcTemplate,
+                           @Value("${trip.search-index.enabled:true}") boolean enabled,
+                           @Value("${trip.search-index.horizon-days:30}") int horizonDays,
+                           @Value("${trip.search-index.refresh-ms:60000}") long rebuildMs,
+                           @Value("${trip.search-index.update-ms:1000}") long updateMs) {
+        this.tripRepository = tripRepository;
+        this.tripMapper = tripMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.rebuildMs = rebuildMs;
+        this.updateMs = updateMs;
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("trip-search-index-");
+        scheduler.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::scheduledRebuild, Duration.ofMillis(rebuildMs));
+        scheduler.scheduleWithFixedDelay(this::refresh, Duration.ofMillis(updateMs));
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Trips of one (origin, destination, day), ordered by departure then id.
+     */
+    private record Bucket(int[] tripIds, AtomicLongArray packed,
+                          AtomicReferenceArray<TripDetailedResponseDTO> details) {
+    }
+
+    private record Slot(Bucket bucket, int index) {
+    }
+
+    /**
+     * One immutable build of the index; only the packed seat counts and DTOs of a slot change.
+     */
+    private record Snapshot(LocalDate firstDay, LocalDate lastDay, Map<Long, Bucket> buckets,
+                            Set<Long> unindexed, Map<Integer, Slot> slots, Map<String, Integer> vehicleTypes) {
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Search
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Answer a trip search from memory.
+     *
+     * @return the page, or empty when the search must go to SQL
+     */
+    public Optional<Page<TripDetailedResponseDTO>> search(Integer originId, Integer destId, LocalDate date,
+            Double minPrice, Double maxPrice, List<String> timeRanges, List<String> vehicleTypes,
+            Integer minAvailableSeats, List<String> statuses, String sortBy, String sortDir, int page, int size) {
+        Snapshot current = snapshot;
+        if (current == null || originId == null || destId == null || date == null
+                || date.isBefore(current.firstDay()) || date.isAfter(current.lastDay())
+                || statuses == null || statuses.isEmpty() || !STATUSES.containsAll(statuses)) {
+            return Optional.empty();
+        }
+        Comparator<Long> order = order(sortBy);
+        if (order == null) {
+            return Optional.empty();
+        }
+        long key = key(originId, destId, date);
+        if (current.unindexed().contains(key)) {
+            return Optional.empty();
+        }
+
+        boolean desc = sortDir.equalsIgnoreCase("desc");
+        Sort sort = desc ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+
+        Bucket bucket = current.buckets().get(key);
+        if (bucket == null) {
+            return Optional.of(Page.empty(pageable));
+        }
+
+        boolean waiting = statuses.contains("Waiting");
+        boolean running = statuses.contains("Running");
+        // Only Waiting: departure must still be ahead (same rule as the SQL path)
+        LocalDateTime departAfter = statuses.size() == 1 && waiting ? LocalDateTime.now() : null;
+        if (departAfter != null && date.isBefore(departAfter.toLocalDate())) {
+            return Optional.of(Page.empty(pageable));
+        }
+        boolean[] hours = hours(timeRanges);
+        Set<Integer> typeCodes = typeCodes(current, vehicleTypes);
+        int minSeats = minAvailableSeats != null && minAvailableSeats > 0 ? minAvailableSeats : 0;
+
+        int count = bucket.tripIds().length;
+        int[] matches = new int[count];
+        long[] values = new long[count];
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            long packed = bucket.packed().get(i);
+            if (isRunning(packed) ? !running : !waiting) {
+                continue;
+            }
+            if (minPrice != null && price(packed) < minPrice) {
+                continue;
+            }
+            if (maxPrice != null && price(packed) > maxPrice) {
+                continue;
+            }
+            int minute = minute(packed);
+            if (hours != null && !hours[minute / 60]) {
+                continue;
+            }
+            if (typeCodes != null && !typeCodes.contains(vehicleType(packed))) {
+                continue;
+            }
+            if (availableSeats(packed) < minSeats) {
+                continue;
+            }
+            if (departAfter != null && date.equals(departAfter.toLocalDate())
+                    && !departsAfter(bucket.details().get(i), minute, departAfter.toLocalTime())) {
+                continue;
+            }
+            matches[matched] = i;
+            values[matched] = packed;
+            matched++;
+        }
+
+        int[] ordered = sortMatches(matches, values, matched, order, desc);
+        int from = (int) Math.min(pageable.getOffset(), matched);
+        int to = Math.min(from + size, matched);
+        List<TripDetailedResponseDTO> content = new ArrayList<>(to - from);
+        for (int n = from; n < to; n++) {
+            content.add(bucket.details().get(ordered[n]));
+        }
+        return Optional.of(new PageImpl<>(content, pageable, matched));
+    }
+
+    private static Comparator<Long> order(String sortBy) {
+        return switch (sortBy) {
+            case "departureTime" -> Comparator.comparingInt(TripSearchIndex::minute);
+            case "basePrice" -> Comparator.comparingLong(TripSearchIndex::price);
+            case "availableSeats" -> Comparator.comparingInt(TripSearchIndex::availableSeats);
+            default -> null;
+        };
+    }
+
+    /**
+     * Bucket positions are in departure order; ties keep it (reversed for desc).
+     */
+    private static int[] sortMatches(int[] matches, long[] values, int matched, Comparator<Long> order, boolean desc) {
+        Integer[] positions = new Integer[matched];
+        for (int n = 0; n < matched; n++) {
+            positions[n] = n;
+        }
+        Comparator<Integer> byValue = (a, b) -> order.compare(values[a], values[b]);
+        Comparator<Integer> comparator = byValue.thenComparingInt(n -> n);
+        Arrays.sort(positions, desc ? comparator.reversed() : comparator);
+
+        int[] ordered = new int[matched];
+        for (int n = 0; n < matched; n++) {
+            ordered[n] = matches[positions[n]];
+        }
+        return ordered;
+    }
+
+    private static boolean departsAfter(TripDetailedResponseDTO dto, int minute, LocalTime now) {
+        int nowMinute = now.getHour() * 60 + now.getMinute();
+        if (minute != nowMinute) {
+            return minute > nowMinute;
+        }
+        return dto.getDepartureTime().isAfter(now);
+    }
+
+    /**
+     * Hours of the day allowed by the time ranges, null for no filter.
+     */
+    private static boolean[] hours(List<String> timeRanges) {
+        if (timeRanges == null || timeRanges.isEmpty()) {
+            return null;
+        }
+        boolean[] hours = new boolean[24];
+        boolean any = false;
+        for (String range : timeRanges) {
+            Optional<DepartureShift> shift = DepartureShift.fromRange(range);
+            if (shift.isPresent()) {
+                Arrays.fill(hours, shift.get().fromHour(), shift.get().toHour(), true);
+                any = true;
+            }
+        }
+        return any ? hours : null;
+    }
+
+    /**
+     * Codes of the requested vehicle types, null for no filter.
+     */
+    private static Set<Integer> typeCodes(Snapshot current, List<String> vehicleTypes) {
+        if (vehicleTypes == null || vehicleTypes.isEmpty()) {
+            return null;
+        }
+        Set<Integer> codes = new HashSet<>();
+        for (String type : vehicleTypes) {
+            Integer code = current.vehicleTypes().get(type);
+            if (code != null) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Updates
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Seats of a trip changed (called once the change is committed).
+     */
+    public void markSeatsChanged(Integer tripId) {
+        if (enabled && tripId != null) {
+            changedSeats.add(tripId);
+        }
+    }
+
+    /**
+     * Trips were created, edited, rescheduled or changed status: rebuild on the next tick.
+     */
+    public void markTripsChanged() {
+        stale = true;
+    }
+
+    void scheduledRebuild() {
+        stale = true;
+        refresh();
+    }
+
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (refreshLock) {
+            try {
+                if (stale) {
+                    // Changes marked from here on are newer than the rebuild and applied next time
+                    changedSeats.clear();
+                    stale = false;
+                    rebuild();
+                } else if (!changedSeats.isEmpty()) {
+                    applySeatChanges();
+                }
+            } catch (Exception e) {
+                stale = true;
+                log.warn("Trip search index refresh failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        LocalDate firstDay = LocalDate.now();
+        LocalDate lastDay = firstDay.plusDays(horizonDays);
+        List<Trip> trips = tripRepository.findSearchableTrips(STATUSES, firstDay.atStartOfDay(),
+                lastDay.plusDays(1).atStartOfDay());
+
+        Map<Long, List<Trip>> grouped = new HashMap<>();
+        Set<Long> unindexed = new HashSet<>();
+        Map<String, Integer> vehicleTypes = new LinkedHashMap<>();
+        for (Trip trip : trips) {
+            Route route = trip.getRoute();
+            if (route == null || route.getOrigin() == null || route.getDestination() == null) {
+                continue;
+            }
+            long key = key(route.getOrigin().getLocationId(), route.getDestination().getLocationId(),
+                    trip.getDepartureTime().toLocalDate());
+            grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(trip);
+            if (!packable(trip) || vehicleTypeCode(trip, vehicleTypes) < 0) {
+                unindexed.add(key);
+            }
+        }
+
+        Map<Long, Bucket> buckets = new HashMap<>();
+        Map<Integer, Slot> slots = new HashMap<>();
+        grouped.forEach((key, group) -> {
+            if (unindexed.contains(key)) {
+                return;
+            }
+            group.sort(Comparator.comparing(Trip::getDepartureTime).thenComparing(Trip::getTripId));
+            int size = group.size();
+            Bucket bucket = new Bucket(new int[size], new AtomicLongArray(size), new AtomicReferenceArray<>(size));
+            for (int i = 0; i < size; i++) {
+                Trip trip = group.get(i);
+                bucket.tripIds()[i] = trip.getTripId();
+                bucket.packed().set(i, pack(trip, vehicleTypeCode(trip, vehicleTypes)));
+                bucket.details().set(i, tripMapper.toSearchResultDTO(trip));
+                slots.put(trip.getTripId(), new Slot(bucket, i));
+            }
+            buckets.put(key, bucket);
+        });
+
+        snapshot = new Snapshot(firstDay, lastDay, buckets, unindexed, slots, vehicleTypes);
+        log.info("Trip search index: {} trips in {} groups ({} groups left to SQL) in {} ms",
+                slots.size(), buckets.size(), unindexed.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void applySeatChanges() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        List<Integer> tripIds = new ArrayList<>();
+        for (Integer tripId : changedSeats) {
+            changedSeats.remove(tripId);
+            if (current.slots().containsKey(tripId)) {
+                tripIds.add(tripId);
+            }
+        }
+        if (tripIds.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.query(SEAT_COUNTS_SQL, ps -> {
+            Array ids = ps.getConnection().createArrayOf("integer", tripIds.toArray());
+            ps.setArray(1, ids);
+        }, rs -> {
+            Slot slot = current.slots().get(rs.getInt("tripid"));
+            int available = rs.getInt("availableseats");
+            if (available < 0 || available > MAX_SEATS) {
+                stale = true;
+                return;
+            }
+            Bucket bucket = slot.bucket();
+            int i = slot.index();
+            bucket.packed().set(i, withAvailableSeats(bucket.packed().get(i), available));
+            bucket.details().set(i, bucket.details().get(i).toBuilder()
+                    .bookedSeats(rs.getInt("bookedseats"))
+                    .checkedInSeats(rs.getInt("usedseats"))
+                    .build());
+        });
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Packing
+    // ------------------------------------------------------------------------------------------
+
+    static long key(int originId, int destId, LocalDate date) {
+        return ((long) originId << 40) | ((long) (destId & 0xFFFFF) << 20) | (date.toEpochDay() & 0xFFFFF);
+    }
+
+    /**
+     * Whether the trip fits the packed layout exactly (whole VND price, seat count in range).
+     */
+    private static boolean packable(Trip trip) {
+        BigDecimal price = trip.getBasePrice();
+        int available = trip.getAvailableSeats() != null ? trip.getAvailableSeats() : 0;
+        return price != null && price.signum() >= 0 && price.stripTrailingZeros().scale() <= 0
+                && price.compareTo(BigDecimal.valueOf(MAX_PRICE)) <= 0
+                && available >= 0 && available <= MAX_SEATS;
+    }
+
+    /**
+     * Code of the trip's vehicle type (0 for none), -1 when the dictionary is full.
+     */
+    private static int vehicleTypeCode(Trip trip, Map<String, Integer> vehicleTypes) {
+        if (trip.getVehicle() == null || trip.getVehicle().getVehicleType() == null
+                || trip.getVehicle().getVehicleType().getTypeName() == null) {
+            return 0;
+        }
+        String typeName = trip.getVehicle().getVehicleType().getTypeName();
+        Integer code = vehicleTypes.get(typeName);
+        if (code == null) {
+            if (vehicleTypes.size() >= MAX_TYPES) {
+                return -1;
+            }
+            code = vehicleTypes.size() + 1;
+            vehicleTypes.put(typeName, code);
+        }
+        return code;
+    }
+
+    private static long pack(Trip trip, int vehicleType) {
+        LocalTime departure = trip.getDepartureTime().toLocalTime();
+        int available = trip.getAvailableSeats() != null ? trip.getAvailableSeats() : 0;
+        return pack(trip.getBasePrice().longValueExact(), departure.getHour() * 60 + departure.getMinute(),
+                vehicleType, "Running".equals(trip.getStatus()), available);
+    }
+
+    static long pack(long price, int minute, int vehicleType, boolean running, int availableSeats) {
+        return (price << PRICE_SHIFT)
+                | ((long) minute << MINUTE_SHIFT)
+                | (running ? 1L << RUNNING_SHIFT : 0L)
+                | ((long) vehicleType << TYPE_SHIFT)
+                | availableSeats;
+    }
+
+    static long price(long packed) {
+        return packed >>> PRICE_SHIFT;
+    }
+
+    static int minute(long packed) {
+        return (int) (packed >>> MINUTE_SHIFT) & 0x7FF;
+    }
+
+    static boolean isRunning(long packed) {
+        return (packed & (1L << RUNNING_SHIFT)) != 0;
+    }
+
+    static int vehicleType(long packed) {
+        return (int) (packed >>> TYPE_SHIFT) & MAX_TYPES;
+    }
+
+    static int availableSeats(long packed) {
+        return (int) packed & MAX_SEATS;
+    }
+
+    static long withAvailableSeats(long packed, int availableSeats) {
+        return (packed & ~(long) MAX_SEATS) | availableSeats;
+    }
+}
@@ -5,11 +5,12 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
@@ -30,11 +31,14 @@ import com.example.Fuba_BE.domain.entity.Ticket;
 import com.example.Fuba_BE.domain.entity.Trip;
 import com.example.Fuba_BE.domain.entity.TripSeat;
 import com.example.Fuba_BE.domain.entity.Vehicle;
+import com.example.Fuba_BE.domain.enums.DepartureShift;
 import com.example.Fuba_BE.domain.enums.SeatStatus;
 import com.example.Fuba_BE.domain.enums.TicketStatus;
 import com.example.Fuba_BE.domain.enums.TripStatus;
+import com.example.Fuba_BE.dto.Trip.AlternativeTripDTO;
 import com.example.Fuba_BE.dto.Trip.CompleteTripRequestDTO;
 import com.example.Fuba_BE.dto.Trip.PassengerOnTripResponseDTO;
+import com.example.Fuba_BE.dto.Trip.RouteDayAvailabilityDTO;
 import com.example.Fuba_BE.dto.Trip.TicketDetailResponseDTO;
 import com.example.Fuba_BE.dto.Trip.TripCreateRequestDTO;
 import com.example.Fuba_BE.dto.Trip.TripDetailedResponseDTO;
@@ -51,9 +55,7 @@ import com.example.Fuba_BE.repository.TripRepository;
 import com.example.Fuba_BE.repository.TripSeatRepository;
 import com.example.Fuba_BE.repository.VehicleRepository;
 
-import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -63,6 +65,8 @@ import lombok.RequiredArgsConstructor;
 public class TripService implements ITripService {
 
     private static final double MAX_WORKING_HOURS = 10.0; // Maximum driver working hours per day
+    private static final int ALTERNATIVE_LOOKAHEAD_DAYS = 14; // Reschedule: trips offered up to 2 weeks ahead
+    private static final int MAX_ALTERNATIVE_PAGE_SIZE = 100;
 
     private final TripRepository tripRepository;
     private final RouteRepository routeRepository;
@@ -73,6 +77,9 @@ public class TripService implements ITripService {
     private final PassengerRepository passengerRepository;
     private final PassengerOnTripMapper passengerOnTripMapper;
     private final TripMapper tripMapper;
+    private final TripSearchIndex tripSearchIndex;
+    private final TripChanges tripChanges;
+    private final TripCalendar tripCalendar;
 
     @Override
     @Transactional(readOnly = true)
@@ -82,6 +89,16 @@ public class TripService implements ITripService {
             List<String> timeRanges, List<String> vehicleTypes,
             Integer minAvailableSeats, List<String> statuses) {
 
+        // Customer search (origin + destination + date) is answered from memory when possible
+        if (!StringUtils.hasText(search) && routeId == null) {
+            Optional<Page<TripDetailedResponseDTO>> indexed = tripSearchIndex.search(originId, destId, date,
+                    minPrice, maxPrice, timeRanges, vehicleTypes, minAvailableSeats, statuses, sortBy, sortDir,
+                    page, size);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+
         // --- 1. SETUP PAGEABLE ---
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
@@ -130,36 +147,21 @@ public class TripService implements ITripService {
 
             // 2.4 Date
             if (date != null) {
-                LocalDateTime startOfDay = date.atStartOfDay();
-                LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-                predicates.add(cb.between(root.get("departureTime"), startOfDay, endOfDay));
+                // Half-open: LocalTime.MAX rounds up to the next midnight in a timestamp column
+                predicates.add(cb.greaterThanOrEqualTo(root.get("departureTime"), date.atStartOfDay()));
+                predicates.add(cb.lessThan(root.get("departureTime"), date.plusDays(1).atStartOfDay()));
             }
 
-            // 2.5 Time Ranges (PostgreSQL date_part)
+            // 2.5 Time Ranges (departureshift column, indexed with route and date - V25)
             if (timeRanges != null && !timeRanges.isEmpty()) {
-                List<Predicate> timePredicates = new ArrayList<>();
-                Expression<Double> hourDouble = cb.function("date_part", Double.class, cb.literal("hour"),
-                        root.get("departureTime"));
-                Expression<Integer> hourExp = hourDouble.as(Integer.class);
-
-                for (String range : timeRanges) {
-                    switch (range.toLowerCase()) {
-                        case "morning":
-                            timePredicates.add(cb.and(cb.greaterThanOrEqualTo(hourExp, 6), cb.lessThan(hourExp, 12)));
-                            break;
-                        case "afternoon":
-                            timePredicates.add(cb.and(cb.greaterThanOrEqualTo(hourExp, 12), cb.lessThan(hourExp, 18)));
-                            break;
-                        case "evening":
-                            timePredicates.add(cb.and(cb.greaterThanOrEqualTo(hourExp, 18), cb.lessThan(hourExp, 24)));
-                            break;
-                        case "night":
-                            timePredicates.add(cb.and(cb.greaterThanOrEqualTo(hourExp, 0), cb.lessThan(hourExp, 6)));
-                            break;
-                    }
-                }
-                if (!timePredicates.isEmpty())
-                    predicates.add(cb.or(timePredicates.toArray(new Predicate[0])));
+                List<Integer> shifts = timeRanges.stream()
+                        .map(DepartureShift::fromRange)
+                        .flatMap(Optional::stream)
+                        .map(DepartureShift::dbValue)
+                        .distinct()
+                        .collect(Collectors.toList());
+                if (!shifts.isEmpty())
+                    predicates.add(root.get("departureShift").in(shifts));
             }
 
             // 2.6 Vehicle Types
@@ -167,25 +169,15 @@ public class TripService implements ITripService {
                 predicates.add(root.get("vehicle").get("vehicleType").get("typeName").in(vehicleTypes));
             }
 
-            // 2.7 Min Available Seats
+            // 2.7 Min Available Seats (per-trip counter, see V24)
             if (minAvailableSeats != null && minAvailableSeats > 0) {
-                // Nếu bạn đã tạo cột available_seats thì dùng dòng này (SIÊU NHANH):
-                // predicates.add(cb.greaterThanOrEqualTo(root.get("availableSeats"),
-                // minAvailableSeats));
-
-                // Nếu chưa có cột đó thì dùng Subquery (Cách hiện tại):
-                Subquery<Long> sub = query.subquery(Long.class);
-                jakarta.persistence.criteria.Root<TripSeat> subRoot = sub.from(TripSeat.class);
-                sub.select(cb.count(subRoot));
-                sub.where(cb.equal(subRoot.get("trip"), root),
-                        cb.equal(subRoot.get("status"), SeatStatus.Available.getDisplayName()));
-                predicates.add(cb.greaterThanOrEqualTo(sub, minAvailableSeats.longValue()));
+                predicates.add(cb.greaterThanOrEqualTo(root.get("availableSeats"), minAvailableSeats));
             }
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
 
-        // --- OPTIMIZED 3-PHASE APPROACH (1 query for stats instead of 2) ---
+        // --- OPTIMIZED 2-PHASE APPROACH (seat counts are columns of the trip) ---
 
         // PHASE 1: Get Trip IDs (light query with filters)
         Page<Trip> idPage = tripRepository.findAll(spec, pageable);
@@ -209,53 +201,9 @@ public class TripService implements ITripService {
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
 
-        // PHASE 3: Batch Query ALL seat statuses in ONE query
-        // Returns [tripId, status (lowercase), count] - more efficient than 2 separate
-        // queries
-        List<Object[]> rawStats = tripRepository.countSeatStatusByTripIds(tripIds);
-
-        // Convert to Map<TripId, Map<Status, Count>>
-        Map<Integer, Map<String, Integer>> statsMap = new HashMap<>();
-        for (Object[] row : rawStats) {
-            Integer tId = (Integer) row[0];
-            String status = (String) row[1];
-            Long count = (Long) row[2];
-
-            statsMap.putIfAbsent(tId, new HashMap<>());
-            statsMap.get(tId).put(status, count.intValue());
-        }
-
-        // PHASE 4: Map to DTOs (all data from memory, zero extra queries)
+        // PHASE 3: Map to DTOs (seat counts are trip columns, zero extra queries)
         List<TripDetailedResponseDTO> dtos = sortedTrips.stream()
-                .map(trip -> {
-                    TripDetailedResponseDTO dto = tripMapper.toDetailedDTO(trip);
-
-                    // Set Total Seats
-                    if (trip.getVehicle() != null && trip.getVehicle().getVehicleType() != null) {
-                        dto.setTotalSeats(trip.getVehicle().getVehicleType().getTotalSeats());
-                    } else {
-                        dto.setTotalSeats(40); // Default fallback
-                    }
-
-                    // Get stats from memory (zero queries)
-                    Map<String, Integer> tripStats = statsMap.getOrDefault(trip.getTripId(), new HashMap<>());
-
-                    // Sum all "booked" type statuses
-                    int booked = tripStats.getOrDefault("booked", 0) +
-                            tripStats.getOrDefault("sold", 0) +
-                            tripStats.getOrDefault("reserved", 0) +
-                            tripStats.getOrDefault("paid", 0);
-
-                    // Sum all "checked-in" type statuses
-                    int checkedIn = tripStats.getOrDefault("checkedin", 0) +
-                            tripStats.getOrDefault("used", 0) +
-                            tripStats.getOrDefault("checked-in", 0);
-
-                    dto.setBookedSeats(booked);
-                    dto.setCheckedInSeats(checkedIn);
-
-                    return dto;
-                })
+                .map(tripMapper::toSearchResultDTO)
                 .collect(Collectors.toList());
 
         return new PageImpl<>(dtos, pageable, idPage.getTotalElements());
@@ -283,6 +231,15 @@ public class TripService implements ITripService {
         return tripRepository.findDistinctTripDates(startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<RouteDayAvailabilityDTO> getCalendarAvailability(Integer routeId, Integer originId, Integer destId,
+            YearMonth month) {
+        if (routeId == null && (originId == null || destId == null))
+            throw new BadRequestException("Cần chọn tuyến hoặc điểm đi và điểm đến");
+        return tripCalendar.month(routeId, originId, destId, month);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Trip> getTripsDetailsByDate(LocalDate date) {
@@ -297,6 +254,7 @@ public class TripService implements ITripService {
         if (note != null)
             trip.setStatusNote(note);
         tripRepository.save(trip);
+        tripChanges.tripsChanged();
     }
 
     @Override
@@ -458,6 +416,7 @@ public class TripService implements ITripService {
         trip.setAutoCancelIfNotEnough(false);
 
         Trip savedTrip = tripRepository.save(trip);
+        tripChanges.tripsChanged();
         generateSeatsForTrip(savedTrip, vehicle);
         return savedTrip;
     }
@@ -500,6 +459,7 @@ public class TripService implements ITripService {
         }
 
         tripRepository.delete(trip);
+        tripChanges.tripsChanged();
     }
 
     @Override
@@ -640,6 +600,7 @@ public class TripService implements ITripService {
         trip.setBasePrice(request.getPrice());
 
         Trip saved = tripRepository.save(trip);
+        tripChanges.tripsChanged();
 
         // Re-fetch with details to ensure related lazy associations (route, origin,
         // destination, driver.user, vehicle.vehicleType, etc.) are initialized
@@ -723,6 +684,7 @@ public class TripService implements ITripService {
         }
 
         tripRepository.save(trip);
+        tripChanges.tripsChanged();
     }
 
     @Override
@@ -776,61 +738,58 @@ public class TripService implements ITripService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<com.example.Fuba_BE.dto.Trip.AlternativeTripDTO> getAlternativeTripsForRoute(Integer routeId,
-            Integer excludeTripId, LocalDateTime afterDateTime) {
-        log.info("Fetching alternative trips for route {} after {} excluding trip {}", routeId, afterDateTime,
-                excludeTripId);
-
-        // Fetch trips for the same route that are after the specified datetime
-        List<Trip> trips = tripRepository.findByRouteAndAfterDateTime(routeId, afterDateTime);
-
-        // Filter out the excluded trip and only include Waiting/Running trips
-        return trips.stream()
-                .filter(trip -> !trip.getTripId().equals(excludeTripId))
-                .filter(trip -> "Waiting".equals(trip.getStatus()) || "Running".equals(trip.getStatus()))
-                .map(trip -> {
-                    // Calculate available seats
-                    List<TripSeat> tripSeats = tripSeatRepository
-                            .findByTrip_TripIdOrderByFloorNumberAscSeatNumberAsc(trip.getTripId());
-                    long bookedSeats = tripSeats.stream()
-                            .filter(ts -> "Booked".equals(ts.getStatus()) || "Held".equals(ts.getStatus())
-                                    || "Used".equals(ts.getStatus()))
-                            .count();
-                    int totalSeats = tripSeats.size();
-                    int availableSeats = (int) (totalSeats - bookedSeats);
-
-                    // Build vehicle info
-                    String vehicleInfo = trip.getVehicle() != null
-                            ? trip.getVehicle().getLicensePlate() + " - "
-                                    + (trip.getVehicle().getVehicleType() != null
-                                            ? trip.getVehicle().getVehicleType().getTypeName()
-                                            : "Unknown")
-                            : "N/A";
-
-                    String vehicleTypeName = trip.getVehicle() != null && trip.getVehicle().getVehicleType() != null
-                            ? trip.getVehicle().getVehicleType().getTypeName()
-                            : "N/A";
-
-                    String driverName = trip.getDriver() != null && trip.getDriver().getUser() != null
-                            ? trip.getDriver().getUser().getFullName()
-                            : "N/A";
-
-                    return com.example.Fuba_BE.dto.Trip.AlternativeTripDTO.builder()
-                            .tripId(trip.getTripId())
-                            .routeName(trip.getRoute() != null ? trip.getRoute().getRouteName() : "N/A")
-                            .departureTime(trip.getDepartureTime())
-                            .arrivalTime(trip.getArrivalTime())
-                            .vehicleInfo(vehicleInfo)
-                            .vehicleTypeName(vehicleTypeName)
-                            .driverName(driverName)
-                            .price(trip.getBasePrice().doubleValue())
-                            .totalSeats(totalSeats)
-                            .availableSeats(availableSeats)
-                            .bookedSeats((int) bookedSeats)
-                            .status(trip.getStatus())
-                            .build();
-                })
-                .collect(Collectors.toList());
+    public Page<AlternativeTripDTO> getAlternativeTripsForRoute(Integer routeId, Integer excludeTripId,
+            LocalDateTime afterDateTime, int page, int size) {
+        log.info("Fetching alternative trips for route {} after {} excluding trip {} (page {}, size {})", routeId,
+                afterDateTime, excludeTripId, page, size);
+
+        if (page < 0) {
+            throw new BadRequestException("Số trang không hợp lệ");
+        }
+        if (size < 1 || size > MAX_ALTERNATIVE_PAGE_SIZE) {
+            throw new BadRequestException("Kích thước trang phải từ 1 đến " + MAX_ALTERNATIVE_PAGE_SIZE);
+        }
+
+        // Same route, Waiting/Running, within the lookahead window; one page + one count query
+        Page<Trip> trips = tripRepository.findAlternativeTrips(routeId, excludeTripId, List.of("Waiting", "Running"),
+                afterDateTime, afterDateTime.plusDays(ALTERNATIVE_LOOKAHEAD_DAYS), PageRequest.of(page, size));
+
+        return trips.map(trip -> {
+            // Seat counters maintained by the tripseats triggers (V24)
+            int bookedSeats = trip.getHeldSeats() + trip.getBookedSeats() + trip.getUsedSeats();
+            int totalSeats = trip.getAvailableSeats() + bookedSeats;
+
+            // Build vehicle info
+            String vehicleInfo = trip.getVehicle() != null
+                    ? trip.getVehicle().getLicensePlate() + " - "
+                            + (trip.getVehicle().getVehicleType() != null
+                                    ? trip.getVehicle().getVehicleType().getTypeName()
+                                    : "Unknown")
+                    : "N/A";
+
+            String vehicleTypeName = trip.getVehicle() != null && trip.getVehicle().getVehicleType() != null
+                    ? trip.getVehicle().getVehicleType().getTypeName()
+                    : "N/A";
+
+            String driverName = trip.getDriver() != null && trip.getDriver().getUser() != null
+                    ? trip.getDriver().getUser().getFullName()
+                    : "N/A";
+
+            return AlternativeTripDTO.builder()
+                    .tripId(trip.getTripId())
+                    .routeName(trip.getRoute() != null ? trip.getRoute().getRouteName() : "N/A")
+                    .departureTime(trip.getDepartureTime())
+                    .arrivalTime(trip.getArrivalTime())
+                    .vehicleInfo(vehicleInfo)
+                    .vehicleTypeName(vehicleTypeName)
+                    .driverName(driverName)
+                    .price(trip.getBasePrice().doubleValue())
+                    .totalSeats(totalSeats)
+                    .availableSeats(trip.getAvailableSeats())
+                    .bookedSeats(bookedSeats)
+                    .status(trip.getStatus())
+                    .build();
+        });
     }
 
     /**
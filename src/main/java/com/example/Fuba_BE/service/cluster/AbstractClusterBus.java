@@ -0,0 +1,143 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Request/reply and dispatch shared by the bus implementations; subclasses only move messages.
+ *
+ * Incoming commands run on a small set of dispatch lanes, each a single thread. All commands of a
+ * trip go to the same lane, so they are applied in the order they were sent, while commands of
+ * other trips run in parallel on the other lanes: a slow command (e.g. a flush that writes to the
+ * database) only delays the trips sharing its lane. The transport's receiving thread never runs
+ * a command itself.
+ */
+@Slf4j
+public abstract class AbstractClusterBus implements ClusterBus {
+
+    private final String nodeId;
+    private final long requestTimeoutMs;
+    private final Map<String, CompletableFuture<ClusterMessage>> pending = new ConcurrentHashMap<>();
+    private final ExecutorService[] lanes;
+
+    private volatile Function<ClusterMessage, ClusterMessage> handler = message -> null;
+
+    protected AbstractClusterBus(String nodeId, long requestTimeoutMs) {
+        this(nodeId, requestTimeoutMs, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    protected AbstractClusterBus(String nodeId, long requestTimeoutMs, int laneCount) {
+        this.nodeId = nodeId;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = "cluster-bus-" + nodeId + "-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Hand a message to the transport for delivery to one node ({@code null} = every other node).
+     */
+    protected abstract void transmit(String targetNode, ClusterMessage message);
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void send(String nodeId, ClusterMessage message) {
+        message.setSourceNode(this.nodeId);
+        transmit(nodeId, message);
+    }
+
+    @Override
+    public void broadcast(ClusterMessage message) {
+        message.setSourceNode(nodeId);
+        transmit(null, message);
+    }
+
+    @Override
+    public CompletableFuture<ClusterMessage> request(String nodeId, ClusterMessage message) {
+        String correlationId = UUID.randomUUID().toString();
+        CompletableFuture<ClusterMessage> reply = new CompletableFuture<>();
+        pending.put(correlationId, reply);
+        reply.whenComplete((result, error) -> pending.remove(correlationId));
+
+        message.setCorrelationId(correlationId);
+        send(nodeId, message);
+        return reply.orTimeout(requestTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setHandler(Function<ClusterMessage, ClusterMessage> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Called by the transport for every message addressed to this node.
+     */
+    protected void deliver(ClusterMessage message) {
+        if (message.getType() == ClusterMessage.Type.REPLY) {
+            CompletableFuture<ClusterMessage> reply = pending.get(message.getCorrelationId());
+            if (reply != null) {
+                reply.complete(message);
+            }
+            return;
+        }
+        if (message.getType() == ClusterMessage.Type.HEARTBEAT) {
+            // Cheap, and must not queue behind slow commands or the sender looks dead
+            handle(message);
+            return;
+        }
+        laneOf(message).execute(() -> handle(message));
+    }
+
+    /**
+     * Commands of a trip share a lane; commands without one (e.g. releasing sessions) keep the
+     * order of their sender.
+     */
+    private ExecutorService laneOf(ClusterMessage message) {
+        int key = message.getTripId() != null ? message.getTripId() : Objects.hashCode(message.getSourceNode());
+        return lanes[Math.floorMod(key, lanes.length)];
+    }
+
+    private void handle(ClusterMessage message) {
+        ClusterMessage reply;
+        try {
+            reply = handler.apply(message);
+        } catch (Exception e) {
+            log.error("Failed to handle {} from node {}: {}", message.getType(), message.getSourceNode(), e.getMessage(), e);
+            reply = ClusterMessage.reply(message);
+            reply.setError(e.getMessage());
+        }
+        if (message.getCorrelationId() != null && message.getSourceNode() != null) {
+            if (reply == null) {
+                reply = ClusterMessage.reply(message);
+            }
+            reply.setType(ClusterMessage.Type.REPLY);
+            reply.setCorrelationId(message.getCorrelationId());
+            send(message.getSourceNode(), reply);
+        }
+    }
+
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
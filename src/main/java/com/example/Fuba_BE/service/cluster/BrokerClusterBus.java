@@ -0,0 +1,75 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * {@link ClusterBus} over the external STOMP broker used by the WebSocket relay.
+ *
+ * Each node listens on {@code /topic/cluster.node.{nodeId}} and {@code /topic/cluster.all}
+ * through the relay's shared system connection, so no extra broker connection or client library
+ * is needed. Clients are not allowed to send or subscribe to these destinations
+ * (see {@code WebSocketConfig}).
+ */
+@Slf4j
+public class BrokerClusterBus extends AbstractClusterBus {
+
+    public static final String DESTINATION_PREFIX = "/topic/cluster.";
+    private static final String NODE_DESTINATION_PREFIX = DESTINATION_PREFIX + "node.";
+    private static final String ALL_DESTINATION = DESTINATION_PREFIX + "all";
+
+    private final SimpMessagingTemplate brokerMessagingTemplate;
+    private final JsonMapper jsonMapper;
+
+    public BrokerClusterBus(String nodeId, long requestTimeoutMs, StompBrokerRelayMessageHandler relay,
+                            SimpMessagingTemplate brokerMessagingTemplate, JsonMapper jsonMapper) {
+        super(nodeId, requestTimeoutMs);
+        this.brokerMessagingTemplate = brokerMessagingTemplate;
+        this.jsonMapper = jsonMapper;
+
+        // Must be registered before the relay starts and opens its system connection
+        Map<String, MessageHandler> subscriptions = new HashMap<>();
+        if (relay.getSystemSubscriptions() != null) {
+            subscriptions.putAll(relay.getSystemSubscriptions());
+        }
+        subscriptions.put(NODE_DESTINATION_PREFIX + nodeId, this::receive);
+        subscriptions.put(ALL_DESTINATION, this::receive);
+        relay.setSystemSubscriptions(subscriptions);
+    }
+
+    @Override
+    protected void transmit(String targetNode, ClusterMessage message) {
+        String destination = targetNode != null ? NODE_DESTINATION_PREFIX + targetNode : ALL_DESTINATION;
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        brokerMessagingTemplate.send(destination,
+                MessageBuilder.createMessage(jsonMapper.writeValueAsBytes(message), accessor.getMessageHeaders()));
+    }
+
+    private void receive(Message<?> message) {
+        try {
+            ClusterMessage clusterMessage = jsonMapper.readValue((byte[]) message.getPayload(), ClusterMessage.class);
+            // Broadcasts come back to their sender too
+            if (getNodeId().equals(clusterMessage.getSourceNode()) && clusterMessage.getType() != ClusterMessage.Type.REPLY
+                    && ALL_DESTINATION.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+                return;
+            }
+            deliver(clusterMessage);
+        } catch (Exception e) {
+            log.error("Dropped unreadable cluster message: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Node-to-node fan-out used to reach the owner of a trip and to notify every other node.
+ *
+ * Implementations: {@link InProcessClusterBus} (nodes inside one JVM: single instance and tests)
+ * and {@link BrokerClusterBus} (nodes sharing the STOMP broker the WebSocket relay talks to).
+ */
+public interface ClusterBus {
+
+    String getNodeId();
+
+    /**
+     * Deliver a message to one node, without waiting for it to be handled.
+     */
+    void send(String nodeId, ClusterMessage message);
+
+    /**
+     * Deliver a message to every other node.
+     */
+    void broadcast(ClusterMessage message);
+
+    /**
+     * Deliver a message to one node and complete with its REPLY, or exceptionally on timeout.
+     */
+    CompletableFuture<ClusterMessage> request(String nodeId, ClusterMessage message);
+
+    /**
+     * Handler of messages addressed to this node. Its return value is sent back as the REPLY of
+     * a request; it is ignored for plain sends and broadcasts.
+     */
+    void setHandler(Function<ClusterMessage, ClusterMessage> handler);
+}
@@ -0,0 +1,62 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.time.Duration;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.config.ClusterProperties;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Announces this node to the others every {@code cluster.heartbeat-interval-ms} and lets
+ * {@link TripOwnership} drop the nodes that went quiet and take back the ones heard again.
+ *
+ * Runs on its own thread so a busy application scheduler can't make a healthy node look dead;
+ * the ownership listeners run here too, never on the bus threads that receive heartbeats.
+ * Does nothing on a single node.
+ */
+@Component
+@Slf4j
+public class ClusterHeartbeat {
+
+    private final ClusterBus clusterBus;
+    private final TripOwnership tripOwnership;
+    private final long intervalMs;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    public ClusterHeartbeat(ClusterBus clusterBus, TripOwnership tripOwnership, ClusterProperties properties) {
+        this.clusterBus = clusterBus;
+        this.tripOwnership = tripOwnership;
+        this.intervalMs = properties.getHeartbeatIntervalMs();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("cluster-heartbeat-");
+        scheduler.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!tripOwnership.isClustered()) {
+            return;
+        }
+        scheduler.initialize();
+        scheduler.scheduleAtFixedRate(this::beat, Duration.ofMillis(intervalMs));
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    void beat() {
+        try {
+            clusterBus.broadcast(ClusterMessage.builder().type(ClusterMessage.Type.HEARTBEAT).build());
+        } catch (Exception e) {
+            log.warn("Failed to send cluster heartbeat: {}", e.getMessage());
+        }
+        tripOwnership.checkLiveness();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame;
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame.SeatDelta;
+import com.example.Fuba_BE.dto.seat.SeatStatusMessage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seat command or reply exchanged between nodes over the {@link ClusterBus}.
+ * Only the fields used by the message type are set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClusterMessage {
+
+    public enum Type {
+        LOCK,
+        LOCK_BATCH,
+        UNLOCK,
+        CONFIRM,
+        RELEASE_SESSIONS,
+        FLUSH,
+        SYNC_SEAT,
+        EVICT_TRIP,
+        PUBLISH,
+        VERSION,
+        CHANGES_SINCE,
+        SEATS_CHANGED,
+        TRIPS_CHANGED,
+        HEARTBEAT,
+        REPLY
+    }
+
+    private Type type;
+
+    /**
+     * Set on requests that expect a REPLY, copied onto the reply
+     */
+    private String correlationId;
+
+    /**
+     * Node that sent the message (replies go back to it)
+     */
+    private String sourceNode;
+
+    private Integer tripId;
+    private Integer seatId;
+    private List<Integer> seatIds;
+    private String userId;
+    private String sessionId;
+    private List<String> sessionIds;
+
+    // SYNC_SEAT: the committed state of one seat
+    private String status;
+    private LocalDateTime holdExpiry;
+
+    // VERSION / CHANGES_SINCE
+    private Long version;
+
+    // SEATS_CHANGED: trips whose seats changed since the sender's last announcement
+    private List<Integer> tripIds;
+
+    private SeatStatusMessage result;
+    private List<SeatDelta> seats;
+    private SeatDeltaFrame frame;
+
+    /**
+     * Set on a REPLY when the owner failed to run the command
+     */
+    private String error;
+
+    public static ClusterMessage reply(ClusterMessage request) {
+        return ClusterMessage.builder()
+                .type(Type.REPLY)
+                .correlationId(request.getCorrelationId())
+                .tripId(request.getTripId())
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ClusterBus} between nodes living in the same JVM.
+ *
+ * A single-instance deployment is a network of one node, so nothing ever leaves the process.
+ * Tests can join several nodes to one {@link Network} to exercise trip ownership without a broker.
+ */
+public class InProcessClusterBus extends AbstractClusterBus {
+
+    /**
+     * Nodes reachable from each other.
+     */
+    public static final class Network {
+        private final Map<String, InProcessClusterBus> nodes = new ConcurrentHashMap<>();
+    }
+
+    private final Network network;
+
+    public InProcessClusterBus(String nodeId, long requestTimeoutMs, Network network) {
+        super(nodeId, requestTimeoutMs);
+        this.network = network;
+        network.nodes.put(nodeId, this);
+    }
+
+    public InProcessClusterBus(String nodeId, long requestTimeoutMs) {
+        this(nodeId, requestTimeoutMs, new Network());
+    }
+
+    @Override
+    protected void transmit(String targetNode, ClusterMessage message) {
+        if (targetNode != null) {
+            InProcessClusterBus target = network.nodes.get(targetNode);
+            if (target != null) {
+                target.deliver(message);
+            }
+            return;
+        }
+        network.nodes.forEach((nodeId, node) -> {
+            if (!nodeId.equals(getNodeId())) {
+                node.deliver(message);
+            }
+        });
+    }
+}
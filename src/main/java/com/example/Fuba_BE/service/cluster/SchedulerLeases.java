@@ -0,0 +1,156 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.dto.scheduling.SchedulerJobStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs database sweeps once per cluster instead of once per node.
+ *
+ * Every node fires the same {@code @Scheduled} methods; before doing any work a node takes the
+ * job's row in {@code scheduler_leases}. The holder renews the lease on each run, so ownership
+ * stays put while it is alive and moves to another node once the lease lapses; a live lease is
+ * never taken over. Jobs split by trip id take one lease per shard. A shard's preferred node
+ * (rendezvous hashing over the live nodes) takes it as soon as the lease lapses; other nodes
+ * only cover for it once the lease has been expired for another full lease period, and hand it
+ * back by not renewing. Only a run that outlives its lease can overlap with the next holder's,
+ * which the set-based sweeps tolerate.
+ *
+ * Per-node work (seat-hold expiry wheel, write-behind flush) stays on plain {@code @Scheduled}.
+ */
+@Component
+@Slf4j
+public class SchedulerLeases {
+
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO scheduler_leases (job_name, owner_node, lease_until)
+            VALUES (?, ?, LOCALTIMESTAMP + ? * INTERVAL '1 millisecond')
+            ON CONFLICT (job_name) DO UPDATE
+            SET owner_node = EXCLUDED.owner_node, lease_until = EXCLUDED.lease_until
+            WHERE (scheduler_leases.owner_node = EXCLUDED.owner_node AND ?)
+               OR scheduler_leases.lease_until < LOCALTIMESTAMP - ? * INTERVAL '1 millisecond'
+            RETURNING job_name
+            """;
+
+    private static final String RECORD_RUN_SQL = """
+            UPDATE scheduler_leases
+            SET last_started_at = ?, last_finished_at = ?, last_duration_ms = ?, last_error = ?
+            WHERE job_name = ? AND owner_node = ?
+            """;
+
+    private static final String JOBS_SQL = """
+            SELECT *, lease_until >= LOCALTIMESTAMP AS lease_active
+            FROM scheduler_leases
+            ORDER BY job_name
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TripOwnership tripOwnership;
+
+    public SchedulerLeases(JdbcTemplate jdbcTemplate, TripOwnership tripOwnership) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tripOwnership = tripOwnership;
+    }
+
+    /**
+     * Run {@code job} here if this node holds (or can take) its lease.
+     *
+     * @param lease how long the lease outlives this run; longer than the job's interval so the
+     *              holder keeps it, short enough for a quick takeover when the holder is gone
+     * @return whether the job ran on this node
+     */
+    public boolean runExclusive(String job, Duration lease, Runnable task) {
+        return tryRun(job, lease, true, Duration.ZERO, task);
+    }
+
+    /**
+     * Run the shards of {@code job} whose lease this node holds or can take. Shard {@code i}
+     * covers the trips with {@code tripId % shardCount() == i}.
+     *
+     * @return number of shards run on this node
+     */
+    public int runSharded(String job, Duration lease, IntConsumer shardTask) {
+        int shards = shardCount();
+        int ran = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            String name = job + "#" + shard;
+            boolean preferred = tripOwnership.getNodeId().equals(tripOwnership.ownerOf(name));
+            int current = shard;
+            Duration grace = preferred ? Duration.ZERO : lease;
+            if (tryRun(name, lease, preferred, grace, () -> shardTask.accept(current))) {
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    /**
+     * One shard per cluster node.
+     */
+    public int shardCount() {
+        return tripOwnership.getNodes().size();
+    }
+
+    /**
+     * Every lease and its last run. A lease counts as active by the database clock, the one it
+     * was taken against.
+     */
+    public List<SchedulerJobStatus> getJobs() {
+        return jdbcTemplate.query(JOBS_SQL, (rs, rowNum) -> {
+            String owner = rs.getString("owner_node");
+            boolean active = rs.getBoolean("lease_active");
+            return SchedulerJobStatus.builder()
+                    .jobName(rs.getString("job_name"))
+                    .ownerNode(owner)
+                    .leaseUntil(toLocalDateTime(rs.getTimestamp("lease_until")))
+                    .leaseActive(active)
+                    .ownedByThisNode(active && tripOwnership.getNodeId().equals(owner))
+                    .lastStartedAt(toLocalDateTime(rs.getTimestamp("last_started_at")))
+                    .lastFinishedAt(toLocalDateTime(rs.getTimestamp("last_finished_at")))
+                    .lastDurationMs(rs.getObject("last_duration_ms", Long.class))
+                    .lastError(rs.getString("last_error"))
+                    .build();
+        });
+    }
+
+    /**
+     * @param renew whether this node may extend a lease it still holds
+     * @param grace how long a lease must have been expired before this node takes it
+     */
+    private boolean tryRun(String job, Duration lease, boolean renew, Duration grace, Runnable task) {
+        // Autocommit: the lease must be visible to other nodes before the job starts
+        List<String> acquired = jdbcTemplate.queryForList(ACQUIRE_SQL, String.class,
+                job, tripOwnership.getNodeId(), lease.toMillis(), renew, grace.toMillis());
+        if (acquired.isEmpty()) {
+            log.debug("Skipping job {}: leased by another node", job);
+            return false;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            task.run();
+            return true;
+        } catch (RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            throw e;
+        } finally {
+            jdbcTemplate.update(RECORD_RUN_SQL, Timestamp.valueOf(startedAt), Timestamp.valueOf(LocalDateTime.now()),
+                    (System.nanoTime() - start) / 1_000_000, error, job, tripOwnership.getNodeId());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.Fuba_BE.service.cluster;
+
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.service.ISeatLockService;
+import com.example.Fuba_BE.service.Trip.TripChanges;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs the seat commands other nodes forward to this node as the owner of their trip, and
+ * applies the trip and seat changes they announce to this node's trip read models.
+ */
+@Component
+@RequiredArgsConstructor
+public class SeatClusterCommandHandler {
+
+    private final ClusterBus clusterBus;
+    private final TripOwnership tripOwnership;
+    private final ISeatLockService seatLockService;
+    private final SeatStateEngine seatStateEngine;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
+    private final TripChanges tripChanges;
+
+    @PostConstruct
+    void register() {
+        clusterBus.setHandler(message -> {
+            if (message.getType() == ClusterMessage.Type.HEARTBEAT) {
+                // Runs on the transport's thread, and must not act as owner: only note the sender,
+                // ClusterHeartbeat applies liveness changes on its own thread
+                tripOwnership.heartbeat(message.getSourceNode());
+                return null;
+            }
+            return tripOwnership.runAsOwner(() -> handle(message));
+        });
+    }
+
+    private ClusterMessage handle(ClusterMessage message) {
+        ClusterMessage reply = ClusterMessage.reply(message);
+        switch (message.getType()) {
+            case LOCK -> reply.setResult(seatLockService.lockSeat(
+                    message.getSeatId(), message.getTripId(), message.getUserId(), message.getSessionId()));
+            case LOCK_BATCH -> reply.setResult(seatLockService.lockSeats(
+                    message.getSeatIds(), message.getTripId(), message.getUserId(), message.getSessionId()));
+            case UNLOCK -> reply.setResult(seatLockService.unlockSeat(
+                    message.getSeatId(), message.getTripId(), message.getUserId(), message.getSessionId()));
+            case CONFIRM -> reply.setResult(seatLockService.confirmBooking(
+                    message.getSeatId(), message.getTripId(), message.getUserId()));
+            case RELEASE_SESSIONS -> seatLockService.releaseAllBySessions(message.getSessionIds());
+            case FLUSH -> seatStateEngine.flush(message.getTripId());
+            case SYNC_SEAT -> seatStateEngine.sync(message.getTripId(), message.getSeatId(), message.getStatus(),
+                    message.getUserId(), message.getSessionId(), message.getHoldExpiry());
+            case EVICT_TRIP -> seatStateEngine.evictAfterCommit(message.getTripId());
+            case PUBLISH -> seatBroadcastAggregator.publishForwarded(message.getTripId(), message.getSeats());
+            case VERSION -> reply.setVersion(seatBroadcastAggregator.getVersion(message.getTripId()));
+            case CHANGES_SINCE -> reply.setFrame(seatBroadcastAggregator.changesSince(
+                    message.getTripId(), message.getVersion()));
+            case SEATS_CHANGED -> {
+                message.getTripIds().forEach(tripChanges::applySeatsChanged);
+                return null;
+            }
+            case TRIPS_CHANGED -> {
+                tripChanges.applyTripsChanged();
+                return null;
+            }
+            default -> {
+                return null;
+            }
+        }
+        return reply;
+    }
+}
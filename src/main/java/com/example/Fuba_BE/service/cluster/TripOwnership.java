@@ -0,0 +1,198 @@
+package com.example.Fuba_BE.service.cluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.config.ClusterProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decides which node owns the in-memory seat state of a trip.
+ *
+ * Trips are spread over the live nodes with rendezvous hashing, so every node computes the
+ * same owner without coordination and losing a node only moves that node's trips. Only the
+ * owner holds a trip in {@code SeatStateEngine}, its session index and its broadcast versions;
+ * other nodes forward seat commands for that trip over the {@link ClusterBus}.
+ *
+ * Nodes announce themselves with heartbeats ({@link ClusterHeartbeat}). A configured node that
+ * has not been heard from for {@code cluster.heartbeat-timeout-ms} is left out of the hashing
+ * until it is heard again; on the heartbeat thread, listeners registered with
+ * {@link #onOwnershipChange} then drop or pick up the trips that moved. Every node starts out assuming all configured nodes are live.
+ */
+@Component
+@Slf4j
+public class TripOwnership {
+
+    private final String nodeId;
+    private final List<String> nodes;
+    private final long heartbeatTimeoutMs;
+    private final Map<String, Long> lastHeard = new ConcurrentHashMap<>();
+    private final List<Runnable> ownershipListeners = new CopyOnWriteArrayList<>();
+    private volatile List<String> liveNodes;
+
+    /**
+     * Set while a command forwarded by another node runs here, so it is executed locally even
+     * if this node's view of the owner differs (it never bounces back to the sender).
+     */
+    private final ThreadLocal<Boolean> actingAsOwner = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public TripOwnership(ClusterProperties properties) {
+        this.nodeId = properties.getNodeId();
+        this.nodes = List.copyOf(properties.getNodes());
+        if (!nodes.isEmpty() && !nodes.contains(nodeId)) {
+            throw new IllegalStateException("cluster.node-id " + nodeId + " is not listed in cluster.nodes " + nodes);
+        }
+        this.heartbeatTimeoutMs = properties.getHeartbeatTimeoutMs();
+        this.liveNodes = nodes;
+        long now = System.currentTimeMillis();
+        nodes.forEach(node -> lastHeard.put(node, now));
+    }
+
+    /**
+     * Ownership of a single node that owns every trip.
+     */
+    public static TripOwnership standalone() {
+        return new TripOwnership(new ClusterProperties());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isClustered() {
+        return nodes.size() > 1;
+    }
+
+    public String ownerOf(Integer tripId) {
+        if (!isClustered() || tripId == null) {
+            return nodeId;
+        }
+        return rendezvous(tripId);
+    }
+
+    /**
+     * Preferred node for any other named unit of work, e.g. a shard of a scheduled job.
+     */
+    public String ownerOf(String key) {
+        if (!isClustered()) {
+            return nodeId;
+        }
+        return rendezvous(key.hashCode());
+    }
+
+    public List<String> getNodes() {
+        return nodes.isEmpty() ? List.of(nodeId) : nodes;
+    }
+
+    /**
+     * Configured nodes currently taking part in ownership, this node always included.
+     */
+    public List<String> getLiveNodes() {
+        return nodes.isEmpty() ? List.of(nodeId) : liveNodes;
+    }
+
+    /**
+     * Record a sign of life from another node. A node heard again takes part in ownership from
+     * the next {@link #checkLiveness}.
+     */
+    public void heartbeat(String node) {
+        heartbeat(node, System.currentTimeMillis());
+    }
+
+    void heartbeat(String node, long nowMillis) {
+        if (node != null && lastHeard.containsKey(node)) {
+            lastHeard.put(node, nowMillis);
+        }
+    }
+
+    /**
+     * Leave out the nodes not heard from within the heartbeat timeout (and take back the ones
+     * heard again), notifying the ownership listeners if the set of live nodes changed.
+     * Listeners see ownership as it now is, so this must not run inside {@link #runAsOwner}.
+     */
+    public void checkLiveness() {
+        checkLiveness(System.currentTimeMillis());
+    }
+
+    synchronized void checkLiveness(long nowMillis) {
+        if (actingAsOwner.get()) {
+            throw new IllegalStateException("Ownership listeners must not run as the owner of a forwarded command");
+        }
+        List<String> live = nodes.stream()
+                .filter(node -> node.equals(nodeId) || nowMillis - lastHeard.get(node) <= heartbeatTimeoutMs)
+                .toList();
+        if (live.equals(liveNodes)) {
+            return;
+        }
+        log.warn("Live cluster nodes changed from {} to {}", liveNodes, live);
+        liveNodes = live;
+        for (Runnable listener : ownershipListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.error("Failed to apply ownership change: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Run {@code listener} after trips moved between nodes because a node was lost or came back.
+     */
+    public void onOwnershipChange(Runnable listener) {
+        ownershipListeners.add(listener);
+    }
+
+    private String rendezvous(int key) {
+        String owner = null;
+        long best = Long.MIN_VALUE;
+        for (String node : liveNodes) {
+            long score = mix(((long) node.hashCode() << 32) ^ key);
+            if (owner == null || score > best) {
+                owner = node;
+                best = score;
+            }
+        }
+        return owner;
+    }
+
+    public boolean isLocal(Integer tripId) {
+        return !isClustered() || actingAsOwner.get() || nodeId.equals(ownerOf(tripId));
+    }
+
+    /**
+     * True while a command forwarded from another node is running on this thread.
+     */
+    public boolean isActingAsOwner() {
+        return actingAsOwner.get();
+    }
+
+    /**
+     * Run a command forwarded by another node as this trip's owner.
+     */
+    public <T> T runAsOwner(Supplier<T> command) {
+        actingAsOwner.set(Boolean.TRUE);
+        try {
+            return command.get();
+        } finally {
+            actingAsOwner.remove();
+        }
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3, spreads consecutive trip ids over all nodes.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -15,7 +15,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
@@ -35,6 +34,8 @@ import com.example.Fuba_BE.mapper.BookingMapper;
 import com.example.Fuba_BE.repository.BookingRepository;
 import com.example.Fuba_BE.repository.TicketRepository;
 import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -54,7 +55,8 @@ public class MomoPaymentServiceImpl implements MomoPaymentService {
     private final TripSeatRepository tripSeatRepository;
     private final BookingMapper bookingMapper;
     private final RestTemplate restTemplate;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final SeatBroadcastAggregator seatBroadcastAggregator;
+    private final SeatStateEngine seatStateEngine;
 
     private static final String HMAC_SHA256 = "HmacSHA256";
 
@@ -247,6 +249,7 @@ public class MomoPaymentServiceImpl implements MomoPaymentService {
 
             // 3.5. Verify all seats are still Held and available for this booking
             log.debug("Validating seats for booking {}...", booking.getBookingCode());
+            seatStateEngine.flush(booking.getTrip().getTripId());
             List<Ticket> tickets = ticketRepository.findByBookingId(booking.getBookingId());
             log.debug("Found {} tickets for booking {}", tickets.size(), booking.getBookingCode());
 
@@ -470,21 +473,7 @@ public class MomoPaymentServiceImpl implements MomoPaymentService {
      * Broadcast seat status update via WebSocket
      */
     private void broadcastSeatUpdate(Integer tripId, TripSeat seat) {
-        try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("seatId", seat.getSeatId());
-            message.put("seatNumber", seat.getSeatNumber());
-            message.put("status", seat.getStatus());
-            message.put("lockedBy", seat.getLockedBy());
-            message.put("holdExpiry", seat.getHoldExpiry());
-            message.put("timestamp", LocalDateTime.now().toString());
-
-            String destination = "/topic/trips/" + tripId + "/seats";
-            messagingTemplate.convertAndSend(destination, (Object) message);
-
-            log.debug("Broadcast seat update for seat {} on trip {}", seat.getSeatId(), tripId);
-        } catch (Exception e) {
-            log.error("Failed to broadcast seat update: {}", e.getMessage());
-        }
+        // Coalesced per trip and sent once the surrounding transaction commits
+        seatBroadcastAggregator.publish(tripId, seat);
     }
 }
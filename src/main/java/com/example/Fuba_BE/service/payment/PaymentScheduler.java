@@ -3,18 +3,21 @@ package com.example.Fuba_BE.service.payment;
 import com.example.Fuba_BE.domain.entity.Booking;
 import com.example.Fuba_BE.dto.payment.MomoPaymentResponse;
 import com.example.Fuba_BE.repository.BookingRepository;
+import com.example.Fuba_BE.service.cluster.SchedulerLeases;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Scheduled jobs for payment operations
  * Automatically checks pending payments and syncs with MoMo
+ * Each job runs on one node of the cluster at a time (see {@link SchedulerLeases})
  */
 @Component
 @RequiredArgsConstructor
@@ -23,6 +26,8 @@ public class PaymentScheduler {
 
     private final BookingRepository bookingRepository;
     private final MomoPaymentService momoPaymentService;
+    private final SchedulerLeases schedulerLeases;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Scheduled task to check pending payments that are stuck.
@@ -34,8 +39,12 @@ public class PaymentScheduler {
      * - User paid but booking is still Pending
      */
     @Scheduled(fixedRate = 300000) // Every 5 minutes
-    @Transactional
     public void checkPendingPayments() {
+        schedulerLeases.runExclusive("payment.check-pending", Duration.ofMinutes(10),
+                () -> transactionTemplate.executeWithoutResult(status -> checkPendingPaymentsOnLease()));
+    }
+
+    private void checkPendingPaymentsOnLease() {
         try {
             log.debug("🔍 Running scheduled task to check pending payments");
             
@@ -112,8 +121,12 @@ public class PaymentScheduler {
      * Runs daily to delete or archive failed payments older than 7 days
      */
     @Scheduled(cron = "0 0 2 * * ?") // Run at 2 AM daily
-    @Transactional
     public void cleanupFailedPayments() {
+        schedulerLeases.runExclusive("payment.cleanup-failed", Duration.ofMinutes(30),
+                () -> transactionTemplate.executeWithoutResult(status -> cleanupFailedPaymentsOnLease()));
+    }
+
+    private void cleanupFailedPaymentsOnLease() {
         try {
             log.info("🧹 Running cleanup of old PaymentFailed bookings");
             
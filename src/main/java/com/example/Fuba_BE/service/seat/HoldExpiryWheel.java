@@ -0,0 +1,109 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel of seat-hold expiries with a one-second tick, keyed by seat id.
+ *
+ * Producers only append to a lock-free inbox; the single ticking thread moves inbox entries
+ * into their bucket and drains the buckets it passes, so buckets need no synchronization.
+ * A seat keeps only its latest deadline: re-holding a seat or releasing it makes the entries
+ * already in the wheel stale, and stale entries are dropped when their bucket fires.
+ */
+final class HoldExpiryWheel {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final Queue<Entry> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, Long> deadlines = new ConcurrentHashMap<>();
+    private final ArrayDeque<Entry>[] buckets;
+
+    /**
+     * Last tick (epoch second) whose bucket has been drained; only touched by {@link #advance}.
+     */
+    private long lastTick = -1L;
+
+    /**
+     * A seat that is due for release.
+     */
+    static final class Entry {
+        final int tripId;
+        final int seatId;
+        final long expiryEpochSecond;
+
+        Entry(int tripId, int seatId, long expiryEpochSecond) {
+            this.tripId = tripId;
+            this.seatId = seatId;
+            this.expiryEpochSecond = expiryEpochSecond;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    HoldExpiryWheel() {
+        buckets = new ArrayDeque[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Schedule (or reschedule) the release of a seat once {@code expiryEpochSecond} has passed.
+     */
+    void schedule(int tripId, int seatId, long expiryEpochSecond) {
+        deadlines.put(seatId, expiryEpochSecond);
+        inbox.add(new Entry(tripId, seatId, expiryEpochSecond));
+    }
+
+    /**
+     * Forget a seat's deadline, e.g. after it was released or booked.
+     */
+    void cancel(int seatId) {
+        deadlines.remove(seatId);
+    }
+
+    int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Move the wheel up to {@code nowEpochSecond} and return the seats whose hold expired.
+     * A hold expires strictly after its expiry second, matching {@code TripSeat.isLockExpired()}.
+     */
+    synchronized List<Entry> advance(long nowEpochSecond) {
+        if (lastTick < 0) {
+            lastTick = nowEpochSecond - 1;
+        }
+
+        Entry incoming;
+        while ((incoming = inbox.poll()) != null) {
+            // Deadlines already behind the wheel go into the next bucket to be drained
+            long fireTick = Math.max(incoming.expiryEpochSecond + 1, lastTick + 1);
+            buckets[(int) (fireTick & MASK)].add(incoming);
+        }
+
+        List<Entry> due = new ArrayList<>();
+        // After a long pause one lap covers every bucket; later ticks would only revisit them
+        long from = Math.max(lastTick + 1, nowEpochSecond - MASK);
+        for (long tick = from; tick <= nowEpochSecond; tick++) {
+            ArrayDeque<Entry> bucket = buckets[(int) (tick & MASK)];
+            for (int remaining = bucket.size(); remaining > 0; remaining--) {
+                Entry entry = bucket.poll();
+                if (entry.expiryEpochSecond >= nowEpochSecond) {
+                    // Belongs to a later lap of the wheel
+                    bucket.add(entry);
+                } else if (deadlines.remove(entry.seatId, entry.expiryEpochSecond)) {
+                    due.add(entry);
+                }
+            }
+        }
+        lastTick = nowEpochSecond;
+        return due;
+    }
+}
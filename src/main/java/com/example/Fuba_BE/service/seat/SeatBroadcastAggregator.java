@@ -0,0 +1,313 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.Fuba_BE.domain.entity.TripSeat;
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame;
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame.SeatDelta;
+import com.example.Fuba_BE.dto.seat.SeatStatusMessage;
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.ClusterMessage;
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+import com.example.Fuba_BE.service.Trip.TripChanges;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-trip aggregator for {@code /topic/trips/{tripId}/seat-deltas}.
+ *
+ * Seat changes are buffered for a short window and sent as one {@link SeatDeltaFrame} per trip,
+ * keeping only the latest state of each seat. Changes published inside a transaction are only
+ * buffered once it commits. Frames run on a dedicated thread so a slow scheduled job can't
+ * delay them. The last frames of each trip are kept in a {@link SeatDeltaHistory} so a
+ * reconnecting client can catch up with {@link #changesSince}. Versions and histories of a trip
+ * without seat changes for {@code seat.broadcast.idle-trip-minutes} are dropped; its next frame
+ * starts a new version from the clock, and clients behind it reload the full seat map.
+ *
+ * With {@code seat.broadcast.legacy-topic} on (off by default), each frame is also sent to the
+ * pre-frame topic {@code /topic/trips/{tripId}/seats}: one message per window, never one per
+ * seat, for clients still subscribed there that read SEAT_DELTA frames.
+ *
+ * With several nodes only the trip's owner builds its frames, so versions stay a single
+ * sequence; other nodes forward their changes and version/catch-up lookups to the owner.
+ */
+@Component
+@Slf4j
+public class SeatBroadcastAggregator {
+
+    private static final String TOPIC_FORMAT = "/topic/trips/%d/seat-deltas";
+    private static final String LEGACY_TOPIC_FORMAT = "/topic/trips/%d/seats";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SeatMapCache seatMapCache;
+    private final TripOwnership tripOwnership;
+    private final ClusterBus clusterBus;
+    private final TripChanges tripChanges;
+
+    /**
+     * Pending changes per trip; only mutated inside {@code compute}/{@code remove} so a trip's
+     * buffer is never written after it was taken for a frame.
+     */
+    private final Map<Integer, Map<Integer, SeatDelta>> buffers = new ConcurrentHashMap<>();
+    private Cache<Integer, TripFrames> trips;
+
+    @Value("${seat.broadcast.window-ms:50}")
+    private long windowMillis;
+
+    @Value("${seat.broadcast.history-frames:256}")
+    private int historyFrames;
+
+    @Value("${seat.broadcast.legacy-topic:false}")
+    private boolean legacyTopic;
+
+    @Value("${seat.broadcast.idle-trip-minutes:120}")
+    private long idleTripMinutes;
+
+    private ScheduledExecutorService flusher;
+
+    public SeatBroadcastAggregator(SimpMessagingTemplate messagingTemplate, SeatMapCache seatMapCache,
+                                   TripOwnership tripOwnership, ClusterBus clusterBus,
+                                   TripChanges tripChanges) {
+        this.messagingTemplate = messagingTemplate;
+        this.seatMapCache = seatMapCache;
+        this.tripOwnership = tripOwnership;
+        this.clusterBus = clusterBus;
+        this.tripChanges = tripChanges;
+    }
+
+    /**
+     * Frame version and recent frames of one trip.
+     */
+    private static final class TripFrames {
+        // Versions start from the clock so a restarted node never reuses a version clients have seen
+        final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+        final SeatDeltaHistory history;
+
+        TripFrames(int historyFrames) {
+            this.history = new SeatDeltaHistory(historyFrames);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        trips = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(idleTripMinutes))
+                .build();
+        // A trip that moves back later must not resume from versions and history gone stale meanwhile
+        tripOwnership.onOwnershipChange(() -> trips.asMap().keySet().removeIf(tripId -> !tripOwnership.isLocal(tripId)));
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-broadcast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    /**
+     * Queue the current state of a seat entity.
+     */
+    public void publish(Integer tripId, TripSeat seat) {
+        publish(tripId, List.of(SeatDelta.builder()
+                .seatId(seat.getSeatId())
+                .seatNumber(seat.getSeatNumber())
+                .floorNumber(seat.getFloorNumber())
+                .status(seat.getStatus())
+                .lockedBy(seat.getLockedBy())
+                .holdExpiry(seat.getHoldExpiry())
+                .build()));
+    }
+
+    /**
+     * Queue the seat change(s) described by a successful lock-service message.
+     */
+    public void publish(SeatStatusMessage message) {
+        Integer tripId = message.getTripId();
+        if (message.getSeatIds() == null) {
+            afterCommit(() -> buffer(tripId, List.of(SeatDelta.builder()
+                    .seatId(message.getSeatId())
+                    .seatNumber(message.getSeatNumber())
+                    .floorNumber(message.getFloorNumber())
+                    .status(message.getStatus())
+                    .lockedBy(message.getLockedBy())
+                    .holdExpiry(message.getLockExpiry())
+                    .build())));
+            return;
+        }
+
+        List<SeatDelta> deltas = new ArrayList<>(message.getSeatIds().size());
+        for (int i = 0; i < message.getSeatIds().size(); i++) {
+            deltas.add(SeatDelta.builder()
+                    .seatId(message.getSeatIds().get(i))
+                    .seatNumber(elementAt(message.getSeatNumbers(), i))
+                    .floorNumber(elementAt(message.getFloorNumbers(), i))
+                    .status(message.getStatus())
+                    .lockedBy(message.getLockedBy())
+                    .holdExpiry(message.getLockExpiry())
+                    .build());
+        }
+        // All seats of a batch or sweep go into the same frame
+        afterCommit(() -> buffer(tripId, deltas));
+    }
+
+    /**
+     * Last frame version sent for a trip, 0 if none was sent yet.
+     */
+    public long getVersion(Integer tripId) {
+        if (!tripOwnership.isLocal(tripId)) {
+            ClusterMessage reply = requestOwner(ClusterMessage.builder()
+                    .type(ClusterMessage.Type.VERSION).tripId(tripId).build());
+            return reply != null && reply.getVersion() != null ? reply.getVersion() : 0L;
+        }
+        TripFrames frames = trips.getIfPresent(tripId);
+        return frames != null ? frames.version.get() : 0L;
+    }
+
+    /**
+     * Catch-up frame with the latest state of every seat of the trip that changed after
+     * {@code sinceVersion}.
+     *
+     * @return the frame, or {@code null} if the client is too far behind (or the version is
+     *         unknown to this node) and needs a full snapshot
+     */
+    public SeatDeltaFrame changesSince(Integer tripId, long sinceVersion) {
+        if (!tripOwnership.isLocal(tripId)) {
+            ClusterMessage reply = requestOwner(ClusterMessage.builder()
+                    .type(ClusterMessage.Type.CHANGES_SINCE).tripId(tripId).version(sinceVersion).build());
+            return reply != null ? reply.getFrame() : null;
+        }
+        // No history means nothing was broadcast for this trip lately (or since this node started)
+        TripFrames frames = trips.getIfPresent(tripId);
+        return frames != null ? frames.history.since(tripId, sinceVersion) : null;
+    }
+
+    /**
+     * Queue seat changes of a trip.
+     */
+    public void publish(Integer tripId, List<SeatDelta> deltas) {
+        if (tripId == null || deltas.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> buffer(tripId, deltas));
+    }
+
+    /**
+     * Queue seat changes another node forwarded to this trip's owner. That node already
+     * announced them to the trip read models of the cluster.
+     */
+    public void publishForwarded(Integer tripId, List<SeatDelta> deltas) {
+        if (tripId == null || deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        seatMapCache.invalidate(tripId);
+        enqueue(tripId, deltas);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void buffer(Integer tripId, List<SeatDelta> deltas) {
+        seatMapCache.invalidate(tripId);
+        tripChanges.seatsChanged(tripId);
+        if (!tripOwnership.isLocal(tripId)) {
+            // Frames and versions of a trip are built by its owner only
+            clusterBus.send(tripOwnership.ownerOf(tripId), ClusterMessage.builder()
+                    .type(ClusterMessage.Type.PUBLISH).tripId(tripId).seats(deltas).build());
+            return;
+        }
+        enqueue(tripId, deltas);
+    }
+
+    private void enqueue(Integer tripId, List<SeatDelta> deltas) {
+        buffers.compute(tripId, (id, pending) -> {
+            Map<Integer, SeatDelta> buffer = pending != null ? pending : new LinkedHashMap<>();
+            for (SeatDelta delta : deltas) {
+                // Remove first so a seat that changed again moves to the end of the frame
+                buffer.remove(delta.getSeatId());
+                buffer.put(delta.getSeatId(), delta);
+            }
+            return buffer;
+        });
+    }
+
+    private ClusterMessage requestOwner(ClusterMessage request) {
+        try {
+            return clusterBus.request(tripOwnership.ownerOf(request.getTripId()), request).join();
+        } catch (Exception e) {
+            log.warn("Owner of trip {} did not answer {}: {}", request.getTripId(), request.getType(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void flush() {
+        for (Integer tripId : buffers.keySet()) {
+            Map<Integer, SeatDelta> pending = buffers.remove(tripId);
+            if (pending == null || pending.isEmpty()) {
+                continue;
+            }
+            try {
+                send(tripId, new ArrayList<>(pending.values()));
+            } catch (Exception e) {
+                log.error("Failed to broadcast seat delta for trip {}: {}", tripId, e.getMessage());
+            }
+        }
+    }
+
+    private void send(Integer tripId, List<SeatDelta> seats) {
+        TripFrames frames = trips.get(tripId, id -> new TripFrames(historyFrames));
+        long version = frames.version.incrementAndGet();
+        SeatDeltaFrame frame = SeatDeltaFrame.builder()
+                .tripId(tripId)
+                .version(version)
+                .seats(seats)
+                .timestamp(LocalDateTime.now())
+                .build();
+        frames.history.add(frame);
+
+        String destination = String.format(TOPIC_FORMAT, tripId);
+        messagingTemplate.convertAndSend(destination, frame);
+        if (legacyTopic) {
+            messagingTemplate.convertAndSend(String.format(LEGACY_TOPIC_FORMAT, tripId), frame);
+        }
+        log.debug("Broadcast {} seat changes to {} (version {})", seats.size(), destination, version);
+    }
+
+    private static <T> T elementAt(List<T> values, int index) {
+        return values != null && index < values.size() ? values.get(index) : null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame;
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame.SeatDelta;
+
+/**
+ * Ring buffer of the most recent delta frames of one trip, so a reconnecting client can
+ * catch up from the version it last applied instead of reloading the whole seat map.
+ */
+final class SeatDeltaHistory {
+
+    private final SeatDeltaFrame[] frames;
+    private long latestVersion;
+
+    SeatDeltaHistory(int capacity) {
+        this.frames = new SeatDeltaFrame[capacity];
+    }
+
+    synchronized void add(SeatDeltaFrame frame) {
+        frames[(int) (frame.getVersion() % frames.length)] = frame;
+        latestVersion = frame.getVersion();
+    }
+
+    /**
+     * One frame holding the latest state of every seat changed after {@code sinceVersion}, at the
+     * newest version in the buffer; {@code null} when some of those frames already left the buffer
+     * (or the version was never issued here).
+     */
+    synchronized SeatDeltaFrame since(Integer tripId, long sinceVersion) {
+        if (sinceVersion > latestVersion || latestVersion - sinceVersion > frames.length) {
+            return null;
+        }
+
+        Map<Integer, SeatDelta> merged = new LinkedHashMap<>();
+        for (long version = sinceVersion + 1; version <= latestVersion; version++) {
+            SeatDeltaFrame frame = frames[(int) (version % frames.length)];
+            if (frame == null || frame.getVersion() != version) {
+                return null;
+            }
+            for (SeatDelta delta : frame.getSeats()) {
+                merged.remove(delta.getSeatId());
+                merged.put(delta.getSeatId(), delta);
+            }
+        }
+        return SeatDeltaFrame.builder()
+                .tripId(tripId)
+                .version(latestVersion)
+                .seats(new ArrayList<>(merged.values()))
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Threads of the seat engine's periodic work: the write-behind flush and the hold-expiry tick.
+ *
+ * Kept apart from the application's {@code @Scheduled} thread, which also runs payment checks,
+ * database sweeps and index rebuilds; one slow job there must not delay seat writes or let
+ * expired holds linger. One thread per task, so a slow flush doesn't hold up expiry either.
+ * The scheduler is not a bean of its own, so it doesn't replace the one used by {@code @Scheduled}.
+ */
+@Component
+public class SeatEngineScheduler {
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    public SeatEngineScheduler() {
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("seat-engine-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+    }
+
+    /**
+     * Run {@code task} every {@code delay} after the previous run finished. A failing run is
+     * logged and doesn't cancel the next ones.
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+        return scheduler.scheduleWithFixedDelay(task, delay);
+    }
+
+    /**
+     * Run {@code task} every {@code period}, measured between start times.
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+        return scheduler.scheduleAtFixedRate(task, period);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Rendered seat-map responses per trip: the JSON bytes and their strong ETag.
+ *
+ * Every committed seat transition invalidates the trip's entry (through
+ * {@link SeatBroadcastAggregator} and {@link SeatStateEngine}). A per-trip generation guards
+ * against storing a response that was rendered from data older than an invalidation that
+ * happened while it was being rendered. Generations are only needed while a render is in flight,
+ * so they are dropped a while after the trip's last invalidation.
+ */
+@Component
+@Slf4j
+public class SeatMapCache {
+
+    private final JsonMapper jsonMapper;
+    private final TripOwnership tripOwnership;
+
+    private final Cache<Integer, Entry> entries = Caffeine.newBuilder()
+            .maximumSize(2000)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+    private final Cache<Integer, Long> generations = Caffeine.newBuilder()
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .build();
+
+    public SeatMapCache(JsonMapper jsonMapper, TripOwnership tripOwnership) {
+        this.jsonMapper = jsonMapper;
+        this.tripOwnership = tripOwnership;
+        // Seat changes made while another node owned a trip never reached this cache
+        tripOwnership.onOwnershipChange(() -> entries.asMap().keySet().forEach(this::invalidate));
+    }
+
+    /**
+     * A rendered response.
+     */
+    @Getter
+    public static final class Entry {
+        private final byte[] body;
+        private final String etag;
+
+        Entry(byte[] body) {
+            this.body = body;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+    }
+
+    /**
+     * Cached response of the trip, or the one rendered from {@code loader} (and cached if no seat
+     * of the trip changed meanwhile).
+     */
+    public Entry getOrRender(Integer tripId, Supplier<?> loader) {
+        if (!tripOwnership.isLocal(tripId)) {
+            // Seat changes of trips owned by another node don't invalidate this node's cache
+            return new Entry(jsonMapper.writeValueAsBytes(loader.get()));
+        }
+        Entry cached = entries.getIfPresent(tripId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generations.asMap().getOrDefault(tripId, 0L);
+        Entry rendered = new Entry(jsonMapper.writeValueAsBytes(loader.get()));
+        // Stored under the key's lock; invalidate() bumps the generation before removing the key
+        entries.asMap().compute(tripId, (id, current) ->
+                generations.asMap().getOrDefault(id, 0L) == generation ? rendered : current);
+        return rendered;
+    }
+
+    /**
+     * Drop the trip's rendered response after one of its seats changed.
+     */
+    public void invalidate(Integer tripId) {
+        if (tripId == null) {
+            return;
+        }
+        generations.asMap().merge(tripId, 1L, Long::sum);
+        entries.invalidate(tripId);
+    }
+}
@@ -0,0 +1,722 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.Fuba_BE.domain.entity.TripSeat;
+import com.example.Fuba_BE.exception.ServiceUnavailableException;
+import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.ClusterMessage;
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+import com.example.Fuba_BE.service.seat.SeatStateResult.Outcome;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authoritative in-memory seat state machine (Available / Held / Booked / Used) per trip.
+ *
+ * Lock, unlock and lock-confirmation are decided with a CAS on the trip's seat array instead of a
+ * SERIALIZABLE SELECT ... FOR UPDATE, and the resulting transitions are persisted asynchronously
+ * by {@link SeatWriteBehind}. Trips are loaded lazily on first access and rebuilt from the
+ * database at startup for upcoming departures. Hold expiries are tracked in a
+ * {@link HoldExpiryWheel}, rebuilt from the Held rows at startup, so expired holds are released
+ * about a second after they lapse without scanning {@code tripseats}.
+ *
+ * Booking/payment/ticket flows still write {@code tripseats} through JPA; those committed writes
+ * are mirrored back into the engine by {@link TripSeatSyncListener}.
+ *
+ * With several nodes each trip lives only in the engine of its owner ({@link TripOwnership});
+ * flushes and committed-row syncs for trips owned elsewhere are forwarded to the owner.
+ */
+@Component
+@Slf4j
+public class SeatStateEngine {
+
+    private static final String FLUSH_FAILED_MESSAGE = "Không thể đồng bộ trạng thái ghế của chuyến, vui lòng thử lại";
+
+    private final TripSeatRepository tripSeatRepository;
+    private final SeatWriteBehind writeBehind;
+    private final SeatMapCache seatMapCache;
+    private final TripOwnership tripOwnership;
+    private final ClusterBus clusterBus;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Map<Integer, TripSeatState> trips = new ConcurrentHashMap<>();
+    private final Map<Integer, TripSeatState> tripBySeatId = new ConcurrentHashMap<>();
+    private final HoldExpiryWheel expiryWheel = new HoldExpiryWheel();
+
+    @Value("${seat.engine.warmup-hours:72}")
+    private long warmupHours;
+
+    @Value("${seat.engine.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    public SeatStateEngine(TripSeatRepository tripSeatRepository, SeatWriteBehind writeBehind,
+                           SeatMapCache seatMapCache, TripOwnership tripOwnership, ClusterBus clusterBus) {
+        this.tripSeatRepository = tripSeatRepository;
+        this.writeBehind = writeBehind;
+        this.seatMapCache = seatMapCache;
+        this.tripOwnership = tripOwnership;
+        this.clusterBus = clusterBus;
+        tripOwnership.onOwnershipChange(this::applyOwnershipChange);
+    }
+
+    /**
+     * Rebuild the state of trips departing soon so the first clicks of a sale don't pay the load.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<TripSeat> seats = tripSeatRepository.findSeatsOfTripsDepartingBetween(now, now.plusHours(warmupHours));
+            Map<Integer, List<TripSeat>> seatsByTrip = seats.stream()
+                    .filter(seat -> tripOwnership.isLocal(seat.getTrip().getTripId()))
+                    .collect(Collectors.groupingBy(seat -> seat.getTrip().getTripId()));
+
+            seatsByTrip.forEach((tripId, tripSeats) -> trips.computeIfAbsent(tripId, id -> index(id, tripSeats)));
+            log.info("Seat state engine rebuilt {} trips ({} seats) departing within {}h",
+                    seatsByTrip.size(), seats.size(), warmupHours);
+        } catch (Exception e) {
+            log.error("Failed to rebuild seat state engine, trips will load lazily: {}", e.getMessage(), e);
+        }
+
+        try {
+            log.info("Hold expiry wheel rebuilt with {} held seats", scheduleHoldDeadlines());
+        } catch (Exception e) {
+            log.error("Failed to rebuild hold expiry wheel: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * After a node was lost or came back: write and drop the trips this node no longer owns, and
+     * give the holds of the trips it took over a deadline (their state loads lazily).
+     */
+    void applyOwnershipChange() {
+        int dropped = 0;
+        for (TripSeatState state : trips.values()) {
+            Integer tripId = state.getTripId();
+            if (tripOwnership.isLocal(tripId)) {
+                continue;
+            }
+            try {
+                writeBehind.flushTrip(tripId);
+            } catch (Exception e) {
+                // Still queued; the periodic flush writes it once the database is back
+                log.warn("Trip {} moved to node {} with unwritten seat transitions", tripId, tripOwnership.ownerOf(tripId));
+            }
+            if (trips.remove(tripId, state)) {
+                unindex(state);
+                seatMapCache.invalidate(tripId);
+                dropped++;
+            }
+        }
+        int scheduled = scheduleHoldDeadlines();
+        log.info("Seat ownership changed: dropped {} trips, {} held seats scheduled", dropped, scheduled);
+    }
+
+    /**
+     * Give every hold still in the table whose trip this node owns a deadline, whether or not
+     * its trip is resident. Seats already scheduled keep their latest deadline.
+     */
+    private int scheduleHoldDeadlines() {
+        int scheduled = 0;
+        for (Object[] row : tripSeatRepository.findHoldDeadlines()) {
+            if (tripOwnership.isLocal((Integer) row[1])) {
+                expiryWheel.schedule((Integer) row[1], (Integer) row[0], toEpochSecond((LocalDateTime) row[2]));
+                scheduled++;
+            }
+        }
+        return scheduled;
+    }
+
+    /**
+     * Hold a seat for a user. Re-holding a seat the user already holds extends the hold.
+     */
+    public SeatStateResult hold(Integer tripId, Integer seatId, String userId, String sessionId,
+                                int lockDurationMinutes) {
+        TripSeatState state = state(tripId);
+        int index = indexOf(state, seatId);
+        if (index < 0) {
+            return SeatStateResult.failure(Outcome.NOT_FOUND, tripId, seatId);
+        }
+
+        long now = nowEpochSecond();
+        long expiry = now + lockDurationMinutes * 60L;
+        for (;;) {
+            long cell = state.cell(index);
+            int status = TripSeatState.status(cell);
+            TripSeatState.Holder holder = state.holderOf(index, cell);
+            if (holder == null) {
+                continue;
+            }
+
+            if (status == TripSeatState.BOOKED || status == TripSeatState.USED) {
+                return SeatStateResult.failure(Outcome.ALREADY_BOOKED, tripId, seatId);
+            }
+            if (status == TripSeatState.HELD && !isExpired(cell, now) && !userId.equals(holder.lockedBy)) {
+                return SeatStateResult.failure(Outcome.HELD_BY_OTHER, tripId, seatId);
+            }
+
+            long next = state.transition(index, cell, TripSeatState.HELD, expiry, userId, sessionId);
+            if (next != 0L) {
+                persist(state, index, next, userId, sessionId);
+                expiryWheel.schedule(state.getTripId(), seatId, expiry);
+                return result(Outcome.HELD, state, index, next, userId, sessionId);
+            }
+        }
+    }
+
+    /**
+     * Hold several seats of one trip for a user, all or nothing. Seats are taken in ascending
+     * seat id order; if any of them cannot be held, the seats already taken by this call are
+     * put back to the exact state they had before.
+     *
+     * @return the HELD results in seat id order, or a single-element list with the failure
+     */
+    public List<SeatStateResult> holdAll(Integer tripId, Collection<Integer> seatIds, String userId,
+                                         String sessionId, int lockDurationMinutes) {
+        int[] sortedIds = seatIds.stream().filter(Objects::nonNull).mapToInt(Integer::intValue)
+                .distinct().sorted().toArray();
+        TripSeatState state = state(tripId);
+        if (state == null) {
+            return List.of(SeatStateResult.failure(Outcome.NOT_FOUND, tripId, sortedIds.length > 0 ? sortedIds[0] : null));
+        }
+
+        long now = nowEpochSecond();
+        long expiry = now + lockDurationMinutes * 60L;
+        List<SeatStateResult> held = new ArrayList<>(sortedIds.length);
+        // Per acquired seat: slot index, slot value before and after, and the previous holder
+        int[] indexes = new int[sortedIds.length];
+        long[] previousCells = new long[sortedIds.length];
+        long[] heldCells = new long[sortedIds.length];
+        TripSeatState.Holder[] previousHolders = new TripSeatState.Holder[sortedIds.length];
+
+        for (int i = 0; i < sortedIds.length; i++) {
+            int seatId = sortedIds[i];
+            int index = state.indexOf(seatId);
+            SeatStateResult failure = index < 0 ? SeatStateResult.failure(Outcome.NOT_FOUND, tripId, seatId) : null;
+
+            while (failure == null) {
+                long cell = state.cell(index);
+                int status = TripSeatState.status(cell);
+                TripSeatState.Holder holder = state.holderOf(index, cell);
+                if (holder == null) {
+                    continue;
+                }
+                if (status == TripSeatState.BOOKED || status == TripSeatState.USED) {
+                    failure = SeatStateResult.failure(Outcome.ALREADY_BOOKED, tripId, seatId);
+                } else if (status == TripSeatState.HELD && !isExpired(cell, now) && !userId.equals(holder.lockedBy)) {
+                    failure = SeatStateResult.failure(Outcome.HELD_BY_OTHER, tripId, seatId);
+                } else {
+                    long next = state.transition(index, cell, TripSeatState.HELD, expiry, userId, sessionId);
+                    if (next != 0L) {
+                        indexes[i] = index;
+                        previousCells[i] = cell;
+                        heldCells[i] = next;
+                        previousHolders[i] = holder;
+                        held.add(result(Outcome.HELD, state, index, next, userId, sessionId));
+                        break;
+                    }
+                }
+            }
+
+            if (failure != null) {
+                rollback(state, i, indexes, previousCells, heldCells, previousHolders);
+                return List.of(failure);
+            }
+        }
+
+        for (int i = 0; i < sortedIds.length; i++) {
+            persist(state, indexes[i], heldCells[i], userId, sessionId);
+            expiryWheel.schedule(state.getTripId(), sortedIds[i], expiry);
+        }
+        return held;
+    }
+
+    /**
+     * Release a seat held by the given user or session.
+     */
+    public SeatStateResult release(Integer tripId, Integer seatId, String userId, String sessionId) {
+        TripSeatState state = state(tripId);
+        int index = indexOf(state, seatId);
+        if (index < 0) {
+            return SeatStateResult.failure(Outcome.NOT_FOUND, tripId, seatId);
+        }
+
+        for (;;) {
+            long cell = state.cell(index);
+            TripSeatState.Holder holder = state.holderOf(index, cell);
+            if (holder == null) {
+                continue;
+            }
+
+            if (TripSeatState.status(cell) != TripSeatState.HELD) {
+                return SeatStateResult.failure(Outcome.NOT_LOCKED, tripId, seatId);
+            }
+            boolean isOwner = (holder.lockedBy != null && holder.lockedBy.equals(userId))
+                    || (holder.sessionId != null && holder.sessionId.equals(sessionId));
+            if (!isOwner) {
+                return SeatStateResult.failure(Outcome.NOT_OWNER, tripId, seatId);
+            }
+
+            SeatStateResult released = releaseSlot(state, index, cell, holder, Outcome.RELEASED);
+            if (released != null) {
+                return released;
+            }
+        }
+    }
+
+    /**
+     * Turn the user's unexpired hold into a booking. An expired hold is released instead.
+     */
+    public SeatStateResult book(Integer tripId, Integer seatId, String userId) {
+        TripSeatState state = state(tripId);
+        int index = indexOf(state, seatId);
+        if (index < 0) {
+            return SeatStateResult.failure(Outcome.NOT_FOUND, tripId, seatId);
+        }
+
+        for (;;) {
+            long cell = state.cell(index);
+            TripSeatState.Holder holder = state.holderOf(index, cell);
+            if (holder == null) {
+                continue;
+            }
+
+            if (TripSeatState.status(cell) != TripSeatState.HELD) {
+                return SeatStateResult.failure(Outcome.NOT_LOCKED, tripId, seatId);
+            }
+            if (holder.lockedBy == null || !holder.lockedBy.equals(userId)) {
+                return SeatStateResult.failure(Outcome.NOT_OWNER, tripId, seatId);
+            }
+            if (isExpired(cell, nowEpochSecond())) {
+                SeatStateResult released = releaseSlot(state, index, cell, holder, Outcome.LOCK_EXPIRED);
+                if (released != null) {
+                    return released;
+                }
+                continue;
+            }
+
+            long next = state.transition(index, cell, TripSeatState.BOOKED, 0L, holder.lockedBy, holder.sessionId);
+            if (next != 0L) {
+                persist(state, index, next, holder.lockedBy, holder.sessionId);
+                expiryWheel.cancel(seatId);
+                return result(Outcome.BOOKED, state, index, next, holder.lockedBy, holder.sessionId);
+            }
+        }
+    }
+
+    /**
+     * Release the seats that are still held by their sessions (disconnect handling) and write
+     * them to {@code tripseats} in one batched UPDATE.
+     *
+     * @param seatsBySession seat ids per disconnected session
+     * @return the released seats; seats a session no longer holds are skipped
+     */
+    public List<SeatStateResult> releaseHeldBySessions(Map<String, int[]> seatsBySession) {
+        List<SeatStateResult> released = new ArrayList<>();
+        seatsBySession.forEach((sessionId, seatIds) -> {
+            for (int seatId : seatIds) {
+                SeatStateResult result = releaseIfHeldBySession(seatId, sessionId);
+                if (result != null) {
+                    released.add(result);
+                }
+            }
+        });
+        writeBehind.flushSeats(released.stream().map(SeatStateResult::getSeatId).toList());
+        return released;
+    }
+
+    /**
+     * Release a seat only if it is still held by the given session.
+     *
+     * @return the released seat, or {@code null} if the session no longer holds it
+     */
+    private SeatStateResult releaseIfHeldBySession(int seatId, String sessionId) {
+        TripSeatState state = tripBySeatId.get(seatId);
+        int index = indexOf(state, seatId);
+        if (index < 0 || sessionId == null) {
+            return null;
+        }
+
+        for (;;) {
+            long cell = state.cell(index);
+            TripSeatState.Holder holder = state.holderOf(index, cell);
+            if (holder == null) {
+                continue;
+            }
+            if (TripSeatState.status(cell) != TripSeatState.HELD || !sessionId.equals(holder.sessionId)) {
+                return null;
+            }
+            SeatStateResult released = releaseSlot(state, index, cell, holder, Outcome.RELEASED);
+            if (released != null) {
+                return released;
+            }
+        }
+    }
+
+    /**
+     * Advance the expiry wheel and release the holds that lapsed since the previous tick.
+     * The released seats are written to {@code tripseats} in one batched UPDATE before returning.
+     */
+    public List<SeatStateResult> releaseDueHolds() {
+        long nowSecond = nowEpochSecond();
+        List<HoldExpiryWheel.Entry> due = expiryWheel.advance(nowSecond);
+        if (due.isEmpty()) {
+            return List.of();
+        }
+
+        List<SeatStateResult> released = new ArrayList<>();
+        for (HoldExpiryWheel.Entry entry : due) {
+            if (!tripOwnership.isLocal(entry.tripId)) {
+                // The trip moved to another node, which expires its holds now
+                continue;
+            }
+            TripSeatState state = state(entry.tripId);
+            int index = indexOf(state, entry.seatId);
+            if (index < 0) {
+                continue;
+            }
+            long cell = state.cell(index);
+            // A hold extended or replaced since it was scheduled is no longer expired; skip it
+            while (TripSeatState.status(cell) == TripSeatState.HELD && isExpired(cell, nowSecond)) {
+                TripSeatState.Holder holder = state.holderOf(index, cell);
+                SeatStateResult result = holder != null
+                        ? releaseSlot(state, index, cell, holder, Outcome.LOCK_EXPIRED)
+                        : null;
+                if (result != null) {
+                    released.add(result);
+                    break;
+                }
+                cell = state.cell(index);
+            }
+        }
+
+        writeBehind.flushSeats(released.stream().map(SeatStateResult::getSeatId).toList());
+        return released;
+    }
+
+    /**
+     * Write the trip's queued transitions now, so a transaction that is about to read its
+     * seats from the database sees every hold the engine has granted.
+     *
+     * @throws ServiceUnavailableException if the trip's owner did not confirm the flush in time;
+     *         reading the seats anyway could book a seat another customer holds
+     */
+    public void flush(Integer tripId) {
+        if (tripId == null) {
+            return;
+        }
+        if (!tripOwnership.isLocal(tripId)) {
+            // The owner's write-behind queue holds the trip's pending transitions
+            String owner = tripOwnership.ownerOf(tripId);
+            ClusterMessage reply;
+            try {
+                reply = clusterBus.request(owner,
+                        ClusterMessage.builder().type(ClusterMessage.Type.FLUSH).tripId(tripId).build()).join();
+            } catch (Exception e) {
+                log.warn("Node {} did not answer FLUSH for trip {}: {}", owner, tripId, e.getMessage());
+                throw new ServiceUnavailableException(FLUSH_FAILED_MESSAGE);
+            }
+            if (reply.getError() != null) {
+                log.warn("Node {} failed FLUSH for trip {}: {}", owner, tripId, reply.getError());
+                throw new ServiceUnavailableException(FLUSH_FAILED_MESSAGE);
+            }
+            return;
+        }
+        writeBehind.flushTrip(tripId);
+    }
+
+    /**
+     * Mirror a seat row written through JPA into the engine once the writing transaction commits.
+     */
+    public void syncAfterCommit(TripSeat seat) {
+        if (seat.getSeatId() == null || seat.getTrip() == null) {
+            return;
+        }
+        sync(seat.getTrip().getTripId(), seat.getSeatId(), seat.getStatus(), seat.getLockedBy(),
+                seat.getLockedBySessionId(), seat.getHoldExpiry());
+    }
+
+    /**
+     * Mirror a committed seat state into the engine (of the trip's owner) once the current
+     * transaction, if any, commits.
+     */
+    public void sync(Integer tripId, Integer seatId, String seatStatus, String lockedBy, String sessionId,
+                     LocalDateTime holdExpiry) {
+        if (!tripOwnership.isLocal(tripId)) {
+            afterCommit(() -> {
+                seatMapCache.invalidate(tripId);
+                clusterBus.send(tripOwnership.ownerOf(tripId), ClusterMessage.builder()
+                        .type(ClusterMessage.Type.SYNC_SEAT)
+                        .tripId(tripId)
+                        .seatId(seatId)
+                        .status(seatStatus)
+                        .userId(lockedBy)
+                        .sessionId(sessionId)
+                        .holdExpiry(holdExpiry)
+                        .build());
+            });
+            return;
+        }
+
+        int status = TripSeatState.toCode(seatStatus);
+        long expiry = holdExpiry != null ? toEpochSecond(holdExpiry) : 0L;
+
+        afterCommit(() -> {
+            seatMapCache.invalidate(tripId);
+            writeBehind.discard(seatId);
+            if (status == TripSeatState.HELD && expiry != 0L) {
+                expiryWheel.schedule(tripId, seatId, expiry);
+            } else {
+                expiryWheel.cancel(seatId);
+            }
+            // computeIfPresent serializes with a concurrent lazy load of the same trip
+            trips.computeIfPresent(tripId, (id, state) -> {
+                int index = state.indexOf(seatId);
+                if (index >= 0) {
+                    overwrite(state, index, status, expiry, lockedBy, sessionId);
+                }
+                return state;
+            });
+        });
+    }
+
+    /**
+     * Drop a trip's state after its seat rows were created or deleted, writing its queued
+     * transitions first; it reloads on next access.
+     */
+    public void evictAfterCommit(Integer tripId) {
+        if (tripId == null) {
+            return;
+        }
+        if (!tripOwnership.isLocal(tripId)) {
+            afterCommit(() -> {
+                seatMapCache.invalidate(tripId);
+                clusterBus.send(tripOwnership.ownerOf(tripId),
+                        ClusterMessage.builder().type(ClusterMessage.Type.EVICT_TRIP).tripId(tripId).build());
+            });
+            return;
+        }
+        afterCommit(() -> {
+            seatMapCache.invalidate(tripId);
+            try {
+                writeBehind.flushTrip(tripId);
+            } catch (Exception e) {
+                // Still queued; the reloaded state stamps its transitions after it
+                log.warn("Trip {} dropped with unwritten seat transitions", tripId);
+            }
+            TripSeatState state = trips.remove(tripId);
+            if (state != null) {
+                unindex(state);
+            }
+        });
+    }
+
+    /**
+     * Drop trips nobody touched recently, once they have no holds and nothing left to write.
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictIdleTrips() {
+        long threshold = System.currentTimeMillis() - idleEvictionMinutes * 60_000L;
+        int evicted = 0;
+
+        for (TripSeatState state : trips.values()) {
+            if (state.getLastAccessMillis() < threshold && !hasHolds(state)
+                    && !writeBehind.hasPendingWrites(state.getTripId())
+                    && trips.remove(state.getTripId(), state)) {
+                unindex(state);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle trips from seat state engine ({} resident)", evicted, trips.size());
+        }
+    }
+
+    public int getResidentTripCount() {
+        return trips.size();
+    }
+
+    public int getPendingWriteCount() {
+        return writeBehind.getPendingCount();
+    }
+
+    public int getScheduledExpiryCount() {
+        return expiryWheel.size();
+    }
+
+    // ==================== Private Helper Methods ====================
+
+    private TripSeatState state(Integer tripId) {
+        if (tripId == null) {
+            return null;
+        }
+        TripSeatState state = trips.get(tripId);
+        if (state == null) {
+            state = trips.computeIfAbsent(tripId, this::load);
+        }
+        if (state != null) {
+            state.touch(System.currentTimeMillis());
+        }
+        return state;
+    }
+
+    private static int indexOf(TripSeatState state, Integer seatId) {
+        return state != null && seatId != null ? state.indexOf(seatId) : -1;
+    }
+
+    private TripSeatState load(Integer tripId) {
+        List<TripSeat> seats = tripSeatRepository.findByTrip_TripIdOrderByFloorNumberAscSeatNumberAsc(tripId);
+        if (seats.isEmpty()) {
+            return null;
+        }
+        log.debug("Loaded {} seats of trip {} into seat state engine", seats.size(), tripId);
+        return index(tripId, seats);
+    }
+
+    private TripSeatState index(Integer tripId, List<TripSeat> seats) {
+        TripSeatState state = new TripSeatState(tripId, seats, zone);
+        // Stamps restart with every load: a write queued by the trip's previous state must not
+        // outrank (and later overwrite) the first transitions of this one
+        Integer pendingStamp = writeBehind.newestPendingStamp(tripId);
+        if (pendingStamp != null) {
+            state.continueStampsAfter(pendingStamp);
+        }
+        for (int i = 0; i < state.size(); i++) {
+            tripBySeatId.put(state.seatIdAt(i), state);
+        }
+        return state;
+    }
+
+    private void unindex(TripSeatState state) {
+        for (int i = 0; i < state.size(); i++) {
+            tripBySeatId.remove(state.seatIdAt(i), state);
+        }
+    }
+
+    private SeatStateResult releaseSlot(TripSeatState state, int index, long cell,
+                                        TripSeatState.Holder holder, Outcome outcome) {
+        long next = state.transition(index, cell, TripSeatState.AVAILABLE, 0L, null, null);
+        if (next == 0L) {
+            return null;
+        }
+        persist(state, index, next, null, null);
+        expiryWheel.cancel(state.seatIdAt(index));
+        // Report the previous owner so callers can clean up their session bookkeeping
+        return result(outcome, state, index, next, holder.lockedBy, holder.sessionId);
+    }
+
+    /**
+     * Put the first {@code count} seats taken by {@link #holdAll} back to their previous state.
+     * A seat that changed again in the meantime (e.g. a committed booking) is left alone.
+     */
+    private void rollback(TripSeatState state, int count, int[] indexes, long[] previousCells,
+                          long[] heldCells, TripSeatState.Holder[] previousHolders) {
+        for (int i = count - 1; i >= 0; i--) {
+            long previous = previousCells[i];
+            TripSeatState.Holder holder = previousHolders[i];
+            int status = TripSeatState.status(previous);
+            long expiry = TripSeatState.expiry(previous);
+            // Nothing was queued for the batch yet, so tripseats already holds the previous state
+            state.transition(indexes[i], heldCells[i], status, expiry, holder.lockedBy, holder.sessionId);
+        }
+    }
+
+    private void overwrite(TripSeatState state, int index, int status, long expiry,
+                           String lockedBy, String sessionId) {
+        for (;;) {
+            long cell = state.cell(index);
+            if (state.holderOf(index, cell) == null) {
+                continue;
+            }
+            if (state.transition(index, cell, status, expiry, lockedBy, sessionId) != 0L) {
+                return;
+            }
+        }
+    }
+
+    private boolean hasHolds(TripSeatState state) {
+        for (int i = 0; i < state.size(); i++) {
+            if (TripSeatState.status(state.cell(i)) == TripSeatState.HELD) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void persist(TripSeatState state, int index, long cell, String lockedBy, String sessionId) {
+        long expiry = TripSeatState.expiry(cell);
+        writeBehind.enqueue(new SeatWriteBehind.PendingWrite(
+                state.getTripId(),
+                state.seatIdAt(index),
+                TripSeatState.stamp(cell),
+                TripSeatState.toDisplayName(TripSeatState.status(cell)),
+                lockedBy,
+                sessionId,
+                expiry != 0L ? toLocalDateTime(expiry) : null));
+    }
+
+    private SeatStateResult result(Outcome outcome, TripSeatState state, int index, long cell,
+                                   String lockedBy, String sessionId) {
+        long expiry = TripSeatState.expiry(cell);
+        return SeatStateResult.builder()
+                .outcome(outcome)
+                .tripId(state.getTripId())
+                .seatId(state.seatIdAt(index))
+                .seatNumber(state.seatNumberAt(index))
+                .floorNumber(state.floorNumberAt(index))
+                .status(TripSeatState.toDisplayName(TripSeatState.status(cell)))
+                .lockedBy(lockedBy)
+                .sessionId(sessionId)
+                .holdExpiry(expiry != 0L ? toLocalDateTime(expiry) : null)
+                .build();
+    }
+
+    private static boolean isExpired(long cell, long nowEpochSecond) {
+        long expiry = TripSeatState.expiry(cell);
+        return expiry != 0L && nowEpochSecond > expiry;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private long nowEpochSecond() {
+        return Instant.now().getEpochSecond();
+    }
+
+    private long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.atZone(zone).toEpochSecond();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+    }
+}
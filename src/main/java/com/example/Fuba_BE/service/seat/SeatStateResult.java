@@ -0,0 +1,63 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Outcome of a seat transition decided by {@link SeatStateEngine}.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class SeatStateResult {
+
+    public enum Outcome {
+        HELD,
+        RELEASED,
+        BOOKED,
+        NOT_FOUND,
+        HELD_BY_OTHER,
+        ALREADY_BOOKED,
+        NOT_LOCKED,
+        NOT_OWNER,
+        LOCK_EXPIRED
+    }
+
+    private final Outcome outcome;
+    private final Integer tripId;
+    private final Integer seatId;
+    private final String seatNumber;
+    private final Integer floorNumber;
+
+    /**
+     * Seat status after the transition: "Available", "Held", "Booked" or "Used".
+     */
+    private final String status;
+
+    /**
+     * Lock owner after the transition (previous owner for releases).
+     */
+    private final String lockedBy;
+
+    /**
+     * Session that owned the lock (previous session for releases).
+     */
+    private final String sessionId;
+
+    private final LocalDateTime holdExpiry;
+
+    public boolean isSuccess() {
+        return outcome == Outcome.HELD || outcome == Outcome.RELEASED || outcome == Outcome.BOOKED;
+    }
+
+    static SeatStateResult failure(Outcome outcome, Integer tripId, Integer seatId) {
+        return SeatStateResult.builder()
+                .outcome(outcome)
+                .tripId(tripId)
+                .seatId(seatId)
+                .build();
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Fuba_BE.exception.ServiceUnavailableException;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind persistence of seat transitions decided in memory by {@link SeatStateEngine}.
+ *
+ * Transitions are coalesced per seat (only the newest state is kept) and written to
+ * {@code tripseats} in one JDBC batch per flush. The UPDATE only touches rows that are still
+ * Available/Held, so a Booked/Used row written by a booking transaction is never overwritten.
+ * The periodic flush runs on the {@link SeatEngineScheduler}, not the shared {@code @Scheduled} thread.
+ */
+@Component
+@Slf4j
+public class SeatWriteBehind {
+
+    private static final String UPDATE_SEAT_SQL =
+            "UPDATE tripseats SET status = ?, lockedby = ?, lockedbysessionid = ?, holdexpiry = ? " +
+            "WHERE seatid = ? AND status IN ('Available', 'Held')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatEngineScheduler scheduler;
+    private final long flushIntervalMs;
+
+    private final Map<Integer, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    public SeatWriteBehind(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           SeatEngineScheduler scheduler,
+                           @Value("${seat.engine.flush-interval-ms:200}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Flushes must commit on their own, independent of whatever transaction asked for them
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.scheduler = scheduler;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::flushAll, Duration.ofMillis(flushIntervalMs));
+    }
+
+    /**
+     * A seat state waiting to be written.
+     */
+    static final class PendingWrite {
+        final int tripId;
+        final int seatId;
+        final int stamp;
+        final String status;
+        final String lockedBy;
+        final String sessionId;
+        final LocalDateTime holdExpiry;
+
+        PendingWrite(int tripId, int seatId, int stamp, String status,
+                     String lockedBy, String sessionId, LocalDateTime holdExpiry) {
+            this.tripId = tripId;
+            this.seatId = seatId;
+            this.stamp = stamp;
+            this.status = status;
+            this.lockedBy = lockedBy;
+            this.sessionId = sessionId;
+            this.holdExpiry = holdExpiry;
+        }
+
+        /**
+         * Stamps are 30-bit and wrap around; compare them by the sign of the difference.
+         */
+        boolean isNewerThan(PendingWrite other) {
+            return ((stamp - other.stamp) << 2) > 0;
+        }
+    }
+
+    void enqueue(PendingWrite write) {
+        pending.merge(write.seatId, write, (current, incoming) -> incoming.isNewerThan(current) ? incoming : current);
+    }
+
+    /**
+     * Drop any queued state for a seat whose committed DB row is now authoritative.
+     */
+    void discard(int seatId) {
+        pending.remove(seatId);
+    }
+
+    boolean hasPendingWrites(int tripId) {
+        for (PendingWrite write : pending.values()) {
+            if (write.tripId == tripId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Newest stamp queued for a trip, or {@code null} when none of its seats has a write waiting.
+     */
+    Integer newestPendingStamp(int tripId) {
+        PendingWrite newest = null;
+        for (PendingWrite write : pending.values()) {
+            if (write.tripId == tripId && (newest == null || write.isNewerThan(newest))) {
+                newest = write;
+            }
+        }
+        return newest != null ? newest.stamp : null;
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Periodic flush of every queued transition.
+     */
+    public void flushAll() {
+        List<PendingWrite> batch = drain(null);
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Synchronously write the queued transitions of one trip, e.g. before a booking
+     * transaction reads its seats from the database.
+     *
+     * @throws ServiceUnavailableException if the batch could not be written (it stays queued)
+     */
+    public void flushTrip(Integer tripId) {
+        List<PendingWrite> batch = drain(tripId);
+        if (!batch.isEmpty() && !write(batch)) {
+            throw new ServiceUnavailableException("Không thể lưu trạng thái ghế của chuyến, vui lòng thử lại");
+        }
+    }
+
+    /**
+     * Synchronously write the queued transitions of the given seats in a single batch.
+     */
+    public void flushSeats(Collection<Integer> seatIds) {
+        List<PendingWrite> batch = new ArrayList<>(seatIds.size());
+        for (Integer seatId : seatIds) {
+            PendingWrite write = pending.remove(seatId);
+            if (write != null) {
+                batch.add(write);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batch.sort(Comparator.comparingInt(w -> w.seatId));
+            write(batch);
+        }
+    }
+
+    private List<PendingWrite> drain(Integer tripId) {
+        List<PendingWrite> batch = new ArrayList<>();
+        for (PendingWrite write : pending.values()) {
+            if (tripId == null || write.tripId == tripId) {
+                if (pending.remove(write.seatId, write)) {
+                    batch.add(write);
+                }
+            }
+        }
+        // Consistent row order so concurrent flushes cannot deadlock each other
+        batch.sort(Comparator.comparingInt(w -> w.seatId));
+        return batch;
+    }
+
+    /**
+     * @return false if the batch failed and was queued again
+     */
+    private boolean write(List<PendingWrite> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPDATE_SEAT_SQL, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            PendingWrite write = batch.get(i);
+                            ps.setString(1, write.status);
+                            setNullableString(ps, 2, write.lockedBy);
+                            setNullableString(ps, 3, write.sessionId);
+                            if (write.holdExpiry != null) {
+                                ps.setTimestamp(4, Timestamp.valueOf(write.holdExpiry));
+                            } else {
+                                ps.setNull(4, Types.TIMESTAMP);
+                            }
+                            ps.setInt(5, write.seatId);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }));
+            log.debug("Flushed {} seat transitions to tripseats", batch.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to flush {} seat transitions, re-queueing: {}", batch.size(), e.getMessage());
+            batch.forEach(this::enqueue);
+            return false;
+        }
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Concurrent two-way index between WebSocket sessions and the seats they hold.
+ *
+ * A session's seats are a primitive int set that is only mutated inside {@code compute} on the
+ * session's key, so STOMP threads of the same session never race on it. The reverse seat to
+ * session map moves a seat when another session of the same user takes over its hold.
+ */
+@Component
+public class SessionSeatIndex {
+
+    private final Map<String, IntSet> seatsBySession = new ConcurrentHashMap<>();
+    private final Map<Integer, String> sessionBySeat = new ConcurrentHashMap<>();
+
+    /**
+     * Record that a session holds a seat.
+     */
+    public void add(String sessionId, int seatId) {
+        if (sessionId == null) {
+            return;
+        }
+        String previous = sessionBySeat.put(seatId, sessionId);
+        if (previous != null && !previous.equals(sessionId)) {
+            removeFromSession(previous, seatId);
+        }
+        seatsBySession.compute(sessionId, (id, seats) -> {
+            IntSet set = seats != null ? seats : new IntSet();
+            set.add(seatId);
+            return set;
+        });
+    }
+
+    /**
+     * Forget a seat, whichever session held it.
+     */
+    public void removeSeat(int seatId) {
+        String sessionId = sessionBySeat.remove(seatId);
+        if (sessionId != null) {
+            removeFromSession(sessionId, seatId);
+        }
+    }
+
+    /**
+     * Remove a session and return the seats it held.
+     */
+    public int[] removeSession(String sessionId) {
+        if (sessionId == null) {
+            return new int[0];
+        }
+        IntSet seats = seatsBySession.remove(sessionId);
+        if (seats == null) {
+            return new int[0];
+        }
+        int[] seatIds = seats.toArray();
+        for (int seatId : seatIds) {
+            sessionBySeat.remove(seatId, sessionId);
+        }
+        return seatIds;
+    }
+
+    public int[] seatsOf(String sessionId) {
+        int[][] snapshot = new int[1][];
+        seatsBySession.computeIfPresent(sessionId, (id, seats) -> {
+            snapshot[0] = seats.toArray();
+            return seats;
+        });
+        return snapshot[0] != null ? snapshot[0] : new int[0];
+    }
+
+    public String sessionOf(int seatId) {
+        return sessionBySeat.get(seatId);
+    }
+
+    public int getSessionCount() {
+        return seatsBySession.size();
+    }
+
+    private void removeFromSession(String sessionId, int seatId) {
+        seatsBySession.computeIfPresent(sessionId, (id, seats) -> {
+            seats.remove(seatId);
+            return seats.isEmpty() ? null : seats;
+        });
+    }
+
+    /**
+     * Small set of seat ids; a session rarely holds more than a handful, so a linear scan over a
+     * packed array beats hashing.
+     */
+    static final class IntSet {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (indexOf(value) >= 0) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            int index = indexOf(value);
+            if (index >= 0) {
+                values[index] = values[--size];
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        private int indexOf(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
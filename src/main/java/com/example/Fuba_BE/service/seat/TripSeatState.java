@@ -0,0 +1,214 @@
+package com.example.Fuba_BE.service.seat;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.example.Fuba_BE.domain.entity.TripSeat;
+import com.example.Fuba_BE.domain.enums.SeatStatus;
+
+/**
+ * In-memory seat state of a single trip.
+ *
+ * Every seat is one slot of a primitive {@link AtomicLongArray}. A slot packs the seat status
+ * (2 bits), a 30-bit stamp and the hold expiry in epoch seconds (32 bits), so lock/unlock
+ * decisions are a single compare-and-set. Owner strings live in a parallel holder array that is
+ * published by the CAS winner right after its CAS; any thread that wants to move a slot away from
+ * a stamp first waits until the holder of that stamp is visible, which keeps slot and holder in
+ * lock-step without taking a lock.
+ */
+final class TripSeatState {
+
+    static final int AVAILABLE = 0;
+    static final int HELD = 1;
+    static final int BOOKED = 2;
+    static final int USED = 3;
+
+    private static final int STAMP_MASK = 0x3FFFFFFF;
+    private static final long EXPIRY_MASK = 0xFFFFFFFFL;
+
+    private final int tripId;
+    private final int[] seatIds;
+    private final String[] seatNumbers;
+    private final int[] floorNumbers;
+    private final AtomicLongArray cells;
+    private final AtomicReferenceArray<Holder> holders;
+    private final AtomicInteger stampSequence = new AtomicInteger();
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    /**
+     * Owner information for the stamp currently stored in a slot.
+     */
+    static final class Holder {
+        final int stamp;
+        final String lockedBy;
+        final String sessionId;
+
+        Holder(int stamp, String lockedBy, String sessionId) {
+            this.stamp = stamp;
+            this.lockedBy = lockedBy;
+            this.sessionId = sessionId;
+        }
+    }
+
+    TripSeatState(int tripId, List<TripSeat> seats, ZoneId zone) {
+        TripSeat[] sorted = seats.toArray(new TripSeat[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.getSeatId(), b.getSeatId()));
+
+        this.tripId = tripId;
+        this.seatIds = new int[sorted.length];
+        this.seatNumbers = new String[sorted.length];
+        this.floorNumbers = new int[sorted.length];
+        this.cells = new AtomicLongArray(sorted.length);
+        this.holders = new AtomicReferenceArray<>(sorted.length);
+
+        for (int i = 0; i < sorted.length; i++) {
+            TripSeat seat = sorted[i];
+            seatIds[i] = seat.getSeatId();
+            seatNumbers[i] = seat.getSeatNumber();
+            floorNumbers[i] = seat.getFloorNumber() != null ? seat.getFloorNumber() : 1;
+
+            long expiry = seat.getHoldExpiry() != null
+                    ? seat.getHoldExpiry().atZone(zone).toEpochSecond()
+                    : 0L;
+            cells.set(i, pack(toCode(seat.getStatus()), 0, expiry));
+            holders.set(i, new Holder(0, seat.getLockedBy(), seat.getLockedBySessionId()));
+        }
+    }
+
+    int getTripId() {
+        return tripId;
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /**
+     * Record an access; only writes when the value moved by a second to avoid a contended store.
+     */
+    void touch(long nowMillis) {
+        if (nowMillis - lastAccessMillis > 1000) {
+            lastAccessMillis = nowMillis;
+        }
+    }
+
+    int size() {
+        return seatIds.length;
+    }
+
+    int seatIdAt(int index) {
+        return seatIds[index];
+    }
+
+    String seatNumberAt(int index) {
+        return seatNumbers[index];
+    }
+
+    int floorNumberAt(int index) {
+        return floorNumbers[index];
+    }
+
+    /**
+     * Slot index of a seat, or a negative value if the seat does not belong to this trip.
+     */
+    int indexOf(int seatId) {
+        return Arrays.binarySearch(seatIds, seatId);
+    }
+
+    long cell(int index) {
+        return cells.get(index);
+    }
+
+    /**
+     * Holder matching the given slot value. Spins only while the CAS winner of that value
+     * has not yet published its holder, which is a window of a few instructions.
+     *
+     * @return the holder, or {@code null} when the slot has already moved past {@code cell}
+     *         and the caller has to re-read it
+     */
+    Holder holderOf(int index, long cell) {
+        int stamp = stamp(cell);
+        Holder holder = holders.get(index);
+        int spins = 0;
+        while (holder.stamp != stamp) {
+            if (cells.get(index) != cell) {
+                return null;
+            }
+            if (++spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            holder = holders.get(index);
+        }
+        return holder;
+    }
+
+    /**
+     * Continue stamping after {@code stamp}, so this state's transitions compare as newer than
+     * writes still queued from an earlier load of the trip. Call before the state is published.
+     */
+    void continueStampsAfter(int stamp) {
+        stampSequence.set(stamp);
+    }
+
+    /**
+     * Move a slot from {@code expected} to a new state. The caller must have observed the holder
+     * of {@code expected} (via {@link #holderOf}) before calling this.
+     *
+     * @return the new slot value, or {@code 0} when another thread won the race
+     */
+    long transition(int index, long expected, int status, long expiryEpochSecond,
+                    String lockedBy, String sessionId) {
+        int stamp = stampSequence.incrementAndGet() & STAMP_MASK;
+        long next = pack(status, stamp, expiryEpochSecond);
+        if (next == 0L) {
+            // Slot value 0 is reserved as the "lost the race" marker
+            stamp = stampSequence.incrementAndGet() & STAMP_MASK;
+            next = pack(status, stamp, expiryEpochSecond);
+        }
+        if (!cells.compareAndSet(index, expected, next)) {
+            return 0L;
+        }
+        holders.set(index, new Holder(stamp, lockedBy, sessionId));
+        return next;
+    }
+
+    static long pack(int status, int stamp, long expiryEpochSecond) {
+        return ((long) status << 62) | ((long) (stamp & STAMP_MASK) << 32) | (expiryEpochSecond & EXPIRY_MASK);
+    }
+
+    static int status(long cell) {
+        return (int) (cell >>> 62);
+    }
+
+    static int stamp(long cell) {
+        return (int) ((cell >>> 32) & STAMP_MASK);
+    }
+
+    static long expiry(long cell) {
+        return cell & EXPIRY_MASK;
+    }
+
+    static int toCode(String status) {
+        return switch (SeatStatus.fromDisplayName(status)) {
+            case Held -> HELD;
+            case Booked -> BOOKED;
+            case Used -> USED;
+            default -> AVAILABLE;
+        };
+    }
+
+    static String toDisplayName(int code) {
+        return switch (code) {
+            case HELD -> SeatStatus.Held.getDisplayName();
+            case BOOKED -> SeatStatus.Booked.getDisplayName();
+            case USED -> SeatStatus.Used.getDisplayName();
+            default -> SeatStatus.Available.getDisplayName();
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.Fuba_BE.service.seat;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.example.Fuba_BE.domain.entity.TripSeat;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that keeps {@link SeatStateEngine} in step with {@code tripseats} rows
+ * written by booking, payment, ticket and scheduler flows.
+ *
+ * The engine is resolved lazily because entity listeners are created while the
+ * EntityManagerFactory (which the engine's repository depends on) is still being built.
+ */
+@Component
+public class TripSeatSyncListener {
+
+    private final ObjectProvider<SeatStateEngine> seatStateEngine;
+
+    public TripSeatSyncListener(ObjectProvider<SeatStateEngine> seatStateEngine) {
+        this.seatStateEngine = seatStateEngine;
+    }
+
+    @PostUpdate
+    public void onSeatUpdated(TripSeat seat) {
+        seatStateEngine.ifAvailable(engine -> engine.syncAfterCommit(seat));
+    }
+
+    @PostPersist
+    @PostRemove
+    public void onSeatCreatedOrDeleted(TripSeat seat) {
+        if (seat.getTrip() != null) {
+            seatStateEngine.ifAvailable(engine -> engine.evictAfterCommit(seat.getTrip().getTripId()));
+        }
+    }
+}
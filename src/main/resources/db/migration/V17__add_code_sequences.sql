@@ -0,0 +1,9 @@
+-- V17: Per-day sequences for booking/ticket codes
+-- Description: Application nodes reserve blocks of code numbers from this table (hi/lo)
+-- and hand them out from memory, instead of scanning today's codes for MAX() on every code.
+
+CREATE TABLE IF NOT EXISTS code_sequences (
+    prefix      VARCHAR(20) PRIMARY KEY,   -- e.g. BK20260105, TK20260105
+    next_value  BIGINT NOT NULL,           -- first number not yet reserved by any node
+    updatedat   TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
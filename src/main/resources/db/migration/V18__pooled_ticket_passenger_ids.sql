@@ -0,0 +1,7 @@
+-- V18: Pooled id sequences for tickets and passengers
+-- Description: Ticket/Passenger ids are now generated by Hibernate from these sequences in
+-- blocks of 50 (pooled optimizer), so the inserts of a booking can be sent as one JDBC batch.
+-- Inserts that still use the column default simply skip ahead; ids stay unique.
+
+ALTER SEQUENCE tickets_ticketid_seq INCREMENT BY 50;
+ALTER SEQUENCE passengers_passengerid_seq INCREMENT BY 50;
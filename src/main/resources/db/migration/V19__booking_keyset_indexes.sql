@@ -0,0 +1,7 @@
+-- V19: Keyset pagination of the admin booking list
+-- Description: Pages are read as "rows after (createdat, bookingid)" instead of OFFSET, so the
+-- index must cover the full sort key to let each page start with an index seek.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_created_id ON bookings(createdat DESC, bookingid DESC);
+
+COMMENT ON INDEX idx_bookings_created_id IS 'Keyset pagination of bookings by creation date';
@@ -0,0 +1,40 @@
+-- V20: Index-backed keyword search
+-- Description: Keyword searches used LOWER(col) LIKE '%kw%', which no B-tree index can serve,
+-- so every search scanned the whole table. Searches now compare search_normalize(col), a
+-- lower-cased and accent-free form of the column, against the keyword, and trigram GIN indexes on
+-- that same expression answer substring matches. Dropping the accents also lets "nguyen" find
+-- "Nguyễn" and "da nang" find "Đà Nẵng".
+-- Note: the extensions require a role allowed to CREATE EXTENSION (or pre-installed extensions).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() is only STABLE (it depends on the dictionary search path), which is not allowed in
+-- an index expression; pinning the dictionary makes this wrapper safe to declare IMMUTABLE.
+CREATE OR REPLACE FUNCTION search_normalize(value TEXT)
+    RETURNS TEXT
+    LANGUAGE sql
+    IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, lower(value))
+$$;
+
+-- Bookings: admin list search by code, customer name or phone
+CREATE INDEX IF NOT EXISTS idx_bookings_code_trgm ON bookings USING gin (search_normalize(bookingcode) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_bookings_customername_trgm ON bookings USING gin (search_normalize(customername) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_bookings_customerphone_trgm ON bookings USING gin (search_normalize(customerphone) gin_trgm_ops);
+
+-- Drivers: search by name, email, phone (on users) or license number
+CREATE INDEX IF NOT EXISTS idx_users_fullname_trgm ON users USING gin (search_normalize(fullname) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (search_normalize(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_phonenumber_trgm ON users USING gin (search_normalize(phonenumber) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_drivers_license_trgm ON drivers USING gin (search_normalize(driverlicense) gin_trgm_ops);
+
+-- Routes: search by route name or origin/destination/stop location name
+CREATE INDEX IF NOT EXISTS idx_routes_name_trgm ON routes USING gin (search_normalize(routename) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_locations_name_trgm ON locations USING gin (search_normalize(locationname) gin_trgm_ops);
+
+COMMENT ON FUNCTION search_normalize(TEXT) IS 'Lower-cased, accent-free text used by keyword search and its trigram indexes';
+COMMENT ON INDEX idx_bookings_code_trgm IS 'Substring search on booking code';
+COMMENT ON INDEX idx_bookings_customername_trgm IS 'Accent-insensitive substring search on customer name';
+COMMENT ON INDEX idx_bookings_customerphone_trgm IS 'Substring search on customer phone';
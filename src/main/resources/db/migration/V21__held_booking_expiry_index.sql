@@ -0,0 +1,15 @@
+-- V21: Set-based expiry of held bookings
+-- Description: The expiry job walks Held/Pending bookings in bookingid order, one chunk per
+-- transaction. A partial index keeps that walk proportional to the open holds instead of
+-- the whole bookings table.
+-- holdexpiry is mapped on the Booking entity but no earlier migration creates it (databases
+-- created by Hibernate's ddl-auto have it already), so it is added here before the index.
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS holdexpiry TIMESTAMP;
+UPDATE bookings SET holdexpiry = COALESCE(createdat, CURRENT_TIMESTAMP) + INTERVAL '15 minutes'
+WHERE holdexpiry IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_open_holds ON bookings(bookingid, holdexpiry)
+    WHERE bookingstatus IN ('Held', 'Pending');
+
+COMMENT ON INDEX idx_bookings_open_holds IS 'Chunked expiry of Held/Pending bookings';
@@ -0,0 +1,15 @@
+-- V22: Leases of cluster-wide scheduled jobs
+-- Description: Every instance runs the same @Scheduled methods. Database sweeps (booking expiry,
+-- payment checks, trip cleanup) take a lease row first so each one runs once per cluster, or
+-- once per shard for jobs split by trip id. The row also records the owner's last run for the
+-- admin view.
+
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    job_name          VARCHAR(100) PRIMARY KEY,   -- e.g. booking.expire-held#0
+    owner_node        VARCHAR(100) NOT NULL,      -- cluster.node-id of the current holder
+    lease_until       TIMESTAMP NOT NULL,         -- other nodes may take over after this
+    last_started_at   TIMESTAMP,
+    last_finished_at  TIMESTAMP,
+    last_duration_ms  BIGINT,
+    last_error        TEXT
+);
@@ -0,0 +1,12 @@
+-- V23: Indexes for the paged booking lookups
+-- Description: Lookups by phone, email and customer return one page at a time, newest first.
+-- Each index leads with the lookup key and carries the sort key, so a page is an index range
+-- scan instead of a filter over every booking of the table followed by a sort.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_phone_created ON bookings(customerphone, createdat DESC, bookingid DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_email_created ON bookings(customeremail, createdat DESC, bookingid DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_customer_created ON bookings(customerid, createdat DESC, bookingid DESC);
+
+COMMENT ON INDEX idx_bookings_phone_created IS 'Paged booking lookup by phone';
+COMMENT ON INDEX idx_bookings_email_created IS 'Paged booking lookup by email';
+COMMENT ON INDEX idx_bookings_customer_created IS 'Paged booking lookup by customer';
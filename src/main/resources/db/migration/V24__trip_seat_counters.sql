@@ -0,0 +1,119 @@
+-- V24: Per-trip seat counters
+-- Description: Trip lists, the minAvailableSeats filter and the dashboard counted tripseats rows
+-- per trip on every request. Each trip now carries its seat counts by status, kept up to date by
+-- statement-level triggers on tripseats in the same transaction as the seat change, whatever
+-- wrote it (JPA, the seat write-behind batch, bulk expiry UPDATEs, seat generation).
+-- The counts also replace trg_update_trip_full_status, which recounted every seat of the trip
+-- twice per updated row to maintain isfullybooked.
+
+ALTER TABLE trips
+    ADD COLUMN IF NOT EXISTS availableseats INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS heldseats INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS bookedseats INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS usedseats INTEGER NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN trips.availableseats IS 'Seats in status Available (maintained by trg_trip_seat_counts_*)';
+COMMENT ON COLUMN trips.heldseats IS 'Seats in status Held (maintained by trg_trip_seat_counts_*)';
+COMMENT ON COLUMN trips.bookedseats IS 'Seats booked/sold/reserved/paid (maintained by trg_trip_seat_counts_*)';
+COMMENT ON COLUMN trips.usedseats IS 'Seats used/checked in (maintained by trg_trip_seat_counts_*)';
+
+-- Applies the net change of one statement: one UPDATE per affected trip, none when no seat
+-- changed status (e.g. a lock owner update)
+CREATE OR REPLACE FUNCTION trg_apply_trip_seat_counts()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_trips INTEGER[];
+    v_statuses TEXT[];
+    v_deltas INTEGER[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(tripid), array_agg(LOWER(status)), array_agg(1)
+        INTO v_trips, v_statuses, v_deltas
+        FROM new_seats;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT array_agg(tripid), array_agg(LOWER(status)), array_agg(-1)
+        INTO v_trips, v_statuses, v_deltas
+        FROM old_seats;
+    ELSE
+        SELECT array_agg(c.tripid), array_agg(c.status), array_agg(c.n)
+        INTO v_trips, v_statuses, v_deltas
+        FROM new_seats ns
+        JOIN old_seats os ON os.seatid = ns.seatid
+        CROSS JOIN LATERAL (VALUES (ns.tripid, LOWER(ns.status), 1), (os.tripid, LOWER(os.status), -1))
+            AS c(tripid, status, n)
+        WHERE ns.status IS DISTINCT FROM os.status OR ns.tripid IS DISTINCT FROM os.tripid;
+    END IF;
+
+    IF v_trips IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    UPDATE trips t
+    SET availableseats = t.availableseats + d.available,
+        heldseats = t.heldseats + d.held,
+        bookedseats = t.bookedseats + d.booked,
+        usedseats = t.usedseats + d.used,
+        isfullybooked = (t.bookedseats + d.booked + t.usedseats + d.used) > 0
+            AND (t.availableseats + d.available + t.heldseats + d.held) = 0
+    FROM (
+        SELECT tripid,
+               COALESCE(SUM(n) FILTER (WHERE status = 'available'), 0) AS available,
+               COALESCE(SUM(n) FILTER (WHERE status = 'held'), 0) AS held,
+               COALESCE(SUM(n) FILTER (WHERE status IN ('booked', 'sold', 'reserved', 'paid')), 0) AS booked,
+               COALESCE(SUM(n) FILTER (WHERE status IN ('used', 'checkedin', 'checked-in')), 0) AS used
+        FROM unnest(v_trips, v_statuses, v_deltas) AS c(tripid, status, n)
+        GROUP BY tripid
+    ) d
+    WHERE t.tripid = d.tripid
+    AND (d.available, d.held, d.booked, d.used) <> (0, 0, 0, 0);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_update_trip_full_status ON tripseats;
+DROP FUNCTION IF EXISTS trg_UpdateTripFullStatus();
+
+DROP TRIGGER IF EXISTS trg_trip_seat_counts_insert ON tripseats;
+CREATE TRIGGER trg_trip_seat_counts_insert
+    AFTER INSERT ON tripseats
+    REFERENCING NEW TABLE AS new_seats
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION trg_apply_trip_seat_counts();
+
+DROP TRIGGER IF EXISTS trg_trip_seat_counts_update ON tripseats;
+CREATE TRIGGER trg_trip_seat_counts_update
+    AFTER UPDATE ON tripseats
+    REFERENCING OLD TABLE AS old_seats NEW TABLE AS new_seats
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION trg_apply_trip_seat_counts();
+
+DROP TRIGGER IF EXISTS trg_trip_seat_counts_delete ON tripseats;
+CREATE TRIGGER trg_trip_seat_counts_delete
+    AFTER DELETE ON tripseats
+    REFERENCING OLD TABLE AS old_seats
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION trg_apply_trip_seat_counts();
+
+-- Backfill from the current seats
+UPDATE trips t
+SET availableseats = c.available,
+    heldseats = c.held,
+    bookedseats = c.booked,
+    usedseats = c.used,
+    isfullybooked = (c.booked + c.used) > 0 AND (c.available + c.held) = 0
+FROM (
+    SELECT tripid,
+           COUNT(*) FILTER (WHERE LOWER(status) = 'available') AS available,
+           COUNT(*) FILTER (WHERE LOWER(status) = 'held') AS held,
+           COUNT(*) FILTER (WHERE LOWER(status) IN ('booked', 'sold', 'reserved', 'paid')) AS booked,
+           COUNT(*) FILTER (WHERE LOWER(status) IN ('used', 'checkedin', 'checked-in')) AS used
+    FROM tripseats
+    GROUP BY tripid
+) c
+WHERE t.tripid = c.tripid;
+
+-- Trip search by date with a minimum number of free seats, or sorted by free seats
+CREATE INDEX IF NOT EXISTS idx_trips_departure_available ON trips(departuretime, availableseats);
+
+COMMENT ON INDEX idx_trips_departure_available IS 'Trip search filtered or sorted by available seats';
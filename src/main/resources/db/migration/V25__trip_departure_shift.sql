@@ -0,0 +1,24 @@
+-- V25: Departure shift of trips
+-- Description: The trip search's time-of-day filter (morning/afternoon/evening/night) ran
+-- date_part('hour', departuretime) on every trip of the date window, which no index can use.
+-- The shift is now a stored generated column, so it follows every insert and update of
+-- departuretime (trip create/update, trip generation, seeding) without application code,
+-- and the filter becomes departureshift IN (...) on an index.
+-- Values match com.example.Fuba_BE.domain.enums.DepartureShift.
+
+ALTER TABLE trips
+    ADD COLUMN IF NOT EXISTS departureshift SMALLINT GENERATED ALWAYS AS (
+        CASE
+            WHEN EXTRACT(HOUR FROM departuretime) < 6 THEN 0
+            WHEN EXTRACT(HOUR FROM departuretime) < 12 THEN 1
+            WHEN EXTRACT(HOUR FROM departuretime) < 18 THEN 2
+            ELSE 3
+        END) STORED;
+
+COMMENT ON COLUMN trips.departureshift IS '0 night [0h,6h), 1 morning [6h,12h), 2 afternoon [12h,18h), 3 evening [18h,24h)';
+
+-- Origin/destination resolve to route ids through idx_routes_locations; per route the search is
+-- an equality/IN on the shift and a range on the departure date
+CREATE INDEX IF NOT EXISTS idx_trips_route_shift_departure ON trips(routeid, departureshift, departuretime, status);
+
+COMMENT ON INDEX idx_trips_route_shift_departure IS 'Trip search by route, time of day and date';
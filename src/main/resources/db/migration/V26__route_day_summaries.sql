@@ -0,0 +1,131 @@
+-- V26: Per-route, per-day trip summaries for the calendar
+-- Description: The month picker only had SELECT DISTINCT departure dates over the whole range,
+-- without availability or prices. route_day_summaries keeps, for each route and day, the bookable
+-- (Waiting/Running) trips: how many and the lowest price. Inserts, deletes and changes of route,
+-- departure, status or price recount the affected days, from statement-level triggers on trips
+-- in the same transaction.
+-- Seats left are summed from trips.availableseats when the calendar is read. Keeping them here
+-- would put every hold and booking (the V24 seat counter updates of trips) on the shared summary
+-- row of its route and day: seat writes would queue behind that row, and two writes touching two
+-- trips of a day in opposite orders could deadlock. An update that only touches seat counters
+-- leaves the summaries alone.
+
+CREATE TABLE IF NOT EXISTS route_day_summaries (
+    routeid INTEGER NOT NULL REFERENCES routes(routeid) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    tripcount INTEGER NOT NULL DEFAULT 0,
+    minprice DECIMAL(15,2),
+    updatedat TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (routeid, day)
+);
+
+COMMENT ON TABLE route_day_summaries IS 'Bookable trips and lowest price per route and day (maintained by trg_route_day_summaries_*); seats left are read from trips';
+
+-- Recount the given (route, day) pairs from trips
+CREATE OR REPLACE FUNCTION refresh_route_day_summaries(p_routes INTEGER[], p_days DATE[])
+RETURNS VOID AS $$
+BEGIN
+    IF p_routes IS NULL THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO route_day_summaries (routeid, day)
+    SELECT DISTINCT k.routeid, k.day
+    FROM unnest(p_routes, p_days) AS k(routeid, day)
+    ORDER BY 1, 2
+    ON CONFLICT (routeid, day) DO NOTHING;
+
+    -- Lock the rows in key order first: concurrent recounts of a day queue up here, and the
+    -- recount below (a new statement) then sees the trips committed by the one before
+    PERFORM 1
+    FROM route_day_summaries s
+    WHERE (s.routeid, s.day) IN (SELECT * FROM unnest(p_routes, p_days))
+    ORDER BY s.routeid, s.day
+    FOR UPDATE;
+
+    UPDATE route_day_summaries s
+    SET tripcount = c.tripcount,
+        minprice = c.minprice,
+        updatedat = CURRENT_TIMESTAMP
+    FROM (
+        SELECT k.routeid, k.day,
+               COUNT(t.tripid) AS tripcount,
+               MIN(t.baseprice) AS minprice
+        FROM (SELECT DISTINCT * FROM unnest(p_routes, p_days) AS u(routeid, day)) k
+        LEFT JOIN trips t ON t.routeid = k.routeid
+            AND t.departuretime >= k.day AND t.departuretime < k.day + 1
+            AND t.status IN ('Waiting', 'Running')
+        GROUP BY k.routeid, k.day
+    ) c
+    WHERE s.routeid = c.routeid AND s.day = c.day;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trg_apply_route_day_summaries()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_routes INTEGER[];
+    v_days DATE[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(routeid), array_agg(CAST(departuretime AS DATE))
+        INTO v_routes, v_days
+        FROM new_trips;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT array_agg(routeid), array_agg(CAST(departuretime AS DATE))
+        INTO v_routes, v_days
+        FROM old_trips;
+    ELSE
+        -- A trip moved in or out of a day, or its status or price changed: recount both days.
+        -- Seat counter updates match no row here and touch no summary.
+        SELECT array_agg(c.routeid), array_agg(c.day)
+        INTO v_routes, v_days
+        FROM new_trips nt
+        JOIN old_trips ot ON ot.tripid = nt.tripid
+        CROSS JOIN LATERAL (VALUES (nt.routeid, CAST(nt.departuretime AS DATE)),
+                                   (ot.routeid, CAST(ot.departuretime AS DATE))) AS c(routeid, day)
+        WHERE nt.routeid IS DISTINCT FROM ot.routeid
+        OR nt.departuretime IS DISTINCT FROM ot.departuretime
+        OR nt.status IS DISTINCT FROM ot.status
+        OR nt.baseprice IS DISTINCT FROM ot.baseprice;
+    END IF;
+
+    PERFORM refresh_route_day_summaries(v_routes, v_days);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_route_day_summaries_insert ON trips;
+CREATE TRIGGER trg_route_day_summaries_insert
+    AFTER INSERT ON trips
+    REFERENCING NEW TABLE AS new_trips
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION trg_apply_route_day_summaries();
+
+DROP TRIGGER IF EXISTS trg_route_day_summaries_update ON trips;
+CREATE TRIGGER trg_route_day_summaries_update
+    AFTER UPDATE ON trips
+    REFERENCING OLD TABLE AS old_trips NEW TABLE AS new_trips
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION trg_apply_route_day_summaries();
+
+DROP TRIGGER IF EXISTS trg_route_day_summaries_delete ON trips;
+CREATE TRIGGER trg_route_day_summaries_delete
+    AFTER DELETE ON trips
+    REFERENCING OLD TABLE AS old_trips
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION trg_apply_route_day_summaries();
+
+-- Backfill from the current trips
+INSERT INTO route_day_summaries (routeid, day, tripcount, minprice)
+SELECT routeid, CAST(departuretime AS DATE), COUNT(*), MIN(baseprice)
+FROM trips
+WHERE status IN ('Waiting', 'Running')
+GROUP BY 1, 2
+ON CONFLICT (routeid, day) DO UPDATE
+SET tripcount = EXCLUDED.tripcount,
+    minprice = EXCLUDED.minprice,
+    updatedat = CURRENT_TIMESTAMP;
+
+-- Calendar by origin/destination: summaries of a day range across the routes of a pair
+CREATE INDEX IF NOT EXISTS idx_route_day_summaries_day ON route_day_summaries(day, routeid) WHERE tripcount > 0;
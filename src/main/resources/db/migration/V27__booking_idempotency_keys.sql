@@ -0,0 +1,21 @@
+-- V27: Idempotency keys of booking submissions
+-- Description: POST /bookings/confirm deduplicated retries in a per-node cache, so a retry routed
+-- to another node, or sent after a restart, booked again. The keys now live here, shared by all
+-- nodes: the first submission claims its key, stores the response once the booking is done, and
+-- deletes the row when the booking fails so the client can retry with the same key.
+-- A claim whose node died is taken over once it expires; completed keys are purged after their TTL.
+
+CREATE TABLE IF NOT EXISTS booking_idempotency_keys (
+    idempotencykey TEXT PRIMARY KEY,
+    fingerprint CHAR(64) NOT NULL,
+    claimtoken UUID NOT NULL,
+    response TEXT,
+    createdat TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expiresat TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE booking_idempotency_keys IS 'Idempotency-Key of POST /bookings/confirm, scoped to the caller; response is NULL while the booking runs';
+COMMENT ON COLUMN booking_idempotency_keys.fingerprint IS 'SHA-256 of the request body; a key reused for another request is rejected';
+
+-- Purge of expired keys
+CREATE INDEX IF NOT EXISTS idx_booking_idempotency_keys_expiresat ON booking_idempotency_keys(expiresat);
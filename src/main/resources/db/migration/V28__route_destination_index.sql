@@ -0,0 +1,6 @@
+-- V28: Routes by destination
+-- Description: idx_routes_locations (originid, destinationid) only serves lookups by origin.
+-- Route keyword search matches location names through the trigram index and joins the matching
+-- locations back to routes by origin and by destination; this index serves the second join.
+
+CREATE INDEX IF NOT EXISTS idx_routes_destination ON routes(destinationid);
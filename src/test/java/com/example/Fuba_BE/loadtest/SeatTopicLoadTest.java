@@ -0,0 +1,163 @@
+package com.example.Fuba_BE.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import com.example.Fuba_BE.dto.seat.SeatLockRequest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Load on the seat topic of a running server.
+ *
+ * Opens {@code clients} STOMP sessions subscribed to /topic/trips/{tripId}/seat-deltas, lets
+ * {@code lockers} of them lock/unlock random seats for {@code seconds}, and checks that every
+ * client stays connected and receives frames; the delay between a frame being built on the
+ * server and reaching a client is logged.
+ *
+ * Tagged "load" and skipped unless {@code seat.load.url} is set, e.g.
+ * {@code mvn test -Pload-tests -Dtest=SeatTopicLoadTest -Dseat.load.url=ws://localhost:8080/ws
+ * -Dseat.load.trip-id=1 -Dseat.load.first-seat-id=1 -Dseat.load.last-seat-id=40}
+ * (optional: {@code seat.load.clients}, {@code seat.load.lockers}, {@code seat.load.seconds}).
+ */
+@Tag("load")
+class SeatTopicLoadTest {
+
+	private static final Logger log = LoggerFactory.getLogger(SeatTopicLoadTest.class);
+
+	@Test
+	void clientsKeepUpWithSeatFrames() throws Exception {
+		String url = System.getProperty("seat.load.url");
+		assumeTrue(url != null && !url.isBlank(), "seat.load.url is not set");
+		int tripId = Integer.getInteger("seat.load.trip-id", 1);
+		int firstSeatId = Integer.getInteger("seat.load.first-seat-id", 1);
+		int lastSeatId = Integer.getInteger("seat.load.last-seat-id", 40);
+		int clients = Integer.getInteger("seat.load.clients", 3000);
+		int lockers = Integer.getInteger("seat.load.lockers", 200);
+		int seconds = Integer.getInteger("seat.load.seconds", 60);
+
+		ThreadPoolTaskScheduler heartbeat = new ThreadPoolTaskScheduler();
+		heartbeat.setPoolSize(2);
+		heartbeat.initialize();
+
+		WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+		stompClient.setMessageConverter(new SimpleMessageConverter());
+		stompClient.setTaskScheduler(heartbeat);
+		stompClient.setDefaultHeartbeat(new long[] {10000, 10000});
+
+		JsonMapper jsonMapper = JsonMapper.builder().build();
+		AtomicLong frames = new AtomicLong();
+		ConcurrentLinkedQueue<Long> delaysMillis = new ConcurrentLinkedQueue<>();
+		String topic = "/topic/trips/" + tripId + "/seat-deltas";
+
+		List<StompSession> sessions = new ArrayList<>(clients);
+		try {
+			for (int i = 0; i < clients; i++) {
+				StompSession session = stompClient.connectAsync(url, new StompSessionHandlerAdapter() {
+				}).get(10, TimeUnit.SECONDS);
+				session.subscribe(topic, new StompFrameHandler() {
+					@Override
+					public Type getPayloadType(StompHeaders headers) {
+						return byte[].class;
+					}
+
+					@Override
+					public void handleFrame(StompHeaders headers, Object payload) {
+						frames.incrementAndGet();
+						JsonNode timestamp = jsonMapper.readTree((byte[]) payload).get("timestamp");
+						if (timestamp != null && timestamp.isString()) {
+							LocalDateTime sentAt = LocalDateTime.parse(timestamp.asString());
+							delaysMillis.add(Duration.between(sentAt, LocalDateTime.now()).toMillis());
+						}
+					}
+				});
+				sessions.add(session);
+			}
+			log.info("Connected {} clients to {}", sessions.size(), topic);
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+			List<Thread> lockerThreads = new ArrayList<>();
+			for (int i = 0; i < Math.min(lockers, sessions.size()); i++) {
+				StompSession session = sessions.get(i);
+				String userId = "load-user-" + i;
+				lockerThreads.add(Thread.ofVirtual().start(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					while (System.nanoTime() < deadline && session.isConnected()) {
+						SeatLockRequest request = new SeatLockRequest(random.nextInt(firstSeatId, lastSeatId + 1), tripId, userId);
+						byte[] body = jsonMapper.writeValueAsBytes(request);
+						StompHeaders headers = new StompHeaders();
+						headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+						headers.setDestination("/app/seat/lock");
+						session.send(headers, body);
+						sleep(random.nextInt(50, 250));
+						headers.setDestination("/app/seat/unlock");
+						session.send(headers, body);
+						sleep(random.nextInt(50, 250));
+					}
+				}));
+			}
+			for (Thread thread : lockerThreads) {
+				thread.join();
+			}
+			Thread.sleep(2000);
+
+			long disconnected = sessions.stream().filter(session -> !session.isConnected()).count();
+			long[] delays = delaysMillis.stream().mapToLong(Long::longValue).sorted().toArray();
+			log.info("Frames received: {} ({}/s), clients disconnected: {}",
+					frames.get(), Math.round(frames.get() / (double) seconds), disconnected);
+			if (delays.length > 0) {
+				log.info("Frame delay ms: p50={} p99={} p99.9={} max={}",
+						percentile(delays, 0.50), percentile(delays, 0.99), percentile(delays, 0.999),
+						delays[delays.length - 1]);
+			}
+
+			assertThat(disconnected).as("clients disconnected").isZero();
+			assertThat(frames.get()).as("frames received").isPositive();
+		} finally {
+			sessions.forEach(session -> {
+				if (session.isConnected()) {
+					session.disconnect();
+				}
+			});
+			heartbeat.shutdown();
+		}
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
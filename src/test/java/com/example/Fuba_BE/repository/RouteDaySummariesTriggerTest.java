@@ -0,0 +1,136 @@
+package com.example.Fuba_BE.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * The V26 triggers on trips keep one route_day_summaries row per route and day: bookable
+ * (Waiting/Running) trips and their lowest price, recounted when a trip is added, removed,
+ * rescheduled, repriced or changes status. Seat writes never touch it.
+ */
+class RouteDaySummariesTriggerTest extends PostgresIntegrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TestFixtures fixtures;
+	private int routeId;
+	private LocalDate day;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(jdbcTemplate);
+		routeId = fixtures.route();
+		day = LocalDate.now().plusDays(5);
+	}
+
+	@Test
+	void summaryCountsBookableTripsAndTheirLowestPrice() {
+		fixtures.trip(routeId, day.atTime(8, 0), BigDecimal.valueOf(300_000), "Waiting");
+		fixtures.trip(routeId, day.atTime(14, 0), BigDecimal.valueOf(250_000), "Running");
+		fixtures.trip(routeId, day.atTime(20, 0), BigDecimal.valueOf(200_000), "Cancelled");
+		// Last departure of the day, not the first of the next
+		fixtures.trip(routeId, day.atTime(23, 59), BigDecimal.valueOf(280_000), "Waiting");
+
+		assertSummary(day, 3, 250_000);
+		assertThat(summary(day.plusDays(1))).isNull();
+	}
+
+	@Test
+	void rescheduleRepriceAndStatusChangesRecountTheDays() {
+		int morning = fixtures.trip(routeId, day.atTime(8, 0), BigDecimal.valueOf(300_000), "Waiting");
+		int afternoon = fixtures.trip(routeId, day.atTime(14, 0), BigDecimal.valueOf(250_000), "Waiting");
+
+		jdbcTemplate.update("UPDATE trips SET departuretime = ?, arrivaltime = ? WHERE tripid = ?",
+				Timestamp.valueOf(day.plusDays(1).atTime(14, 0)), Timestamp.valueOf(day.plusDays(1).atTime(20, 0)),
+				afternoon);
+		assertSummary(day, 1, 300_000);
+		assertSummary(day.plusDays(1), 1, 250_000);
+
+		jdbcTemplate.update("UPDATE trips SET baseprice = 180000 WHERE tripid = ?", morning);
+		assertSummary(day, 1, 180_000);
+
+		jdbcTemplate.update("UPDATE trips SET status = 'Cancelled' WHERE tripid = ?", morning);
+		assertThat(summary(day)).containsEntry("tripcount", 0).containsEntry("minprice", null);
+
+		jdbcTemplate.update("DELETE FROM trips WHERE tripid = ?", afternoon);
+		assertThat(summary(day.plusDays(1))).containsEntry("tripcount", 0);
+	}
+
+	@Test
+	void seatWritesDoNotWaitForTheSummaryRow() throws SQLException {
+		int first = fixtures.trip(routeId, day.atTime(8, 0));
+		int second = fixtures.trip(routeId, day.atTime(9, 0));
+		List<Integer> firstSeats = fixtures.seats(first, 2);
+		List<Integer> secondSeats = fixtures.seats(second, 2);
+		Timestamp updatedAt = (Timestamp) summary(day).get("updatedat");
+
+		// Another transaction holds the route-day's summary row, as a timetable change would
+		try (Connection locker = dataSource.getConnection()) {
+			locker.setAutoCommit(false);
+			try (PreparedStatement lock = locker.prepareStatement(
+					"SELECT 1 FROM route_day_summaries WHERE routeid = ? AND day = ? FOR UPDATE")) {
+				lock.setInt(1, routeId);
+				lock.setDate(2, Date.valueOf(day));
+				lock.executeQuery().close();
+			}
+
+			// Holds and bookings on two trips of that day, in one transaction
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+				jdbcTemplate.execute("SET LOCAL lock_timeout = '2s'");
+				jdbcTemplate.update("UPDATE tripseats SET status = 'Held' WHERE seatid = ?", secondSeats.get(0));
+				jdbcTemplate.update("UPDATE tripseats SET status = 'Booked' WHERE seatid IN (?, ?)",
+						firstSeats.get(0), firstSeats.get(1));
+			});
+			locker.rollback();
+		}
+
+		assertThat(availableSeats(first)).isZero();
+		assertThat(availableSeats(second)).isEqualTo(1);
+		assertThat(summary(day)).containsEntry("tripcount", 2).containsEntry("updatedat", updatedAt)
+				.doesNotContainKey("seatsleft");
+	}
+
+	private void assertSummary(LocalDate date, int tripCount, long minPrice) {
+		Map<String, Object> summary = summary(date);
+		assertThat(summary).as("%s", date).isNotNull().containsEntry("tripcount", tripCount);
+		assertThat((BigDecimal) summary.get("minprice")).isEqualByComparingTo(BigDecimal.valueOf(minPrice));
+	}
+
+	private Map<String, Object> summary(LocalDate date) {
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+				"SELECT * FROM route_day_summaries WHERE routeid = ? AND day = ?", routeId, Date.valueOf(date));
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	private int availableSeats(int tripId) {
+		return jdbcTemplate.queryForObject("SELECT availableseats FROM trips WHERE tripid = ?", Integer.class, tripId);
+	}
+}
@@ -0,0 +1,215 @@
+package com.example.Fuba_BE.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.assertj.core.api.ListAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Fuba_BE.domain.entity.Booking;
+import com.example.Fuba_BE.domain.entity.Driver;
+import com.example.Fuba_BE.domain.entity.Route;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.RecordedSql;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Keyword searches of the booking list, drivers and routes are answered by the V20 trigram indexes.
+ *
+ * Each test seeds rows into the real tables, runs the repository method, and EXPLAINs the SQL
+ * Hibernate sent for it, as the generic plan a prepared statement ends up with (where a
+ * "no search" guard would rule the indexes out). Everything runs in one transaction that is
+ * rolled back, statistics included.
+ *
+ * Keywords avoid upper-case accented letters: lower() leaves those alone in a database created
+ * with the C locale, as test databases often are.
+ */
+class SearchIndexExplainTest extends PostgresIntegrationTest {
+
+	private static final int ROWS = 100_000;
+	private static final String NAMES = "ARRAY['Nguyễn Văn An', 'Trần Thị Bình', 'Lê Hoàng Đức', 'Phạm Minh Châu', 'Võ Thị Hạnh']";
+	private static final Pattern PARAMETER = Pattern.compile("\\?( is (not )?null)?");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private RouteRepository routeRepository;
+
+	private TestFixtures fixtures;
+	private String token;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(jdbcTemplate);
+		token = "s" + TestFixtures.unique();
+	}
+
+	@Test
+	void bookingSearchUsesTrigramIndexes() {
+		inRolledBackTransaction(() -> {
+			int tripId = fixtures.trip(fixtures.route(), LocalDateTime.now().plusDays(3));
+			jdbcTemplate.update("""
+					INSERT INTO bookings (bookingcode, customername, customerphone, tripid, totalamount, bookingstatus)
+					SELECT 'X' || g, (%s)[1 + g %% 5] || ' ' || ? || ' ' || g, '08' || lpad(g::text, 8, '0'), ?, 100000, 'Paid'
+					FROM generate_series(1, ?) g
+					""".formatted(NAMES), token, tripId, ROWS);
+			jdbcTemplate.execute("ANALYZE bookings");
+
+			// Accent-insensitive: "van an" matches "Nguyễn Văn An"
+			Page<Booking> page = explained(() -> bookingRepository.findAllWithSearch(null, "van an " + token,
+					PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt", "bookingId"))));
+			assertThat(page.getTotalElements()).isEqualTo(ROWS / 5);
+
+			// A keyset page may instead walk the sort index until it has a page of matches
+			RecordedSql.start();
+			List<Booking> before;
+			try {
+				before = bookingRepository.findAllWithSearchBefore("Paid", "an " + token + " 4",
+						LocalDateTime.now().plusDays(1), Integer.MAX_VALUE, PageRequest.of(0, 21));
+			} finally {
+				assertThat(RecordedSql.stop()).singleElement().satisfies(sql -> plan(sql)
+						.anyMatch(line -> line.contains("_trgm") || line.contains("using idx_bookings_created_id"))
+						.noneMatch(line -> line.contains("Seq Scan on bookings ")));
+			}
+			assertThat(before).isNotEmpty().allMatch(booking -> booking.getCustomerName().startsWith("Nguyễn Văn An"));
+		});
+	}
+
+	@Test
+	void driverSearchUsesTrigramIndexes() {
+		inRolledBackTransaction(() -> {
+			jdbcTemplate.update("""
+					INSERT INTO users (fullname, email, phonenumber, password, roleid)
+					SELECT (%s)[1 + g %% 5] || ' ' || ? || ' ' || g, ? || '.' || g || '@fuba.test',
+					       '07' || lpad(g::text, 8, '0'), 'x', (SELECT MIN(roleid) FROM roles)
+					FROM generate_series(1, ?) g
+					""".formatted(NAMES), token, token, ROWS);
+			jdbcTemplate.update("""
+					INSERT INTO drivers (userid, driverlicense, dateofbirth, licenseexpiry)
+					SELECT userid, 'GPLX-' || userid, DATE '1985-01-01', CURRENT_DATE + 3650
+					FROM users WHERE email LIKE ? || '.%'
+					""", token);
+			jdbcTemplate.execute("ANALYZE users");
+			jdbcTemplate.execute("ANALYZE drivers");
+
+			Page<Driver> page = explained(() -> driverRepository.findAllWithUserAndKeyword("tran thi binh " + token,
+					PageRequest.of(0, 20)));
+			assertThat(page.getTotalElements()).isEqualTo(ROWS / 5);
+		});
+	}
+
+	@Test
+	void routeSearchUsesTrigramIndexes() {
+		inRolledBackTransaction(() -> {
+			jdbcTemplate.update("""
+					INSERT INTO locations (locationname, province)
+					SELECT (ARRAY['Bến xe Miền Đông', 'Đà Nẵng', 'Huế', 'Nha Trang', 'Đà Lạt'])[1 + g % 5] || ' ' || ? || ' ' || g,
+					       'Tỉnh ' || g % 63
+					FROM generate_series(1, ?) g
+					""", token, ROWS);
+			jdbcTemplate.update("""
+					INSERT INTO routes (routename, originid, destinationid, distance, estimatedduration, status)
+					SELECT 'Tuyến ' || ? || ' ' || o.locationid, o.locationid, d.locationid, 300, 360, 'Active'
+					FROM locations o JOIN locations d ON d.locationid = o.locationid + 1
+					WHERE o.locationname LIKE '%' || ? || '%'
+					""", token, token);
+			jdbcTemplate.update("""
+					INSERT INTO routestops (routeid, locationid, stoporder, stoptype)
+					SELECT routeid, originid, 1, 'Điểm khởi hành' FROM routes WHERE routename LIKE '%' || ? || '%'
+					""", token);
+			jdbcTemplate.execute("ANALYZE locations");
+			jdbcTemplate.execute("ANALYZE routes");
+			jdbcTemplate.execute("ANALYZE routestops");
+
+			Page<Route> page = explained(() -> routeRepository.searchRoutes("nang " + token, PageRequest.of(0, 20)));
+			// Routes from or to one of the Đà Nẵng stations
+			assertThat(page.getTotalElements()).isEqualTo(jdbcTemplate.queryForObject("""
+					SELECT count(*) FROM routes r
+					JOIN locations o ON o.locationid = r.originid
+					JOIN locations d ON d.locationid = r.destinationid
+					WHERE r.routename LIKE '%' || ? || '%'
+					AND (o.locationname LIKE 'Đà Nẵng%' OR d.locationname LIKE 'Đà Nẵng%')
+					""", Long.class, token)).isGreaterThan(ROWS / 5);
+		});
+	}
+
+	private void inRolledBackTransaction(Runnable test) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			status.setRollbackOnly();
+			// EXPLAIN of a statement with unbound $n parameters has to be parsed server-side; the
+			// driver would otherwise expect values for them
+			jdbcTemplate.execute("""
+					CREATE FUNCTION pg_temp.generic_plan(query TEXT) RETURNS SETOF TEXT LANGUAGE plpgsql AS $$
+					BEGIN
+					    RETURN QUERY EXECUTE 'EXPLAIN (GENERIC_PLAN, COSTS OFF) ' || query;
+					END
+					$$
+					""");
+			test.run();
+		});
+	}
+
+	/**
+	 * Run {@code query} and check the plan of every statement it sent: trigram index scans, and
+	 * no keyword predicate left as a filter evaluated row by row.
+	 */
+	private <T> T explained(Supplier<T> query) {
+		RecordedSql.start();
+		T result;
+		try {
+			result = query.get();
+		} finally {
+			assertThat(RecordedSql.stop()).isNotEmpty().allSatisfy(sql -> plan(sql)
+					.anyMatch(line -> line.contains("Bitmap Index Scan on idx_") && line.contains("_trgm"))
+					.noneMatch(line -> line.contains("Filter:") && line.contains("search_normalize")));
+		}
+		return result;
+	}
+
+	private ListAssert<String> plan(String sql) {
+		List<String> plan = jdbcTemplate.queryForList("SELECT * FROM pg_temp.generic_plan(?)", String.class,
+				numbered(sql));
+		return assertThat(plan).as("%s%n%s", sql, String.join("\n", plan));
+	}
+
+	/**
+	 * Hibernate's JDBC placeholders as $n parameters of a generic plan. A parameter that is only
+	 * tested for null gets a type, which Postgres could not infer from that alone.
+	 */
+	private static String numbered(String sql) {
+		Matcher matcher = PARAMETER.matcher(sql);
+		StringBuilder numbered = new StringBuilder();
+		int count = 0;
+		while (matcher.find()) {
+			String parameter = "$" + ++count;
+			matcher.appendReplacement(numbered, matcher.group(1) != null
+					? Matcher.quoteReplacement("CAST(" + parameter + " AS TEXT)" + matcher.group(1))
+					: Matcher.quoteReplacement(parameter));
+		}
+		matcher.appendTail(numbered);
+		return numbered.toString();
+	}
+}
@@ -0,0 +1,153 @@
+package com.example.Fuba_BE.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * The V24 statement-level triggers on tripseats keep the seat counters of trips and
+ * isfullybooked in step with the seats: after every kind of seat write, each counter must equal
+ * COUNT(*) over the trip's seats, and an update that changes no status must not touch the trip.
+ */
+class TripSeatCountersTriggerTest extends PostgresIntegrationTest {
+
+	private static final String COUNTED_SQL = """
+			SELECT COUNT(*) FILTER (WHERE LOWER(status) = 'available') AS availableseats,
+			       COUNT(*) FILTER (WHERE LOWER(status) = 'held') AS heldseats,
+			       COUNT(*) FILTER (WHERE LOWER(status) IN ('booked', 'sold', 'reserved', 'paid')) AS bookedseats,
+			       COUNT(*) FILTER (WHERE LOWER(status) IN ('used', 'checkedin', 'checked-in')) AS usedseats
+			FROM tripseats WHERE tripid = ?
+			""";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TestFixtures fixtures;
+	private int tripId;
+	private int otherTripId;
+	private List<Integer> seats;
+	private List<Integer> otherSeats;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(jdbcTemplate);
+		int routeId = fixtures.route();
+		tripId = fixtures.trip(routeId, LocalDateTime.now().plusDays(4));
+		otherTripId = fixtures.trip(routeId, LocalDateTime.now().plusDays(4).plusHours(2));
+		seats = fixtures.seats(tripId, 4);
+		otherSeats = fixtures.seats(otherTripId, 3);
+	}
+
+	@Test
+	void insertedSeatsAreCounted() {
+		assertCountersMatchSeats(tripId, 4, 0, 0, 0);
+		assertCountersMatchSeats(otherTripId, 3, 0, 0, 0);
+
+		// Several trips and statuses in one statement
+		jdbcTemplate.update("""
+				INSERT INTO tripseats (tripid, seatnumber, status)
+				VALUES (?, 'X1', 'Held'), (?, 'X2', 'Booked'), (?, 'X1', 'Used')
+				""", tripId, tripId, otherTripId);
+		assertCountersMatchSeats(tripId, 4, 1, 1, 0);
+		assertCountersMatchSeats(otherTripId, 3, 0, 0, 1);
+	}
+
+	@Test
+	void statusChangesMoveSeatsBetweenCounters() {
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Held', lockedby = 'u1' WHERE seatid IN (?, ?)",
+				seats.get(0), seats.get(1));
+		assertCountersMatchSeats(tripId, 2, 2, 0, 0);
+
+		// One statement over two trips and three transitions
+		jdbcTemplate.update("""
+				UPDATE tripseats SET status = CASE seatid WHEN ? THEN 'Booked' WHEN ? THEN 'Available' ELSE 'Used' END
+				WHERE seatid IN (?, ?, ?)
+				""", seats.get(0), seats.get(1), seats.get(0), seats.get(1), otherSeats.get(0));
+		assertCountersMatchSeats(tripId, 3, 0, 1, 0);
+		assertCountersMatchSeats(otherTripId, 2, 0, 0, 1);
+
+		// Legacy spellings land in the same counters
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Sold' WHERE seatid = ?", seats.get(2));
+		jdbcTemplate.update("UPDATE tripseats SET status = 'CheckedIn' WHERE seatid = ?", seats.get(3));
+		assertCountersMatchSeats(tripId, 1, 0, 2, 1);
+	}
+
+	@Test
+	void lockOwnerOnlyUpdateLeavesTheTripAlone() {
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Held', lockedby = 'u1' WHERE seatid = ?", seats.get(0));
+		String version = tripVersion(tripId);
+
+		jdbcTemplate.update("""
+				UPDATE tripseats SET lockedby = 'u2', lockedbysessionid = 's2',
+				       holdexpiry = CURRENT_TIMESTAMP + INTERVAL '5 minutes'
+				WHERE tripid = ?
+				""", tripId);
+
+		assertThat(tripVersion(tripId)).as("trips row rewritten").isEqualTo(version);
+		assertCountersMatchSeats(tripId, 3, 1, 0, 0);
+	}
+
+	@Test
+	void deletedSeatsAreUncounted() {
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Booked' WHERE seatid = ?", seats.get(0));
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Held' WHERE seatid = ?", otherSeats.get(0));
+
+		jdbcTemplate.update("DELETE FROM tripseats WHERE seatid IN (?, ?, ?)", seats.get(0), seats.get(1),
+				otherSeats.get(0));
+		assertCountersMatchSeats(tripId, 2, 0, 0, 0);
+		assertCountersMatchSeats(otherTripId, 2, 0, 0, 0);
+	}
+
+	@Test
+	void tripIsFullyBookedOnceNoSeatIsAvailableOrHeld() {
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Booked' WHERE seatid IN (?, ?, ?)", seats.get(0),
+				seats.get(1), seats.get(2));
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Held' WHERE seatid = ?", seats.get(3));
+		assertThat(isFullyBooked(tripId)).as("a seat is still held").isFalse();
+
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Used' WHERE seatid = ?", seats.get(3));
+		assertThat(isFullyBooked(tripId)).isTrue();
+
+		// A cancellation frees a seat again
+		jdbcTemplate.update("UPDATE tripseats SET status = 'Available' WHERE seatid = ?", seats.get(0));
+		assertThat(isFullyBooked(tripId)).isFalse();
+
+		// A trip without seats is not full
+		jdbcTemplate.update("DELETE FROM tripseats WHERE tripid = ?", tripId);
+		assertCountersMatchSeats(tripId, 0, 0, 0, 0);
+		assertThat(isFullyBooked(tripId)).isFalse();
+	}
+
+	private void assertCountersMatchSeats(int trip, int available, int held, int booked, int used) {
+		Map<String, Object> counters = jdbcTemplate.queryForMap(
+				"SELECT availableseats, heldseats, bookedseats, usedseats FROM trips WHERE tripid = ?", trip);
+		Map<String, Object> counted = jdbcTemplate.queryForMap(COUNTED_SQL, trip);
+		counted.replaceAll((column, count) -> ((Number) count).intValue());
+
+		assertThat(counters).as("counters of trip %d", trip).isEqualTo(counted)
+				.containsEntry("availableseats", available)
+				.containsEntry("heldseats", held)
+				.containsEntry("bookedseats", booked)
+				.containsEntry("usedseats", used);
+		assertThat(isFullyBooked(trip)).as("isfullybooked of trip %d", trip)
+				.isEqualTo(booked + used > 0 && available + held == 0);
+	}
+
+	private boolean isFullyBooked(int trip) {
+		return jdbcTemplate.queryForObject("SELECT isfullybooked FROM trips WHERE tripid = ?", Boolean.class, trip);
+	}
+
+	private String tripVersion(int trip) {
+		return jdbcTemplate.queryForObject("SELECT xmin::text FROM trips WHERE tripid = ?", String.class, trip);
+	}
+}
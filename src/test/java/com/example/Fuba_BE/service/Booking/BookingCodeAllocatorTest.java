@@ -0,0 +1,157 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.Fuba_BE.repository.BookingRepository;
+import com.example.Fuba_BE.repository.TicketRepository;
+
+/**
+ * Block allocation of {@link BookingCodeAllocator} over an in-memory {@code code_sequences}.
+ */
+class BookingCodeAllocatorTest {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 3, 14);
+
+	private CodeSequences codeSequences;
+	private BookingRepository bookingRepository;
+	private TicketRepository ticketRepository;
+
+	@BeforeEach
+	void setUp() {
+		codeSequences = new CodeSequences();
+		bookingRepository = mock(BookingRepository.class);
+		ticketRepository = mock(TicketRepository.class);
+	}
+
+	@Test
+	void codesRollOverIntoTheNextBlock() {
+		BookingCodeAllocator allocator = allocator(3);
+
+		assertThat(List.of(allocator.nextBookingCode(DAY), allocator.nextBookingCode(DAY), allocator.nextBookingCode(DAY)))
+				.containsExactly("BK20260314001", "BK20260314002", "BK20260314003");
+		assertThat(codeSequences.reservations.get()).isEqualTo(1);
+
+		assertThat(allocator.nextBookingCode(DAY)).isEqualTo("BK20260314004");
+		assertThat(codeSequences.reservations.get()).isEqualTo(2);
+		assertThat(codeSequences.nextValues).containsEntry("BK20260314", 7L);
+	}
+
+	@Test
+	void firstBlockOfTheDayContinuesAfterExistingCodes() {
+		when(bookingRepository.getLatestBookingSequence("20260314")).thenReturn(998);
+		when(ticketRepository.getLatestTicketSequence("20260314")).thenReturn(5);
+		BookingCodeAllocator allocator = allocator(50);
+
+		// Past 999 the number just grows longer
+		assertThat(allocator.nextBookingCode(DAY)).isEqualTo("BK20260314999");
+		assertThat(allocator.nextBookingCode(DAY)).isEqualTo("BK202603141000");
+		// Tickets count on their own
+		assertThat(allocator.nextTicketCode(DAY)).isEqualTo("TK20260314006");
+	}
+
+	@Test
+	void numbersStartOverEachDay() {
+		BookingCodeAllocator allocator = allocator(50);
+
+		assertThat(allocator.nextBookingCode(DAY)).isEqualTo("BK20260314001");
+		assertThat(allocator.nextBookingCode(DAY)).isEqualTo("BK20260314002");
+		// The rest of yesterday's block is not carried over
+		assertThat(allocator.nextBookingCode(DAY.plusDays(1))).isEqualTo("BK20260315001");
+		assertThat(allocator.nextBookingCode(DAY.plusDays(1))).isEqualTo("BK20260315002");
+		assertThat(codeSequences.reservations.get()).isEqualTo(2);
+	}
+
+	@Test
+	void concurrentAllocationOnTwoNodesNeverRepeatsACode() throws Exception {
+		int threads = 16;
+		int codesPerThread = 500;
+		// Two nodes sharing one code_sequences table, with small blocks to force many refills
+		List<BookingCodeAllocator> nodes = List.of(allocator(7), allocator(7));
+		Set<String> codes = ConcurrentHashMap.newKeySet();
+		AtomicInteger duplicates = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			BookingCodeAllocator node = nodes.get(t % 2);
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < codesPerThread; i++) {
+					if (!codes.add(node.nextBookingCode(DAY))) {
+						duplicates.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertThat(duplicates.get()).isZero();
+		assertThat(codes).hasSize(threads * codesPerThread);
+		// Only the blocks the nodes are still drawing from may leave numbers unused
+		Set<Long> numbers = codes.stream().map(code -> Long.parseLong(code.substring(10))).collect(Collectors.toSet());
+		long highest = numbers.stream().mapToLong(Long::longValue).max().getAsLong();
+		assertThat(LongStream.rangeClosed(1, highest).filter(n -> !numbers.contains(n)).count()).isLessThan(2 * 7);
+	}
+
+	private BookingCodeAllocator allocator(int blockSize) {
+		return new BookingCodeAllocator(codeSequences, mock(PlatformTransactionManager.class), bookingRepository,
+				ticketRepository, blockSize);
+	}
+
+	/**
+	 * {@code code_sequences} in memory: the next free number per prefix, advanced atomically like
+	 * the row UPDATE.
+	 */
+	private static final class CodeSequences extends JdbcTemplate {
+
+		final Map<String, Long> nextValues = new ConcurrentHashMap<>();
+		final AtomicInteger reservations = new AtomicInteger();
+
+		// UPDATE ... SET next_value = next_value + blockSize WHERE prefix = ? RETURNING next_value
+		@Override
+		public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+			Long advanced = nextValues.computeIfPresent((String) args[1], (prefix, next) -> next + (Integer) args[0]);
+			if (advanced == null) {
+				return List.of();
+			}
+			reservations.incrementAndGet();
+			return List.of(elementType.cast(advanced));
+		}
+
+		// INSERT ... VALUES (prefix, start + blockSize) ON CONFLICT DO UPDATE next_value + blockSize
+		@Override
+		public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+			reservations.incrementAndGet();
+			return requiredType.cast(nextValues.merge((String) args[0], (Long) args[1],
+					(next, ignored) -> next + (Integer) args[2]));
+		}
+	}
+}
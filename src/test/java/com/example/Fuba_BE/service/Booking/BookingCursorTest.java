@@ -0,0 +1,48 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.Fuba_BE.exception.BadRequestException;
+
+class BookingCursorTest {
+
+	@Test
+	void decodesWhatItEncodes() {
+		BookingCursor cursor = new BookingCursor(LocalDateTime.of(2026, 1, 5, 8, 30, 0, 123_456_000), 42);
+
+		assertThat(BookingCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void keepsWholeSecondsAndMidnight() {
+		BookingCursor cursor = new BookingCursor(LocalDateTime.of(2026, 1, 5, 0, 0), 7);
+
+		assertThat(BookingCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void isUrlSafe() {
+		String encoded = new BookingCursor(LocalDateTime.of(2026, 12, 31, 23, 59, 59), Integer.MAX_VALUE).encode();
+
+		assertThat(encoded).matches("[A-Za-z0-9_-]+");
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		assertThatThrownBy(() -> BookingCursor.decode("not base64!")).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> BookingCursor.decode(encode("2026-01-05T08:30"))).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> BookingCursor.decode(encode("yesterday|5"))).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> BookingCursor.decode(encode("2026-01-05T08:30|five"))).isInstanceOf(BadRequestException.class);
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,260 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.controller.BookingController;
+import com.example.Fuba_BE.dto.Booking.BookingConfirmRequest;
+import com.example.Fuba_BE.dto.Booking.BookingResponse;
+import com.example.Fuba_BE.exception.BadRequestException;
+import com.example.Fuba_BE.exception.ConflictException;
+import com.example.Fuba_BE.security.UserPrincipal;
+import com.example.Fuba_BE.service.cluster.SchedulerLeases;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Double-clicks and client retries of POST /bookings/confirm with one Idempotency-Key
+ * must end up as a single booking transaction, on whichever node the retry lands.
+ */
+class BookingIdempotencyStoreIntegrationTest extends PostgresIntegrationTest {
+
+	private static final int THREADS = 16;
+
+	@Autowired
+	private BookingIdempotencyStore store;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@Autowired
+	private SchedulerLeases schedulerLeases;
+
+	private final BookingConfirmRequest request = BookingConfirmRequest.builder()
+			.tripId(1)
+			.seatIds(List.of(1, 2))
+			.userId("7")
+			.build();
+
+	@Test
+	void parallelDuplicatesCollapseIntoOneTransaction() throws Exception {
+		String key = key();
+		AtomicInteger transactions = new AtomicInteger();
+		Supplier<BookingResponse> booking = () -> {
+			transactions.incrementAndGet();
+			sleep(200);
+			return BookingResponse.builder().bookingId(42).bookingCode("BK42").build();
+		};
+
+		// Waits long enough for the booking, so no duplicate gives up with a conflict
+		BookingIdempotencyStore patient = new BookingIdempotencyStore(jdbcTemplate, jsonMapper, schedulerLeases,
+				15, 120_000, 10_000);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<BookingResponse>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				return patient.execute(key, request, booking);
+			}));
+		}
+		start.countDown();
+
+		List<BookingResponse> responses = new ArrayList<>();
+		for (Future<BookingResponse> future : futures) {
+			responses.add(future.get(30, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+
+		assertThat(transactions.get()).isEqualTo(1);
+		assertThat(responses).hasSize(THREADS).allSatisfy(response -> assertThat(response).isEqualTo(responses.get(0)));
+		assertThat(responses.get(0).getBookingCode()).isEqualTo("BK42");
+	}
+
+	@Test
+	void retryOnAnotherNodeGetsTheStoredResponse() {
+		String key = key();
+		store.execute(key, request, () -> BookingResponse.builder().bookingId(45).build());
+
+		// A second store shares nothing with the first but the table
+		BookingIdempotencyStore otherNode = new BookingIdempotencyStore(jdbcTemplate, jsonMapper, schedulerLeases,
+				15, 120_000, 10_000);
+		BookingResponse retried = otherNode.execute(key, request, () -> {
+			throw new AssertionError("booked twice");
+		});
+
+		assertThat(retried.getBookingId()).isEqualTo(45);
+	}
+
+	@Test
+	void failedAttemptCanBeRetriedWithSameKey() {
+		String key = key();
+		AtomicInteger attempts = new AtomicInteger();
+		Supplier<BookingResponse> booking = () -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new BadRequestException("Ghế đã được đặt");
+			}
+			return BookingResponse.builder().bookingId(43).build();
+		};
+
+		assertThatThrownBy(() -> store.execute(key, request, booking)).isInstanceOf(BadRequestException.class);
+		assertThat(store.execute(key, request, booking).getBookingId()).isEqualTo(43);
+		assertThat(attempts.get()).isEqualTo(2);
+	}
+
+	@Test
+	void keyReusedForAnotherRequestIsRejected() {
+		String key = key();
+		store.execute(key, request, () -> BookingResponse.builder().bookingId(44).build());
+
+		BookingConfirmRequest other = BookingConfirmRequest.builder().tripId(2).seatIds(List.of(5)).userId("7").build();
+		assertThatThrownBy(() -> store.execute(key, other, () -> BookingResponse.builder().build()))
+				.isInstanceOf(BadRequestException.class);
+	}
+
+	@Test
+	void duplicateOfABookingStillRunningIsAConflictRightAway() throws Exception {
+		String key = key();
+		BookingIdempotencyStore impatient = store;
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<BookingResponse> first = executor.submit(() -> impatient.execute(key, request, () -> {
+			running.countDown();
+			await(release);
+			return BookingResponse.builder().bookingId(46).build();
+		}));
+		assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> impatient.execute(key, request, () -> BookingResponse.builder().build()))
+				.isInstanceOf(ConflictException.class);
+		// The duplicate neither holds its request thread nor keeps polling the database for long
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+
+		release.countDown();
+		assertThat(first.get(10, TimeUnit.SECONDS).getBookingId()).isEqualTo(46);
+		executor.shutdown();
+	}
+
+	@Test
+	void claimOfADeadNodeIsTakenOverOnceExpired() {
+		String key = key();
+		jdbcTemplate.update("""
+				INSERT INTO booking_idempotency_keys (idempotencykey, fingerprint, claimtoken, expiresat)
+				VALUES (?, repeat('0', 64), ?, LOCALTIMESTAMP - INTERVAL '1 minute')
+				""", key, UUID.randomUUID());
+
+		assertThat(store.execute(key, request, () -> BookingResponse.builder().bookingId(47).build()).getBookingId())
+				.isEqualTo(47);
+	}
+
+	@Test
+	void expiredKeysArePurged() {
+		String expired = key();
+		String live = key();
+		jdbcTemplate.update("""
+				INSERT INTO booking_idempotency_keys (idempotencykey, fingerprint, claimtoken, response, expiresat)
+				VALUES (?, repeat('0', 64), ?, '{}', LOCALTIMESTAMP - INTERVAL '1 minute')
+				""", expired, UUID.randomUUID());
+		store.execute(live, request, () -> BookingResponse.builder().bookingId(48).build());
+
+		store.purgeExpired();
+
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM booking_idempotency_keys WHERE idempotencykey IN (?, ?)", Integer.class,
+				expired, live)).isEqualTo(1);
+	}
+
+	@Test
+	void keysAreScopedToTheAuthenticatedUserNotTheBody() {
+		IBookingService bookingService = mock(IBookingService.class);
+		when(bookingService.confirmBooking(request)).thenReturn(BookingResponse.builder().bookingId(49).build());
+		BookingController controller = new BookingController(bookingService, store);
+		String key = key();
+
+		controller.confirmBooking(principal(7), request, key);
+		controller.confirmBooking(principal(7), request, key);
+		verify(bookingService, times(1)).confirmBooking(request);
+
+		// Another user replaying the same body (userId 7) and key gets a booking of their own
+		controller.confirmBooking(principal(8), request, key);
+		verify(bookingService, times(2)).confirmBooking(request);
+	}
+
+	@Test
+	void guestKeysAreScopedToTheGuestSession() {
+		IBookingService bookingService = mock(IBookingService.class);
+		BookingConfirmRequest guest = guestRequest("g1");
+		BookingConfirmRequest otherGuest = guestRequest("g2");
+		when(bookingService.confirmBooking(any())).thenReturn(BookingResponse.builder().bookingId(50).build());
+		BookingController controller = new BookingController(bookingService, store);
+		String key = key();
+
+		controller.confirmBooking(null, guest, key);
+		controller.confirmBooking(null, guest, key);
+		controller.confirmBooking(null, otherGuest, key);
+		verify(bookingService, times(2)).confirmBooking(any());
+
+		// Guests without a session would all share one scope
+		BookingConfirmRequest anonymous = guestRequest(null);
+		assertThatThrownBy(() -> controller.confirmBooking(null, anonymous, key)).isInstanceOf(BadRequestException.class);
+		// Without a key there is nothing to share
+		controller.confirmBooking(null, anonymous, null);
+		verify(bookingService, times(3)).confirmBooking(any());
+	}
+
+	private static BookingConfirmRequest guestRequest(String guestSessionId) {
+		return BookingConfirmRequest.builder().tripId(1).seatIds(List.of(3)).guestSessionId(guestSessionId).build();
+	}
+
+	private static UserPrincipal principal(int userId) {
+		return new UserPrincipal(userId, "u" + userId + "@fuba.test", null, null, "Customer", "Active", List.of());
+	}
+
+	private static String key() {
+		return "test:" + UUID.randomUUID();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(30, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
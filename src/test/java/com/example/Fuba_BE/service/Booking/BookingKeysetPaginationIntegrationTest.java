@@ -0,0 +1,181 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.dto.Booking.BookingFilterRequest;
+import com.example.Fuba_BE.dto.Booking.BookingPageResponse;
+import com.example.Fuba_BE.dto.Booking.BookingResponse;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Walking the admin booking list and my-tickets page by page with {@code nextCursor}: every
+ * booking shows up exactly once and in the order of the first (offset) page, also when many
+ * bookings share the sort value and only the booking id tells them apart.
+ */
+class BookingKeysetPaginationIntegrationTest extends PostgresIntegrationTest {
+
+	private static final int PAGE_SIZE = 3;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private IBookingService bookingService;
+
+	private TestFixtures fixtures;
+	private LocalDateTime now;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(jdbcTemplate);
+		now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+	}
+
+	@Test
+	void adminListWalksTiedCreatedAtInBothDirections() {
+		String token = "keyset" + TestFixtures.unique();
+		int tripId = fixtures.trip(fixtures.route(), now.plusDays(3));
+		List<Integer> seats = fixtures.seats(tripId, 10);
+		List<Integer> bookings = new ArrayList<>();
+		for (int i = 0; i < seats.size(); i++) {
+			int bookingId = fixtures.booking(tripId, null, "Paid", now.plusDays(1), seats.subList(i, i + 1));
+			// Three bookings per createdAt: pages have to split ties on bookingId
+			jdbcTemplate.update("UPDATE bookings SET customername = ?, createdat = ? WHERE bookingid = ?",
+					"Khách " + token, Timestamp.valueOf(now.minusHours(i / 3)), bookingId);
+			bookings.add(bookingId);
+		}
+
+		List<Integer> newestFirst = ids("""
+				SELECT bookingid FROM bookings WHERE customername = ? ORDER BY createdat DESC, bookingid DESC
+				""", "Khách " + token);
+		List<Integer> oldestFirst = newestFirst.reversed();
+
+		assertThat(walk(cursor -> bookingService.getAllBookings(adminPage(token, "DESC", cursor))))
+				.isEqualTo(newestFirst)
+				.containsExactlyInAnyOrderElementsOf(bookings);
+		assertThat(walk(cursor -> bookingService.getAllBookings(adminPage(token, "ASC", cursor))))
+				.isEqualTo(oldestFirst);
+	}
+
+	@Test
+	void adminCursorPagesCountOnlyOnRequest() {
+		String token = "keyset" + TestFixtures.unique();
+		int tripId = fixtures.trip(fixtures.route(), now.plusDays(3));
+		List<Integer> seats = fixtures.seats(tripId, 5);
+		for (int i = 0; i < seats.size(); i++) {
+			int bookingId = fixtures.booking(tripId, null, "Paid", now.plusDays(1), seats.subList(i, i + 1));
+			jdbcTemplate.update("UPDATE bookings SET customername = ? WHERE bookingid = ?", "Khách " + token, bookingId);
+		}
+		String cursor = bookingService.getAllBookings(adminPage(token, "DESC", null)).getNextCursor();
+
+		BookingFilterRequest uncounted = adminPage(token, "DESC", cursor);
+		assertThat(bookingService.getAllBookings(uncounted).getTotalElements()).isNull();
+
+		BookingFilterRequest counted = adminPage(token, "DESC", cursor);
+		counted.setIncludeTotal(true);
+		BookingPageResponse page = bookingService.getAllBookings(counted);
+		assertThat(page.getTotalElements()).isEqualTo(5);
+		assertThat(page.getTotalPages()).isEqualTo(2);
+	}
+
+	@Test
+	void myTicketsWalkTiedDeparturesNewestFirst() {
+		int customerId = fixtures.user();
+		List<Integer> bookings = myBookings(customerId);
+
+		List<Integer> expected = ids("""
+				SELECT b.bookingid FROM bookings b JOIN trips t ON t.tripid = b.tripid
+				WHERE b.customerid = ? ORDER BY t.departuretime DESC, b.bookingid DESC
+				""", customerId);
+
+		assertThat(walk(cursor -> bookingService.getMyTickets(customerId, null, 0, PAGE_SIZE, cursor)))
+				.isEqualTo(expected)
+				.containsExactlyInAnyOrderElementsOf(bookings);
+	}
+
+	@Test
+	void myUpcomingTicketsWalkTiedDeparturesNearestFirst() {
+		int customerId = fixtures.user();
+		myBookings(customerId);
+
+		List<Integer> expected = ids("""
+				SELECT b.bookingid FROM bookings b JOIN trips t ON t.tripid = b.tripid
+				WHERE b.customerid = ? AND b.bookingstatus IN ('Held', 'Paid') AND t.departuretime > LOCALTIMESTAMP
+				ORDER BY t.departuretime ASC, b.bookingid ASC
+				""", customerId);
+
+		assertThat(expected).hasSize(8);
+		assertThat(walk(cursor -> bookingService.getMyTickets(customerId, "Upcoming", 0, PAGE_SIZE, cursor)))
+				.isEqualTo(expected);
+	}
+
+	/**
+	 * Eight upcoming bookings on two trips leaving at the same time and one later trip, plus a
+	 * completed trip in the past: most of them share a departure time.
+	 */
+	private List<Integer> myBookings(int customerId) {
+		int routeId = fixtures.route();
+		LocalDateTime departure = now.plusDays(5);
+		List<Integer> trips = List.of(
+				fixtures.trip(routeId, departure),
+				fixtures.trip(routeId, departure),
+				fixtures.trip(routeId, departure.plusHours(2)));
+		List<Integer> bookings = new ArrayList<>();
+		for (int tripId : trips) {
+			List<Integer> seats = fixtures.seats(tripId, 3);
+			int perTrip = tripId == trips.get(2) ? 2 : 3;
+			for (int i = 0; i < perTrip; i++) {
+				bookings.add(fixtures.booking(tripId, customerId, "Paid", now.plusDays(1), seats.subList(i, i + 1)));
+			}
+		}
+		int pastTrip = fixtures.trip(routeId, now.minusDays(2));
+		bookings.add(fixtures.booking(pastTrip, customerId, "Completed", now.minusDays(3),
+				fixtures.seats(pastTrip, 1)));
+		return bookings;
+	}
+
+	private static BookingFilterRequest adminPage(String token, String direction, String cursor) {
+		return BookingFilterRequest.builder()
+				.search(token)
+				.size(PAGE_SIZE)
+				.sortBy("createdAt")
+				.sortDirection(direction)
+				.cursor(cursor)
+				.build();
+	}
+
+	/**
+	 * Booking ids of the first page and of every page its cursors lead to.
+	 */
+	private static List<Integer> walk(Function<String, BookingPageResponse> pages) {
+		List<Integer> ids = new ArrayList<>();
+		BookingPageResponse page = pages.apply(null);
+		while (true) {
+			page.getBookings().stream().map(BookingResponse::getBookingId).forEach(ids::add);
+			assertThat(page.getBookings()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+			if (page.getNextCursor() == null) {
+				assertThat(page.getIsLast()).isTrue();
+				return ids;
+			}
+			assertThat(page.getIsLast()).isFalse();
+			page = pages.apply(page.getNextCursor());
+		}
+	}
+
+	private List<Integer> ids(String sql, Object parameter) {
+		return jdbcTemplate.queryForList(sql, Integer.class, parameter);
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.dto.Booking.BookingPageResponse;
+import com.example.Fuba_BE.dto.Booking.BookingResponse;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.RecordedSql;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Lookups by phone and by trip must not issue a query per booking, ticket or passenger: a page
+ * of twelve bookings, each with two tickets and their passengers, takes the same statements as a
+ * page of one. Statements are those the real {@link BookingLookup} sends through Hibernate.
+ */
+class BookingLookupStatementCountTest extends PostgresIntegrationTest {
+
+	private static final int BOOKINGS = 12;
+	private static final int SEATS_PER_BOOKING = 2;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private BookingLookup lookup;
+
+	private int tripId;
+	private String phone;
+
+	@BeforeEach
+	void setUp() {
+		TestFixtures fixtures = new TestFixtures(jdbcTemplate);
+		tripId = fixtures.trip(fixtures.route(), LocalDateTime.now().plusDays(2));
+		phone = "09" + TestFixtures.unique();
+		List<Integer> seats = fixtures.seats(tripId, BOOKINGS * SEATS_PER_BOOKING);
+		for (int i = 0; i < BOOKINGS; i++) {
+			int bookingId = fixtures.booking(tripId, fixtures.user(), "Paid", LocalDateTime.now().plusDays(1),
+					seats.subList(i * SEATS_PER_BOOKING, (i + 1) * SEATS_PER_BOOKING));
+			jdbcTemplate.update("UPDATE bookings SET customerphone = ? WHERE bookingid = ?", phone, bookingId);
+			jdbcTemplate.update("""
+					INSERT INTO passengers (ticketid, fullname)
+					SELECT ticketid, 'Hành khách ' || ticketid FROM tickets WHERE bookingid = ?
+					ON CONFLICT (ticketid) DO UPDATE SET fullname = EXCLUDED.fullname
+					""", bookingId);
+		}
+	}
+
+	@Test
+	void phoneLookupUsesFixedStatementCount() {
+		// Rows, tickets of the page and the count of a page that is not the last
+		BookingPageResponse partial = recorded(3, () -> lookup.byPhone(phone, 0, 5));
+		assertThat(partial.getBookings()).hasSize(5);
+		assertThat(partial.getTotalElements()).isEqualTo(BOOKINGS);
+
+		BookingPageResponse whole = recorded(2, () -> lookup.byPhone(phone, 0, 50));
+		assertThat(whole.getBookings()).hasSize(BOOKINGS).allMatch(booking -> phone.equals(booking.getCustomerPhone()));
+		assertTicketsComplete(whole);
+	}
+
+	@Test
+	void tripLookupUsesFixedStatementCount() {
+		BookingPageResponse partial = recorded(3, () -> lookup.byTrip(tripId, 1, 5));
+		assertThat(partial.getBookings()).hasSize(5);
+
+		BookingPageResponse whole = recorded(2, () -> lookup.byTrip(tripId, 0, 100));
+		assertThat(whole.getBookings()).hasSize(BOOKINGS)
+				.allMatch(booking -> booking.getTripInfo().getTripId().equals(tripId));
+		assertTicketsComplete(whole);
+	}
+
+	private static BookingPageResponse recorded(int statements, Supplier<BookingPageResponse> lookup) {
+		RecordedSql.start();
+		BookingPageResponse page;
+		try {
+			page = lookup.get();
+		} finally {
+			List<String> sql = RecordedSql.stop();
+			assertThat(sql).as(String.join("\n", sql)).hasSize(statements);
+		}
+		return page;
+	}
+
+	private void assertTicketsComplete(BookingPageResponse page) {
+		for (BookingResponse booking : page.getBookings()) {
+			assertThat(booking.getTickets()).hasSize(SEATS_PER_BOOKING).allSatisfy(ticket -> {
+				assertThat(ticket.getSeatNumber()).isNotBlank();
+				assertThat(ticket.getPassenger().getFullName()).startsWith("Hành khách ");
+			});
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Chunked expiry of held bookings on the real schema.
+ *
+ * Holds run out a day from now and the sweeps run "two days from now", so the application's own
+ * expiry job (which uses the current time) never touches these rows.
+ */
+class HeldBookingExpiryIntegrationTest extends PostgresIntegrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private HeldBookingExpiry heldBookingExpiry;
+
+	@Autowired
+	private SeatStateEngine seatStateEngine;
+
+	@Autowired
+	private SeatBroadcastAggregator seatBroadcastAggregator;
+
+	@Autowired
+	private MyTicketsCacheKeys myTicketsCacheKeys;
+
+	private TestFixtures fixtures;
+	private LocalDateTime lapsed;
+	private LocalDateTime sweep;
+	private int tripId;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(jdbcTemplate);
+		LocalDateTime now = LocalDateTime.now();
+		lapsed = now.plusDays(1);
+		sweep = now.plusDays(2);
+		tripId = fixtures.trip(fixtures.route(), now.plusDays(3));
+	}
+
+	@Test
+	void expiresLapsedHoldsAndReleasesTheirSeats() {
+		List<Integer> seats = fixtures.seats(tripId, 4);
+		int customerId = fixtures.user();
+		int lapsedBooking = fixtures.booking(tripId, customerId, "Held", lapsed, seats.subList(0, 2));
+		int liveBooking = fixtures.booking(tripId, customerId, "Held", sweep.plusDays(1), seats.subList(2, 3));
+		int paidBooking = fixtures.booking(tripId, customerId, "Paid", lapsed, seats.subList(3, 4));
+
+		assertThat(heldBookingExpiry.expire(sweep)).isGreaterThanOrEqualTo(1);
+
+		assertThat(fixtures.bookingStatus(lapsedBooking)).isEqualTo("Expired");
+		assertThat(fixtures.seatStatus(seats.get(0))).isEqualTo("Available");
+		assertThat(fixtures.seatStatus(seats.get(1))).isEqualTo("Available");
+		assertThat(fixtures.bookingStatus(liveBooking)).isEqualTo("Held");
+		assertThat(fixtures.seatStatus(seats.get(2))).isEqualTo("Held");
+		assertThat(fixtures.bookingStatus(paidBooking)).isEqualTo("Paid");
+		assertThat(fixtures.seatStatus(seats.get(3))).isEqualTo("Booked");
+	}
+
+	@Test
+	void releasedSeatsAreFreeInTheSeatEngine() {
+		List<Integer> seats = fixtures.seats(tripId, 2);
+		int customerId = fixtures.user();
+		fixtures.booking(tripId, customerId, "Held", lapsed, seats);
+		// Loads the trip into the engine with both seats held
+		assertThat(seatStateEngine.hold(tripId, seats.get(0), "someone-else", "session", 5).isSuccess()).isFalse();
+
+		heldBookingExpiry.expire(sweep);
+
+		assertThat(seatStateEngine.hold(tripId, seats.get(0), "someone-else", "session", 5).isSuccess()).isTrue();
+		assertThat(seatStateEngine.release(tripId, seats.get(0), "someone-else", "session").isSuccess()).isTrue();
+	}
+
+	@Test
+	void seatTakenByAnotherLiveBookingStaysWithIt() {
+		List<Integer> seats = fixtures.seats(tripId, 1);
+		int lapsedBooking = fixtures.booking(tripId, fixtures.user(), "Held", lapsed, seats);
+		int paidBooking = fixtures.booking(tripId, fixtures.user(), "Paid", lapsed, seats);
+
+		heldBookingExpiry.expire(sweep);
+
+		assertThat(fixtures.bookingStatus(lapsedBooking)).isEqualTo("Expired");
+		assertThat(fixtures.bookingStatus(paidBooking)).isEqualTo("Paid");
+		assertThat(fixtures.seatStatus(seats.get(0))).isEqualTo("Booked");
+	}
+
+	@Test
+	void walksEveryChunk() {
+		HeldBookingExpiry smallChunks = new HeldBookingExpiry(jdbcTemplate, transactionManager, seatStateEngine,
+				seatBroadcastAggregator, myTicketsCacheKeys, 2);
+		List<Integer> seats = fixtures.seats(tripId, 7);
+		List<Integer> bookings = new ArrayList<>();
+		for (Integer seatId : seats) {
+			bookings.add(fixtures.booking(tripId, null, "Pending", lapsed, List.of(seatId)));
+		}
+
+		assertThat(smallChunks.expire(sweep)).isGreaterThanOrEqualTo(7);
+
+		assertThat(bookings).allSatisfy(bookingId -> assertThat(fixtures.bookingStatus(bookingId)).isEqualTo("Expired"));
+		assertThat(seats).allSatisfy(seatId -> assertThat(fixtures.seatStatus(seatId)).isEqualTo("Available"));
+	}
+
+	@Test
+	void skipsBookingsLockedByAPaymentAndTakesThemNextRun() throws Exception {
+		List<Integer> seats = fixtures.seats(tripId, 2);
+		int locked = fixtures.booking(tripId, null, "Held", lapsed, seats.subList(0, 1));
+		int free = fixtures.booking(tripId, null, "Held", lapsed, seats.subList(1, 2));
+
+		try (Connection payment = dataSource.getConnection()) {
+			payment.setAutoCommit(false);
+			try (PreparedStatement lock = payment.prepareStatement("SELECT 1 FROM bookings WHERE bookingid = ? FOR UPDATE")) {
+				lock.setInt(1, locked);
+				lock.executeQuery();
+			}
+
+			heldBookingExpiry.expire(sweep);
+
+			assertThat(fixtures.bookingStatus(locked)).isEqualTo("Held");
+			assertThat(fixtures.seatStatus(seats.get(0))).isEqualTo("Held");
+			assertThat(fixtures.bookingStatus(free)).isEqualTo("Expired");
+			payment.rollback();
+		}
+
+		heldBookingExpiry.expire(sweep);
+
+		assertThat(fixtures.bookingStatus(locked)).isEqualTo("Expired");
+		assertThat(fixtures.seatStatus(seats.get(0))).isEqualTo("Available");
+	}
+
+	@Test
+	void shardsSplitTheSweepByTrip() {
+		int otherTrip = fixtures.trip(fixtures.route(), LocalDateTime.now().plusDays(3));
+		int booking = fixtures.booking(tripId, null, "Held", lapsed, fixtures.seats(tripId, 1));
+		int otherBooking = fixtures.booking(otherTrip, null, "Held", lapsed, fixtures.seats(otherTrip, 1));
+		int shards = Math.abs(otherTrip - tripId) + 1;
+
+		heldBookingExpiry.expire(sweep, shards, tripId % shards);
+
+		assertThat(fixtures.bookingStatus(booking)).isEqualTo("Expired");
+		assertThat(fixtures.bookingStatus(otherBooking)).isEqualTo("Held");
+	}
+}
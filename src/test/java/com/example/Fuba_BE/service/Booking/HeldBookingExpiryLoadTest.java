@@ -0,0 +1,100 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Expiry of 100,000 lapsed holds (one seat each, over 2,500 trips) in chunks.
+ *
+ * This does not reach "seconds": on a single-core Postgres it takes about 30 s, or some 3,000
+ * bookings/s. Per 1,000-booking chunk the booking UPDATE costs about 110 ms, which is mostly
+ * upkeep of the 21 indexes on bookings. The seat release costs about 50 ms, plus about 80 ms
+ * for the trip counter trigger. The NOT EXISTS check on other bookings of a seat adds about
+ * 10 ms, and syncing the seat engine under 1 ms. The bound below catches a regression, for
+ * example a per-row query slipping back into a chunk.
+ * Tagged "load": runs with {@code mvn test -Pload-tests}, not in the default test phase.
+ */
+@Tag("load")
+class HeldBookingExpiryLoadTest extends PostgresIntegrationTest {
+
+	private static final Logger log = LoggerFactory.getLogger(HeldBookingExpiryLoadTest.class);
+
+	private static final int TRIPS = 2_500;
+	private static final int SEATS_PER_TRIP = 40;
+	private static final Duration MAX_DURATION = Duration.ofSeconds(60);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private HeldBookingExpiry heldBookingExpiry;
+
+	@Test
+	void expiresHundredThousandHolds() {
+		TestFixtures fixtures = new TestFixtures(jdbcTemplate);
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime lapsed = now.plusDays(1);
+		LocalDateTime sweep = now.plusDays(2);
+		int routeId = fixtures.route();
+		int vehicleId = fixtures.vehicle();
+		int driverId = fixtures.driver();
+		// bookingcode is VARCHAR(20): prefix plus seat id
+		String prefix = "L" + TestFixtures.unique() % 1_000_000 + "-";
+
+		Integer firstTrip = jdbcTemplate.queryForObject("""
+				WITH inserted AS (
+				    INSERT INTO trips (routeid, vehicleid, driverid, departuretime, arrivaltime, baseprice, status)
+				    SELECT ?, ?, ?, CAST(? AS TIMESTAMP) + n * INTERVAL '1 minute',
+				           CAST(? AS TIMESTAMP) + n * INTERVAL '1 minute' + INTERVAL '6 hours', 250000, 'Waiting'
+				    FROM generate_series(1, ?) n
+				    RETURNING tripid)
+				SELECT MIN(tripid) FROM inserted
+				""", Integer.class, routeId, vehicleId, driverId, Timestamp.valueOf(now.plusDays(3)),
+				Timestamp.valueOf(now.plusDays(3)), TRIPS);
+		int lastTrip = firstTrip + TRIPS - 1;
+		jdbcTemplate.update("""
+				INSERT INTO tripseats (tripid, seatnumber, status, lockedby, holdexpiry)
+				SELECT t.tripid, 'A' || s, 'Held', 'load', CAST(? AS TIMESTAMP)
+				FROM generate_series(?, ?) t(tripid), generate_series(1, ?) s
+				""", Timestamp.valueOf(lapsed), firstTrip, lastTrip, SEATS_PER_TRIP);
+		int bookings = jdbcTemplate.update("""
+				INSERT INTO bookings (bookingcode, customername, customerphone, tripid, totalamount, bookingstatus, holdexpiry)
+				SELECT ? || ts.seatid, 'Khách tải', '0900000000', ts.tripid, 250000, 'Held', ?
+				FROM tripseats ts WHERE ts.tripid BETWEEN ? AND ?
+				""", prefix, Timestamp.valueOf(lapsed), firstTrip, lastTrip);
+		jdbcTemplate.update("""
+				INSERT INTO tickets (bookingid, seatid, price, ticketcode)
+				SELECT b.bookingid, ts.seatid, 250000, 'T' || b.bookingcode
+				FROM bookings b JOIN tripseats ts ON b.bookingcode = ? || ts.seatid
+				WHERE b.tripid BETWEEN ? AND ?
+				""", prefix, firstTrip, lastTrip);
+		jdbcTemplate.execute("ANALYZE bookings");
+		jdbcTemplate.execute("ANALYZE tickets");
+		jdbcTemplate.execute("ANALYZE tripseats");
+		assertThat(bookings).isEqualTo(TRIPS * SEATS_PER_TRIP);
+
+		long start = System.nanoTime();
+		int expired = heldBookingExpiry.expire(sweep);
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		log.info("Expired {} bookings in {} ms ({} bookings/s)", expired, millis, expired * 1000L / Math.max(1, millis));
+
+		assertThat(expired).isGreaterThanOrEqualTo(bookings);
+		assertThat(Duration.ofMillis(millis)).isLessThan(MAX_DURATION);
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM tripseats WHERE tripid BETWEEN ? AND ? AND status <> 'Available'",
+				Integer.class, firstTrip, lastTrip)).isZero();
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.Fuba_BE.service.Booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.config.CacheConfig;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Hit rate of the my-tickets cache under a peak mix of page reads and bookings, with per-customer
+ * invalidation against the former {@code cache.clear()} on every booking. The rates are the ones
+ * {@code /admin/cache/stats} reports for myTickets.
+ * Tagged "load": runs with {@code mvn test -Pload-tests}, not in the default test phase.
+ */
+@Tag("load")
+class MyTicketsCacheHitRateLoadTest extends PostgresIntegrationTest {
+
+	private static final Logger log = LoggerFactory.getLogger(MyTicketsCacheHitRateLoadTest.class);
+
+	private static final int CUSTOMERS = 200;
+	private static final int OPERATIONS = 20_000;
+	// One booking or cancellation per ten page reads
+	private static final int WRITE_PERCENT = 10;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private IBookingService bookingService;
+
+	@Autowired
+	private MyTicketsCacheKeys myTicketsCacheKeys;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Test
+	void perCustomerInvalidationKeepsOtherCustomersWarm() {
+		TestFixtures fixtures = new TestFixtures(jdbcTemplate);
+		int tripId = fixtures.trip(fixtures.route(), LocalDateTime.now().plusDays(3));
+		List<Integer> seats = fixtures.seats(tripId, CUSTOMERS);
+		List<Integer> customers = new ArrayList<>();
+		for (int i = 0; i < CUSTOMERS; i++) {
+			int customerId = fixtures.user();
+			fixtures.booking(tripId, customerId, "Paid", LocalDateTime.now().plusDays(1), seats.subList(i, i + 1));
+			customers.add(customerId);
+		}
+		Cache cache = cacheManager.getCache(CacheConfig.CACHE_MY_TICKETS);
+
+		double cleared = hitRate(customers, customerId -> cache.clear());
+		double perCustomer = hitRate(customers, myTicketsCacheKeys::invalidate);
+		log.info("myTickets hit rate over {} operations ({}% bookings, {} customers): cache.clear() {}%, per customer {}%",
+				OPERATIONS, WRITE_PERCENT, CUSTOMERS, String.format("%.1f", cleared * 100),
+				String.format("%.1f", perCustomer * 100));
+
+		assertThat(perCustomer).isGreaterThan(cleared * 2);
+	}
+
+	/**
+	 * Replay the same mix of reads and bookings from a cold cache, invalidating with {@code invalidation}.
+	 */
+	private double hitRate(List<Integer> customers, IntConsumer invalidation) {
+		Cache cache = cacheManager.getCache(CacheConfig.CACHE_MY_TICKETS);
+		cache.clear();
+		Random random = new Random(42);
+		CacheStats before = stats(cache);
+		for (int i = 0; i < OPERATIONS; i++) {
+			int customerId = customers.get(random.nextInt(customers.size()));
+			if (random.nextInt(100) < WRITE_PERCENT) {
+				invalidation.accept(customerId);
+			} else {
+				bookingService.getMyTickets(customerId, null, 0, 20, null);
+			}
+		}
+		return stats(cache).minus(before).hitRate();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static CacheStats stats(Cache cache) {
+		return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).stats();
+	}
+}
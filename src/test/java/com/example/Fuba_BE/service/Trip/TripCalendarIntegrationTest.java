@@ -0,0 +1,132 @@
+package com.example.Fuba_BE.service.Trip;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.Fuba_BE.dto.Trip.RouteDayAvailabilityDTO;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Month view of {@link TripCalendar} and {@code GET /trips/calendar} over trips seeded on the
+ * 10th and 11th of next month: trips and lowest price from the summaries, seats left from the
+ * trips themselves, and the cached month following seat and trip changes.
+ */
+class TripCalendarIntegrationTest extends PostgresIntegrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TripCalendar tripCalendar;
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	private TestFixtures fixtures;
+	private YearMonth month;
+	private LocalDate tenth;
+	private int origin;
+	private int destination;
+	private int routeId;
+	private int morning;
+	private List<Integer> morningSeats;
+
+	@BeforeEach
+	void setUp() {
+		fixtures = new TestFixtures(jdbcTemplate);
+		month = YearMonth.now().plusMonths(1);
+		tenth = month.atDay(10);
+		origin = fixtures.location();
+		destination = fixtures.location();
+		routeId = fixtures.route(origin, destination);
+
+		morning = fixtures.trip(routeId, tenth.atTime(8, 0), BigDecimal.valueOf(300_000), "Waiting");
+		morningSeats = fixtures.seats(morning, 4);
+		fixtures.seats(fixtures.trip(routeId, tenth.atTime(21, 0), BigDecimal.valueOf(250_000), "Waiting"), 3);
+		fixtures.seats(fixtures.trip(routeId, tenth.atTime(12, 0), BigDecimal.valueOf(100_000), "Cancelled"), 5);
+		fixtures.seats(fixtures.trip(routeId, month.atDay(11).atTime(6, 0), BigDecimal.valueOf(320_000), "Running"), 2);
+		// Another route between the same locations
+		int otherRoute = fixtures.route(origin, destination);
+		fixtures.seats(fixtures.trip(otherRoute, tenth.atTime(10, 0), BigDecimal.valueOf(220_000), "Waiting"), 6);
+	}
+
+	@Test
+	void monthOfARouteCountsBookableTripsAndTheirSeats() {
+		List<RouteDayAvailabilityDTO> days = tripCalendar.month(routeId, null, null, month);
+
+		assertThat(days).extracting(RouteDayAvailabilityDTO::getDate).containsExactly(tenth, month.atDay(11));
+		assertDay(days.get(0), 2, 250_000, 7);
+		assertDay(days.get(1), 1, 320_000, 2);
+	}
+
+	@Test
+	void monthOfAnOriginAndDestinationCoversEveryRouteBetweenThem() {
+		List<RouteDayAvailabilityDTO> days = tripCalendar.month(null, origin, destination, month);
+
+		assertThat(days).hasSize(2);
+		assertDay(days.get(0), 3, 220_000, 13);
+	}
+
+	@Test
+	void cachedMonthFollowsSeatAndTripChanges() {
+		assertDay(tripCalendar.month(routeId, null, null, month).get(0), 2, 250_000, 7);
+
+		fixtures.booking(morning, fixtures.user(), "Paid", tenth.atStartOfDay(), morningSeats.subList(0, 2));
+		// Cached until told
+		assertDay(tripCalendar.month(routeId, null, null, month).get(0), 2, 250_000, 7);
+
+		tripCalendar.markSeatsChanged(morning);
+		tripCalendar.evictChangedMonths();
+		assertDay(tripCalendar.month(routeId, null, null, month).get(0), 2, 250_000, 5);
+
+		jdbcTemplate.update("UPDATE trips SET status = 'Cancelled' WHERE tripid = ?", morning);
+		tripCalendar.invalidateAll();
+		assertDay(tripCalendar.month(routeId, null, null, month).get(0), 1, 250_000, 3);
+	}
+
+	@Test
+	void calendarEndpointReturnsTheMonth() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+		mockMvc.perform(get("/trips/calendar")
+						.param("month", month.toString())
+						.param("originId", String.valueOf(origin))
+						.param("destId", String.valueOf(destination)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.success").value(true))
+				.andExpect(jsonPath("$.data.length()").value(2))
+				.andExpect(jsonPath("$.data[0].date").value(tenth.toString()))
+				.andExpect(jsonPath("$.data[0].tripCount").value(3))
+				.andExpect(jsonPath("$.data[0].minPrice").value(220_000))
+				.andExpect(jsonPath("$.data[0].seatsLeft").value(13))
+				.andExpect(jsonPath("$.data[1].date").value(month.atDay(11).toString()));
+
+		// A route, or both ends of the trip
+		mockMvc.perform(get("/trips/calendar")
+						.param("month", month.toString())
+						.param("originId", String.valueOf(origin)))
+				.andExpect(status().isBadRequest());
+	}
+
+	private static void assertDay(RouteDayAvailabilityDTO day, int tripCount, long minPrice, int seatsLeft) {
+		assertThat(day.getTripCount()).as("trips on %s", day.getDate()).isEqualTo(tripCount);
+		assertThat(day.getMinPrice()).as("lowest price on %s", day.getDate()).isEqualByComparingTo(BigDecimal.valueOf(minPrice));
+		assertThat(day.getSeatsLeft()).as("seats left on %s", day.getDate()).isEqualTo(seatsLeft);
+	}
+}
@@ -0,0 +1,185 @@
+package com.example.Fuba_BE.service.Trip;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.Fuba_BE.dto.Trip.TripDetailedResponseDTO;
+import com.example.Fuba_BE.mapper.TripMapper;
+import com.example.Fuba_BE.repository.TripRepository;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Customer trip searches answered by {@link TripSearchIndex} against the Specification query of
+ * {@link ITripService#getAllTrips} on the same month of timetable: same trips in the same order,
+ * and the throughput of each. The application's own index is switched off so every service call
+ * takes the SQL path.
+ * Tagged "load": runs with {@code mvn test -Pload-tests}, not in the default test phase.
+ */
+@Tag("load")
+@TestPropertySource(properties = "trip.search-index.enabled=false")
+class TripSearchIndexBenchmarkTest extends PostgresIntegrationTest {
+
+	private static final Logger log = LoggerFactory.getLogger(TripSearchIndexBenchmarkTest.class);
+
+	private static final int LOCATIONS = 8;
+	private static final int TRIPS_PER_DAY = 24;
+	private static final int DAYS = 30;
+	private static final List<String> STATUSES = List.of("Waiting", "Running");
+	private static final int SEARCHES = 1_000;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ITripService tripService;
+
+	@Autowired
+	private TripRepository tripRepository;
+
+	@Autowired
+	private TripMapper tripMapper;
+
+	@Test
+	void indexAnswersLikeTheSqlSearchAndFaster() {
+		TestFixtures fixtures = new TestFixtures(jdbcTemplate);
+		List<Integer> locations = new ArrayList<>();
+		for (int i = 0; i < LOCATIONS; i++) {
+			locations.add(fixtures.location());
+		}
+		List<Integer> vehicles = List.of(fixtures.vehicle(), fixtures.vehicle(), fixtures.vehicle());
+		List<String> types = jdbcTemplate.queryForList("""
+				SELECT vt.typename FROM vehicles v JOIN vehicletypes vt ON vt.typeid = v.typeid
+				WHERE v.vehicleid IN (?, ?, ?)
+				""", String.class, vehicles.get(0), vehicles.get(1), vehicles.get(2));
+		int driverId = fixtures.driver();
+		for (int origin : locations) {
+			for (int destination : locations) {
+				if (origin != destination) {
+					timetable(fixtures.route(origin, destination), vehicles, driverId);
+				}
+			}
+		}
+		Map<Integer, Integer> availableSeats = new HashMap<>();
+		jdbcTemplate.query("""
+				SELECT t.tripid, t.availableseats FROM trips t JOIN routes r ON r.routeid = t.routeid
+				WHERE r.originid = ANY (?)
+				""", rs -> {
+			availableSeats.put(rs.getInt("tripid"), rs.getInt("availableseats"));
+		}, (Object) locations.toArray(Integer[]::new));
+
+		TripSearchIndex index = new TripSearchIndex(tripRepository, tripMapper, jdbcTemplate, true, DAYS, 60_000, 1_000);
+		index.refresh();
+
+		Random random = new Random(42);
+		List<Search> searches = Stream.generate(() -> Search.random(random, locations, types)).limit(SEARCHES).toList();
+
+		for (Search search : searches.subList(0, 200)) {
+			Page<TripDetailedResponseDTO> sql = search.sql(tripService, 1000);
+			Page<TripDetailedResponseDTO> indexed = search.indexed(index, 1000);
+			assertThat(indexed.getTotalElements()).as("%s", search).isEqualTo(sql.getTotalElements());
+			assertThat(indexed.getContent()).as("%s", search)
+					.extracting(TripDetailedResponseDTO::getTripId)
+					.containsExactlyInAnyOrderElementsOf(sql.map(TripDetailedResponseDTO::getTripId));
+			// Trips with the same sort value may come in either order
+			assertThat(indexed.getContent()).as("%s", search)
+					.extracting(trip -> search.sortValue(trip, availableSeats))
+					.containsExactlyElementsOf(sql.map(trip -> search.sortValue(trip, availableSeats)));
+		}
+
+		// Warm-up
+		searches.forEach(search -> search.sql(tripService, 20));
+		for (int round = 0; round < 20; round++) {
+			searches.forEach(search -> search.indexed(index, 20));
+		}
+
+		long start = System.nanoTime();
+		searches.forEach(search -> search.sql(tripService, 20));
+		double sqlPerSecond = SEARCHES / ((System.nanoTime() - start) / 1e9);
+
+		int rounds = 20;
+		start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			searches.forEach(search -> search.indexed(index, 20));
+		}
+		double indexPerSecond = rounds * SEARCHES / ((System.nanoTime() - start) / 1e9);
+
+		log.info("Trip search over {} trips: index {} searches/s, SQL Specification {} searches/s",
+				availableSeats.size(), String.format("%,.0f", indexPerSecond), String.format("%,.0f", sqlPerSecond));
+		assertThat(indexPerSecond).isGreaterThan(sqlPerSecond * 10);
+	}
+
+	/**
+	 * A month of departures on one route, at quarter hours, with varied prices, vehicles, statuses
+	 * and free seats.
+	 */
+	private void timetable(int routeId, List<Integer> vehicles, int driverId) {
+		jdbcTemplate.update("""
+				INSERT INTO trips (routeid, vehicleid, driverid, departuretime, arrivaltime, baseprice, status,
+				                   availableseats, bookedseats)
+				SELECT ?, (ARRAY[?, ?, ?])[1 + (g * 7) % 3], ?, departure, departure + INTERVAL '6 hours',
+				       150000 + (g * 31 % 30) * 10000, CASE WHEN g % 10 = 0 THEN 'Running' ELSE 'Waiting' END,
+				       g * 13 % 41, 40 - g * 13 % 41
+				FROM generate_series(0, ? - 1) g,
+				     LATERAL (SELECT CAST(? AS TIMESTAMP) + (g / ?) * INTERVAL '1 day'
+				                     + ((g + CAST(? AS BIGINT)) * 7919 % 96) * INTERVAL '15 minutes' AS departure) d
+				""", routeId, vehicles.get(0), vehicles.get(1), vehicles.get(2), driverId, DAYS * TRIPS_PER_DAY,
+				Timestamp.valueOf(LocalDate.now().plusDays(1).atStartOfDay()), TRIPS_PER_DAY, routeId);
+	}
+
+	/**
+	 * One customer search, sent to either side.
+	 */
+	private record Search(int originId, int destId, LocalDate date, Double minPrice, Double maxPrice,
+			List<String> timeRanges, List<String> vehicleTypes, Integer minAvailableSeats, String sortBy, String sortDir) {
+
+		static Search random(Random random, List<Integer> locations, List<String> types) {
+			int origin = random.nextInt(LOCATIONS);
+			int destination = (origin + 1 + random.nextInt(LOCATIONS - 1)) % LOCATIONS;
+			Double minPrice = random.nextBoolean() ? 200_000.0 : null;
+			Double maxPrice = random.nextBoolean() ? 350_000.0 : null;
+			List<String> timeRanges = random.nextBoolean() ? List.of("morning", "evening") : null;
+			List<String> vehicleTypes = random.nextBoolean() ? List.of(types.get(random.nextInt(types.size()))) : null;
+			Integer minSeats = random.nextBoolean() ? 1 + random.nextInt(20) : null;
+			String sortBy = List.of("departureTime", "basePrice", "availableSeats").get(random.nextInt(3));
+			return new Search(locations.get(origin), locations.get(destination),
+					LocalDate.now().plusDays(1 + random.nextInt(DAYS)), minPrice, maxPrice, timeRanges, vehicleTypes,
+					minSeats, sortBy, random.nextBoolean() ? "asc" : "desc");
+		}
+
+		Page<TripDetailedResponseDTO> sql(ITripService tripService, int size) {
+			return tripService.getAllTrips(0, size, sortBy, sortDir, null, originId, destId, null, minPrice, maxPrice,
+					date, timeRanges, vehicleTypes, minAvailableSeats, STATUSES);
+		}
+
+		Page<TripDetailedResponseDTO> indexed(TripSearchIndex index, int size) {
+			return index.search(originId, destId, date, minPrice, maxPrice, timeRanges, vehicleTypes, minAvailableSeats,
+					STATUSES, sortBy, sortDir, 0, size).orElseThrow();
+		}
+
+		Object sortValue(TripDetailedResponseDTO trip, Map<Integer, Integer> availableSeats) {
+			return switch (sortBy) {
+				case "basePrice" -> trip.getPrice();
+				case "availableSeats" -> availableSeats.get(trip.getTripId());
+				default -> trip.getDepartureTime();
+			};
+		}
+	}
+}
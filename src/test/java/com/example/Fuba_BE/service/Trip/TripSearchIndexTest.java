@@ -0,0 +1,183 @@
+package com.example.Fuba_BE.service.Trip;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.domain.entity.Location;
+import com.example.Fuba_BE.domain.entity.Route;
+import com.example.Fuba_BE.domain.entity.Trip;
+import com.example.Fuba_BE.domain.entity.Vehicle;
+import com.example.Fuba_BE.domain.entity.VehicleType;
+import com.example.Fuba_BE.dto.Trip.TripDetailedResponseDTO;
+import com.example.Fuba_BE.mapper.TripMapperImpl;
+import com.example.Fuba_BE.repository.TripRepository;
+
+/**
+ * Customer trip search (origin + destination + date with filters) over a month of synthetic
+ * timetable: the index must return exactly what the Specification's filters select, in the
+ * requested order. {@link TripSearchIndexBenchmarkTest} compares it with the SQL search itself.
+ */
+class TripSearchIndexTest {
+
+	private static final int LOCATIONS = 8;
+	private static final int TRIPS_PER_DAY = 24;
+	private static final int DAYS = 30;
+	private static final List<String> TYPES = List.of("Giường nằm 40 chỗ", "Limousine 22 phòng", "Ghế ngồi 29 chỗ");
+	private static final List<String> STATUSES = List.of("Waiting", "Running");
+
+	private final List<Trip> trips = new ArrayList<>();
+	private TripSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		Random random = new Random(42);
+		List<VehicleType> vehicleTypes = new ArrayList<>();
+		for (String name : TYPES) {
+			vehicleTypes.add(VehicleType.builder().typeId(vehicleTypes.size() + 1).typeName(name).totalSeats(40).build());
+		}
+		List<Location> locations = new ArrayList<>();
+		for (int i = 1; i <= LOCATIONS; i++) {
+			Location location = new Location();
+			location.setLocationId(i);
+			location.setLocationName("Bến xe " + i);
+			locations.add(location);
+		}
+
+		LocalDate today = LocalDate.now();
+		int tripId = 0;
+		for (Location origin : locations) {
+			for (Location destination : locations) {
+				if (origin == destination) {
+					continue;
+				}
+				Route route = new Route();
+				route.setOrigin(origin);
+				route.setDestination(destination);
+				for (int day = 1; day <= DAYS; day++) {
+					for (int n = 0; n < TRIPS_PER_DAY; n++) {
+						Vehicle vehicle = new Vehicle();
+						vehicle.setLicensePlate("51B-" + n);
+						vehicle.setVehicleType(vehicleTypes.get(random.nextInt(vehicleTypes.size())));
+
+						Trip trip = new Trip();
+						trip.setTripId(++tripId);
+						trip.setRoute(route);
+						trip.setVehicle(vehicle);
+						LocalDateTime departure = today.plusDays(day).atTime(random.nextInt(24), random.nextInt(4) * 15);
+						trip.setDepartureTime(departure);
+						trip.setArrivalTime(departure.plusHours(6));
+						trip.setBasePrice(BigDecimal.valueOf(150_000 + random.nextInt(30) * 10_000L));
+						trip.setStatus(random.nextInt(10) == 0 ? "Running" : "Waiting");
+						int available = random.nextInt(41);
+						trip.setAvailableSeats(available);
+						trip.setBookedSeats(40 - available);
+						trips.add(trip);
+					}
+				}
+			}
+		}
+
+		TripRepository repository = mock(TripRepository.class);
+		when(repository.findSearchableTrips(anyList(), any(), any())).thenReturn(trips);
+		index = new TripSearchIndex(repository, new TripMapperImpl(), mock(JdbcTemplate.class), true, DAYS, 60_000, 1_000);
+		index.refresh();
+	}
+
+	@Test
+	void searchMatchesSpecificationFilters() {
+		Random random = new Random(7);
+		for (int i = 0; i < 500; i++) {
+			Search search = Search.random(random);
+			Page<TripDetailedResponseDTO> page = search.run(index, 0, 1000);
+
+			assertThat(page.getContent()).extracting(TripDetailedResponseDTO::getTripId)
+					.as("%s", search)
+					.containsExactlyElementsOf(search.scan(trips).map(Trip::getTripId).toList());
+			assertThat(page.getTotalElements()).isEqualTo(page.getContent().size());
+		}
+	}
+
+	@Test
+	void unsupportedSearchesGoToSql() {
+		LocalDate date = LocalDate.now().plusDays(1);
+		assertThat(index.search(1, 2, date, null, null, null, null, null, STATUSES, "routeName", "asc", 0, 10)).isEmpty();
+		assertThat(index.search(1, 2, date, null, null, null, null, null, List.of("Completed"), "departureTime", "asc", 0, 10))
+				.isEmpty();
+		assertThat(index.search(1, 2, date.plusDays(DAYS + 1), null, null, null, null, null, STATUSES, "departureTime",
+				"asc", 0, 10)).isEmpty();
+		assertThat(index.search(1, null, date, null, null, null, null, null, STATUSES, "departureTime", "asc", 0, 10))
+				.isEmpty();
+	}
+
+	/**
+	 * One customer search, with the Specification's semantics as a plain filter over the trips.
+	 */
+	private record Search(int originId, int destId, LocalDate date, Double minPrice, Double maxPrice,
+			List<String> timeRanges, List<String> vehicleTypes, Integer minAvailableSeats, String sortBy, String sortDir) {
+
+		static Search random(Random random) {
+			int originId = 1 + random.nextInt(LOCATIONS);
+			int destId = 1 + (originId + random.nextInt(LOCATIONS - 1)) % LOCATIONS;
+			Double minPrice = random.nextBoolean() ? 200_000.0 : null;
+			Double maxPrice = random.nextBoolean() ? 350_000.0 : null;
+			List<String> timeRanges = random.nextBoolean() ? List.of("morning", "evening") : null;
+			List<String> vehicleTypes = random.nextBoolean() ? List.of(TYPES.get(random.nextInt(TYPES.size()))) : null;
+			Integer minSeats = random.nextBoolean() ? 1 + random.nextInt(20) : null;
+			String sortBy = List.of("departureTime", "basePrice", "availableSeats").get(random.nextInt(3));
+			return new Search(originId, destId, LocalDate.now().plusDays(1 + random.nextInt(DAYS)), minPrice, maxPrice,
+					timeRanges, vehicleTypes, minSeats, sortBy, random.nextBoolean() ? "asc" : "desc");
+		}
+
+		Page<TripDetailedResponseDTO> run(TripSearchIndex index, int page, int size) {
+			return index.search(originId, destId, date, minPrice, maxPrice, timeRanges, vehicleTypes, minAvailableSeats,
+					STATUSES, sortBy, sortDir, page, size).orElseThrow();
+		}
+
+		Stream<Trip> scan(List<Trip> trips) {
+			Comparator<Trip> order = switch (sortBy) {
+				case "basePrice" -> Comparator.comparing(Trip::getBasePrice);
+				case "availableSeats" -> Comparator.comparing(Trip::getAvailableSeats);
+				default -> Comparator.comparing((Trip trip) -> trip.getDepartureTime().withSecond(0));
+			};
+			order = order.thenComparing(Trip::getDepartureTime).thenComparing(Trip::getTripId);
+			return trips.stream()
+					.filter(trip -> trip.getRoute().getOrigin().getLocationId() == originId)
+					.filter(trip -> trip.getRoute().getDestination().getLocationId() == destId)
+					.filter(trip -> trip.getDepartureTime().toLocalDate().equals(date))
+					.filter(trip -> STATUSES.contains(trip.getStatus()))
+					.filter(trip -> minPrice == null || trip.getBasePrice().doubleValue() >= minPrice)
+					.filter(trip -> maxPrice == null || trip.getBasePrice().doubleValue() <= maxPrice)
+					.filter(trip -> timeRanges == null || inRanges(trip.getDepartureTime().getHour()))
+					.filter(trip -> vehicleTypes == null
+							|| vehicleTypes.contains(trip.getVehicle().getVehicleType().getTypeName()))
+					.filter(trip -> minAvailableSeats == null || trip.getAvailableSeats() >= minAvailableSeats)
+					.sorted(sortDir.equals("desc") ? order.reversed() : order);
+		}
+
+		private boolean inRanges(int hour) {
+			return timeRanges.stream().anyMatch(range -> switch (range) {
+				case "morning" -> hour >= 6 && hour < 12;
+				case "afternoon" -> hour >= 12 && hour < 18;
+				case "evening" -> hour >= 18;
+				default -> hour < 6;
+			});
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package com.example.Fuba_BE.service.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.Fuba_BE.config.ClusterProperties;
+import com.example.Fuba_BE.exception.ServiceUnavailableException;
+import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.ISeatLockService;
+import com.example.Fuba_BE.service.Trip.TripCalendar;
+import com.example.Fuba_BE.service.Trip.TripChanges;
+import com.example.Fuba_BE.service.Trip.TripSearchIndex;
+import com.example.Fuba_BE.service.seat.SeatBroadcastAggregator;
+import com.example.Fuba_BE.service.seat.SeatMapCache;
+import com.example.Fuba_BE.service.seat.SeatStateEngine;
+import com.example.Fuba_BE.service.seat.SeatWriteBehind;
+
+/**
+ * Seat commands for trips owned by another node, and trip changes announced to the other node,
+ * over an in-process network of two nodes.
+ */
+class ClusterSeatCommandsTest {
+
+	private final InProcessClusterBus.Network network = new InProcessClusterBus.Network();
+	private InProcessClusterBus busA;
+	private InProcessClusterBus busB;
+	private SeatWriteBehind writeBehind;
+	private SeatStateEngine engineA;
+	private TripOwnership ownershipA;
+	private int tripOfB;
+
+	@BeforeEach
+	void setUp() {
+		ownershipA = new TripOwnership(properties("a"));
+		tripOfB = IntStream.rangeClosed(1, 1000).filter(tripId -> "b".equals(ownershipA.ownerOf(tripId)))
+				.findFirst().orElseThrow();
+
+		busA = new InProcessClusterBus("a", 200, network);
+		writeBehind = mock(SeatWriteBehind.class);
+		engineA = new SeatStateEngine(mock(TripSeatRepository.class), writeBehind, mock(SeatMapCache.class),
+				ownershipA, busA);
+	}
+
+	@AfterEach
+	void tearDown() {
+		busA.shutdown();
+		if (busB != null) {
+			busB.shutdown();
+		}
+	}
+
+	@Test
+	void flushOfAnotherNodesTripWaitsForItsOwner() {
+		busB = new InProcessClusterBus("b", 200, network);
+		busB.setHandler(message -> ClusterMessage.reply(message));
+
+		assertThatCode(() -> engineA.flush(tripOfB)).doesNotThrowAnyException();
+		verify(writeBehind, never()).flushTrip(tripOfB);
+	}
+
+	@Test
+	void flushFailsWhenTheOwnerDoesNotAnswer() {
+		assertThatThrownBy(() -> engineA.flush(tripOfB)).isInstanceOf(ServiceUnavailableException.class);
+	}
+
+	@Test
+	void flushFailsWhenTheOwnerCouldNotWrite() {
+		busB = new InProcessClusterBus("b", 200, network);
+		busB.setHandler(message -> {
+			throw new IllegalStateException("database unavailable");
+		});
+
+		assertThatThrownBy(() -> engineA.flush(tripOfB)).isInstanceOf(ServiceUnavailableException.class);
+	}
+
+	@Test
+	void slowCommandOfOneTripDoesNotHoldUpOtherTrips() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		busB = new InProcessClusterBus("b", 2000, network);
+		busB.setHandler(message -> {
+			if (message.getTripId() == 1) {
+				await(release);
+			}
+			return ClusterMessage.reply(message);
+		});
+
+		CompletableFuture<ClusterMessage> slow = busA.request("b",
+				ClusterMessage.builder().type(ClusterMessage.Type.FLUSH).tripId(1).build());
+		ClusterMessage fast = busA.request("b",
+				ClusterMessage.builder().type(ClusterMessage.Type.FLUSH).tripId(2).build()).get(1, TimeUnit.SECONDS);
+
+		assertThat(fast.getTripId()).isEqualTo(2);
+		assertThat(slow).isNotDone();
+		release.countDown();
+		assertThat(slow.get(1, TimeUnit.SECONDS).getTripId()).isEqualTo(1);
+	}
+
+	@Test
+	void commandsOfATripRunInTheOrderTheyWereSent() throws Exception {
+		List<Integer> handled = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(200);
+		busB = new InProcessClusterBus("b", 2000, network);
+		busB.setHandler(message -> {
+			handled.add(message.getSeatId());
+			done.countDown();
+			return null;
+		});
+
+		for (int seatId = 0; seatId < 200; seatId++) {
+			busA.send("b", ClusterMessage.builder().type(ClusterMessage.Type.SYNC_SEAT).tripId(tripOfB).seatId(seatId).build());
+		}
+
+		assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(handled).isSorted().hasSize(200);
+	}
+
+	@Test
+	void heartbeatsDoNotQueueBehindBusyLanes() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch heard = new CountDownLatch(1);
+		busB = new InProcessClusterBus("b", 2000, network);
+		busB.setHandler(message -> {
+			if (message.getType() == ClusterMessage.Type.HEARTBEAT) {
+				heard.countDown();
+			} else {
+				await(release);
+			}
+			return null;
+		});
+
+		// More trips than there are lanes, so every lane is busy
+		for (int tripId = 0; tripId < 256; tripId++) {
+			busA.send("b", ClusterMessage.builder().type(ClusterMessage.Type.FLUSH).tripId(tripId).build());
+		}
+		busA.broadcast(ClusterMessage.builder().type(ClusterMessage.Type.HEARTBEAT).build());
+
+		assertThat(heard.await(1, TimeUnit.SECONDS)).isTrue();
+		release.countDown();
+	}
+
+	@Test
+	void tripAndSeatChangesReachTheReadModelsOfTheOtherNode() {
+		busB = new InProcessClusterBus("b", 2000, network);
+		TripSearchIndex indexB = mock(TripSearchIndex.class);
+		TripCalendar calendarB = mock(TripCalendar.class);
+		TripChanges changesB = new TripChanges(indexB, calendarB, busB, 60_000);
+		new SeatClusterCommandHandler(busB, new TripOwnership(properties("b")), mock(ISeatLockService.class),
+				mock(SeatStateEngine.class), mock(SeatBroadcastAggregator.class), changesB).register();
+		TripSearchIndex indexA = mock(TripSearchIndex.class);
+		TripChanges changesA = new TripChanges(indexA, mock(TripCalendar.class), busA, 60_000);
+
+		// Seat changes are applied here at once, and announced together on the next tick
+		changesA.seatsChanged(tripOfB);
+		changesA.seatsChanged(tripOfB);
+		changesA.seatsChanged(tripOfB + 1);
+		verify(indexA, times(2)).markSeatsChanged(tripOfB);
+		verify(indexB, after(200).never()).markSeatsChanged(any());
+
+		changesA.announceSeatChanges();
+		changesA.announceSeatChanges();
+		changesA.tripsChanged();
+
+		verify(indexB, timeout(1000)).markSeatsChanged(tripOfB);
+		verify(indexB, timeout(1000)).markSeatsChanged(tripOfB + 1);
+		verify(calendarB, timeout(1000)).markSeatsChanged(tripOfB);
+		verify(indexB, timeout(1000)).markTripsChanged();
+		verify(calendarB, timeout(1000)).invalidateAll();
+		verify(indexB, after(200).times(1)).markSeatsChanged(tripOfB);
+	}
+
+	@Test
+	void nodeRejoiningOverTheBusGetsItsTripsBackOnTheHeartbeatThread() {
+		new SeatClusterCommandHandler(busA, ownershipA, mock(ISeatLockService.class), engineA,
+				mock(SeatBroadcastAggregator.class), mock(TripChanges.class)).register();
+		List<Boolean> tripOfBLocal = new CopyOnWriteArrayList<>();
+		List<Boolean> actingAsOwner = new CopyOnWriteArrayList<>();
+		ownershipA.onOwnershipChange(() -> {
+			tripOfBLocal.add(ownershipA.isLocal(tripOfB));
+			actingAsOwner.add(ownershipA.isActingAsOwner());
+		});
+		// "b" went quiet: "a" took over its trips
+		ownershipA.checkLiveness(System.currentTimeMillis() + properties("a").getHeartbeatTimeoutMs() + 1);
+		assertThat(ownershipA.getLiveNodes()).containsExactly("a");
+		assertThat(tripOfBLocal).containsExactly(true);
+		tripOfBLocal.clear();
+		actingAsOwner.clear();
+
+		busB = new InProcessClusterBus("b", 200, network);
+		busB.broadcast(ClusterMessage.builder().type(ClusterMessage.Type.HEARTBEAT).build());
+
+		// The bus only notes the heartbeat
+		assertThat(ownershipA.getLiveNodes()).containsExactly("a");
+		assertThat(tripOfBLocal).isEmpty();
+
+		new ClusterHeartbeat(busA, ownershipA, properties("a")).beat();
+
+		assertThat(ownershipA.getLiveNodes()).containsExactly("a", "b");
+		assertThat(tripOfBLocal).containsExactly(false);
+		assertThat(actingAsOwner).containsExactly(false);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(2, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static ClusterProperties properties(String nodeId) {
+		ClusterProperties properties = new ClusterProperties();
+		properties.setNodeId(nodeId);
+		properties.setNodes(List.of("a", "b"));
+		return properties;
+	}
+}
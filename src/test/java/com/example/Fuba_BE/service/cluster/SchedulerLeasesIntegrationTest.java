@@ -0,0 +1,181 @@
+package com.example.Fuba_BE.service.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.Fuba_BE.config.ClusterProperties;
+import com.example.Fuba_BE.dto.scheduling.SchedulerJobStatus;
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * Leases of a two-node cluster, "a" and "b", sharing one {@code scheduler_leases} table: a job
+ * runs on one node at a time, its holder keeps it, and a lease moves only once it has expired.
+ */
+class SchedulerLeasesIntegrationTest extends PostgresIntegrationTest {
+
+	private static final Duration LEASE = Duration.ofMinutes(5);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private SchedulerLeases a;
+	private SchedulerLeases b;
+	private TripOwnership ownershipOfA;
+	private String job;
+
+	@BeforeEach
+	void setUp() {
+		ownershipOfA = ownership("a");
+		a = new SchedulerLeases(jdbcTemplate, ownershipOfA);
+		b = new SchedulerLeases(jdbcTemplate, ownership("b"));
+		// Shards are preferred by hashing, so two of them may prefer the same node; the tests
+		// need one shard per node
+		do {
+			job = "test.job-" + TestFixtures.unique();
+		} while (ownershipOfA.ownerOf(job + "#0").equals(ownershipOfA.ownerOf(job + "#1")));
+	}
+
+	@Test
+	void liveLeaseKeepsOtherNodesOut() {
+		AtomicInteger runs = new AtomicInteger();
+
+		assertThat(a.runExclusive(job, LEASE, runs::incrementAndGet)).isTrue();
+		assertThat(b.runExclusive(job, LEASE, runs::incrementAndGet)).isFalse();
+
+		assertThat(runs.get()).isEqualTo(1);
+		assertThat(owner(job)).isEqualTo("a");
+	}
+
+	@Test
+	void holderRenewsItsLease() {
+		a.runExclusive(job, Duration.ofMinutes(1), () -> { });
+		Timestamp first = leaseUntil(job);
+
+		assertThat(a.runExclusive(job, LEASE, () -> { })).isTrue();
+
+		assertThat(leaseUntil(job)).isAfter(first);
+		assertThat(owner(job)).isEqualTo("a");
+	}
+
+	@Test
+	void expiredLeaseIsTakenOver() {
+		a.runExclusive(job, LEASE, () -> { });
+		expire(job, Duration.ofSeconds(1));
+
+		assertThat(b.runExclusive(job, LEASE, () -> { })).isTrue();
+
+		assertThat(owner(job)).isEqualTo("b");
+		assertThat(a.runExclusive(job, LEASE, () -> { })).isFalse();
+	}
+
+	@Test
+	void preferredNodeWaitsForTheLeaseOfTheNodeCoveringForIt() {
+		// "a" ran every shard while "b" was away
+		List<Integer> ranOnA = new ArrayList<>();
+		a.runSharded(job, LEASE, ranOnA::add);
+		assertThat(ranOnA).containsExactly(0, 1);
+		String shardOfB = job + "#" + shardPreferring("b");
+
+		List<Integer> ranOnB = new ArrayList<>();
+		b.runSharded(job, LEASE, ranOnB::add);
+		assertThat(ranOnB).isEmpty();
+
+		// Lapsed: "b" takes its shard back, "a" does not renew it in the meantime
+		expire(shardOfB, Duration.ofSeconds(1));
+		a.runSharded(job, LEASE, shard -> { });
+		assertThat(owner(shardOfB)).isEqualTo("a");
+		assertThat(expired(shardOfB)).isTrue();
+
+		b.runSharded(job, LEASE, ranOnB::add);
+		assertThat(ranOnB).containsExactly(shardPreferring("b"));
+		assertThat(owner(shardOfB)).isEqualTo("b");
+	}
+
+	@Test
+	void otherNodesCoverForAShardOnceItsLeaseHasLapsedForALeasePeriod() {
+		String shardOfB = job + "#" + shardPreferring("b");
+		a.runSharded(job, LEASE, shard -> { });
+		expire(shardOfB, Duration.ofSeconds(1));
+		assertThat(b.runSharded(job, LEASE, shard -> { })).isEqualTo(1);
+		assertThat(owner(shardOfB)).isEqualTo("b");
+
+		expire(shardOfB, LEASE.minusMinutes(1));
+		assertThat(a.runSharded(job, LEASE, shard -> { })).isEqualTo(1);
+		assertThat(owner(shardOfB)).isEqualTo("b");
+
+		expire(shardOfB, LEASE.plusMinutes(1));
+		assertThat(a.runSharded(job, LEASE, shard -> { })).isEqualTo(2);
+		assertThat(owner(shardOfB)).isEqualTo("a");
+	}
+
+	@Test
+	void activeFlagFollowsTheDatabaseClock() {
+		a.runExclusive(job, LEASE, () -> { });
+		String expired = job + "-expired";
+		a.runExclusive(expired, LEASE, () -> { });
+		expire(expired, Duration.ofSeconds(1));
+
+		assertThat(status(a, job).isLeaseActive()).isTrue();
+		assertThat(status(a, job).isOwnedByThisNode()).isTrue();
+		assertThat(status(b, job).isOwnedByThisNode()).isFalse();
+		assertThat(status(a, expired).isLeaseActive()).isFalse();
+		assertThat(status(a, expired).isOwnedByThisNode()).isFalse();
+	}
+
+	private int shardPreferring(String node) {
+		for (int shard = 0; shard < ownershipOfA.getNodes().size(); shard++) {
+			if (node.equals(ownershipOfA.ownerOf(job + "#" + shard))) {
+				return shard;
+			}
+		}
+		throw new AssertionError("no shard of " + job + " prefers " + node);
+	}
+
+	/**
+	 * Move the lease end of {@code name} to {@code ago} before now on the database clock.
+	 */
+	private void expire(String name, Duration ago) {
+		jdbcTemplate.update("UPDATE scheduler_leases SET lease_until = LOCALTIMESTAMP - ? * INTERVAL '1 millisecond' "
+				+ "WHERE job_name = ?", ago.toMillis(), name);
+	}
+
+	private String owner(String name) {
+		return jdbcTemplate.queryForObject("SELECT owner_node FROM scheduler_leases WHERE job_name = ?", String.class,
+				name);
+	}
+
+	private boolean expired(String name) {
+		return jdbcTemplate.queryForObject("SELECT lease_until < LOCALTIMESTAMP FROM scheduler_leases WHERE job_name = ?",
+				Boolean.class, name);
+	}
+
+	private Timestamp leaseUntil(String name) {
+		return jdbcTemplate.queryForObject("SELECT lease_until FROM scheduler_leases WHERE job_name = ?",
+				Timestamp.class, name);
+	}
+
+	private static SchedulerJobStatus status(SchedulerLeases leases, String name) {
+		return leases.getJobs().stream()
+				.filter(status -> status.getJobName().equals(name))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static TripOwnership ownership(String node) {
+		ClusterProperties properties = new ClusterProperties();
+		properties.setNodeId(node);
+		properties.setNodes(List.of("a", "b"));
+		return new TripOwnership(properties);
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.Fuba_BE.service.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.Fuba_BE.config.ClusterProperties;
+
+/**
+ * Rendezvous ownership over the live nodes of a three-node cluster, as seen from node "a".
+ */
+class TripOwnershipTest {
+
+	private static final int TRIPS = 3000;
+	private static final long TIMEOUT_MS = 5000;
+
+	private TripOwnership ownership;
+	private final AtomicInteger changes = new AtomicInteger();
+	private long start;
+
+	@BeforeEach
+	void setUp() {
+		ClusterProperties properties = new ClusterProperties();
+		properties.setNodeId("a");
+		properties.setNodes(List.of("a", "b", "c"));
+		properties.setHeartbeatTimeoutMs(TIMEOUT_MS);
+		ownership = new TripOwnership(properties);
+		ownership.onOwnershipChange(changes::incrementAndGet);
+		start = System.currentTimeMillis();
+	}
+
+	@Test
+	void everyConfiguredNodeOwnsTripsAtStartup() {
+		assertThat(ownership.getLiveNodes()).containsExactly("a", "b", "c");
+		assertThat(owners().values()).containsOnly("a", "b", "c");
+		assertThat(owners().values().stream().filter("b"::equals).count()).isBetween(800L, 1200L);
+	}
+
+	@Test
+	void tripsOfASilentNodeMoveToTheLiveNodesOnly() {
+		Map<Integer, String> before = owners();
+
+		ownership.heartbeat("c", start + TIMEOUT_MS);
+		ownership.checkLiveness(start + TIMEOUT_MS + 1);
+
+		assertThat(ownership.getLiveNodes()).containsExactly("a", "c");
+		assertThat(changes).hasValue(1);
+		Map<Integer, String> after = owners();
+		before.forEach((tripId, owner) -> {
+			if (owner.equals("b")) {
+				assertThat(after.get(tripId)).isIn("a", "c");
+			} else {
+				assertThat(after.get(tripId)).as("trip %d", tripId).isEqualTo(owner);
+			}
+		});
+	}
+
+	@Test
+	void nodeHeardAgainTakesBackItsTrips() {
+		Map<Integer, String> before = owners();
+		ownership.checkLiveness(start + TIMEOUT_MS + 1);
+		assertThat(ownership.getLiveNodes()).containsExactly("a");
+		assertThat(ownership.isLocal(before.entrySet().stream()
+				.filter(entry -> entry.getValue().equals("b")).findFirst().orElseThrow().getKey())).isTrue();
+
+		ownership.heartbeat("b", start + TIMEOUT_MS + 2);
+		ownership.heartbeat("c", start + TIMEOUT_MS + 2);
+		// Heard, but back only from the next check
+		assertThat(ownership.getLiveNodes()).containsExactly("a");
+
+		ownership.checkLiveness(start + TIMEOUT_MS + 3);
+		assertThat(ownership.getLiveNodes()).containsExactly("a", "b", "c");
+		assertThat(owners()).isEqualTo(before);
+		assertThat(changes).hasValue(2);
+	}
+
+	@Test
+	void unknownNodesAndRepeatedChecksChangeNothing() {
+		ownership.heartbeat("z", start + 1);
+		ownership.checkLiveness(start + 1);
+		ownership.checkLiveness(start + 2);
+
+		assertThat(ownership.getLiveNodes()).containsExactly("a", "b", "c");
+		assertThat(changes).hasValue(0);
+	}
+
+	@Test
+	void standaloneNodeOwnsEverything() {
+		TripOwnership standalone = TripOwnership.standalone();
+		assertThat(standalone.isClustered()).isFalse();
+		assertThat(IntStream.rangeClosed(1, 100).allMatch(standalone::isLocal)).isTrue();
+	}
+
+	private Map<Integer, String> owners() {
+		return IntStream.rangeClosed(1, TRIPS).boxed()
+				.collect(Collectors.toMap(Function.identity(), ownership::ownerOf));
+	}
+}
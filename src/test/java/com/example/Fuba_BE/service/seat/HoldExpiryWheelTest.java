@@ -0,0 +1,140 @@
+package com.example.Fuba_BE.service.seat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link HoldExpiryWheel} driven one second at a time: a hold fires on the first tick after its
+ * expiry second, exactly once, whichever lap of the 512 buckets it lands on.
+ */
+class HoldExpiryWheelTest {
+
+	private static final int TRIP_ID = 9;
+	private static final int LAP = 512;
+
+	/**
+	 * Bucket 0 of some lap, so ticks from here run through the whole wheel in order.
+	 */
+	private static final long START = 1_800_000_000L / LAP * LAP;
+
+	private HoldExpiryWheel wheel;
+
+	@BeforeEach
+	void setUp() {
+		wheel = new HoldExpiryWheel();
+		// First tick only anchors the wheel
+		assertThat(wheel.advance(START)).isEmpty();
+	}
+
+	@Test
+	void holdFiresOnTheTickAfterItsExpirySecond() {
+		wheel.schedule(TRIP_ID, 1, START + 3);
+		wheel.schedule(TRIP_ID, 2, START + 3);
+		wheel.schedule(TRIP_ID, 3, START + 4);
+
+		assertThat(tick(START + 1, START + 10)).isEqualTo(Map.of(
+				START + 4, List.of(1, 2),
+				START + 5, List.of(3)));
+		assertThat(wheel.size()).isZero();
+	}
+
+	@Test
+	void deadlinesAcrossTheEndOfTheWheelFireInOrder() {
+		long lastBucket = START + LAP - 1;
+		wheel.schedule(TRIP_ID, 1, lastBucket - 1);
+		wheel.schedule(TRIP_ID, 2, lastBucket);
+		wheel.schedule(TRIP_ID, 3, lastBucket + 1);
+		wheel.schedule(TRIP_ID, 4, lastBucket + 2);
+
+		assertThat(tick(START + 1, lastBucket + 10)).isEqualTo(Map.of(
+				lastBucket, List.of(1),
+				lastBucket + 1, List.of(2),
+				lastBucket + 2, List.of(3),
+				lastBucket + 3, List.of(4)));
+	}
+
+	@Test
+	void deadlinesLapsAheadWaitForTheirLap() {
+		// All three share a bucket
+		wheel.schedule(TRIP_ID, 1, START + 10);
+		wheel.schedule(TRIP_ID, 2, START + 10 + LAP);
+		wheel.schedule(TRIP_ID, 3, START + 10 + 3L * LAP);
+
+		assertThat(tick(START + 1, START + 20 + 3L * LAP)).isEqualTo(Map.of(
+				START + 11, List.of(1),
+				START + 11 + LAP, List.of(2),
+				START + 11 + 3L * LAP, List.of(3)));
+	}
+
+	@Test
+	void cancelledHoldNeverFires() {
+		wheel.schedule(TRIP_ID, 1, START + 5);
+		wheel.schedule(TRIP_ID, 2, START + 5);
+		wheel.cancel(1);
+
+		assertThat(wheel.size()).isEqualTo(1);
+		assertThat(tick(START + 1, START + 2 * LAP)).isEqualTo(Map.of(START + 6, List.of(2)));
+	}
+
+	@Test
+	void rescheduledHoldFiresOnceAtItsLatestDeadline() {
+		// Extended, and extended again past a lap
+		wheel.schedule(TRIP_ID, 1, START + 5);
+		wheel.schedule(TRIP_ID, 1, START + 20);
+		wheel.schedule(TRIP_ID, 1, START + 5 + LAP);
+		// Shortened
+		wheel.schedule(TRIP_ID, 2, START + 30);
+		wheel.schedule(TRIP_ID, 2, START + 8);
+		// Released, then held again with the same deadline
+		wheel.schedule(TRIP_ID, 3, START + 12);
+		wheel.cancel(3);
+		wheel.schedule(TRIP_ID, 3, START + 12);
+
+		assertThat(wheel.size()).isEqualTo(3);
+		assertThat(tick(START + 1, START + 2 * LAP)).isEqualTo(Map.of(
+				START + 9, List.of(2),
+				START + 13, List.of(3),
+				START + 6 + LAP, List.of(1)));
+	}
+
+	@Test
+	void deadlineAlreadyPastFiresOnTheNextTick() {
+		tick(START + 1, START + 100);
+		wheel.schedule(TRIP_ID, 1, START + 40);
+
+		assertThat(tick(START + 101, START + 101)).isEqualTo(Map.of(START + 101, List.of(1)));
+	}
+
+	@Test
+	void tickAfterALongPauseReleasesEverythingDue() {
+		wheel.schedule(TRIP_ID, 1, START + 10);
+		wheel.schedule(TRIP_ID, 2, START + 700);
+		wheel.schedule(TRIP_ID, 3, START + 5_000);
+
+		// Several laps without a tick
+		assertThat(wheel.advance(START + 3_000)).extracting(entry -> entry.seatId).containsExactlyInAnyOrder(1, 2);
+		assertThat(tick(START + 3_001, START + 6_000)).isEqualTo(Map.of(START + 5_001, List.of(3)));
+	}
+
+	/**
+	 * Advance second by second and collect the seats released at each tick.
+	 */
+	private Map<Long, List<Integer>> tick(long from, long to) {
+		Map<Long, List<Integer>> released = new TreeMap<>();
+		for (long now = from; now <= to; now++) {
+			List<HoldExpiryWheel.Entry> due = wheel.advance(now);
+			assertThat(due).allSatisfy(entry -> assertThat(entry.tripId).isEqualTo(TRIP_ID));
+			List<Integer> seatIds = due.stream().map(entry -> entry.seatId).sorted().toList();
+			if (!seatIds.isEmpty()) {
+				released.put(now, seatIds);
+			}
+		}
+		return released;
+	}
+}
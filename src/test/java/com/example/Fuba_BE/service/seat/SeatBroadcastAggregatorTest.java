@@ -0,0 +1,138 @@
+package com.example.Fuba_BE.service.seat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Fuba_BE.controller.SeatLockWebSocketController;
+import com.example.Fuba_BE.domain.entity.TripSeat;
+import com.example.Fuba_BE.dto.seat.SeatBatchLockRequest;
+import com.example.Fuba_BE.dto.seat.SeatDeltaFrame;
+import com.example.Fuba_BE.dto.seat.SeatStatusMessage;
+import com.example.Fuba_BE.service.ISeatLockService;
+import com.example.Fuba_BE.service.Trip.TripChanges;
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+
+/**
+ * Seat changes of one window leave as a single frame per trip, whatever produced them. The
+ * window is long enough that only {@code stop()} flushes, so each test sees exactly one window.
+ */
+class SeatBroadcastAggregatorTest {
+
+	private static final int TRIP_ID = 7;
+	private static final String DELTAS = "/topic/trips/7/seat-deltas";
+	private static final String LEGACY = "/topic/trips/7/seats";
+
+	private SimpMessagingTemplate messagingTemplate;
+	private TripChanges tripChanges;
+	private SeatBroadcastAggregator aggregator;
+
+	@BeforeEach
+	void setUp() {
+		messagingTemplate = mock(SimpMessagingTemplate.class);
+		tripChanges = mock(TripChanges.class);
+		aggregator = new SeatBroadcastAggregator(messagingTemplate, mock(SeatMapCache.class), TripOwnership.standalone(),
+				mock(ClusterBus.class), tripChanges);
+		ReflectionTestUtils.setField(aggregator, "windowMillis", 60_000L);
+		ReflectionTestUtils.setField(aggregator, "historyFrames", 16);
+		ReflectionTestUtils.setField(aggregator, "idleTripMinutes", 120L);
+	}
+
+	@Test
+	void burstOfChangesIsOneFrame() {
+		aggregator.start();
+		aggregator.publish(SeatStatusMessage.builder()
+				.type(SeatStatusMessage.MessageType.SEATS_EXPIRED)
+				.tripId(TRIP_ID)
+				.seatIds(List.of(1, 2, 3, 4, 5))
+				.seatNumbers(List.of("A01", "A02", "A03", "A04", "A05"))
+				.status("Available")
+				.success(true)
+				.build());
+		aggregator.publish(TRIP_ID, seat(6, "Booked"));
+		aggregator.publish(TRIP_ID, seat(1, "Held"));
+		aggregator.stop();
+
+		SeatDeltaFrame frame = sentFrame(DELTAS);
+		// Latest state per seat, a seat that changed again moves to the end
+		assertThat(frame.getSeats()).extracting(SeatDeltaFrame.SeatDelta::getSeatId).containsExactly(2, 3, 4, 5, 6, 1);
+		assertThat(frame.getSeats().get(5).getStatus()).isEqualTo("Held");
+		verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+	}
+
+	@Test
+	void legacyTopicGetsTheSameFrameWhenTurnedOn() {
+		ReflectionTestUtils.setField(aggregator, "legacyTopic", true);
+		aggregator.start();
+		aggregator.publish(TRIP_ID, seat(1, "Held"));
+		aggregator.publish(TRIP_ID, seat(2, "Held"));
+		aggregator.stop();
+
+		assertThat(sentFrame(LEGACY)).isSameAs(sentFrame(DELTAS));
+		verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+	}
+
+	@Test
+	void forwardedChangesAreFramedButNotAnnouncedAgain() {
+		aggregator.start();
+		aggregator.publishForwarded(TRIP_ID, List.of(SeatDeltaFrame.SeatDelta.builder().seatId(1).status("Held").build()));
+		aggregator.publish(TRIP_ID, seat(2, "Held"));
+		aggregator.stop();
+
+		assertThat(sentFrame(DELTAS).getSeats()).extracting(SeatDeltaFrame.SeatDelta::getSeatId).containsExactly(1, 2);
+		// Only the change made on this node is announced; the forwarding node announced its own
+		verify(tripChanges, times(1)).seatsChanged(TRIP_ID);
+	}
+
+	@Test
+	void lockBatchIsOneMessageToTheSenderAndOneFrameToSubscribers() {
+		List<Integer> seatIds = List.of(11, 12, 13, 14);
+		ISeatLockService seatLockService = mock(ISeatLockService.class);
+		when(seatLockService.lockSeats(seatIds, TRIP_ID, "u1", "s1")).thenReturn(SeatStatusMessage.locked(TRIP_ID,
+				seatIds, List.of("B01", "B02", "B03", "B04"), List.of(1, 1, 2, 2), "u1", null));
+		SeatBatchLockRequest request = new SeatBatchLockRequest();
+		request.setSeatIds(seatIds);
+		request.setTripId(TRIP_ID);
+		request.setUserId("u1");
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+		headers.setSessionId("s1");
+
+		aggregator.start();
+		SeatStatusMessage result = new SeatLockWebSocketController(seatLockService, aggregator).lockSeats(request, headers);
+		aggregator.stop();
+
+		assertThat(result.getType()).isEqualTo(SeatStatusMessage.MessageType.SEATS_LOCKED);
+		assertThat(result.getSeatIds()).isEqualTo(seatIds);
+		assertThat(sentFrame(DELTAS).getSeats()).extracting(SeatDeltaFrame.SeatDelta::getSeatId).isEqualTo(seatIds);
+		verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+	}
+
+	private SeatDeltaFrame sentFrame(String destination) {
+		ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+		verify(messagingTemplate).convertAndSend(eq(destination), payload.capture());
+		return (SeatDeltaFrame) payload.getValue();
+	}
+
+	private static TripSeat seat(int seatId, String status) {
+		TripSeat seat = new TripSeat();
+		seat.setSeatId(seatId);
+		seat.setSeatNumber(String.format("A%02d", seatId));
+		seat.setStatus(status);
+		return seat;
+	}
+}
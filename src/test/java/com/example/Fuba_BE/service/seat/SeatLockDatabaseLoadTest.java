@@ -0,0 +1,133 @@
+package com.example.Fuba_BE.service.seat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.Fuba_BE.support.PostgresIntegrationTest;
+import com.example.Fuba_BE.support.TestFixtures;
+
+/**
+ * The "before" side of {@link SeatStateEngineLoadTest}: the same hold-and-release load on one
+ * trip's 40 seats, through the database path the engine replaced. Each lock or release is a
+ * SERIALIZABLE transaction that reads the seat with SELECT ... FOR UPDATE and then writes it.
+ * A lock lost to a serialization failure counts as a failed attempt, as the old service
+ * reported it; a release is retried until it commits.
+ * Tagged "load": runs with {@code mvn test -Pload-tests}, not in the default test phase.
+ */
+@Tag("load")
+class SeatLockDatabaseLoadTest extends PostgresIntegrationTest {
+
+	private static final Logger log = LoggerFactory.getLogger(SeatLockDatabaseLoadTest.class);
+
+	private static final int SEAT_COUNT = 40;
+	private static final int THREADS = 16;
+	private static final int OPS_PER_THREAD = 250;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void lockThroughputPerTrip() throws Exception {
+		TestFixtures fixtures = new TestFixtures(jdbcTemplate);
+		int tripId = fixtures.trip(fixtures.route(), LocalDateTime.now().plusDays(3));
+		List<Integer> seatIds = fixtures.seats(tripId, SEAT_COUNT);
+		TransactionTemplate serializable = new TransactionTemplate(transactionManager);
+		serializable.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+
+		AtomicLong granted = new AtomicLong();
+		AtomicLong failed = new AtomicLong();
+		AtomicLong retries = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			String user = "user-" + t;
+			futures.add(executor.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < OPS_PER_THREAD; i++) {
+					int seatId = seatIds.get(random.nextInt(SEAT_COUNT));
+					Boolean locked;
+					try {
+						locked = serializable.execute(status -> lock(seatId, user));
+					} catch (Exception e) {
+						failed.incrementAndGet();
+						continue;
+					}
+					if (Boolean.TRUE.equals(locked)) {
+						granted.incrementAndGet();
+						// A release lost to a serialization failure would leave the seat held for good
+						while (!release(serializable, seatId, user)) {
+							retries.incrementAndGet();
+						}
+					}
+				}
+				return null;
+			}));
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(10, TimeUnit.MINUTES);
+		}
+		double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+		executor.shutdown();
+
+		long attempts = (long) OPS_PER_THREAD * THREADS;
+		log.info("Seat lock throughput on one trip through the database: {} lock attempts/s ({} granted, {} failed, {} release retries) with {} threads",
+				Math.round(attempts / seconds), granted.get(), failed.get(), retries.get(), THREADS);
+		assertThat(granted.get()).isPositive();
+	}
+
+	private boolean lock(int seatId, String user) {
+		String status = jdbcTemplate.queryForObject(
+				"SELECT status FROM tripseats WHERE seatid = ? FOR UPDATE", String.class, seatId);
+		if (!"Available".equals(status)) {
+			return false;
+		}
+		jdbcTemplate.update("""
+				UPDATE tripseats SET status = 'Held', lockedby = ?, holdexpiry = CURRENT_TIMESTAMP + INTERVAL '5 minutes'
+				WHERE seatid = ?
+				""", user, seatId);
+		return true;
+	}
+
+	private boolean release(TransactionTemplate serializable, int seatId, String user) {
+		try {
+			serializable.executeWithoutResult(status -> {
+				jdbcTemplate.queryForObject("SELECT status FROM tripseats WHERE seatid = ? FOR UPDATE", String.class, seatId);
+				jdbcTemplate.update("""
+						UPDATE tripseats SET status = 'Available', lockedby = NULL, holdexpiry = NULL
+						WHERE seatid = ? AND lockedby = ?
+						""", seatId, user);
+			});
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.example.Fuba_BE.service.seat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.Fuba_BE.domain.entity.Trip;
+import com.example.Fuba_BE.domain.entity.TripSeat;
+import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+
+/**
+ * Flash-sale style load on one trip: many clients hammering the same 40 seats, through the
+ * in-memory path. {@link SeatLockDatabaseLoadTest} runs the same load through the previous
+ * SERIALIZABLE SELECT ... FOR UPDATE path for comparison.
+ * Tagged "load": runs with {@code mvn test -Pload-tests}, not in the default test phase.
+ */
+@Tag("load")
+class SeatStateEngineLoadTest {
+
+	private static final Logger log = LoggerFactory.getLogger(SeatStateEngineLoadTest.class);
+
+	private static final int TRIP_ID = 1;
+	private static final int SEAT_COUNT = 40;
+	private static final int THREADS = 16;
+
+	private SeatStateEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		Trip trip = new Trip();
+		trip.setTripId(TRIP_ID);
+
+		List<TripSeat> seats = new ArrayList<>();
+		for (int i = 1; i <= SEAT_COUNT; i++) {
+			seats.add(TripSeat.builder().seatId(i).trip(trip).seatNumber("A" + i).build());
+		}
+
+		TripSeatRepository repository = mock(TripSeatRepository.class);
+		when(repository.findByTrip_TripIdOrderByFloorNumberAscSeatNumberAsc(TRIP_ID)).thenReturn(seats);
+		// Real queue (never flushed here) so the measurement includes write-behind coalescing
+		SeatWriteBehind writeBehind = new SeatWriteBehind(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+				mock(SeatEngineScheduler.class), 200);
+		engine = new SeatStateEngine(repository, writeBehind, mock(SeatMapCache.class),
+				TripOwnership.standalone(), mock(ClusterBus.class));
+	}
+
+	@Test
+	void concurrentHoldsHaveExactlyOneWinnerPerSeat() throws Exception {
+		AtomicIntegerArray winners = new AtomicIntegerArray(SEAT_COUNT + 1);
+		runConcurrently(thread -> {
+			String user = "user-" + thread;
+			for (int seatId = 1; seatId <= SEAT_COUNT; seatId++) {
+				if (engine.hold(TRIP_ID, seatId, user, "session-" + thread, 5).isSuccess()) {
+					winners.incrementAndGet(seatId);
+				}
+			}
+		});
+
+		for (int seatId = 1; seatId <= SEAT_COUNT; seatId++) {
+			assertThat(winners.get(seatId)).as("winners of seat %d", seatId).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void batchHoldIsAllOrNothing() {
+		assertThat(engine.hold(TRIP_ID, 3, "other", "session-other", 5).isSuccess()).isTrue();
+
+		List<SeatStateResult> rejected = engine.holdAll(TRIP_ID, List.of(4, 1, 2, 3), "family", "session-family", 5);
+		assertThat(rejected).singleElement()
+				.satisfies(result -> assertThat(result.getOutcome()).isEqualTo(SeatStateResult.Outcome.HELD_BY_OTHER))
+				.satisfies(result -> assertThat(result.getSeatId()).isEqualTo(3));
+		// Seats 1 and 2 were taken before seat 3 failed and must be free again
+		assertThat(engine.hold(TRIP_ID, 1, "third", "session-third", 5).isSuccess()).isTrue();
+		assertThat(engine.hold(TRIP_ID, 2, "third", "session-third", 5).isSuccess()).isTrue();
+
+		List<SeatStateResult> held = engine.holdAll(TRIP_ID, List.of(6, 5, 7), "family", "session-family", 5);
+		assertThat(held).extracting(SeatStateResult::getSeatId).containsExactly(5, 6, 7);
+	}
+
+	@Test
+	void lockThroughputPerTrip() throws Exception {
+		int opsPerThread = 50_000;
+		AtomicLong granted = new AtomicLong();
+
+		long start = System.nanoTime();
+		runConcurrently(thread -> {
+			String user = "user-" + thread;
+			String session = "session-" + thread;
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			for (int i = 0; i < opsPerThread; i++) {
+				int seatId = random.nextInt(1, SEAT_COUNT + 1);
+				if (engine.hold(TRIP_ID, seatId, user, session, 5).isSuccess()) {
+					granted.incrementAndGet();
+					engine.release(TRIP_ID, seatId, user, session);
+				}
+			}
+		});
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+		long attempts = (long) opsPerThread * THREADS;
+		log.info("Seat lock throughput on one trip: {} lock attempts/s ({} granted) with {} threads",
+				Math.round(attempts / seconds), granted.get(), THREADS);
+		assertThat(granted.get()).isPositive();
+	}
+
+	private void runConcurrently(ThreadBody body) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			futures.add(executor.submit(() -> {
+				start.await();
+				body.run(thread);
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+	}
+
+	@FunctionalInterface
+	private interface ThreadBody {
+		void run(int thread);
+	}
+}
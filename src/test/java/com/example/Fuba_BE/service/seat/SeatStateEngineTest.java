@@ -0,0 +1,92 @@
+package com.example.Fuba_BE.service.seat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.Fuba_BE.domain.entity.Trip;
+import com.example.Fuba_BE.domain.entity.TripSeat;
+import com.example.Fuba_BE.repository.TripSeatRepository;
+import com.example.Fuba_BE.service.cluster.ClusterBus;
+import com.example.Fuba_BE.service.cluster.TripOwnership;
+
+/**
+ * A trip dropped while its seat transitions are still queued (the database was down) and then
+ * reloaded: the reloaded state's transitions must win over the stale queued ones.
+ */
+class SeatStateEngineTest {
+
+	private static final int TRIP_ID = 1;
+
+	private JdbcTemplate jdbcTemplate;
+	private SeatWriteBehind writeBehind;
+	private SeatStateEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		Trip trip = new Trip();
+		trip.setTripId(TRIP_ID);
+		List<TripSeat> seats = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) {
+			seats.add(TripSeat.builder().seatId(i).trip(trip).seatNumber("A" + i).status("Available").build());
+		}
+
+		TripSeatRepository repository = mock(TripSeatRepository.class);
+		when(repository.findByTrip_TripIdOrderByFloorNumberAscSeatNumberAsc(TRIP_ID)).thenReturn(seats);
+		jdbcTemplate = mock(JdbcTemplate.class);
+		writeBehind = new SeatWriteBehind(jdbcTemplate, mock(PlatformTransactionManager.class),
+				mock(SeatEngineScheduler.class), 200);
+		engine = new SeatStateEngine(repository, writeBehind, mock(SeatMapCache.class),
+				TripOwnership.standalone(), mock(ClusterBus.class));
+	}
+
+	@Test
+	void transitionsAfterAReloadOutrankWritesQueuedBeforeIt() throws Exception {
+		doThrow(new DataAccessResourceFailureException("database down"))
+				.when(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+		// Stamps of the first load run well ahead of the fresh state's
+		for (int i = 0; i < 10; i++) {
+			engine.hold(TRIP_ID, 2, "u1", "s1", 5);
+			engine.release(TRIP_ID, 2, "u1", "s1");
+		}
+		engine.hold(TRIP_ID, 1, "u1", "s1", 5);
+
+		// The flush before the drop fails, so the holds stay queued
+		engine.evictAfterCommit(TRIP_ID);
+		assertThat(engine.getResidentTripCount()).isZero();
+		assertThat(engine.getPendingWriteCount()).isEqualTo(2);
+
+		// Reloaded from the rows, which never saw the holds
+		assertThat(engine.hold(TRIP_ID, 1, "u2", "s2", 5).isSuccess()).isTrue();
+		engine.release(TRIP_ID, 1, "u2", "s2");
+
+		reset(jdbcTemplate);
+		writeBehind.flushAll();
+		ArgumentCaptor<BatchPreparedStatementSetter> batch = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+		verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+		assertThat(batch.getValue().getBatchSize()).isEqualTo(2);
+
+		// Seat 1 ends Available, as released after the reload, not Held by the stale write
+		PreparedStatement seatOne = mock(PreparedStatement.class);
+		batch.getValue().setValues(seatOne, 0);
+		verify(seatOne).setString(1, "Available");
+		verify(seatOne).setInt(5, 1);
+	}
+}
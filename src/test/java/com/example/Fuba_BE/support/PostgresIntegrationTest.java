@@ -0,0 +1,150 @@
+package com.example.Fuba_BE.support;
+
+import java.sql.Statement;
+
+import org.flywaydb.core.api.callback.Callback;
+import org.flywaydb.core.api.callback.Context;
+import org.flywaydb.core.api.callback.Event;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Base of the tests that need the real schema: the whole application context on a Postgres
+ * database migrated by Flyway.
+ *
+ * The database is {@code FUBA_TEST_DB_URL} ({@code FUBA_TEST_DB_USERNAME} /
+ * {@code FUBA_TEST_DB_PASSWORD}, default postgres without password) when set, otherwise a
+ * Testcontainers Postgres started once per run. Without either the tests are skipped.
+ * All subclasses share one application context, including its scheduled jobs: tests create
+ * their own rows (see {@link TestFixtures}) and must not depend on the rest of the data.
+ * {@link RecordedSql} captures the statements Hibernate sends from a test's thread.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=none",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.Fuba_BE.support.RecordedSql",
+		"cloudinary.cloud-name=test",
+		"cloudinary.api-key=test",
+		"cloudinary.api-secret=test",
+		"app.jwt.secret=dGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQtdGVzdC1zZWNyZXQ=",
+		"app.jwt.expiration-ms=3600000",
+		"app.jwt.refresh-expiration-ms=86400000",
+		"app.mail.from=test@fuba.test",
+		"spring.mail.host=localhost",
+		"spring.mail.username=test",
+		"app.security.max-failed-attempts=5",
+		"app.security.lock-duration-minutes=15"
+})
+@ExtendWith(PostgresIntegrationTest.DatabaseAvailable.class)
+@Import(PostgresIntegrationTest.LegacySchema.class)
+public abstract class PostgresIntegrationTest {
+
+	private static final String URL = System.getenv("FUBA_TEST_DB_URL");
+
+	private static PostgreSQLContainer container;
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		if (URL != null && !URL.isBlank()) {
+			registry.add("spring.datasource.url", () -> URL);
+			registry.add("spring.datasource.username", () -> env("FUBA_TEST_DB_USERNAME", "postgres"));
+			registry.add("spring.datasource.password", () -> env("FUBA_TEST_DB_PASSWORD", ""));
+			return;
+		}
+		PostgreSQLContainer postgres = container();
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+	}
+
+	private static synchronized PostgreSQLContainer container() {
+		if (container == null) {
+			container = new PostgreSQLContainer("postgres:16-alpine");
+			// Stopped by Testcontainers' reaper when the test JVM exits
+			container.start();
+		}
+		return container;
+	}
+
+	private static String env(String name, String defaultValue) {
+		String value = System.getenv(name);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Skips the tests when there is neither a configured database nor Docker.
+	 */
+	static class DatabaseAvailable implements ExecutionCondition {
+
+		@Override
+		public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+			if (URL != null && !URL.isBlank()) {
+				return ConditionEvaluationResult.enabled("FUBA_TEST_DB_URL is set");
+			}
+			if (DockerClientFactory.instance().isDockerAvailable()) {
+				return ConditionEvaluationResult.enabled("Docker is available");
+			}
+			return ConditionEvaluationResult.disabled("Neither FUBA_TEST_DB_URL nor Docker is available");
+		}
+	}
+
+	/**
+	 * Makes a database created by the migrations match the one the application runs against.
+	 *
+	 * V9 inserts a second admin with the phone number V1's admin already has, V1's checks
+	 * and seat trigger still use the Vietnamese statuses the application no longer writes
+	 * (bookings 'Held'/'Paid'/'Expired', seats 'Used'; a new ticket would mark its seat 'Đã đặt'),
+	 * and {@code trips.subdriverid} only exists where Hibernate's ddl-auto created it.
+	 */
+	@TestConfiguration(proxyBeanMethods = false)
+	static class LegacySchema {
+
+		@Bean
+		Callback legacySchemaCallback() {
+			return new Callback() {
+				@Override
+				public boolean supports(Event event, Context context) {
+					return event == Event.BEFORE_EACH_MIGRATE || event == Event.AFTER_MIGRATE;
+				}
+
+				@Override
+				public boolean canHandleInTransaction(Event event, Context context) {
+					return true;
+				}
+
+				@Override
+				public void handle(Event event, Context context) {
+					try (Statement statement = context.getConnection().createStatement()) {
+						if (event == Event.BEFORE_EACH_MIGRATE) {
+							if ("9".equals(context.getMigrationInfo().getVersion().getVersion())) {
+								statement.execute("UPDATE users SET phonenumber = '0900000001' "
+										+ "WHERE email = 'admin@busticket.com' AND phonenumber = '0900000000'");
+							}
+							return;
+						}
+						statement.execute("ALTER TABLE bookings DROP CONSTRAINT IF EXISTS bookings_bookingstatus_check");
+						statement.execute("ALTER TABLE tripseats DROP CONSTRAINT IF EXISTS tripseats_status_check");
+						statement.execute("DROP TRIGGER IF EXISTS trg_update_seat_status ON tickets");
+						statement.execute("ALTER TABLE trips ADD COLUMN IF NOT EXISTS subdriverid INTEGER REFERENCES drivers(driverid)");
+					} catch (Exception e) {
+						throw new IllegalStateException("Failed to align the test schema: " + e.getMessage(), e);
+					}
+				}
+
+				@Override
+				public String getCallbackName() {
+					return "legacySchema";
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.example.Fuba_BE.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL Hibernate sends from the current thread between {@link #start()} and
+ * {@link #stop()}; registered for the whole test context by {@link PostgresIntegrationTest}.
+ * Per thread, so the application's scheduled jobs don't show up in a test's statements.
+ */
+public class RecordedSql implements StatementInspector {
+
+	private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+	public static void start() {
+		STATEMENTS.set(new ArrayList<>());
+	}
+
+	public static List<String> stop() {
+		List<String> statements = STATEMENTS.get();
+		STATEMENTS.remove();
+		return statements != null ? statements : List.of();
+	}
+
+	@Override
+	public String inspect(String sql) {
+		List<String> statements = STATEMENTS.get();
+		if (statements != null) {
+			statements.add(sql);
+		}
+		return sql;
+	}
+}
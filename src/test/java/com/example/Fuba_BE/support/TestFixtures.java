@@ -0,0 +1,135 @@
+package com.example.Fuba_BE.support;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Rows for integration tests, written with plain SQL so a test doesn't depend on the services it
+ * exercises. Every name, code and phone number is unique, so fixtures of different tests and
+ * runs never collide on the shared database.
+ */
+public class TestFixtures {
+
+	// Starts from the clock so rows left by earlier runs on the same database don't collide
+	private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() * 1000);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public TestFixtures(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	public static long unique() {
+		return SEQUENCE.incrementAndGet();
+	}
+
+	public int user() {
+		long n = unique();
+		return jdbcTemplate.queryForObject("""
+				INSERT INTO users (fullname, email, phonenumber, password, roleid, status)
+				SELECT ?, ?, ?, 'x', roleid, 'Active' FROM roles ORDER BY roleid LIMIT 1
+				RETURNING userid
+				""", Integer.class, "Khách " + n, "user" + n + "@fuba.test", String.valueOf(n));
+	}
+
+	public int location() {
+		long n = unique();
+		return jdbcTemplate.queryForObject(
+				"INSERT INTO locations (locationname, province) VALUES (?, ?) RETURNING locationid",
+				Integer.class, "Bến xe " + n, "Tỉnh " + n);
+	}
+
+	public int route() {
+		return route(location(), location());
+	}
+
+	public int route(int originId, int destinationId) {
+		return jdbcTemplate.queryForObject("""
+				INSERT INTO routes (routename, originid, destinationid, distance, estimatedduration, status)
+				VALUES (?, ?, ?, 300, 360, 'Active') RETURNING routeid
+				""", Integer.class, "Tuyến " + unique(), originId, destinationId);
+	}
+
+	public int vehicle() {
+		long n = unique();
+		int typeId = jdbcTemplate.queryForObject(
+				"INSERT INTO vehicletypes (typename, totalseats) VALUES (?, 40) RETURNING typeid",
+				Integer.class, "Giường nằm " + n);
+		return jdbcTemplate.queryForObject(
+				"INSERT INTO vehicles (licenseplate, typeid, status) VALUES (?, ?, 'Operational') RETURNING vehicleid",
+				Integer.class, "51B-" + n, typeId);
+	}
+
+	public int driver() {
+		return jdbcTemplate.queryForObject("""
+				INSERT INTO drivers (userid, driverlicense, dateofbirth, licenseexpiry)
+				VALUES (?, ?, DATE '1985-01-01', CURRENT_DATE + 3650) RETURNING driverid
+				""", Integer.class, user(), "GPLX-" + unique());
+	}
+
+	public int trip(int routeId, LocalDateTime departure) {
+		return trip(routeId, departure, BigDecimal.valueOf(250_000), "Waiting");
+	}
+
+	public int trip(int routeId, LocalDateTime departure, BigDecimal basePrice, String status) {
+		return jdbcTemplate.queryForObject("""
+				INSERT INTO trips (routeid, vehicleid, driverid, departuretime, arrivaltime, baseprice, status)
+				VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING tripid
+				""", Integer.class, routeId, vehicle(), driver(), Timestamp.valueOf(departure),
+				Timestamp.valueOf(departure.plusHours(6)), basePrice, status);
+	}
+
+	public List<Integer> seats(int tripId, int count) {
+		List<Integer> seatIds = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			seatIds.add(jdbcTemplate.queryForObject(
+					"INSERT INTO tripseats (tripid, seatnumber, status) VALUES (?, ?, 'Available') RETURNING seatid",
+					Integer.class, tripId, "A" + String.format("%02d", i)));
+		}
+		return seatIds;
+	}
+
+	/**
+	 * A booking with one ticket per seat; Held/Pending bookings hold their seats, Paid ones book them.
+	 */
+	public int booking(int tripId, Integer customerId, String status, LocalDateTime holdExpiry, List<Integer> seatIds) {
+		long n = unique();
+		int bookingId = jdbcTemplate.queryForObject("""
+				INSERT INTO bookings (bookingcode, customerid, customername, customerphone, tripid, totalamount,
+									  bookingstatus, holdexpiry)
+				VALUES (?, ?, ?, ?, ?, ?, ?, ?) RETURNING bookingid
+				""", Integer.class, "BK" + n, customerId, "Khách " + n, String.valueOf(n), tripId,
+				BigDecimal.valueOf(250_000L * Math.max(1, seatIds.size())), status, Timestamp.valueOf(holdExpiry));
+		String seatStatus = "Paid".equals(status) ? "Booked" : "Held";
+		for (Integer seatId : seatIds) {
+			jdbcTemplate.update(
+					"INSERT INTO tickets (bookingid, seatid, price, ticketcode) VALUES (?, ?, 250000, ?)",
+					bookingId, seatId, "TK" + unique());
+			jdbcTemplate.update("UPDATE tripseats SET status = ?, lockedby = ?, holdexpiry = ? WHERE seatid = ?",
+					seatStatus, holder(customerId), "Held".equals(seatStatus) ? Timestamp.valueOf(holdExpiry) : null,
+					seatId);
+		}
+		return bookingId;
+	}
+
+	/**
+	 * The seat engine's holder id of a customer's seats.
+	 */
+	public static String holder(Integer customerId) {
+		return customerId != null ? String.valueOf(customerId) : "guest";
+	}
+
+	public String bookingStatus(int bookingId) {
+		return jdbcTemplate.queryForObject("SELECT bookingstatus FROM bookings WHERE bookingid = ?", String.class, bookingId);
+	}
+
+	public String seatStatus(int seatId) {
+		return jdbcTemplate.queryForObject("SELECT status FROM tripseats WHERE seatid = ?", String.class, seatId);
+	}
+}